@@ -0,0 +1,145 @@
+package com.github.gaiadr2.avro.io;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A {@link java.util.List} of {@code double} values stored in a primitive array.
+ *
+ * The generated records expose {@code array<double>} fields as {@code List<Double>}. Populating them with this
+ * class instead of an {@link java.util.ArrayList} stores each value in 8 bytes rather than in a boxed
+ * {@link Double}, and the {@code *Double} accessors let callers read and write values without boxing at all.
+ * {@link PrimitiveArrayDatumReader} and {@link PrimitiveArrayDatumWriter} use them to (de)serialise the
+ * arrays directly, reusing the instances of a record passed for reuse.
+ */
+public final class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+    private static final double[] EMPTY = {};
+
+    private double[] elements;
+    private int size;
+
+    public DoubleList() {
+        elements = EMPTY;
+    }
+
+    /**
+     * @param capacity Initial capacity
+     */
+    public DoubleList(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        elements = capacity == 0 ? EMPTY : new double[capacity];
+    }
+
+    /**
+     * @param values Values to copy
+     * @param length Number of values to copy, from the start of the array
+     * @return A new list holding a copy of the values
+     */
+    public static DoubleList copyOf(final double[] values, final int length) {
+        final DoubleList list = new DoubleList();
+        list.elements = Arrays.copyOf(values, length);
+        list.size = length;
+        return list;
+    }
+
+    /**
+     * @param index Position of the value
+     * @return The value, unboxed
+     */
+    public double getDouble(final int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    /**
+     * @param index Position of the value
+     * @param value New value
+     * @return The previous value
+     */
+    public double setDouble(final int index, final double value) {
+        checkIndex(index);
+        final double previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    /**
+     * @param value Value to append
+     */
+    public void addDouble(final double value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    /**
+     * @param capacity Minimum number of values the list can hold without growing
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(capacity, Math.max(8, elements.length * 2)));
+        }
+    }
+
+    /**
+     * @return A copy of the values
+     */
+    public double[] toDoubleArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Double get(final int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public Double set(final int index, final Double value) {
+        return setDouble(index, value);
+    }
+
+    @Override
+    public void add(final int index, final Double value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Double remove(final int index) {
+        checkIndex(index);
+        final double previous = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    /**
+     * Empty the list, retaining its capacity
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
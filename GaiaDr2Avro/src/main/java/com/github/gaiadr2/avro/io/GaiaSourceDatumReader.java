@@ -0,0 +1,196 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.source.AstroPar;
+import com.github.gaiadr2.avro.source.AstroParamSolved;
+import com.github.gaiadr2.avro.source.AstroParams;
+import com.github.gaiadr2.avro.source.AstrometryMetadata;
+import com.github.gaiadr2.avro.source.BandPhot;
+import com.github.gaiadr2.avro.source.ColourInfo;
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.OptAstro;
+import com.github.gaiadr2.avro.source.PhotMode;
+import com.github.gaiadr2.avro.source.RotatorObjectType;
+import com.github.gaiadr2.avro.source.Rvs;
+import com.github.gaiadr2.avro.source.VarFlag;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.specific.SpecificDatumReader;
+
+import java.io.IOException;
+
+import static com.github.gaiadr2.avro.io.GaiaSourceDatumWriter.NULL_BRANCH;
+
+/**
+ * Hand-written {@link DatumReader} for {@link GaiaSource} records, the counterpart of
+ * {@link GaiaSourceDatumWriter}.
+ *
+ * Fields are decoded in schema order straight into the record fields, without schema resolution nor boxing.
+ * The nested records of a record passed for reuse are reused as well. Data written with any other schema
+ * than the one generated with the classes is handed over to a {@link SpecificDatumReader}.
+ */
+@SuppressWarnings("deprecation")
+public final class GaiaSourceDatumReader implements DatumReader<GaiaSource> {
+
+    private static final AstroParamSolved[] PARAM_SOLVED = AstroParamSolved.values();
+    private static final RotatorObjectType[] ROTATOR_TYPES = RotatorObjectType.values();
+    static final PhotMode[] PHOT_MODES = PhotMode.values();
+    static final VarFlag[] VAR_FLAGS = VarFlag.values();
+
+    /** Reader used when the data was not written with the generated schema */
+    private DatumReader<GaiaSource> fallback;
+
+    @Override
+    public void setSchema(final Schema schema) {
+        fallback = GaiaSource.getClassSchema().equals(schema) ?
+                null :
+                new SpecificDatumReader<>(schema, GaiaSource.getClassSchema());
+    }
+
+    @Override
+    public GaiaSource read(final GaiaSource reuse, final Decoder in) throws IOException {
+        if (fallback != null) {
+            return fallback.read(reuse, in);
+        }
+        final GaiaSource datum = reuse == null ? new GaiaSource() : reuse;
+        datum.solutionId = in.readLong();
+        datum.sourceId = in.readLong();
+        datum.randomIndex = in.readLong();
+        datum.basicAstrometry = read(datum.basicAstrometry, in);
+        datum.fullAstrometry = isPresent(in) ? read(datum.fullAstrometry, in) : null;
+        datum.astroMeta = read(datum.astroMeta, in);
+        datum.matchedObservations = in.readInt();
+        datum.duplicated = in.readBoolean();
+        datum.gPhot = read(datum.gPhot, in);
+        datum.bpPhot = isPresent(in) ? read(datum.bpPhot, in) : null;
+        datum.rpPhot = isPresent(in) ? read(datum.rpPhot, in) : null;
+        datum.colourInfo = read(datum.colourInfo, in);
+        datum.photMode = PHOT_MODES[in.readEnum()];
+        datum.varFlag = VAR_FLAGS[in.readEnum()];
+        datum.radialVelocity = isPresent(in) ? read(datum.radialVelocity, in) : null;
+        datum.astrophysicalParameters = isPresent(in) ? read(datum.astrophysicalParameters, in) : null;
+        return datum;
+    }
+
+    /**
+     * @param in Decoder positioned on the branch index of an optional union
+     * @return {@code true} when the union holds a value
+     * @throws IOException When the branch index is invalid
+     */
+    static boolean isPresent(final Decoder in) throws IOException {
+        final int branch = in.readIndex();
+        if (branch != NULL_BRANCH && branch != GaiaSourceDatumWriter.VALUE_BRANCH) {
+            throw new AvroTypeException("Invalid union branch: " + branch);
+        }
+        return branch != NULL_BRANCH;
+    }
+
+    static Dval read(final Dval reuse, final Decoder in) throws IOException {
+        final Dval dval = reuse == null ? new Dval() : reuse;
+        dval.value = in.readDouble();
+        dval.uncertainty = in.readDouble();
+        return dval;
+    }
+
+    static CoreAstro read(final CoreAstro reuse, final Decoder in) throws IOException {
+        final CoreAstro astro = reuse == null ? new CoreAstro() : reuse;
+        astro.refEpoch = in.readDouble();
+        astro.ra = read(astro.ra, in);
+        astro.dec = read(astro.dec, in);
+        astro.correlationRaDec = in.readFloat();
+        astro.longGal = in.readDouble();
+        astro.latGal = in.readDouble();
+        astro.longEcl = in.readDouble();
+        astro.latEcl = in.readDouble();
+        return astro;
+    }
+
+    static OptAstro read(final OptAstro reuse, final Decoder in) throws IOException {
+        final OptAstro astro = reuse == null ? new OptAstro() : reuse;
+        astro.parallax = read(astro.parallax, in);
+        astro.pmRa = read(astro.pmRa, in);
+        astro.pmDec = read(astro.pmDec, in);
+        astro.correlationRaParallax = in.readFloat();
+        astro.correlationRaPmRa = in.readFloat();
+        astro.correlationRaPmDec = in.readFloat();
+        astro.correlationDecParallax = in.readFloat();
+        astro.correlationDecPmRa = in.readFloat();
+        astro.correlationDecPmDec = in.readFloat();
+        astro.correlationParallaxPmRa = in.readFloat();
+        astro.correlationParallaxPmDec = in.readFloat();
+        astro.correlationPmRaPmDec = in.readFloat();
+        return astro;
+    }
+
+    static AstrometryMetadata read(final AstrometryMetadata reuse, final Decoder in) throws IOException {
+        final AstrometryMetadata meta = reuse == null ? new AstrometryMetadata() : reuse;
+        meta.numObsAl = in.readInt();
+        meta.numObsAc = in.readInt();
+        meta.numGoodObsAl = in.readInt();
+        meta.numBadObsAl = in.readInt();
+        meta.gofAl = in.readFloat();
+        meta.chi2Al = in.readFloat();
+        meta.excessNoise = in.readDouble();
+        meta.excessNoiseSignificance = in.readDouble();
+        meta.paramSolved = PARAM_SOLVED[in.readEnum()];
+        meta.isPrimary = in.readBoolean();
+        meta.weightAl = in.readFloat();
+        meta.pseudoColour = isPresent(in) ? read(meta.pseudoColour, in) : null;
+        meta.varpiFactorAl = in.readFloat();
+        meta.matchedObservations = in.readInt();
+        meta.visibilityPeriodsUsed = in.readInt();
+        meta.sigma5dMax = in.readFloat();
+        meta.rotObjType = ROTATOR_TYPES[in.readEnum()];
+        return meta;
+    }
+
+    static BandPhot read(final BandPhot reuse, final Decoder in) throws IOException {
+        final BandPhot phot = reuse == null ? new BandPhot() : reuse;
+        phot.numObs = in.readInt();
+        phot.flux = read(phot.flux, in);
+        phot.mag = in.readFloat();
+        return phot;
+    }
+
+    static ColourInfo read(final ColourInfo reuse, final Decoder in) throws IOException {
+        final ColourInfo colour = reuse == null ? new ColourInfo() : reuse;
+        colour.bpRpExcessFactor = isPresent(in) ? in.readFloat() : null;
+        colour.bp_rp = isPresent(in) ? in.readFloat() : null;
+        colour.bp_g = isPresent(in) ? in.readFloat() : null;
+        colour.rp_g = isPresent(in) ? in.readFloat() : null;
+        return colour;
+    }
+
+    static Rvs read(final Rvs reuse, final Decoder in) throws IOException {
+        final Rvs rvs = reuse == null ? new Rvs() : reuse;
+        rvs.radVel = read(rvs.radVel, in);
+        rvs.transitUsed = in.readInt();
+        rvs.templateTeff = in.readFloat();
+        rvs.templateLogg = in.readFloat();
+        rvs.templateFeH = in.readFloat();
+        return rvs;
+    }
+
+    static AstroParams read(final AstroParams reuse, final Decoder in) throws IOException {
+        final AstroParams params = reuse == null ? new AstroParams() : reuse;
+        params.priamFlags = in.readLong();
+        params.flameFlags = in.readLong();
+        params.effectiveTemperature = read(params.effectiveTemperature, in);
+        params.extinction = read(params.extinction, in);
+        params.reddening = read(params.reddening, in);
+        params.radius = read(params.radius, in);
+        params.luminosity = read(params.luminosity, in);
+        return params;
+    }
+
+    static AstroPar read(final AstroPar reuse, final Decoder in) throws IOException {
+        final AstroPar par = reuse == null ? new AstroPar() : reuse;
+        par.value = in.readFloat();
+        par.percentileLower = in.readFloat();
+        par.percentileUpper = in.readFloat();
+        return par;
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.source.AstroPar;
+import com.github.gaiadr2.avro.source.AstroParams;
+import com.github.gaiadr2.avro.source.AstrometryMetadata;
+import com.github.gaiadr2.avro.source.BandPhot;
+import com.github.gaiadr2.avro.source.ColourInfo;
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.OptAstro;
+import com.github.gaiadr2.avro.source.Rvs;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.Encoder;
+
+import java.io.IOException;
+
+/**
+ * Hand-written {@link DatumWriter} for {@link GaiaSource} records.
+ *
+ * The generic {@link org.apache.avro.specific.SpecificDatumWriter} walks the schema for every record and
+ * fetches each field through {@code get(int)}, boxing every primitive. This writer encodes the fields of the
+ * {@code Source.avdl} record tree in schema order, straight from the record fields, and produces exactly the
+ * same bytes. It only supports the schema generated with the classes.
+ */
+@SuppressWarnings("deprecation")
+public final class GaiaSourceDatumWriter implements DatumWriter<GaiaSource> {
+
+    /** Branch of an optional union holding {@code null} */
+    static final int NULL_BRANCH = 0;
+
+    /** Branch of an optional union holding the value */
+    static final int VALUE_BRANCH = 1;
+
+    @Override
+    public void setSchema(final Schema schema) {
+        if (!GaiaSource.getClassSchema().equals(schema)) {
+            throw new IllegalArgumentException("Only the GaiaSource schema is supported, but was: " + schema.getFullName());
+        }
+    }
+
+    @Override
+    public void write(final GaiaSource datum, final Encoder out) throws IOException {
+        out.writeLong(datum.solutionId);
+        out.writeLong(datum.sourceId);
+        out.writeLong(datum.randomIndex);
+        write(datum.basicAstrometry, out);
+        if (datum.fullAstrometry == null) {
+            out.writeIndex(NULL_BRANCH);
+        } else {
+            out.writeIndex(VALUE_BRANCH);
+            write(datum.fullAstrometry, out);
+        }
+        write(datum.astroMeta, out);
+        out.writeInt(datum.matchedObservations);
+        out.writeBoolean(datum.duplicated);
+        write(datum.gPhot, out);
+        writeOptional(datum.bpPhot, out);
+        writeOptional(datum.rpPhot, out);
+        write(datum.colourInfo, out);
+        out.writeEnum(datum.photMode.ordinal());
+        out.writeEnum(datum.varFlag.ordinal());
+        if (datum.radialVelocity == null) {
+            out.writeIndex(NULL_BRANCH);
+        } else {
+            out.writeIndex(VALUE_BRANCH);
+            write(datum.radialVelocity, out);
+        }
+        if (datum.astrophysicalParameters == null) {
+            out.writeIndex(NULL_BRANCH);
+        } else {
+            out.writeIndex(VALUE_BRANCH);
+            write(datum.astrophysicalParameters, out);
+        }
+    }
+
+    private static void write(final Dval dval, final Encoder out) throws IOException {
+        out.writeDouble(dval.value);
+        out.writeDouble(dval.uncertainty);
+    }
+
+    private static void write(final CoreAstro astro, final Encoder out) throws IOException {
+        out.writeDouble(astro.refEpoch);
+        write(astro.ra, out);
+        write(astro.dec, out);
+        out.writeFloat(astro.correlationRaDec);
+        out.writeDouble(astro.longGal);
+        out.writeDouble(astro.latGal);
+        out.writeDouble(astro.longEcl);
+        out.writeDouble(astro.latEcl);
+    }
+
+    private static void write(final OptAstro astro, final Encoder out) throws IOException {
+        write(astro.parallax, out);
+        write(astro.pmRa, out);
+        write(astro.pmDec, out);
+        out.writeFloat(astro.correlationRaParallax);
+        out.writeFloat(astro.correlationRaPmRa);
+        out.writeFloat(astro.correlationRaPmDec);
+        out.writeFloat(astro.correlationDecParallax);
+        out.writeFloat(astro.correlationDecPmRa);
+        out.writeFloat(astro.correlationDecPmDec);
+        out.writeFloat(astro.correlationParallaxPmRa);
+        out.writeFloat(astro.correlationParallaxPmDec);
+        out.writeFloat(astro.correlationPmRaPmDec);
+    }
+
+    private static void write(final AstrometryMetadata meta, final Encoder out) throws IOException {
+        out.writeInt(meta.numObsAl);
+        out.writeInt(meta.numObsAc);
+        out.writeInt(meta.numGoodObsAl);
+        out.writeInt(meta.numBadObsAl);
+        out.writeFloat(meta.gofAl);
+        out.writeFloat(meta.chi2Al);
+        out.writeDouble(meta.excessNoise);
+        out.writeDouble(meta.excessNoiseSignificance);
+        out.writeEnum(meta.paramSolved.ordinal());
+        out.writeBoolean(meta.isPrimary);
+        out.writeFloat(meta.weightAl);
+        if (meta.pseudoColour == null) {
+            out.writeIndex(NULL_BRANCH);
+        } else {
+            out.writeIndex(VALUE_BRANCH);
+            write(meta.pseudoColour, out);
+        }
+        out.writeFloat(meta.varpiFactorAl);
+        out.writeInt(meta.matchedObservations);
+        out.writeInt(meta.visibilityPeriodsUsed);
+        out.writeFloat(meta.sigma5dMax);
+        out.writeEnum(meta.rotObjType.ordinal());
+    }
+
+    private static void write(final BandPhot phot, final Encoder out) throws IOException {
+        out.writeInt(phot.numObs);
+        write(phot.flux, out);
+        out.writeFloat(phot.mag);
+    }
+
+    private static void writeOptional(final BandPhot phot, final Encoder out) throws IOException {
+        if (phot == null) {
+            out.writeIndex(NULL_BRANCH);
+        } else {
+            out.writeIndex(VALUE_BRANCH);
+            write(phot, out);
+        }
+    }
+
+    private static void write(final ColourInfo colour, final Encoder out) throws IOException {
+        writeOptional(colour.bpRpExcessFactor, out);
+        writeOptional(colour.bp_rp, out);
+        writeOptional(colour.bp_g, out);
+        writeOptional(colour.rp_g, out);
+    }
+
+    private static void writeOptional(final Float value, final Encoder out) throws IOException {
+        if (value == null) {
+            out.writeIndex(NULL_BRANCH);
+        } else {
+            out.writeIndex(VALUE_BRANCH);
+            out.writeFloat(value);
+        }
+    }
+
+    private static void write(final Rvs rvs, final Encoder out) throws IOException {
+        write(rvs.radVel, out);
+        out.writeInt(rvs.transitUsed);
+        out.writeFloat(rvs.templateTeff);
+        out.writeFloat(rvs.templateLogg);
+        out.writeFloat(rvs.templateFeH);
+    }
+
+    private static void write(final AstroParams params, final Encoder out) throws IOException {
+        out.writeLong(params.priamFlags);
+        out.writeLong(params.flameFlags);
+        write(params.effectiveTemperature, out);
+        write(params.extinction, out);
+        write(params.reddening, out);
+        write(params.radius, out);
+        write(params.luminosity, out);
+    }
+
+    private static void write(final AstroPar par, final Encoder out) throws IOException {
+        out.writeFloat(par.value);
+        out.writeFloat(par.percentileLower);
+        out.writeFloat(par.percentileUpper);
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.gaiadr2.avro.io;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.avro.specific.SpecificDatumReader;
+
+import java.io.IOException;
+
+/**
+ * A {@link SpecificDatumReader} decoding {@code array<double>} fields into {@link DoubleList} instances.
+ *
+ * Values are read straight into the primitive backing array. When a record is passed for reuse to
+ * {@link #read(Object, org.apache.avro.io.Decoder)}, its lists are cleared and refilled, so reading a
+ * file of time series allocates neither boxed values nor new arrays once the buffers have grown.
+ */
+public class PrimitiveArrayDatumReader<T> extends SpecificDatumReader<T> {
+
+    /**
+     * @param type Class of the records to read
+     */
+    public PrimitiveArrayDatumReader(final Class<T> type) {
+        super(type);
+    }
+
+    /**
+     * @param writer Schema the data was written with
+     * @param reader Schema of the records to produce
+     */
+    public PrimitiveArrayDatumReader(final Schema writer, final Schema reader) {
+        super(writer, reader);
+    }
+
+    @Override
+    protected Object readArray(final Object old, final Schema expected, final ResolvingDecoder in) throws IOException {
+        if (expected.getElementType().getType() != Schema.Type.DOUBLE) {
+            return super.readArray(old, expected, in);
+        }
+        final DoubleList list = old instanceof DoubleList ? (DoubleList) old : new DoubleList();
+        list.clear();
+        for (long count = in.readArrayStart(); count > 0; count = in.arrayNext()) {
+            list.ensureCapacity((int) (list.size() + count));
+            for (long i = 0; i < count; i++) {
+                list.addDouble(in.readDouble());
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.gaiadr2.avro.io;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import java.io.IOException;
+
+/**
+ * A {@link SpecificDatumWriter} encoding {@code array<double>} fields held in {@link DoubleList} instances
+ * directly from their primitive backing array, without boxing. Other lists are written as usual, and the
+ * encoded bytes are identical in both cases.
+ */
+public class PrimitiveArrayDatumWriter<T> extends SpecificDatumWriter<T> {
+
+    /**
+     * @param type Class of the records to write
+     */
+    public PrimitiveArrayDatumWriter(final Class<T> type) {
+        super(type);
+    }
+
+    /**
+     * @param schema Schema of the records to write
+     */
+    public PrimitiveArrayDatumWriter(final Schema schema) {
+        super(schema);
+    }
+
+    @Override
+    protected void writeArray(final Schema schema, final Object datum, final Encoder out) throws IOException {
+        if (!(datum instanceof DoubleList) || schema.getElementType().getType() != Schema.Type.DOUBLE) {
+            super.writeArray(schema, datum, out);
+            return;
+        }
+        final DoubleList list = (DoubleList) datum;
+        final int size = list.size();
+        out.writeArrayStart();
+        out.setItemCount(size);
+        for (int i = 0; i < size; i++) {
+            out.startItem();
+            out.writeDouble(list.getDouble(i));
+        }
+        out.writeArrayEnd();
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.specific.SpecificDatumReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.gaiadr2.avro.io.GaiaSourceDatumReader.PHOT_MODES;
+import static com.github.gaiadr2.avro.io.GaiaSourceDatumReader.VAR_FLAGS;
+import static com.github.gaiadr2.avro.io.GaiaSourceDatumReader.isPresent;
+
+/**
+ * A {@link DatumReader} decoding only a subset of the top-level {@link GaiaSource} fields.
+ *
+ * The requested fields define a pruned reader schema (see {@link #getProjectedSchema()}). The writer schema
+ * is compiled against it: requested fields are decoded as by {@link GaiaSourceDatumReader}, while each run of
+ * consecutive unrequested fields is skipped at the byte level by a {@link SchemaSkipper}, without creating
+ * any object. Unrequested fields of the returned records are left {@code null} (or zero for primitives).
+ *
+ * Use with container files as {@code new DataFileReader<>(file, new ProjectedGaiaSourceReader(fields))}.
+ */
+@SuppressWarnings("deprecation")
+public final class ProjectedGaiaSourceReader implements DatumReader<GaiaSource> {
+
+    private final Schema projected;
+    private final Set<String> fields;
+
+    /** Decoding plan compiled against the writer schema */
+    private Step[] steps;
+
+    /** Reader used when the data was not written with the generated schema */
+    private DatumReader<GaiaSource> fallback;
+
+    /** Resets all the unrequested fields, after a fallback read */
+    private final Skip unrequested;
+
+    /**
+     * @param fields Names of the top-level {@link GaiaSource} fields to decode
+     */
+    public ProjectedGaiaSourceReader(final Collection<String> fields) {
+        final Schema full = GaiaSource.getClassSchema();
+        this.fields = new HashSet<>(fields);
+        for (final String field : this.fields) {
+            if (full.getField(field) == null) {
+                throw new IllegalArgumentException("Unknown GaiaSource field: " + field);
+            }
+        }
+        final List<Schema.Field> kept = new ArrayList<>();
+        for (final Schema.Field field : full.getFields()) {
+            if (this.fields.contains(field.name())) {
+                kept.add(new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()));
+            }
+        }
+        projected = Schema.createRecord(full.getName(), full.getDoc(), full.getNamespace(), false, kept);
+        final List<Schema.Field> others = new ArrayList<>(full.getFields());
+        others.removeIf(field -> this.fields.contains(field.name()));
+        unrequested = new Skip(null, others);
+        setSchema(full);
+    }
+
+    /**
+     * @return The pruned schema, holding only the requested fields
+     */
+    public Schema getProjectedSchema() {
+        return projected;
+    }
+
+    @Override
+    public void setSchema(final Schema writer) {
+        if (!GaiaSource.getClassSchema().equals(writer)) {
+            fallback = new SpecificDatumReader<>(writer, GaiaSource.getClassSchema());
+            steps = null;
+            return;
+        }
+        fallback = null;
+        final List<Step> plan = new ArrayList<>();
+        final List<Schema> skipped = new ArrayList<>();
+        final List<Schema.Field> cleared = new ArrayList<>();
+        for (final Schema.Field field : writer.getFields()) {
+            if (fields.contains(field.name())) {
+                if (!skipped.isEmpty()) {
+                    plan.add(new Skip(SchemaSkipper.compile(skipped), cleared));
+                    skipped.clear();
+                    cleared.clear();
+                }
+                plan.add(decoder(field.name()));
+            } else {
+                skipped.add(field.schema());
+                cleared.add(field);
+            }
+        }
+        if (!skipped.isEmpty()) {
+            plan.add(new Skip(SchemaSkipper.compile(skipped), cleared));
+        }
+        steps = plan.toArray(new Step[0]);
+    }
+
+    @Override
+    public GaiaSource read(final GaiaSource reuse, final Decoder in) throws IOException {
+        final GaiaSource datum;
+        if (fallback != null) {
+            datum = fallback.read(reuse, in);
+            unrequested.clear(datum);
+            return datum;
+        }
+        datum = reuse == null ? new GaiaSource() : reuse;
+        for (final Step step : steps) {
+            step.apply(datum, in);
+        }
+        return datum;
+    }
+
+    /**
+     * One decoding action of the plan
+     */
+    private interface Step {
+        void apply(final GaiaSource datum, final Decoder in) throws IOException;
+    }
+
+    /**
+     * Skips a run of unrequested fields, and resets them in the record being reused
+     */
+    private static final class Skip implements Step {
+
+        private final SchemaSkipper skipper;
+        private final int[] positions;
+        private final Object[] values;
+
+        /**
+         * @param skipper Skipper for the run of fields, {@code null} to only reset them
+         * @param fields Fields of the run
+         */
+        Skip(final SchemaSkipper skipper, final List<Schema.Field> fields) {
+            this.skipper = skipper;
+            positions = new int[fields.size()];
+            values = new Object[fields.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = fields.get(i).pos();
+                values[i] = emptyValue(fields.get(i).schema());
+            }
+        }
+
+        @Override
+        public void apply(final GaiaSource datum, final Decoder in) throws IOException {
+            skipper.skip(in);
+            clear(datum);
+        }
+
+        void clear(final GaiaSource datum) {
+            for (int i = 0; i < positions.length; i++) {
+                datum.put(positions[i], values[i]);
+            }
+        }
+
+        /**
+         * @param schema Schema of a top-level field
+         * @return The value of the field when not requested
+         */
+        private static Object emptyValue(final Schema schema) {
+            switch (schema.getType()) {
+                case LONG:
+                    return 0L;
+                case INT:
+                    return 0;
+                case BOOLEAN:
+                    return false;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * @param field Name of a top-level field
+     * @return The step decoding that field into the record
+     */
+    private static Step decoder(final String field) {
+        switch (field) {
+            case "solutionId":
+                return (d, in) -> d.solutionId = in.readLong();
+            case "sourceId":
+                return (d, in) -> d.sourceId = in.readLong();
+            case "randomIndex":
+                return (d, in) -> d.randomIndex = in.readLong();
+            case "basicAstrometry":
+                return (d, in) -> d.basicAstrometry = GaiaSourceDatumReader.read(d.basicAstrometry, in);
+            case "fullAstrometry":
+                return (d, in) -> d.fullAstrometry = isPresent(in) ? GaiaSourceDatumReader.read(d.fullAstrometry, in) : null;
+            case "astroMeta":
+                return (d, in) -> d.astroMeta = GaiaSourceDatumReader.read(d.astroMeta, in);
+            case "matchedObservations":
+                return (d, in) -> d.matchedObservations = in.readInt();
+            case "duplicated":
+                return (d, in) -> d.duplicated = in.readBoolean();
+            case "gPhot":
+                return (d, in) -> d.gPhot = GaiaSourceDatumReader.read(d.gPhot, in);
+            case "bpPhot":
+                return (d, in) -> d.bpPhot = isPresent(in) ? GaiaSourceDatumReader.read(d.bpPhot, in) : null;
+            case "rpPhot":
+                return (d, in) -> d.rpPhot = isPresent(in) ? GaiaSourceDatumReader.read(d.rpPhot, in) : null;
+            case "colourInfo":
+                return (d, in) -> d.colourInfo = GaiaSourceDatumReader.read(d.colourInfo, in);
+            case "photMode":
+                return (d, in) -> d.photMode = PHOT_MODES[in.readEnum()];
+            case "varFlag":
+                return (d, in) -> d.varFlag = VAR_FLAGS[in.readEnum()];
+            case "radialVelocity":
+                return (d, in) -> d.radialVelocity = isPresent(in) ? GaiaSourceDatumReader.read(d.radialVelocity, in) : null;
+            case "astrophysicalParameters":
+                return (d, in) -> d.astrophysicalParameters = isPresent(in) ? GaiaSourceDatumReader.read(d.astrophysicalParameters, in) : null;
+            default:
+                throw new IllegalArgumentException("Unknown GaiaSource field: " + field);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.gaiadr2.avro.io;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Skips over the binary encoding of a value without decoding it.
+ *
+ * The schema is compiled once into a list of steps in which consecutive fixed-size values (floats, doubles,
+ * booleans, fixed) are merged, so that e.g. a {@code CoreAstro} record is skipped with a single
+ * {@link Decoder#skipFixed(int)} call. Only variable-length values (varints, strings, unions, arrays) need
+ * to be looked at.
+ */
+abstract class SchemaSkipper {
+
+    /**
+     * @param in Decoder positioned at the start of a value
+     * @throws IOException When the value cannot be read
+     */
+    abstract void skip(final Decoder in) throws IOException;
+
+    /**
+     * @param schema Schema of the values to skip
+     * @return Skipper for the values of that schema
+     */
+    static SchemaSkipper compile(final Schema schema) {
+        return compile(Collections.singletonList(schema));
+    }
+
+    /**
+     * @param schemas Schemas of consecutive values to skip, such as adjacent record fields
+     * @return Skipper for the sequence of values
+     */
+    static SchemaSkipper compile(final List<Schema> schemas) {
+        final List<SchemaSkipper> steps = new ArrayList<>();
+        int run = 0;
+        for (final Schema schema : schemas) {
+            run = compile(schema, steps, run);
+        }
+        flush(steps, run);
+        return steps.size() == 1 ? steps.get(0) : new Sequence(steps);
+    }
+
+    /**
+     * @param schema Schema to compile
+     * @param steps Steps compiled so far
+     * @param pending Size of the fixed-size run preceding this value, not yet added to the steps
+     * @return Size of the fixed-size run following this value, not yet added to the steps
+     */
+    private static int compile(final Schema schema, final List<SchemaSkipper> steps, final int pending) {
+        switch (schema.getType()) {
+            case NULL:
+                return pending;
+            case BOOLEAN:
+                return pending + 1;
+            case FLOAT:
+                return pending + 4;
+            case DOUBLE:
+                return pending + 8;
+            case FIXED:
+                return pending + schema.getFixedSize();
+            case RECORD:
+                int run = pending;
+                for (final Schema.Field field : schema.getFields()) {
+                    run = compile(field.schema(), steps, run);
+                }
+                return run;
+            case INT:
+            case LONG:
+            case ENUM:
+                flush(steps, pending);
+                steps.add(Varint.INSTANCE);
+                return 0;
+            case STRING:
+            case BYTES:
+                flush(steps, pending);
+                steps.add(Bytes.INSTANCE);
+                return 0;
+            case UNION:
+                flush(steps, pending);
+                final SchemaSkipper[] branches = new SchemaSkipper[schema.getTypes().size()];
+                for (int i = 0; i < branches.length; i++) {
+                    branches[i] = compile(schema.getTypes().get(i));
+                }
+                steps.add(new Union(branches));
+                return 0;
+            case ARRAY:
+                flush(steps, pending);
+                final SchemaSkipper element = compile(schema.getElementType());
+                steps.add(element instanceof Fixed ? new FixedArray(((Fixed) element).size) : new Array(element));
+                return 0;
+            case MAP:
+                flush(steps, pending);
+                steps.add(new MapValues(compile(schema.getValueType())));
+                return 0;
+            default:
+                throw new IllegalArgumentException("Unsupported schema type: " + schema.getType());
+        }
+    }
+
+    private static void flush(final List<SchemaSkipper> steps, final int fixedSize) {
+        if (fixedSize > 0) {
+            steps.add(new Fixed(fixedSize));
+        }
+    }
+
+    private static final class Fixed extends SchemaSkipper {
+
+        private final int size;
+
+        Fixed(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            in.skipFixed(size);
+        }
+    }
+
+    private static final class Varint extends SchemaSkipper {
+
+        static final Varint INSTANCE = new Varint();
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            in.readLong();
+        }
+    }
+
+    private static final class Bytes extends SchemaSkipper {
+
+        static final Bytes INSTANCE = new Bytes();
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            in.skipBytes();
+        }
+    }
+
+    private static final class Sequence extends SchemaSkipper {
+
+        private final SchemaSkipper[] steps;
+
+        Sequence(final List<SchemaSkipper> steps) {
+            this.steps = steps.toArray(new SchemaSkipper[0]);
+        }
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            for (final SchemaSkipper step : steps) {
+                step.skip(in);
+            }
+        }
+    }
+
+    private static final class Union extends SchemaSkipper {
+
+        private final SchemaSkipper[] branches;
+
+        Union(final SchemaSkipper[] branches) {
+            this.branches = branches;
+        }
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            branches[in.readIndex()].skip(in);
+        }
+    }
+
+    private static final class Array extends SchemaSkipper {
+
+        private final SchemaSkipper element;
+
+        Array(final SchemaSkipper element) {
+            this.element = element;
+        }
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            for (long count = in.skipArray(); count != 0; count = in.skipArray()) {
+                for (long i = 0; i < count; i++) {
+                    element.skip(in);
+                }
+            }
+        }
+    }
+
+    /**
+     * Array of fixed-size elements, e.g. {@code array<double>}: each block is skipped in one call.
+     */
+    private static final class FixedArray extends SchemaSkipper {
+
+        private final int elementSize;
+
+        FixedArray(final int elementSize) {
+            this.elementSize = elementSize;
+        }
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            for (long count = in.skipArray(); count != 0; count = in.skipArray()) {
+                in.skipFixed(Math.toIntExact(count * elementSize));
+            }
+        }
+    }
+
+    private static final class MapValues extends SchemaSkipper {
+
+        private final SchemaSkipper value;
+
+        MapValues(final SchemaSkipper value) {
+            this.value = value;
+        }
+
+        @Override
+        void skip(final Decoder in) throws IOException {
+            for (long count = in.skipMap(); count != 0; count = in.skipMap()) {
+                for (long i = 0; i < count; i++) {
+                    in.skipString();
+                    value.skip(in);
+                }
+            }
+        }
+    }
+}
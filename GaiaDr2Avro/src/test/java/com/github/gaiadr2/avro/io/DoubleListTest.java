@@ -0,0 +1,49 @@
+package com.github.gaiadr2.avro.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link DoubleList}
+ */
+class DoubleListTest {
+
+    @Test
+    void behavesAsAList() {
+        final DoubleList list = new DoubleList();
+        list.add(1.0);
+        list.addDouble(3.0);
+        list.add(1, 2.0);
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0), list);
+        assertEquals(list, Arrays.asList(1.0, 2.0, 3.0));
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0).hashCode(), list.hashCode());
+
+        assertEquals(2.0, list.remove(1), 1E-30);
+        assertEquals(3.0, list.set(1, 4.0), 1E-30);
+        assertArrayEquals(new double[]{1.0, 4.0}, list.toDoubleArray(), 1E-30);
+    }
+
+    @Test
+    void clearRetainsCapacity() {
+        final DoubleList list = DoubleList.copyOf(new double[]{1.0, 2.0, 3.0}, 2);
+        assertEquals(2, list.size());
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.addDouble(5.0);
+        assertEquals(5.0, list.getDouble(0), 1E-30);
+    }
+
+    @Test
+    void outOfRangeAccessIsRejected() {
+        final List<Double> list = DoubleList.copyOf(new double[]{1.0}, 1);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, 1.0));
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.file.SeekableByteArrayInput;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link GaiaSourceDatumWriter} and {@link GaiaSourceDatumReader}
+ */
+class GaiaSourceDatumTest {
+
+    private final TestRecords records = new TestRecords(20180425L);
+
+    @RepeatedTest(50)
+    void encodingIsIdenticalToTheSpecificWriter() throws IOException {
+        final GaiaSource record = records.next();
+        assertArrayEquals(
+                encode(new SpecificDatumWriter<>(GaiaSource.class), record),
+                encode(new GaiaSourceDatumWriter(), record));
+    }
+
+    @RepeatedTest(50)
+    void decodingIsIdenticalToTheSpecificReader() throws IOException {
+        final byte[] bytes = encode(new SpecificDatumWriter<>(GaiaSource.class), records.next());
+        final GaiaSource expected = new SpecificDatumReader<>(GaiaSource.class)
+                .read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+        final DatumReader<GaiaSource> reader = new GaiaSourceDatumReader();
+        final GaiaSource actual = reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void reusedRecordIsOverwritten() throws IOException {
+        final DatumReader<GaiaSource> reader = new GaiaSourceDatumReader();
+        final GaiaSource first = records.next();
+        final GaiaSource second = records.next();
+
+        final GaiaSource reuse = reader.read(null, DecoderFactory.get().binaryDecoder(encode(new GaiaSourceDatumWriter(), first), null));
+        assertEquals(first, reuse);
+        final GaiaSource result = reader.read(reuse, DecoderFactory.get().binaryDecoder(encode(new GaiaSourceDatumWriter(), second), null));
+        assertSame(reuse, result);
+        assertEquals(second, result);
+    }
+
+    @Test
+    void containerFilesRoundTrip() throws IOException {
+        final List<GaiaSource> expected = new ArrayList<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataFileWriter<GaiaSource> writer = new DataFileWriter<>(new GaiaSourceDatumWriter())) {
+            writer.create(GaiaSource.getClassSchema(), bytes);
+            for (int i = 0; i < 1000; i++) {
+                final GaiaSource record = records.next();
+                expected.add(record);
+                writer.append(record);
+            }
+        }
+
+        final List<GaiaSource> actual = new ArrayList<>();
+        try (DataFileReader<GaiaSource> reader = new DataFileReader<>(
+                new SeekableByteArrayInput(bytes.toByteArray()),
+                new GaiaSourceDatumReader())) {
+            GaiaSource reuse = null;
+            while (reader.hasNext()) {
+                reuse = reader.next(reuse);
+                actual.add(GaiaSource.newBuilder(reuse).build());
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void otherWriterSchemaIsResolved() throws IOException {
+        final List<Schema.Field> fields = new ArrayList<>();
+        for (final Schema.Field field : GaiaSource.getClassSchema().getFields()) {
+            fields.add(new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()));
+        }
+        fields.add(new Schema.Field("extra", Schema.create(Schema.Type.LONG), null, (Object) null));
+        final Schema writerSchema = Schema.createRecord(
+                "GaiaSource", null, "com.github.gaiadr2.avro.source", false, fields);
+
+        final GaiaSource expected = records.next();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+        new GaiaSourceDatumWriter().write(expected, encoder);
+        encoder.writeLong(123456789L);
+        encoder.flush();
+
+        final DatumReader<GaiaSource> reader = new GaiaSourceDatumReader();
+        reader.setSchema(writerSchema);
+        assertEquals(expected, reader.read(null, DecoderFactory.get().binaryDecoder(bytes.toByteArray(), null)));
+    }
+
+    @Test
+    void otherSchemaCannotBeWritten() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new GaiaSourceDatumWriter().setSchema(Schema.create(Schema.Type.LONG)));
+    }
+
+    static byte[] encode(final DatumWriter<GaiaSource> writer, final GaiaSource record) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+        writer.write(record, encoder);
+        encoder.flush();
+        return bytes.toByteArray();
+    }
+}
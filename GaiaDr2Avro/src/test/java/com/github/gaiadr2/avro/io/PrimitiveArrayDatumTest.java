@@ -0,0 +1,71 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.vari.ShortTimeScale;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link PrimitiveArrayDatumReader} and {@link PrimitiveArrayDatumWriter}
+ */
+class PrimitiveArrayDatumTest {
+
+    @Test
+    void encodingIsIdenticalToTheSpecificWriter() throws IOException {
+        final List<Double> boxed = new ArrayList<>(Arrays.asList(0.1, 1.0, 10.0, Double.NaN));
+        final byte[] expected = encode(new SpecificDatumWriter<>(ShortTimeScale.class), record(1L, boxed, boxed));
+
+        final DoubleList primitive = DoubleList.copyOf(new double[]{0.1, 1.0, 10.0, Double.NaN}, 4);
+        final byte[] actual = encode(
+                new PrimitiveArrayDatumWriter<>(ShortTimeScale.class),
+                record(1L, primitive, primitive));
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void arraysAreDecodedIntoReusedPrimitiveLists() throws IOException {
+        final PrimitiveArrayDatumWriter<ShortTimeScale> writer = new PrimitiveArrayDatumWriter<>(ShortTimeScale.class);
+        final byte[] first = encode(writer, record(1L, Arrays.asList(1.0, 2.0, 3.0), Arrays.asList(4.0, 5.0, 6.0)));
+        final byte[] second = encode(writer, record(2L, Arrays.asList(7.0), Arrays.asList(8.0)));
+
+        final PrimitiveArrayDatumReader<ShortTimeScale> reader = new PrimitiveArrayDatumReader<>(ShortTimeScale.class);
+        final ShortTimeScale reused = reader.read(null, DecoderFactory.get().binaryDecoder(first, null));
+        assertTrue(reused.getVariogramTimescale() instanceof DoubleList);
+        final DoubleList timescales = (DoubleList) reused.getVariogramTimescale();
+        assertEquals(Arrays.asList(1.0, 2.0, 3.0), timescales);
+
+        final ShortTimeScale next = reader.read(reused, DecoderFactory.get().binaryDecoder(second, null));
+        assertSame(reused, next);
+        assertSame(timescales, next.getVariogramTimescale());
+        assertEquals(Arrays.asList(7.0), next.getVariogramTimescale());
+        assertEquals(Arrays.asList(8.0), next.getVariogramValues());
+        assertEquals(2L, next.getSourceId().longValue());
+    }
+
+    private static ShortTimeScale record(final long sourceId, final List<Double> timescales, final List<Double> values) {
+        return new ShortTimeScale(1L, sourceId, 0.5, 12, 0.8, timescales.size(), timescales, values, null);
+    }
+
+    private static byte[] encode(final SpecificDatumWriter<ShortTimeScale> writer, final ShortTimeScale record)
+            throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+        writer.write(record, encoder);
+        encoder.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link ProjectedGaiaSourceReader} and {@link SchemaSkipper}
+ */
+class ProjectedGaiaSourceReaderTest {
+
+    private final TestRecords records = new TestRecords(7L);
+
+    @RepeatedTest(20)
+    void skipperConsumesExactlyOneRecord() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(bytes, null);
+        final GaiaSourceDatumWriter writer = new GaiaSourceDatumWriter();
+        writer.write(records.next(), encoder);
+        writer.write(records.next(), encoder);
+        encoder.writeLong(-42L);
+        encoder.flush();
+
+        final BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(bytes.toByteArray(), null);
+        final SchemaSkipper skipper = SchemaSkipper.compile(GaiaSource.getClassSchema());
+        skipper.skip(decoder);
+        skipper.skip(decoder);
+        assertEquals(-42L, decoder.readLong());
+        assertTrue(decoder.isEnd());
+    }
+
+    @RepeatedTest(20)
+    void onlyRequestedFieldsAreDecoded() throws IOException {
+        final GaiaSource expected = records.next();
+        final ProjectedGaiaSourceReader reader = new ProjectedGaiaSourceReader(
+                Arrays.asList("sourceId", "basicAstrometry", "fullAstrometry", "varFlag"));
+
+        final GaiaSource actual = reader.read(null, decoder(expected));
+
+        assertEquals(expected.getSourceId(), actual.getSourceId());
+        assertEquals(expected.getBasicAstrometry(), actual.getBasicAstrometry());
+        assertEquals(expected.getFullAstrometry(), actual.getFullAstrometry());
+        assertSame(expected.getVarFlag(), actual.getVarFlag());
+        assertEquals(0L, actual.getSolutionId().longValue());
+        assertNull(actual.getAstroMeta());
+        assertNull(actual.getGPhot());
+        assertNull(actual.getColourInfo());
+        assertNull(actual.getAstrophysicalParameters());
+    }
+
+    @Test
+    void reusedRecordLosesUnrequestedFields() throws IOException {
+        final GaiaSource reuse = records.next();
+        final GaiaSource next = records.next();
+        final ProjectedGaiaSourceReader reader = new ProjectedGaiaSourceReader(Collections.singleton("gPhot"));
+
+        final GaiaSource actual = reader.read(reuse, decoder(next));
+
+        assertSame(reuse, actual);
+        assertEquals(next.getGPhot(), actual.getGPhot());
+        assertEquals(0L, actual.getSourceId().longValue());
+        assertNull(actual.getBasicAstrometry());
+        assertNull(actual.getPhotMode());
+    }
+
+    @Test
+    void projectedSchemaHoldsOnlyRequestedFields() {
+        final ProjectedGaiaSourceReader reader = new ProjectedGaiaSourceReader(Arrays.asList("rpPhot", "sourceId"));
+        assertEquals(2, reader.getProjectedSchema().getFields().size());
+        assertEquals("sourceId", reader.getProjectedSchema().getFields().get(0).name());
+        assertEquals("rpPhot", reader.getProjectedSchema().getFields().get(1).name());
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ProjectedGaiaSourceReader(Collections.singleton("ra")));
+    }
+
+    private static BinaryDecoder decoder(final GaiaSource record) throws IOException {
+        return DecoderFactory.get().binaryDecoder(
+                GaiaSourceDatumTest.encode(new GaiaSourceDatumWriter(), record),
+                null);
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.gaiadr2.avro.io;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.source.AstroPar;
+import com.github.gaiadr2.avro.source.AstroParamSolved;
+import com.github.gaiadr2.avro.source.AstroParams;
+import com.github.gaiadr2.avro.source.AstrometryMetadata;
+import com.github.gaiadr2.avro.source.BandPhot;
+import com.github.gaiadr2.avro.source.ColourInfo;
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.OptAstro;
+import com.github.gaiadr2.avro.source.PhotMode;
+import com.github.gaiadr2.avro.source.RotatorObjectType;
+import com.github.gaiadr2.avro.source.Rvs;
+import com.github.gaiadr2.avro.source.VarFlag;
+
+import java.util.Random;
+
+/**
+ * Generates random, schema-compliant {@link GaiaSource} records for the serialisation tests
+ */
+final class TestRecords {
+
+    private final Random rng;
+
+    TestRecords(final long seed) {
+        rng = new Random(seed);
+    }
+
+    /**
+     * @return A record in which every optional component is present or missing at random
+     */
+    GaiaSource next() {
+        return new GaiaSource(
+                rng.nextLong(),
+                rng.nextLong(),
+                (long) rng.nextInt(Integer.MAX_VALUE),
+                new CoreAstro(2015.5, dval(), dval(), rng.nextFloat(),
+                        rng.nextDouble(), rng.nextDouble(), rng.nextDouble(), rng.nextDouble()),
+                rng.nextBoolean() ?
+                        new OptAstro(dval(), dval(), dval(),
+                                rng.nextFloat(), rng.nextFloat(), rng.nextFloat(),
+                                rng.nextFloat(), rng.nextFloat(), rng.nextFloat(),
+                                rng.nextFloat(), rng.nextFloat(), rng.nextFloat()) :
+                        null,
+                new AstrometryMetadata(
+                        rng.nextInt(500), rng.nextInt(10), rng.nextInt(500), rng.nextInt(10),
+                        rng.nextFloat(), rng.nextFloat(), rng.nextDouble(), rng.nextDouble(),
+                        pick(AstroParamSolved.values()), rng.nextBoolean(), rng.nextFloat(),
+                        rng.nextBoolean() ? dval() : null,
+                        rng.nextFloat(), rng.nextInt(50), rng.nextInt(30), rng.nextFloat(),
+                        pick(RotatorObjectType.values())),
+                rng.nextInt(50),
+                rng.nextBoolean(),
+                bandPhot(),
+                rng.nextBoolean() ? bandPhot() : null,
+                rng.nextBoolean() ? bandPhot() : null,
+                new ColourInfo(optFloat(), optFloat(), optFloat(), optFloat()),
+                pick(PhotMode.values()),
+                pick(VarFlag.values()),
+                rng.nextInt(4) == 0 ?
+                        new Rvs(dval(), rng.nextInt(40), rng.nextFloat(), rng.nextFloat(), rng.nextFloat()) :
+                        null,
+                rng.nextInt(3) == 0 ?
+                        new AstroParams(rng.nextLong(), rng.nextLong(),
+                                astroPar(), astroPar(), astroPar(), astroPar(), astroPar()) :
+                        null);
+    }
+
+    private Dval dval() {
+        return new Dval(rng.nextGaussian() * 100, rng.nextDouble());
+    }
+
+    private BandPhot bandPhot() {
+        return new BandPhot(rng.nextInt(300), dval(), 10 + 10 * rng.nextFloat());
+    }
+
+    private AstroPar astroPar() {
+        return new AstroPar(rng.nextFloat(), rng.nextFloat(), rng.nextFloat());
+    }
+
+    private Float optFloat() {
+        return rng.nextBoolean() ? rng.nextFloat() : null;
+    }
+
+    private <E> E pick(final E[] values) {
+        return values[rng.nextInt(values.length)];
+    }
+}
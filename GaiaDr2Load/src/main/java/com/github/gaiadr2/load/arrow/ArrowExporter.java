@@ -0,0 +1,347 @@
+package com.github.gaiadr2.load.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.NullableMapVector;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * Writes Avro records such as {@code GaiaSource} as Arrow record batches, to an Arrow IPC file or stream.
+ *
+ * Nested records become struct columns (e.g. {@code basicAstrometry.ra.value}); {@code null} unions become
+ * nullable columns, whose validity bitmap marks the missing values, together with all the columns nested
+ * under them. Enums are dictionary-encoded, so that they are read as categoricals by pandas. Records are
+ * buffered until a batch is full, hence the exporter must be closed to write the last batch.
+ *
+ * @param <T> Type of the exported records
+ */
+public final class ArrowExporter<T extends IndexedRecord> implements Closeable {
+
+    /** Default number of records per batch */
+    public static final int DEFAULT_BATCH_SIZE = 1 << 16;
+
+    private static final ArrowType.Int ENUM_INDEX = new ArrowType.Int(8, true);
+
+    private final BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+    private final DictionaryProvider.MapDictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider();
+    private final Map<String, DictionaryEncoding> encodings = new HashMap<>();
+    private final List<IntConsumer> nulls = new ArrayList<>();
+    private final Schema schema;
+    private final VectorSchemaRoot root;
+    private final Node[] fields;
+    private final ArrowWriter writer;
+    private final int batchSize;
+    private int count;
+
+    private ArrowExporter(
+            final Schema schema,
+            final int batchSize,
+            final BiFunction<VectorSchemaRoot, DictionaryProvider, ArrowWriter> writerFactory) throws IOException {
+        if (schema.getType() != Schema.Type.RECORD) {
+            throw new IllegalArgumentException("Not a record schema: " + schema.getFullName());
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive, but was: " + batchSize);
+        }
+        this.schema = schema;
+        this.batchSize = batchSize;
+
+        final List<Field> arrowFields = new ArrayList<>();
+        for (final Schema.Field field : schema.getFields()) {
+            arrowFields.add(field(field.name(), field.schema(), false));
+        }
+        this.root = VectorSchemaRoot.create(new org.apache.arrow.vector.types.pojo.Schema(arrowFields), allocator);
+        this.fields = new Node[arrowFields.size()];
+        for (int i = 0; i < fields.length; i++) {
+            final Schema.Field field = schema.getFields().get(i);
+            fields[i] = bind(field.schema(), root.getVector(field.name()), field.name());
+        }
+        allocate();
+        this.writer = writerFactory.apply(root, dictionaries);
+        writer.start();
+    }
+
+    /**
+     * @param schema Schema of the records
+     * @param channel Channel receiving the Arrow IPC file, which can be memory-mapped by the readers
+     * @param batchSize Number of records per batch
+     * @param <T> Type of the records
+     * @return A new exporter
+     * @throws IOException When the file header cannot be written
+     */
+    public static <T extends IndexedRecord> ArrowExporter<T> toFile(
+            final Schema schema,
+            final WritableByteChannel channel,
+            final int batchSize) throws IOException {
+        return new ArrowExporter<>(schema, batchSize, (root, provider) -> new ArrowFileWriter(root, provider, channel));
+    }
+
+    /**
+     * @param schema Schema of the records
+     * @param out Stream receiving the Arrow IPC stream
+     * @param batchSize Number of records per batch
+     * @param <T> Type of the records
+     * @return A new exporter
+     * @throws IOException When the stream header cannot be written
+     */
+    public static <T extends IndexedRecord> ArrowExporter<T> toStream(
+            final Schema schema,
+            final OutputStream out,
+            final int batchSize) throws IOException {
+        return new ArrowExporter<>(schema, batchSize, (root, provider) -> new ArrowStreamWriter(root, provider, out));
+    }
+
+    /**
+     * @param record Record to export
+     * @throws IOException When a full batch cannot be written
+     * @throws IllegalArgumentException When a required field of the record is null; nothing is exported, and
+     *                                  the next record takes its index
+     */
+    public void append(final T record) throws IOException {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                final Object value = record.get(i);
+                if (value != null) {
+                    fields[i].write(value, count);
+                } else if (!isOptional(schema.getFields().get(i).schema())) {
+                    throw new IllegalArgumentException(format(
+                            "Required field %s is null in %s",
+                            schema.getFields().get(i).name(),
+                            schema.getName()));
+                }
+            }
+        } catch (final RuntimeException e) {
+            for (final IntConsumer vector : nulls) {
+                vector.accept(count);
+            }
+            throw e;
+        }
+        if (++count == batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Write the pending records, the end of the file or stream, and release the Arrow buffers. The
+     * underlying channel or stream is left open.
+     *
+     * @throws IOException When the last batch cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (count > 0) {
+                flush();
+            }
+            writer.end();
+        } finally {
+            root.close();
+            for (final Long id : dictionaries.getDictionaryIds()) {
+                dictionaries.lookup(id).getVector().close();
+            }
+            allocator.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        for (final FieldVector vector : root.getFieldVectors()) {
+            vector.setValueCount(count);
+        }
+        root.setRowCount(count);
+        writer.writeBatch();
+        count = 0;
+        for (final FieldVector vector : root.getFieldVectors()) {
+            vector.clear();
+        }
+        allocate();
+    }
+
+    private void allocate() {
+        for (final FieldVector vector : root.getFieldVectors()) {
+            vector.allocateNew();
+        }
+    }
+
+    /**
+     * @param name Name of the field
+     * @param schema Avro schema of the field
+     * @param optional Whether an enclosing field is optional
+     * @return The Arrow field
+     */
+    private Field field(final String name, final Schema schema, final boolean optional) {
+        if (isOptional(schema)) {
+            return field(name, schema.getTypes().get(1), true);
+        }
+        switch (schema.getType()) {
+            case RECORD:
+                final List<Field> children = new ArrayList<>();
+                for (final Schema.Field child : schema.getFields()) {
+                    children.add(field(child.name(), child.schema(), optional));
+                }
+                return new Field(name, new FieldType(optional, ArrowType.Struct.INSTANCE, null), children);
+            case ENUM:
+                return new Field(name, new FieldType(optional, ENUM_INDEX, encoding(schema)), Collections.emptyList());
+            case BOOLEAN:
+                return leaf(name, optional, ArrowType.Bool.INSTANCE);
+            case INT:
+                return leaf(name, optional, new ArrowType.Int(32, true));
+            case LONG:
+                return leaf(name, optional, new ArrowType.Int(64, true));
+            case FLOAT:
+                return leaf(name, optional, new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE));
+            case DOUBLE:
+                return leaf(name, optional, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE));
+            default:
+                throw new IllegalArgumentException(format("Unsupported type at %s: %s", name, schema));
+        }
+    }
+
+    private static Field leaf(final String name, final boolean nullable, final ArrowType type) {
+        return new Field(name, new FieldType(nullable, type, null), Collections.emptyList());
+    }
+
+    /**
+     * @param schema Enum schema
+     * @return The encoding of that enum, sharing one dictionary between all the fields of the same type
+     */
+    private DictionaryEncoding encoding(final Schema schema) {
+        DictionaryEncoding encoding = encodings.get(schema.getFullName());
+        if (encoding == null) {
+            encoding = new DictionaryEncoding(encodings.size(), false, ENUM_INDEX);
+            final VarCharVector symbols = new VarCharVector(schema.getName(), allocator);
+            symbols.allocateNew();
+            final List<String> names = schema.getEnumSymbols();
+            for (int i = 0; i < names.size(); i++) {
+                symbols.setSafe(i, names.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+            symbols.setValueCount(names.size());
+            dictionaries.put(new Dictionary(symbols, encoding));
+            encodings.put(schema.getFullName(), encoding);
+        }
+        return encoding;
+    }
+
+    /**
+     * @param schema Avro schema of a field
+     * @param vector Arrow vector of the same field
+     * @param path Dotted path of the field, for error messages
+     * @return Node writing the values of the field into the vector, whose {@code setNull} is registered to
+     *         reset the values of rejected records
+     */
+    private Node bind(final Schema schema, final FieldVector vector, final String path) {
+        if (isOptional(schema)) {
+            return bind(schema.getTypes().get(1), vector, path);
+        }
+        switch (schema.getType()) {
+            case RECORD:
+                final NullableMapVector struct = (NullableMapVector) vector;
+                nulls.add(struct::setNull);
+                final List<Schema.Field> fields = schema.getFields();
+                final Node[] children = new Node[fields.size()];
+                for (int i = 0; i < children.length; i++) {
+                    final String name = fields.get(i).name();
+                    children[i] = bind(fields.get(i).schema(), struct.getChild(name, FieldVector.class), path + "." + name);
+                }
+                return (value, index) -> {
+                    struct.setIndexDefined(index);
+                    final IndexedRecord record = (IndexedRecord) value;
+                    for (int i = 0; i < children.length; i++) {
+                        final Object child = record.get(i);
+                        if (child != null) {
+                            children[i].write(child, index);
+                        } else if (!isOptional(fields.get(i).schema())) {
+                            throw new IllegalArgumentException(format(
+                                    "Required field %s is null in %s",
+                                    fields.get(i).name(),
+                                    path));
+                        }
+                    }
+                };
+            case ENUM:
+                final TinyIntVector ordinals = (TinyIntVector) vector;
+                nulls.add(ordinals::setNull);
+                return (value, index) -> ordinals.setSafe(
+                        index,
+                        value instanceof Enum ? ((Enum<?>) value).ordinal() : schema.getEnumOrdinal(value.toString()));
+            case BOOLEAN:
+                final BitVector bits = (BitVector) vector;
+                nulls.add(bits::setNull);
+                return (value, index) -> bits.setSafe(index, (Boolean) value ? 1 : 0);
+            case INT:
+                final IntVector ints = (IntVector) vector;
+                nulls.add(ints::setNull);
+                return (value, index) -> ints.setSafe(index, (Integer) value);
+            case LONG:
+                final BigIntVector longs = (BigIntVector) vector;
+                nulls.add(longs::setNull);
+                return (value, index) -> longs.setSafe(index, (Long) value);
+            case FLOAT:
+                final Float4Vector floats = (Float4Vector) vector;
+                nulls.add(floats::setNull);
+                return (value, index) -> floats.setSafe(index, (Float) value);
+            case DOUBLE:
+                final Float8Vector doubles = (Float8Vector) vector;
+                nulls.add(doubles::setNull);
+                return (value, index) -> doubles.setSafe(index, (Double) value);
+            default:
+                throw new IllegalArgumentException(format("Unsupported type at %s: %s", path, schema));
+        }
+    }
+
+    /**
+     * @return Whether the schema is a union of {@code null} and another type
+     */
+    private static boolean isOptional(final Schema schema) {
+        if (schema.getType() != Schema.Type.UNION) {
+            return false;
+        }
+        final List<Schema> types = schema.getTypes();
+        if (types.size() != 2 || types.get(0).getType() != Schema.Type.NULL) {
+            throw new IllegalArgumentException("Unsupported union: " + schema);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the non-null values of a field into its vector
+     */
+    private interface Node {
+
+        void write(Object value, int index);
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.gaiadr2.load.astrometry;
+
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.OptAstro;
+import com.github.gaiadr2.avro.source.Rvs;
+
+import java.util.Arrays;
+
+/**
+ * Astrometric parameters of many sources at one epoch, in primitive arrays indexed by source.
+ * <p>
+ * The six parameters are, in order: right ascension and declination [deg], parallax [mas], proper motions in
+ * right ascension (times the cosine of the declination) and declination [mas/yr], and radial velocity
+ * [km/s], NaN when unknown. Their covariance is stored for each source as the 21 elements of the upper
+ * triangle of a 6 x 6 matrix, row by row, in units of mas and mas/yr for the first five parameters, with
+ * the uncertainty in right ascension taken as the one of {@code ra * cos(dec)}. The sixth parameter of the
+ * covariance is the radial proper motion {@code vr * parallax / A} [mas/yr].
+ */
+public final class AstrometryBatch {
+
+    /**
+     * Number of parameters.
+     */
+    public static final int PARAMETERS = 6;
+
+    /**
+     * Number of stored covariance elements per source.
+     */
+    public static final int COVARIANCE_SIZE = PARAMETERS * (PARAMETERS + 1) / 2;
+
+    /**
+     * Astronomical unit expressed in km yr / s.
+     */
+    public static final double A = 4.740470446;
+
+    private final double[] ra;
+    private final double[] dec;
+    private final double[] parallax;
+    private final double[] pmRa;
+    private final double[] pmDec;
+    private final double[] radialVelocity;
+    private final double[] covariance;
+    private double epoch;
+    private int size;
+
+    /**
+     * @param capacity Maximum number of sources
+     * @param epoch Epoch of the parameters [Julian year], e.g. 2015.5 for Gaia DR2
+     */
+    public AstrometryBatch(final int capacity, final double epoch) {
+        if (capacity < 0 || capacity > Integer.MAX_VALUE / COVARIANCE_SIZE) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.ra = new double[capacity];
+        this.dec = new double[capacity];
+        this.parallax = new double[capacity];
+        this.pmRa = new double[capacity];
+        this.pmDec = new double[capacity];
+        this.radialVelocity = new double[capacity];
+        this.covariance = new double[capacity * COVARIANCE_SIZE];
+        this.epoch = epoch;
+    }
+
+    /**
+     * @param row Row of the parameter, from 0 to 5
+     * @param column Column of the parameter, from 0 to 5
+     * @return Offset of the covariance element within the elements of a source
+     */
+    public static int covarianceIndex(final int row, final int column) {
+        final int low = Math.min(row, column);
+        final int high = Math.max(row, column);
+        return low * PARAMETERS - low * (low - 1) / 2 + high - low;
+    }
+
+    public int capacity() {
+        return ra.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param size Number of sources in use, at most the capacity
+     */
+    public void setSize(final int size) {
+        if (size < 0 || size > capacity()) {
+            throw new IllegalArgumentException("Size must be between 0 and " + capacity() + ": " + size);
+        }
+        this.size = size;
+    }
+
+    public double getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(final double epoch) {
+        this.epoch = epoch;
+    }
+
+    public double[] getRa() {
+        return ra;
+    }
+
+    public double[] getDec() {
+        return dec;
+    }
+
+    public double[] getParallax() {
+        return parallax;
+    }
+
+    public double[] getPmRa() {
+        return pmRa;
+    }
+
+    public double[] getPmDec() {
+        return pmDec;
+    }
+
+    public double[] getRadialVelocity() {
+        return radialVelocity;
+    }
+
+    /**
+     * @return Covariance elements, {@link #COVARIANCE_SIZE} per source
+     */
+    public double[] getCovariance() {
+        return covariance;
+    }
+
+    /**
+     * @param source Index of the source
+     * @param row Row of the parameter, from 0 to 5
+     * @param column Column of the parameter, from 0 to 5
+     * @return Covariance of the two parameters for the source
+     */
+    public double covariance(final int source, final int row, final int column) {
+        return covariance[source * COVARIANCE_SIZE + covarianceIndex(row, column)];
+    }
+
+    /**
+     * Append the parameters of a source, whose reference epoch must be the one of the batch. Sources
+     * without parallax and proper motions get NaN values, and cannot be propagated.
+     *
+     * @param source A source
+     * @return Index of the source in the batch
+     */
+    public int add(final GaiaSource source) {
+        if (size == capacity()) {
+            throw new IllegalStateException("Batch is full: " + size + " sources");
+        }
+        final double refEpoch = source.getBasicAstrometry().getRefEpoch();
+        if (refEpoch != epoch) {
+            throw new IllegalArgumentException(
+                    "Source " + source.getSourceId() + " is at epoch " + refEpoch + ", not " + epoch);
+        }
+        final int index = size++;
+        set(index, source);
+        return index;
+    }
+
+    private void set(final int index, final GaiaSource source) {
+        final CoreAstro core = source.getBasicAstrometry();
+        final OptAstro full = source.getFullAstrometry();
+        final Rvs rvs = source.getRadialVelocity();
+        ra[index] = core.getRa().getValue();
+        dec[index] = core.getDec().getValue();
+        final double[] errors = new double[PARAMETERS];
+        errors[0] = core.getRa().getUncertainty();
+        errors[1] = core.getDec().getUncertainty();
+        final int offset = index * COVARIANCE_SIZE;
+        Arrays.fill(covariance, offset, offset + COVARIANCE_SIZE, 0.0);
+        if (full == null) {
+            parallax[index] = Double.NaN;
+            pmRa[index] = Double.NaN;
+            pmDec[index] = Double.NaN;
+            radialVelocity[index] = Double.NaN;
+            for (int row = 2; row < PARAMETERS; row++) {
+                covariance[offset + covarianceIndex(row, row)] = Double.NaN;
+            }
+            setCovariance(offset, 0, 1, errors, core.getCorrelationRaDec());
+            return;
+        }
+        parallax[index] = full.getParallax().getValue();
+        pmRa[index] = full.getPmRa().getValue();
+        pmDec[index] = full.getPmDec().getValue();
+        errors[2] = full.getParallax().getUncertainty();
+        errors[3] = full.getPmRa().getUncertainty();
+        errors[4] = full.getPmDec().getUncertainty();
+        setCovariance(offset, 0, 1, errors, core.getCorrelationRaDec());
+        setCovariance(offset, 0, 2, errors, full.getCorrelationRaParallax());
+        setCovariance(offset, 0, 3, errors, full.getCorrelationRaPmRa());
+        setCovariance(offset, 0, 4, errors, full.getCorrelationRaPmDec());
+        setCovariance(offset, 1, 2, errors, full.getCorrelationDecParallax());
+        setCovariance(offset, 1, 3, errors, full.getCorrelationDecPmRa());
+        setCovariance(offset, 1, 4, errors, full.getCorrelationDecPmDec());
+        setCovariance(offset, 2, 3, errors, full.getCorrelationParallaxPmRa());
+        setCovariance(offset, 2, 4, errors, full.getCorrelationParallaxPmDec());
+        setCovariance(offset, 3, 4, errors, full.getCorrelationPmRaPmDec());
+        for (int row = 0; row < 5; row++) {
+            covariance[offset + covarianceIndex(row, row)] = errors[row] * errors[row];
+        }
+        radialVelocity[index] = rvs == null ? Double.NaN : rvs.getRadVel().getValue();
+        if (rvs != null) {
+            // Radial proper motion vr * parallax / A, correlated with the other parameters through the parallax
+            final double vr = rvs.getRadVel().getValue();
+            final double vrError = rvs.getRadVel().getUncertainty();
+            for (int row = 0; row < 5; row++) {
+                covariance[offset + covarianceIndex(row, 5)] =
+                        covariance[offset + covarianceIndex(row, 2)] * vr / A;
+            }
+            covariance[offset + covarianceIndex(5, 5)] =
+                    (parallax[index] * parallax[index] * vrError * vrError + vr * vr * errors[2] * errors[2])
+                            / (A * A);
+        }
+    }
+
+    private void setCovariance(final int offset, final int row, final int column,
+                               final double[] errors, final double correlation) {
+        covariance[offset + covarianceIndex(row, column)] = correlation * errors[row] * errors[column];
+    }
+}
@@ -0,0 +1,282 @@
+package com.github.gaiadr2.load.astrometry;
+
+import java.util.stream.IntStream;
+
+import static com.github.gaiadr2.load.astrometry.AstrometryBatch.A;
+import static com.github.gaiadr2.load.astrometry.AstrometryBatch.COVARIANCE_SIZE;
+import static com.github.gaiadr2.load.astrometry.AstrometryBatch.PARAMETERS;
+
+/**
+ * Propagates astrometric parameters and their covariance to another epoch, assuming uniform space motion,
+ * following the rigorous method of the Gaia documentation (Butkevich and Lindegren 2014).
+ * <p>
+ * Sources are processed as batches of primitive arrays: the Jacobian of the transformation is computed
+ * alongside the parameters, by differentiating every intermediate quantity, then applied to the covariance.
+ * Batches are split into chunks processed in parallel on the common fork-join pool. Sources without radial
+ * velocity are propagated with a zero radial velocity of zero uncertainty; sources without parallax and
+ * proper motions yield NaN values.
+ */
+public final class EpochPropagator {
+
+    /**
+     * Number of sources propagated by a parallel task.
+     */
+    public static final int CHUNK_SIZE = 4096;
+
+    private static final double MAS = Math.PI / (180.0 * 3600.0 * 1000.0);
+
+    private EpochPropagator() {
+    }
+
+    /**
+     * Propagate every source of a batch, in parallel.
+     *
+     * @param in Sources to propagate
+     * @param epoch Target epoch [Julian year]
+     * @param out Receives the propagated sources, possibly the input batch itself
+     */
+    public static void propagate(final AstrometryBatch in, final double epoch, final AstrometryBatch out) {
+        prepare(in, epoch, out);
+        final int chunks = (in.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> propagate(
+                in, epoch, out, chunk * CHUNK_SIZE, Math.min(in.size(), (chunk + 1) * CHUNK_SIZE)));
+        out.setEpoch(epoch);
+    }
+
+    /**
+     * Propagate a range of sources on the calling thread.
+     *
+     * @param in Sources to propagate
+     * @param epoch Target epoch [Julian year]
+     * @param out Receives the propagated sources, possibly the input batch itself
+     * @param from First source to propagate
+     * @param to End of the sources to propagate, exclusive
+     */
+    public static void propagateSequentially(final AstrometryBatch in,
+                                             final double epoch,
+                                             final AstrometryBatch out,
+                                             final int from,
+                                             final int to) {
+        prepare(in, epoch, out);
+        if (from < 0 || from > to || to > in.size()) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of " + in.size());
+        }
+        propagate(in, epoch, out, from, to);
+        if (from == 0 && to == in.size()) {
+            out.setEpoch(epoch);
+        }
+    }
+
+    private static void prepare(final AstrometryBatch in, final double epoch, final AstrometryBatch out) {
+        if (out.capacity() < in.size()) {
+            throw new IllegalArgumentException(
+                    "Output capacity " + out.capacity() + " is less than the " + in.size() + " sources");
+        }
+        if (out.size() < in.size()) {
+            out.setSize(in.size());
+        }
+    }
+
+    private static void propagate(final AstrometryBatch in,
+                                  final double epoch,
+                                  final AstrometryBatch out,
+                                  final int from,
+                                  final int to) {
+        final double t = epoch - in.getEpoch();
+        final double[] jacobian = new double[PARAMETERS * PARAMETERS];
+        final double[] ra = in.getRa();
+        final double[] dec = in.getDec();
+        final double[] parallax = in.getParallax();
+        final double[] pmRa = in.getPmRa();
+        final double[] pmDec = in.getPmDec();
+        final double[] radialVelocity = in.getRadialVelocity();
+        final double[] covariance = in.getCovariance();
+        final double[] outCovariance = out.getCovariance();
+        for (int i = from; i < to; i++) {
+            final double alpha = Math.toRadians(ra[i]);
+            final double delta = Math.toRadians(dec[i]);
+            final double sa = Math.sin(alpha);
+            final double ca = Math.cos(alpha);
+            final double sd = Math.sin(delta);
+            final double cd = Math.cos(delta);
+            final double tan0 = sd / cd;
+            // Normal triad at the reference epoch: p0 towards east, q0 towards north, r0 towards the source
+            final double px0 = -sa;
+            final double py0 = ca;
+            final double qx0 = -sd * ca;
+            final double qy0 = -sd * sa;
+            final double qz0 = cd;
+            final double rx0 = cd * ca;
+            final double ry0 = cd * sa;
+            final double rz0 = sd;
+            final double plx0 = parallax[i] * MAS;
+            final double pma0 = pmRa[i] * MAS;
+            final double pmd0 = pmDec[i] * MAS;
+            final double vr = radialVelocity[i];
+            final boolean hasVr = vr == vr;
+            final double pmr0 = hasVr ? vr * parallax[i] / A * MAS : 0.0;
+
+            // Proper motion vector, and propagation of the direction, parallax and motions
+            final double mx0 = px0 * pma0 + qx0 * pmd0;
+            final double my0 = py0 * pma0 + qy0 * pmd0;
+            final double mz0 = qz0 * pmd0;
+            final double mu2 = pma0 * pma0 + pmd0 * pmd0;
+            final double w = 1.0 + pmr0 * t;
+            final double f = 1.0 / Math.sqrt(w * w + mu2 * t * t);
+            final double f2 = f * f;
+            final double f3 = f2 * f;
+            final double vx = rx0 * w + mx0 * t;
+            final double vy = ry0 * w + my0 * t;
+            final double vz = rz0 * w + mz0 * t;
+            final double ux = vx * f;
+            final double uy = vy * f;
+            final double uz = vz * f;
+            final double nx = mx0 * w - rx0 * mu2 * t;
+            final double ny = my0 * w - ry0 * mu2 * t;
+            final double nz = mz0 * w - rz0 * mu2 * t;
+            final double mx = nx * f3;
+            final double my = ny * f3;
+            final double mz = nz * f3;
+            final double plx = plx0 * f;
+            final double radial = pmr0 + (mu2 + pmr0 * pmr0) * t;
+            final double pmr = radial * f2;
+
+            // Normal triad at the target epoch
+            final double rho = Math.sqrt(ux * ux + uy * uy);
+            final double px = -uy / rho;
+            final double py = ux / rho;
+            final double qx = -uz * ux / rho;
+            final double qy = -uz * uy / rho;
+            final double qz = rho;
+            final double tan = uz / rho;
+            final double pma = px * mx + py * my;
+            final double pmd = qx * mx + qy * my + qz * mz;
+
+            double alphaOut = Math.atan2(uy, ux);
+            if (alphaOut < 0.0) {
+                alphaOut += 2.0 * Math.PI;
+            }
+            out.getRa()[i] = Math.toDegrees(alphaOut);
+            // atan2(uz, rho) with rho >= 0, from the tangent already needed by the Jacobian
+            out.getDec()[i] = Math.toDegrees(Math.atan(tan));
+            out.getParallax()[i] = plx / MAS;
+            out.getPmRa()[i] = pma / MAS;
+            out.getPmDec()[i] = pmd / MAS;
+            out.getRadialVelocity()[i] = hasVr ? pmr * A / plx : Double.NaN;
+
+            // Jacobian, one input parameter at a time: ra * cos(dec), dec, parallax, pmra, pmdec, radial pm
+            for (int j = 0; j < PARAMETERS; j++) {
+                double drx = 0.0;
+                double dry = 0.0;
+                double drz = 0.0;
+                double dmx = 0.0;
+                double dmy = 0.0;
+                double dmz = 0.0;
+                double dw = 0.0;
+                double dmu2 = 0.0;
+                double dplx0 = 0.0;
+                double dpmr0 = 0.0;
+                switch (j) {
+                    case 0:
+                        // d(r0) = p0, d(p0) = -(r0 - q0 tan), d(q0) = -p0 tan
+                        drx = px0;
+                        dry = py0;
+                        dmx = -(rx0 - qx0 * tan0) * pma0 - px0 * tan0 * pmd0;
+                        dmy = -(ry0 - qy0 * tan0) * pma0 - py0 * tan0 * pmd0;
+                        dmz = -(rz0 - qz0 * tan0) * pma0;
+                        break;
+                    case 1:
+                        // d(r0) = q0, d(q0) = -r0
+                        drx = qx0;
+                        dry = qy0;
+                        drz = qz0;
+                        dmx = -rx0 * pmd0;
+                        dmy = -ry0 * pmd0;
+                        dmz = -rz0 * pmd0;
+                        break;
+                    case 2:
+                        dplx0 = 1.0;
+                        break;
+                    case 3:
+                        dmx = px0;
+                        dmy = py0;
+                        dmu2 = 2.0 * pma0;
+                        break;
+                    case 4:
+                        dmx = qx0;
+                        dmy = qy0;
+                        dmz = qz0;
+                        dmu2 = 2.0 * pmd0;
+                        break;
+                    default:
+                        dw = t;
+                        dpmr0 = 1.0;
+                        break;
+                }
+                final double df = -0.5 * f3 * (2.0 * w * dw + t * t * dmu2);
+                final double dux = (drx * w + rx0 * dw + dmx * t) * f + vx * df;
+                final double duy = (dry * w + ry0 * dw + dmy * t) * f + vy * df;
+                final double duz = (drz * w + rz0 * dw + dmz * t) * f + vz * df;
+                final double dnx = dmx * w + mx0 * dw - (drx * mu2 + rx0 * dmu2) * t;
+                final double dny = dmy * w + my0 * dw - (dry * mu2 + ry0 * dmu2) * t;
+                final double dnz = dmz * w + mz0 * dw - (drz * mu2 + rz0 * dmu2) * t;
+                final double dmxOut = dnx * f3 + nx * 3.0 * f2 * df;
+                final double dmyOut = dny * f3 + ny * 3.0 * f2 * df;
+                final double dmzOut = dnz * f3 + nz * 3.0 * f2 * df;
+                final double dAlpha = px * dux + py * duy;
+                jacobian[j] = dAlpha;
+                jacobian[PARAMETERS + j] = qx * dux + qy * duy + qz * duz;
+                jacobian[2 * PARAMETERS + j] = dplx0 * f + plx0 * df;
+                jacobian[3 * PARAMETERS + j] = tan * pmd * dAlpha + px * dmxOut + py * dmyOut;
+                jacobian[4 * PARAMETERS + j] = -tan * pma * dAlpha + qx * dmxOut + qy * dmyOut + qz * dmzOut;
+                jacobian[5 * PARAMETERS + j] =
+                        (dpmr0 + (dmu2 + 2.0 * pmr0 * dpmr0) * t) * f2 + radial * 2.0 * f * df;
+            }
+
+            // Covariance J C J': C is read once from its upper triangle, stored row by row, then only the upper
+            // triangle of the symmetric result is computed, as rows of J C against rows of J
+            final int offset = i * COVARIANCE_SIZE;
+            final double c00 = covariance[offset];
+            final double c01 = covariance[offset + 1];
+            final double c02 = covariance[offset + 2];
+            final double c03 = covariance[offset + 3];
+            final double c04 = covariance[offset + 4];
+            final double c05 = covariance[offset + 5];
+            final double c11 = covariance[offset + 6];
+            final double c12 = covariance[offset + 7];
+            final double c13 = covariance[offset + 8];
+            final double c14 = covariance[offset + 9];
+            final double c15 = covariance[offset + 10];
+            final double c22 = covariance[offset + 11];
+            final double c23 = covariance[offset + 12];
+            final double c24 = covariance[offset + 13];
+            final double c25 = covariance[offset + 14];
+            final double c33 = covariance[offset + 15];
+            final double c34 = covariance[offset + 16];
+            final double c35 = covariance[offset + 17];
+            final double c44 = covariance[offset + 18];
+            final double c45 = covariance[offset + 19];
+            final double c55 = covariance[offset + 20];
+            for (int row = 0, element = offset; row < PARAMETERS; row++) {
+                final int r = row * PARAMETERS;
+                final double j0 = jacobian[r];
+                final double j1 = jacobian[r + 1];
+                final double j2 = jacobian[r + 2];
+                final double j3 = jacobian[r + 3];
+                final double j4 = jacobian[r + 4];
+                final double j5 = jacobian[r + 5];
+                final double p0 = j0 * c00 + j1 * c01 + j2 * c02 + j3 * c03 + j4 * c04 + j5 * c05;
+                final double p1 = j0 * c01 + j1 * c11 + j2 * c12 + j3 * c13 + j4 * c14 + j5 * c15;
+                final double p2 = j0 * c02 + j1 * c12 + j2 * c22 + j3 * c23 + j4 * c24 + j5 * c25;
+                final double p3 = j0 * c03 + j1 * c13 + j2 * c23 + j3 * c33 + j4 * c34 + j5 * c35;
+                final double p4 = j0 * c04 + j1 * c14 + j2 * c24 + j3 * c34 + j4 * c44 + j5 * c45;
+                final double p5 = j0 * c05 + j1 * c15 + j2 * c25 + j3 * c35 + j4 * c45 + j5 * c55;
+                for (int column = row; column < PARAMETERS; column++, element++) {
+                    final int c = column * PARAMETERS;
+                    outCovariance[element] = p0 * jacobian[c] + p1 * jacobian[c + 1] + p2 * jacobian[c + 2]
+                            + p3 * jacobian[c + 3] + p4 * jacobian[c + 4] + p5 * jacobian[c + 5];
+                }
+            }
+        }
+    }
+}
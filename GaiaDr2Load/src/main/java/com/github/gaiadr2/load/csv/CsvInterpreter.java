@@ -1,49 +1,29 @@
 package com.github.gaiadr2.load.csv;
 
-import java.util.Optional;
-import java.util.OptionalDouble;
-import java.util.OptionalInt;
-import java.util.OptionalLong;
 import java.util.function.Consumer;
 
 /**
- * Intepreter for a line in a CSV file from the Gaia DR2
+ * Intepreter for a line in a CSV file from the Gaia DR2.
+ *
+ * A line can be parsed into an immutable {@link CsvRow}, or made the current line with {@link #accept},
+ * after which the typed accessors read its values. The current line is confined to the calling thread, so
+ * a single interpreter can serve parallel streams.
  */
-public interface CsvInterpreter<F extends Enum<F>> extends Consumer<String> {
+public interface CsvInterpreter<F extends Enum<F>> extends Consumer<String>, CsvRow<F> {
 
     /**
-     * @param column A column expected to provide an {@code int} value
-     * @return The value, when available
+     * @param line A CSV line
+     * @return The parsed line, independent from the interpreter and from any other line
+     * @throws IllegalArgumentException When the line does not have the expected number of columns
      */
-    OptionalInt intValue(final F column);
+    CsvRow<F> parse(final String line);
 
     /**
-     * @param column A column expected to provide a {@code long} value
-     * @return The value, when available
+     * Make the line the current line of the calling thread, read by the typed accessors of this interpreter.
+     *
+     * @param line A CSV line
+     * @throws IllegalArgumentException When the line does not have the expected number of columns
      */
-    OptionalLong longValue(final F column);
-
-    /**
-     * @param column A column expected to provide a {@code float} value
-     * @return The value, when available
-     */
-    Optional<Float> floatValue(final F column);
-
-    /**
-     * @param column A column expected to provide a {@code double} value
-     * @return The value, when available
-     */
-    OptionalDouble doubleValue(final F column);
-
-    /**
-     * @param column A column expected to provide a {@code boolean} value
-     * @return The value, when available
-     */
-    Optional<Boolean> booleanValue(final F column);
-
-    /**
-     * @param column A column
-     * @return The raw value of the column, when not empty
-     */
-    Optional<String> rawValue(final F column);
+    @Override
+    void accept(final String line);
 }
@@ -0,0 +1,58 @@
+package com.github.gaiadr2.load.csv;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * Typed access to the column values of one parsed CSV line from the Gaia DR2
+ */
+public interface CsvRow<F extends Enum<F>> {
+
+    /**
+     * @param column A column expected to provide an {@code int} value
+     * @return The value, when available
+     */
+    OptionalInt intValue(final F column);
+
+    /**
+     * @param column A column expected to provide a {@code long} value
+     * @return The value, when available
+     */
+    OptionalLong longValue(final F column);
+
+    /**
+     * @param column A column expected to provide a {@code float} value
+     * @return The value, when available
+     */
+    Optional<Float> floatValue(final F column);
+
+    /**
+     * @param column A column expected to provide a {@code double} value
+     * @return The value, when available
+     */
+    OptionalDouble doubleValue(final F column);
+
+    /**
+     * @param column A column expected to provide a {@code boolean} value
+     * @return The value, when available
+     */
+    Optional<Boolean> booleanValue(final F column);
+
+    /**
+     * Interpret a column holding a list of {@code double} values, such as {@code (1.5,2.5,NaN)}. Empty
+     * or {@code null} elements are returned as {@code NaN}.
+     *
+     * @param column A column expected to provide an array of {@code double} values
+     * @param target Buffer receiving the values. It is cleared before being filled.
+     * @return {@code true} when the column was not empty, {@code false} otherwise
+     */
+    boolean doubleArrayValue(final F column, final DoubleArray target);
+
+    /**
+     * @param column A column
+     * @return The raw value of the column, when not empty
+     */
+    Optional<String> rawValue(final F column);
+}
@@ -0,0 +1,118 @@
+package com.github.gaiadr2.load.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a CSV line in its column values, honouring double-quoted fields.
+ *
+ * The array columns of the Gaia DR2 tables are exported as quoted lists, e.g. {@code "(1.5,2.5,3.5)"}, and
+ * would be broken apart by a plain split on commas. Quoted fields are returned without the enclosing quotes,
+ * with doubled quotes ({@code ""}) unescaped.
+ */
+public final class CsvTokenizer {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private CsvTokenizer() {
+    }
+
+    /**
+     * @param line A CSV line
+     * @return The column values, empty columns being represented by empty strings
+     * @throws IllegalArgumentException When a quoted field is not terminated
+     */
+    public static String[] tokenize(final String line) {
+        if (line.indexOf(QUOTE) < 0) {
+            return line.split(String.valueOf(SEPARATOR), -1);
+        }
+        final List<String> tokens = new ArrayList<>();
+        final StringBuilder quoted = new StringBuilder();
+        final int length = line.length();
+        int start = 0;
+        while (start <= length) {
+            if (start < length && line.charAt(start) == QUOTE) {
+                quoted.setLength(0);
+                int pos = start + 1;
+                while (true) {
+                    final int end = line.indexOf(QUOTE, pos);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting at offset " + start);
+                    }
+                    quoted.append(line, pos, end);
+                    if (end + 1 < length && line.charAt(end + 1) == QUOTE) {
+                        quoted.append(QUOTE);
+                        pos = end + 2;
+                    } else {
+                        pos = end + 1;
+                        break;
+                    }
+                }
+                if (pos < length && line.charAt(pos) != SEPARATOR) {
+                    throw new IllegalArgumentException("Unexpected character after quoted field at offset " + pos);
+                }
+                tokens.add(quoted.toString());
+                start = pos + 1;
+            } else {
+                final int end = line.indexOf(SEPARATOR, start);
+                final int stop = end < 0 ? length : end;
+                tokens.add(line.substring(start, stop));
+                start = stop + 1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Read a single column, without splitting the rest of the line: cheaper than {@link #tokenize} for
+     * columns near the start of long lines.
+     *
+     * @param line A CSV line
+     * @param index Index of the column, from 0
+     * @return The column value, unquoted, or an empty string when the column is empty
+     * @throws IllegalArgumentException When the line has fewer columns, or a quoted field is not terminated
+     */
+    public static String token(final String line, final int index) {
+        final int length = line.length();
+        int start = 0;
+        int column = 0;
+        while (true) {
+            final int stop;
+            if (start < length && line.charAt(start) == QUOTE) {
+                int pos = start + 1;
+                while (true) {
+                    final int end = line.indexOf(QUOTE, pos);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting at offset " + start);
+                    }
+                    pos = end + 1;
+                    if (pos < length && line.charAt(pos) == QUOTE) {
+                        pos++;
+                    } else {
+                        break;
+                    }
+                }
+                if (pos < length && line.charAt(pos) != SEPARATOR) {
+                    throw new IllegalArgumentException("Unexpected character after quoted field at offset " + pos);
+                }
+                if (column == index) {
+                    return line.substring(start + 1, pos - 1).replace("\"\"", "\"");
+                }
+                stop = pos;
+            } else {
+                final int end = line.indexOf(SEPARATOR, start);
+                stop = end < 0 ? length : end;
+                if (column == index) {
+                    return line.substring(start, stop);
+                }
+            }
+            if (stop >= length) {
+                throw new IllegalArgumentException(
+                        "Expected at least " + (index + 1) + " columns but found " + (column + 1));
+            }
+            start = stop + 1;
+            column++;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.gaiadr2.load.csv;
+
+import com.github.gaiadr2.avro.io.DoubleList;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of primitive {@code double} values, meant to be reused across CSV lines when parsing
+ * array columns so that no boxed {@link Double} is ever created while parsing.
+ */
+public final class DoubleArray {
+
+    private double[] values;
+    private int size;
+
+    public DoubleArray() {
+        this(16);
+    }
+
+    /**
+     * @param capacity Initial capacity of the buffer
+     */
+    public DoubleArray(final int capacity) {
+        values = new double[Math.max(1, capacity)];
+    }
+
+    /**
+     * Empty the buffer, retaining its capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param value Value to append
+     */
+    public void add(final double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @param index Position of the value
+     * @return The value at that position
+     */
+    public double get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * @return Number of values in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The backing array, only the first {@link #size()} values being meaningful. It is invalidated
+     * by the next {@link #add(double)}
+     */
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * @return A copy of the values
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @return A list over a copy of the values, stored unboxed
+     */
+    public DoubleList toList() {
+        return DoubleList.copyOf(values, size);
+    }
+}
@@ -1,7 +1,7 @@
 package com.github.gaiadr2.load.csv;
 
-import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
-
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Optional;
 import java.util.OptionalDouble;
@@ -16,7 +16,10 @@ import static java.lang.String.format;
  *
  * For each provided CSV line, the interpreter will ensure that the number of columns match the column
  * specification provided by the {@code <F>} enumeration. When issuing a typed request for the column
- * value, the inter
+ * value, the interpreter ensures that the value matches the requested type.
+ *
+ * The interpreter is thread-safe: {@link #parse} returns independent rows, and the line set by
+ * {@link #accept} is only seen by the calling thread.
  */
 public final class SafeCsvInterpreter<F extends Enum<F>> implements CsvInterpreter<F>, Serializable {
 
@@ -25,119 +28,88 @@ public final class SafeCsvInterpreter<F extends Enum<F>> implements CsvInterpret
     /** Expected number of columns */
     private final int universeSize;
 
-    /** Current set of column values */
-    private transient String[] tokens = {};
+    /** Row without any column, current until a line is accepted */
+    private transient SafeCsvRow<F> empty;
+
+    /** Current row of each thread */
+    private transient ThreadLocal<SafeCsvRow<F>> current;
 
     /**
      * @param columnType Enum representing the CSV columns in the expected order
      */
     public SafeCsvInterpreter(final Class<F> columnType) {
         universeSize = columnType.getEnumConstants().length;
+        initCurrentRows();
     }
 
     @Override
-    public OptionalInt intValue(final F column) {
-        final String raw = raw(column);
-        if (raw.isEmpty()) {
-            return OptionalInt.empty();
-        }
+    public CsvRow<F> parse(final String line) {
+        return tokenize(line);
+    }
+
+    @Override
+    public void accept(final String line) {
         try {
-            return OptionalInt.of(Integer.parseInt(raw));
-        } catch (NumberFormatException e) {
-            throw NonCompliantColumnFailure.notInt(column, raw);
+            current.set(tokenize(line));
+        } catch (IllegalArgumentException e) {
+            current.set(empty);
+            throw e;
         }
     }
 
+    @Override
+    public OptionalInt intValue(final F column) {
+        return current.get().intValue(column);
+    }
+
     @Override
     public OptionalLong longValue(final F column) {
-        final String raw = raw(column);
-        if (raw.isEmpty()) {
-            return OptionalLong.empty();
-        }
-        try {
-            return OptionalLong.of(Long.parseLong(raw));
-        } catch (NumberFormatException e) {
-            throw NonCompliantColumnFailure.notLong(column, raw);
-        }
+        return current.get().longValue(column);
     }
 
     @Override
     public Optional<Float> floatValue(final F column) {
-        final String raw = raw(column);
-        if (raw.isEmpty()) {
-            return Optional.empty();
-        }
-        try {
-            final float value = Float.parseFloat(raw);
-            return Float.isFinite(value) ?
-                    Optional.of(value) :
-                    Optional.empty();
-        } catch (NumberFormatException e) {
-            throw NonCompliantColumnFailure.notFloat(column, raw);
-        }
+        return current.get().floatValue(column);
     }
 
     @Override
     public OptionalDouble doubleValue(final F column) {
-        final String raw = raw(column);
-        if (raw.isEmpty()) {
-            return OptionalDouble.empty();
-        }
-        try {
-            final double value = Double.parseDouble(raw);
-            return Double.isFinite(value) ?
-                    OptionalDouble.of(value) :
-                    OptionalDouble.empty();
-        } catch (NumberFormatException e) {
-            throw NonCompliantColumnFailure.notDouble(column, raw);
-        }
+        return current.get().doubleValue(column);
     }
 
     @Override
     public Optional<Boolean> booleanValue(final F column) {
-        final String raw = raw(column);
-        if (raw.isEmpty()) {
-            return Optional.empty();
-        }
-        switch (raw) {
-            case "true":
-                return Optional.of(true);
-            case "false":
-                return Optional.of(false);
-            default:
-                throw NonCompliantColumnFailure.notBoolean(column, raw);
-        }
+        return current.get().booleanValue(column);
     }
 
     @Override
-    public Optional<String> rawValue(final F column) {
-        final String raw = raw(column);
-        return raw.isEmpty() ?
-                Optional.empty() :
-                Optional.of(raw);
+    public boolean doubleArrayValue(final F column, final DoubleArray target) {
+        return current.get().doubleArrayValue(column, target);
     }
 
     @Override
-    public void accept(final String line) {
-        final String[] parts = line.trim().split(",", -1);
+    public Optional<String> rawValue(final F column) {
+        return current.get().rawValue(column);
+    }
+
+    private SafeCsvRow<F> tokenize(final String line) {
+        final String[] parts = CsvTokenizer.tokenize(line.trim());
         if (parts.length != universeSize) {
-            tokens = new String[]{};
             throw new IllegalArgumentException(format(
                     "Expected %d columns in the CSV file but found %d",
                     universeSize,
                     parts.length));
         }
-        tokens = parts;
+        return new SafeCsvRow<>(universeSize, parts);
     }
 
-    private String raw(final F columnName) {
-        try {
-            return tokens[columnName.ordinal()].trim();
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IllegalArgumentException(format(
-                    "Expected %d columns in the CSV file but found %d",
-                    universeSize,
-                    tokens.length));
-        }
+    private void initCurrentRows() {
+        empty = new SafeCsvRow<>(universeSize, new String[]{});
+        current = ThreadLocal.withInitial(() -> empty);
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initCurrentRows();
     }
 }
@@ -0,0 +1,289 @@
+package com.github.gaiadr2.load.csv;
+
+import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+import static java.lang.String.format;
+
+/**
+ * Immutable {@link CsvRow} produced by a {@link SafeCsvInterpreter}, validating the column values when
+ * they are requested.
+ */
+final class SafeCsvRow<F extends Enum<F>> implements CsvRow<F> {
+
+    /** Significant digits of a mantissa always exactly representable by a double, below 2^53 */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /** Largest power of ten exactly representable by a double */
+    private static final int MAX_EXACT_POWER = 22;
+
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i <= MAX_EXACT_POWER; i++) {
+            POWERS_OF_TEN[i] = 10.0 * POWERS_OF_TEN[i - 1];
+        }
+    }
+
+    /** Expected number of columns */
+    private final int universeSize;
+
+    /** Column values */
+    private final String[] tokens;
+
+    /**
+     * @param universeSize Expected number of columns
+     * @param tokens Column values, not copied
+     */
+    SafeCsvRow(final int universeSize, final String[] tokens) {
+        this.universeSize = universeSize;
+        this.tokens = tokens;
+    }
+
+    @Override
+    public OptionalInt intValue(final F column) {
+        final String raw = raw(column);
+        if (raw.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        try {
+            return OptionalInt.of(Integer.parseInt(raw));
+        } catch (NumberFormatException e) {
+            throw NonCompliantColumnFailure.notInt(column, raw);
+        }
+    }
+
+    @Override
+    public OptionalLong longValue(final F column) {
+        final String raw = raw(column);
+        if (raw.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(raw));
+        } catch (NumberFormatException e) {
+            throw NonCompliantColumnFailure.notLong(column, raw);
+        }
+    }
+
+    @Override
+    public Optional<Float> floatValue(final F column) {
+        final String raw = raw(column);
+        if (raw.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            final float value = Float.parseFloat(raw);
+            return Float.isFinite(value) ?
+                    Optional.of(value) :
+                    Optional.empty();
+        } catch (NumberFormatException e) {
+            throw NonCompliantColumnFailure.notFloat(column, raw);
+        }
+    }
+
+    @Override
+    public OptionalDouble doubleValue(final F column) {
+        final String raw = raw(column);
+        if (raw.isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        try {
+            final double value = Double.parseDouble(raw);
+            return Double.isFinite(value) ?
+                    OptionalDouble.of(value) :
+                    OptionalDouble.empty();
+        } catch (NumberFormatException e) {
+            throw NonCompliantColumnFailure.notDouble(column, raw);
+        }
+    }
+
+    @Override
+    public Optional<Boolean> booleanValue(final F column) {
+        final String raw = raw(column);
+        if (raw.isEmpty()) {
+            return Optional.empty();
+        }
+        switch (raw) {
+            case "true":
+                return Optional.of(true);
+            case "false":
+                return Optional.of(false);
+            default:
+                throw NonCompliantColumnFailure.notBoolean(column, raw);
+        }
+    }
+
+    @Override
+    public boolean doubleArrayValue(final F column, final DoubleArray target) {
+        target.clear();
+        final String raw = raw(column);
+        if (raw.isEmpty()) {
+            return false;
+        }
+        int start = 0;
+        int end = raw.length();
+        if (raw.charAt(0) == '(' || raw.charAt(0) == '[') {
+            final char closing = raw.charAt(0) == '(' ? ')' : ']';
+            if (raw.charAt(end - 1) != closing) {
+                throw NonCompliantColumnFailure.notDoubleArray(column, raw);
+            }
+            start = skipBlanks(raw, start + 1, end - 1);
+            end--;
+        }
+        if (start == end) {
+            return true;
+        }
+        while (true) {
+            final int comma = raw.indexOf(',', start);
+            final int stop = comma < 0 || comma > end ? end : comma;
+            final int from = skipBlanks(raw, start, stop);
+            if (from == stop && stop == end && target.size() > 0) {
+                // Nothing after the last separator
+                throw NonCompliantColumnFailure.notDoubleArray(column, raw);
+            }
+            target.add(parseItem(column, raw, from, stop));
+            if (stop == end) {
+                return true;
+            }
+            start = stop + 1;
+        }
+    }
+
+    @Override
+    public Optional<String> rawValue(final F column) {
+        final String raw = raw(column);
+        return raw.isEmpty() ?
+                Optional.empty() :
+                Optional.of(raw);
+    }
+
+    /**
+     * @param column Column being interpreted
+     * @param raw Raw value of the whole array column
+     * @param from Start of a single array element in the raw value, past its leading blanks
+     * @param to End of the element, exclusive
+     * @return The element value, {@code NaN} when the element is empty or null
+     */
+    private static <F extends Enum<F>> double parseItem(final F column,
+                                                        final String raw,
+                                                        final int from,
+                                                        final int to) {
+        int stop = to;
+        while (stop > from && raw.charAt(stop - 1) <= ' ') {
+            stop--;
+        }
+        if (from == stop || stop - from == 4 && raw.regionMatches(true, from, "null", 0, 4)) {
+            return Double.NaN;
+        }
+        final double value = parseDecimal(raw, from, stop);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        try {
+            return Double.parseDouble(raw.substring(from, stop));
+        } catch (NumberFormatException e) {
+            throw NonCompliantColumnFailure.notDoubleArray(column, raw);
+        }
+    }
+
+    /**
+     * Parse a plain decimal number without allocating, when it is exactly representable: at most 15
+     * significant digits and a decimal exponent of at most 22 in magnitude, the mantissa and the power of ten
+     * are then exact doubles, and their product or quotient is correctly rounded (Clinger's fast path).
+     *
+     * @param raw Characters holding the number
+     * @param from Start of the number
+     * @param to End of the number, exclusive
+     * @return The value, or {@code NaN} when the number is not plain or not exactly representable, e.g. too many
+     * digits, {@code NaN}, {@code Infinity} or a type suffix, to be parsed by {@link Double#parseDouble(String)}
+     */
+    static double parseDecimal(final CharSequence raw, final int from, final int to) {
+        int i = from;
+        final boolean negative = raw.charAt(i) == '-';
+        if (negative || raw.charAt(i) == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean point = false;
+        for (; i < to; i++) {
+            final char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa > 0 || c != '0') {
+                    if (++significant > MAX_EXACT_DIGITS) {
+                        return Double.NaN;
+                    }
+                    mantissa = 10 * mantissa + (c - '0');
+                }
+                if (point) {
+                    exponent--;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < to) {
+            if (raw.charAt(i) != 'e' && raw.charAt(i) != 'E' || ++i == to) {
+                return Double.NaN;
+            }
+            final boolean negativeExponent = raw.charAt(i) == '-';
+            if (negativeExponent || raw.charAt(i) == '+') {
+                i++;
+            }
+            if (i == to || to - i > 3) {
+                return Double.NaN;
+            }
+            int value = 0;
+            for (; i < to; i++) {
+                final char c = raw.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Double.NaN;
+                }
+                value = 10 * value + (c - '0');
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        final double magnitude;
+        if (mantissa == 0) {
+            magnitude = 0.0;
+        } else if (exponent < -MAX_EXACT_POWER || exponent > MAX_EXACT_POWER) {
+            return Double.NaN;
+        } else {
+            magnitude = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        }
+        return negative ? -magnitude : magnitude;
+    }
+
+    private static int skipBlanks(final String raw, final int from, final int to) {
+        int i = from;
+        while (i < to && raw.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private String raw(final F columnName) {
+        try {
+            return tokens[columnName.ordinal()].trim();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(format(
+                    "Expected %d columns in the CSV file but found %d",
+                    universeSize,
+                    tokens.length));
+        }
+    }
+}
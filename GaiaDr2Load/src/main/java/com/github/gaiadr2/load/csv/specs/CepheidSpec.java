@@ -0,0 +1,60 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_cepheid} table.
+ */
+public enum CepheidSpec {
+
+    SolutionId,
+    SourceId,
+    Pf,
+    PfError,
+    P1O,
+    P1OError,
+    P2O,
+    P2OError,
+    P3O,
+    P3OError,
+    EpochG,
+    EpochGError,
+    EpochBp,
+    EpochBpError,
+    EpochRp,
+    EpochRpError,
+    EpochRv,
+    EpochRvError,
+    IntAverageG,
+    IntAverageGError,
+    IntAverageBp,
+    IntAverageBpError,
+    IntAverageRp,
+    IntAverageRpError,
+    IntAverageRv,
+    IntAverageRvError,
+    PeakToPeakG,
+    PeakToPeakGError,
+    PeakToPeakBp,
+    PeakToPeakBpError,
+    PeakToPeakRp,
+    PeakToPeakRpError,
+    PeakToPeakRv,
+    PeakToPeakRvError,
+    Metallicity,
+    MetallicityError,
+    R21G,
+    R21GError,
+    R31G,
+    R31GError,
+    Phi21G,
+    Phi21GError,
+    Phi31G,
+    Phi31GError,
+    NumCleanEpochsG,
+    NumCleanEpochsBp,
+    NumCleanEpochsRp,
+    NumCleanEpochsRv,
+    TypeBestClassification,
+    Type2BestSubClassification,
+    ModeBestClassification,
+    MultiModeBestClassification
+}
@@ -0,0 +1,13 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_classifier_result} table.
+ */
+public enum ClassifierResultSpec {
+
+    SolutionId,
+    SourceId,
+    ClassifierName,
+    BestClassName,
+    BestClassScore
+}
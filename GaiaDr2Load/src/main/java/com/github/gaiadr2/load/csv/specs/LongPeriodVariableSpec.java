@@ -0,0 +1,22 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_long_period_variable} table.
+ */
+public enum LongPeriodVariableSpec {
+
+    SolutionId,
+    SourceId,
+    Frequency,
+    FrequencyError,
+    Amplitude,
+    MedianDeltaWlRp,
+    IsCmdModelled,
+    SupergiantFlag,
+    AbsoluteMagG,
+    AbsoluteMagGError,
+    BolMag,
+    BolMagError,
+    BolCorr,
+    BolCorrError
+}
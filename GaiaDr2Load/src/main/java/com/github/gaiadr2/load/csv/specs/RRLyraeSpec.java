@@ -0,0 +1,55 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_rrlyrae} table.
+ */
+public enum RRLyraeSpec {
+
+    SolutionId,
+    SourceId,
+    Pf,
+    PfError,
+    P1O,
+    P1OError,
+    EpochG,
+    EpochGError,
+    EpochBp,
+    EpochBpError,
+    EpochRp,
+    EpochRpError,
+    EpochRv,
+    EpochRvError,
+    IntAverageG,
+    IntAverageGError,
+    IntAverageBp,
+    IntAverageBpError,
+    IntAverageRp,
+    IntAverageRpError,
+    IntAverageRv,
+    IntAverageRvError,
+    PeakToPeakG,
+    PeakToPeakGError,
+    PeakToPeakBp,
+    PeakToPeakBpError,
+    PeakToPeakRp,
+    PeakToPeakRpError,
+    PeakToPeakRv,
+    PeakToPeakRvError,
+    Metallicity,
+    MetallicityError,
+    R21G,
+    R21GError,
+    R31G,
+    R31GError,
+    Phi21G,
+    Phi21GError,
+    Phi31G,
+    Phi31GError,
+    NumCleanEpochsG,
+    NumCleanEpochsBp,
+    NumCleanEpochsRp,
+    NumCleanEpochsRv,
+    GAbsorption,
+    GAbsorptionError,
+    BestClassification
+}
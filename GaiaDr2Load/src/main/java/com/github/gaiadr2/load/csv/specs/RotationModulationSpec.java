@@ -0,0 +1,48 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_rotation_modulation} table.
+ */
+public enum RotationModulationSpec {
+
+    SolutionId,
+    SourceId,
+    NumSegments,
+    SegmentsStartTime,
+    SegmentsEndTime,
+    SegmentsColourMagIntercept,
+    SegmentsColourMagInterceptError,
+    SegmentsColourMagSlope,
+    SegmentsColourMagSlopeError,
+    SegmentsCorrelationCoefficient,
+    SegmentsCorrelationSignificance,
+    SegmentsRotationPeriod,
+    SegmentsRotationPeriodError,
+    SegmentsRotationPeriodFap,
+    SegmentsCosTerm,
+    SegmentsCosTermError,
+    SegmentsSinTerm,
+    SegmentsSinTermError,
+    SegmentsA0Term,
+    SegmentsA0TermError,
+    SegmentsActivityIndex,
+    SegmentsActivityIndexError,
+    SegmentsUnspottedGMag,
+    SegmentsUnspottedGMagError,
+    SegmentsUnspottedBpMag,
+    SegmentsUnspottedBpMagError,
+    SegmentsUnspottedRpMag,
+    SegmentsUnspottedRpMagError,
+    NumOutliers,
+    OutliersTime,
+    BestRotationPeriod,
+    BestRotationPeriodError,
+    MaxActivityIndex,
+    MaxActivityIndexError,
+    GUnspotted,
+    GUnspottedError,
+    BpUnspotted,
+    BpUnspottedError,
+    RpUnspotted,
+    RpUnspottedError
+}
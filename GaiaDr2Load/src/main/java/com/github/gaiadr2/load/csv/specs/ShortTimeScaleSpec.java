@@ -0,0 +1,17 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_short_timescale} table.
+ */
+public enum ShortTimeScaleSpec {
+
+    SolutionId,
+    SourceId,
+    AmplitudeEstimate,
+    NumberOfFovTransits,
+    MeanOfFovAbbeValues,
+    VariogramNumPoints,
+    VariogramCharTimescales,
+    VariogramValues,
+    Frequency
+}
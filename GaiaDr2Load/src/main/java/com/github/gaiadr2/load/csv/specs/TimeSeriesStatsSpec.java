@@ -0,0 +1,52 @@
+package com.github.gaiadr2.load.csv.specs;
+
+/**
+ * The order of the fields in the CSV representation of the {@code vari_time_series_statistics} table.
+ */
+public enum TimeSeriesStatsSpec {
+
+    SolutionId,
+    SourceId,
+    NumSelectedGFov,
+    MeanObsTimeGFov,
+    TimeDurationGFov,
+    MinMagGFov,
+    MaxMagGFov,
+    MeanMagGFov,
+    MedianMagGFov,
+    RangeMagGFov,
+    StdDevMagGFov,
+    SkewnessMagGFov,
+    KurtosisMagGFov,
+    MadMagGFov,
+    AbbeMagGFov,
+    IqrMagGFov,
+    NumSelectedBp,
+    MeanObsTimeBp,
+    TimeDurationBp,
+    MinMagBp,
+    MaxMagBp,
+    MeanMagBp,
+    MedianMagBp,
+    RangeMagBp,
+    StdDevMagBp,
+    SkewnessMagBp,
+    KurtosisMagBp,
+    MadMagBp,
+    AbbeMagBp,
+    IqrMagBp,
+    NumSelectedRp,
+    MeanObsTimeRp,
+    TimeDurationRp,
+    MinMagRp,
+    MaxMagRp,
+    MeanMagRp,
+    MedianMagRp,
+    RangeMagRp,
+    StdDevMagRp,
+    SkewnessMagRp,
+    KurtosisMagRp,
+    MadMagRp,
+    AbbeMagRp,
+    IqrMagRp
+}
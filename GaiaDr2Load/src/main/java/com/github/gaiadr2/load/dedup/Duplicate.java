@@ -0,0 +1,39 @@
+package com.github.gaiadr2.load.dedup;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A source identifier found more than once, with the files holding it
+ */
+public final class Duplicate {
+
+    private final long sourceId;
+    private final List<Path> origins;
+
+    /**
+     * @param sourceId Duplicated identifier
+     * @param origins Files holding the identifier, once per occurrence, in reading order
+     */
+    public Duplicate(final long sourceId, final List<Path> origins) {
+        this.sourceId = sourceId;
+        this.origins = Collections.unmodifiableList(origins);
+    }
+
+    public long getSourceId() {
+        return sourceId;
+    }
+
+    /**
+     * @return Files holding the identifier, once per occurrence, in reading order
+     */
+    public List<Path> getOrigins() {
+        return origins;
+    }
+
+    @Override
+    public String toString() {
+        return sourceId + " in " + origins;
+    }
+}
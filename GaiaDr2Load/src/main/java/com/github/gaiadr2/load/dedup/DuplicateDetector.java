@@ -0,0 +1,126 @@
+package com.github.gaiadr2.load.dedup;
+
+import com.github.gaiadr2.load.stats.HealpixMaps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks that source identifiers are unique across files, e.g. when merging partial re-exports of
+ * {@code gaia_source}, within a bounded amount of off-heap memory.
+ * <p>
+ * A first pass counts the identifiers of each level {@value #PARTITION_LEVEL} HEALPix pixel, read from the
+ * upper bits of the identifiers. Consecutive pixels are then grouped into partitions whose identifiers fit in
+ * an {@link OffHeapIdTable} within the memory budget, about 16 bytes per identifier, and every partition is
+ * checked by a pass over the files. Duplicates are expected to be rare: their origins are kept on the heap,
+ * up to a maximum number of reported identifiers.
+ */
+public final class DuplicateDetector {
+
+    /**
+     * HEALPix level of the pixels grouped into partitions.
+     */
+    public static final int PARTITION_LEVEL = 5;
+
+    private static final int PIXELS = HealpixMaps.pixels(PARTITION_LEVEL);
+
+    private final long memoryBudget;
+    private final int maxReported;
+
+    /**
+     * @param memoryBudget Maximum off-heap bytes of the hash table of a partition
+     * @param maxReported Maximum number of duplicated identifiers reported with their origins
+     */
+    public DuplicateDetector(final long memoryBudget, final int maxReported) {
+        if (memoryBudget < OffHeapIdTable.bytes(1)) {
+            throw new IllegalArgumentException("Memory budget is too small: " + memoryBudget);
+        }
+        if (maxReported < 0) {
+            throw new IllegalArgumentException("Maximum reported duplicates must not be negative: " + maxReported);
+        }
+        this.memoryBudget = memoryBudget;
+        this.maxReported = maxReported;
+    }
+
+    /**
+     * @param files Files to check
+     * @param reader Reads the identifiers of a file
+     * @return Duplicated identifiers and their files
+     * @throws IOException When a file cannot be read
+     */
+    public DuplicateReport run(final List<Path> files, final IdReader reader) throws IOException {
+        final long[] counts = new long[PIXELS];
+        for (final Path file : files) {
+            reader.read(file, id -> counts[partition(id)]++);
+        }
+        long ids = 0;
+        for (final long count : counts) {
+            ids += count;
+        }
+
+        final Map<Long, List<Path>> duplicates = new TreeMap<>();
+        long distinct = 0;
+        long tableBytes = 0;
+        int passes = 0;
+        int from = 0;
+        while (from < counts.length) {
+            // Largest run of pixels fitting the budget, at least one pixel
+            long entries = counts[from];
+            int to = from + 1;
+            while (to < counts.length && OffHeapIdTable.bytes(entries + counts[to]) <= memoryBudget) {
+                entries += counts[to++];
+            }
+            if (entries > 0) {
+                final OffHeapIdTable table = new OffHeapIdTable(entries);
+                final int first = from;
+                final int last = to;
+                for (int f = 0; f < files.size(); f++) {
+                    final int origin = f;
+                    reader.read(files.get(f), id -> {
+                        final int partition = partition(id);
+                        if (partition >= first && partition < last) {
+                            final int previous = table.putIfAbsent(id, origin);
+                            if (previous != OffHeapIdTable.ABSENT) {
+                                report(duplicates, id, files.get(previous), files.get(origin));
+                            }
+                        }
+                    });
+                }
+                distinct += table.size();
+                tableBytes = Math.max(tableBytes, table.allocatedBytes());
+                passes++;
+            }
+            from = to;
+        }
+        final List<Duplicate> reported = new ArrayList<>(duplicates.size());
+        for (final Map.Entry<Long, List<Path>> entry : duplicates.entrySet()) {
+            reported.add(new Duplicate(entry.getKey(), entry.getValue()));
+        }
+        return new DuplicateReport(ids, distinct, reported, passes, tableBytes);
+    }
+
+    private void report(final Map<Long, List<Path>> duplicates, final long id, final Path first, final Path origin) {
+        List<Path> origins = duplicates.get(id);
+        if (origins == null) {
+            if (duplicates.size() >= maxReported) {
+                return;
+            }
+            origins = new ArrayList<>();
+            origins.add(first);
+            duplicates.put(id, origins);
+        }
+        origins.add(origin);
+    }
+
+    private static int partition(final long sourceId) {
+        final int pixel = HealpixMaps.pixel(sourceId, PARTITION_LEVEL);
+        if (sourceId < 0 || pixel >= PIXELS) {
+            throw new IllegalArgumentException("Invalid source identifier: " + sourceId);
+        }
+        return pixel;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.gaiadr2.load.dedup;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Outcome of a {@link DuplicateDetector} run
+ */
+public final class DuplicateReport {
+
+    private final long ids;
+    private final long distinct;
+    private final List<Duplicate> duplicates;
+    private final int passes;
+    private final long tableBytes;
+
+    DuplicateReport(final long ids,
+                    final long distinct,
+                    final List<Duplicate> duplicates,
+                    final int passes,
+                    final long tableBytes) {
+        this.ids = ids;
+        this.distinct = distinct;
+        this.duplicates = Collections.unmodifiableList(duplicates);
+        this.passes = passes;
+        this.tableBytes = tableBytes;
+    }
+
+    /**
+     * @return Number of identifiers read
+     */
+    public long getIds() {
+        return ids;
+    }
+
+    /**
+     * @return Number of distinct identifiers
+     */
+    public long getDistinct() {
+        return distinct;
+    }
+
+    /**
+     * @return {@code true} when every identifier was read once
+     */
+    public boolean isUnique() {
+        return ids == distinct;
+    }
+
+    /**
+     * @return Duplicated identifiers, by ascending identifier, up to the maximum reported
+     */
+    public List<Duplicate> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * @return Number of passes over the files holding identifiers, after the counting pass
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * @return Off-heap bytes of the largest hash table
+     */
+    public long getTableBytes() {
+        return tableBytes;
+    }
+
+    @Override
+    public String toString() {
+        return format("%d identifiers, %d distinct, %d duplicated reported; %d passes, %.1f MB table",
+                ids, distinct, duplicates.size(), passes, tableBytes / 1E6);
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.gaiadr2.load.dedup;
+
+import com.github.gaiadr2.avro.io.ProjectedGaiaSourceReader;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.file.DataFileReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads the source identifiers of a file.
+ */
+@FunctionalInterface
+public interface IdReader {
+
+    /**
+     * @param file A file
+     * @param ids Receives the identifiers of the file, in any order
+     * @throws IOException When the file cannot be read
+     */
+    void read(final Path file, final LongConsumer ids) throws IOException;
+
+    /**
+     * @return Reader of Avro data files of {@link GaiaSource} records, decoding only their identifiers
+     */
+    static IdReader gaiaSources() {
+        return (file, ids) -> {
+            final ProjectedGaiaSourceReader projection =
+                    new ProjectedGaiaSourceReader(Collections.singletonList("sourceId"));
+            try (DataFileReader<GaiaSource> reader = new DataFileReader<>(file.toFile(), projection)) {
+                GaiaSource reuse = null;
+                while (reader.hasNext()) {
+                    reuse = reader.next(reuse);
+                    ids.accept(reuse.getSourceId());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.gaiadr2.load.dedup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Off-heap open-addressing hash table from {@code long} identifiers to the {@code int} index of the file
+ * they were first seen in, with linear probing.
+ * <p>
+ * Slots cost {@value #BYTES_PER_SLOT} bytes, in direct buffers of at most {@code 2^27} slots each, so the
+ * table is not limited to 2 GB and stays out of the garbage-collected heap. Entries cannot be removed. The
+ * table is not thread-safe.
+ */
+public final class OffHeapIdTable {
+
+    /**
+     * Bytes of a slot: identifier and origin.
+     */
+    public static final int BYTES_PER_SLOT = Long.BYTES + Integer.BYTES;
+
+    /**
+     * Maximum ratio of the entries to the slots.
+     */
+    public static final double LOAD_FACTOR = 0.75;
+
+    /**
+     * Returned by {@link #putIfAbsent} for new identifiers.
+     */
+    public static final int ABSENT = -1;
+
+    private static final int SEGMENT_BITS = 27;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    /** Slots are addressed by scaling the upper 32 bits of the hash */
+    private static final long MAX_SLOTS = 1L << 32;
+
+    private final LongBuffer[] ids;
+    /** Origin plus one, zero for empty slots */
+    private final IntBuffer[] origins;
+    private final long slots;
+    private final long capacity;
+    private long size;
+
+    /**
+     * @param capacity Maximum number of entries
+     */
+    public OffHeapIdTable(final long capacity) {
+        if (capacity < 0 || slots(capacity) > MAX_SLOTS) {
+            throw new IllegalArgumentException("Capacity must be between 0 and " + (long) (MAX_SLOTS * LOAD_FACTOR)
+                    + ": " + capacity);
+        }
+        final long slots = slots(capacity);
+        final int segments = (int) ((slots + SEGMENT_MASK) >>> SEGMENT_BITS);
+        this.ids = new LongBuffer[segments];
+        this.origins = new IntBuffer[segments];
+        for (int segment = 0; segment < segments; segment++) {
+            final int segmentSlots = (int) Math.min(slots - ((long) segment << SEGMENT_BITS), 1L << SEGMENT_BITS);
+            ids[segment] = ByteBuffer.allocateDirect(segmentSlots * Long.BYTES)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer();
+            origins[segment] = ByteBuffer.allocateDirect(segmentSlots * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        this.slots = slots;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param capacity Maximum number of entries
+     * @return Number of slots of a table of this capacity
+     */
+    static long slots(final long capacity) {
+        return Math.max(2L, (long) Math.ceil(capacity / LOAD_FACTOR));
+    }
+
+    /**
+     * @param capacity Maximum number of entries
+     * @return Off-heap bytes of a table of this capacity
+     */
+    public static long bytes(final long capacity) {
+        return slots(capacity) * BYTES_PER_SLOT;
+    }
+
+    /**
+     * @param id An identifier
+     * @param origin Index of the file holding the identifier, not negative
+     * @return Origin of the identifier when already present, {@link #ABSENT} when added
+     * @throws IllegalStateException When the table already holds its capacity
+     */
+    public int putIfAbsent(final long id, final int origin) {
+        if (origin < 0 || origin == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid origin: " + origin);
+        }
+        long slot = ((mix(id) >>> 32) * slots) >>> 32;
+        while (true) {
+            final int segment = (int) (slot >>> SEGMENT_BITS);
+            final int offset = (int) (slot & SEGMENT_MASK);
+            final int stored = origins[segment].get(offset);
+            if (stored == 0) {
+                if (size == capacity) {
+                    throw new IllegalStateException("Table is full: " + size + " identifiers");
+                }
+                ids[segment].put(offset, id);
+                origins[segment].put(offset, origin + 1);
+                size++;
+                return ABSENT;
+            }
+            if (ids[segment].get(offset) == id) {
+                return stored - 1;
+            }
+            if (++slot == slots) {
+                slot = 0;
+            }
+        }
+    }
+
+    /**
+     * @return Number of identifiers
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return Off-heap bytes of the table
+     */
+    public long allocatedBytes() {
+        return slots * BYTES_PER_SLOT;
+    }
+
+    /**
+     * Spread the identifier bits: the low bits of source identifiers are a counter within a HEALPix pixel.
+     */
+    private static long mix(final long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
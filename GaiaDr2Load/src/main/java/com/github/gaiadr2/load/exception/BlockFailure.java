@@ -0,0 +1,33 @@
+package com.github.gaiadr2.load.exception;
+
+import static java.lang.String.format;
+
+/**
+ * This failure mode happens when a line of a block of CSV lines cannot be interpreted. The records of the
+ * lines before it are complete, and the remaining lines are left alone.
+ */
+public final class BlockFailure extends RuntimeException {
+
+    private final int line;
+
+    private BlockFailure(final String message, final int line, final Throwable cause) {
+        super(message, cause);
+        this.line = line;
+    }
+
+    /**
+     * @param line Index of the failed line in the block
+     * @param cause Failure of the line
+     * @return Exception for the line having failed
+     */
+    public static BlockFailure lineFailed(final int line, final RuntimeException cause) {
+        return new BlockFailure(format("Line %d of the block failed: %s", line, cause), line, cause);
+    }
+
+    /**
+     * @return Index of the failed line in the block, as passed to the interpreter
+     */
+    public int getLine() {
+        return line;
+    }
+}
@@ -57,6 +57,15 @@ public final class NonCompliantColumnFailure extends RuntimeException {
         return new NonCompliantColumnFailure(message("boolean", column, value));
     }
 
+    /**
+     * @param column Column
+     * @param value Value of the column
+     * @return Exception for the value not being a valid list of double values
+     */
+    public static <C extends Enum<C>> NonCompliantColumnFailure notDoubleArray(final C column, final String value) {
+        return new NonCompliantColumnFailure(message("double array", column, value));
+    }
+
     /**
      * Format the error message
      *
@@ -0,0 +1,39 @@
+package com.github.gaiadr2.load.exception;
+
+import static java.lang.String.format;
+
+/**
+ * This failure mode happens when a stage of a loading pipeline fails, which stops the whole pipeline.
+ */
+public final class PipelineFailure extends RuntimeException {
+
+    private PipelineFailure(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * @param stage Name of the failed stage
+     * @param cause Failure of the stage
+     * @return Exception for the stage having failed
+     */
+    public static PipelineFailure stageFailed(final String stage, final Throwable cause) {
+        return new PipelineFailure(format("Pipeline stage %s failed: %s", stage, cause), cause);
+    }
+
+    /**
+     * @param task Description of the failed task, e.g. the file being converted
+     * @param cause Failure of the task
+     * @return Exception for the task having failed
+     */
+    public static PipelineFailure taskFailed(final String task, final Throwable cause) {
+        return new PipelineFailure(format("Task %s failed: %s", task, cause), cause);
+    }
+
+    /**
+     * @param cause Interruption of the thread waiting for the pipeline
+     * @return Exception for the pipeline having been interrupted
+     */
+    public static PipelineFailure interrupted(final InterruptedException cause) {
+        return new PipelineFailure("Pipeline was interrupted", cause);
+    }
+}
@@ -1,19 +1,35 @@
 package com.github.gaiadr2.load.interpreters;
 
+import com.github.gaiadr2.avro.common.Dval;
 import com.github.gaiadr2.load.csv.CsvInterpreter;
+import com.github.gaiadr2.load.csv.DoubleArray;
 import com.github.gaiadr2.load.csv.SafeCsvInterpreter;
 
+import java.util.Locale;
+import java.util.OptionalDouble;
+
 import static com.github.gaiadr2.load.exception.EmptyColumnFailure.emptyColumn;
 
 /**
- * Common implementation for CSV interpreters providing basic utility methods
+ * Common implementation for CSV interpreters providing basic utility methods.
+ *
+ * The current line of the underlying {@link CsvInterpreter} is confined to the calling thread, so interpreters
+ * are thread-safe as long as any other state they hold is confined the same way: a single instance can be used
+ * in {@code lines.parallel().map(interpreter)}.
  */
 abstract class AnyInterpreter<C extends Enum<C>> {
 
     protected final CsvInterpreter<C> interpreter;
 
     AnyInterpreter(final Class<C> columnSpec) {
-        interpreter = new SafeCsvInterpreter<>(columnSpec);
+        this(new SafeCsvInterpreter<>(columnSpec));
+    }
+
+    /**
+     * @param interpreter Interpreter of the CSV lines, e.g. wrapped to record the values read
+     */
+    AnyInterpreter(final CsvInterpreter<C> interpreter) {
+        this.interpreter = interpreter;
     }
 
     /**
@@ -59,4 +75,73 @@ abstract class AnyInterpreter<C extends Enum<C>> {
     String getRaw(final C column) {
         return interpreter.rawValue(column).orElseThrow(() -> emptyColumn(column));
     }
+
+    /**
+     * @param value A required column providing the value
+     * @param error A required column providing the uncertainty
+     * @return The pair of values
+     */
+    Dval getDval(final C value, final C error) {
+        return new Dval(getDouble(value), getDouble(error));
+    }
+
+    /**
+     * @param value A column providing the value
+     * @param error A column providing the uncertainty
+     * @return The pair of values, when the value is available, {@code null} otherwise
+     */
+    Dval optionalDval(final C value, final C error) {
+        final OptionalDouble val = interpreter.doubleValue(value);
+        if (val.isPresent()) {
+            return new Dval(val.getAsDouble(), interpreter.doubleValue(error).orElse(Double.NaN));
+        }
+        return null;
+    }
+
+    /**
+     * For fields the schema declares mandatory although the archive leaves them empty for some classes of
+     * sources (e.g. the overtone periods of fundamental mode pulsators).
+     *
+     * @param value A column providing the value
+     * @param error A column providing the uncertainty
+     * @return The pair of values, missing ones being set to {@code NaN}
+     */
+    Dval dvalOrNaN(final C value, final C error) {
+        return new Dval(
+                interpreter.doubleValue(value).orElse(Double.NaN),
+                interpreter.doubleValue(error).orElse(Double.NaN));
+    }
+
+    /**
+     * @param column A required column holding a list of values
+     * @param buffer Reusable buffer receiving the values
+     * @return The buffer, filled with the values
+     */
+    DoubleArray getDoubles(final C column, final DoubleArray buffer) {
+        if (!interpreter.doubleArrayValue(column, buffer)) {
+            throw emptyColumn(column);
+        }
+        return buffer;
+    }
+
+    /**
+     * Interpret a label as an enum symbol: case is ignored and separators ({@code -}, {@code /}, blanks)
+     * are mapped to underscores.
+     *
+     * @param type Enumeration type
+     * @param column A required column
+     * @return The enum symbol
+     */
+    <E extends Enum<E>> E getEnum(final Class<E> type, final C column) {
+        final String label = getRaw(column)
+                .toUpperCase(Locale.ROOT)
+                .replace('-', '_')
+                .replace('/', '_')
+                .replace(' ', '_');
+        try {
+            return Enum.valueOf(type, label);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown value for " + type.getSimpleName() + ": " + label);
+        }
+    }
 }
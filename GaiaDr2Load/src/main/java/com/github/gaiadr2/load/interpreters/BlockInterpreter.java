@@ -0,0 +1,82 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.load.exception.BlockFailure;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import static com.github.gaiadr2.load.exception.BlockFailure.lineFailed;
+
+/**
+ * Interpreter of CSV lines which also takes blocks of lines, the unit of work of queues, writers and metrics.
+ *
+ * Every line gets a new record, stored once complete: when a line fails, a {@link BlockFailure} gives its
+ * index, the records of the lines before it are in place and the entries from its own on are left as they
+ * were. Nothing needs to be rolled back, and the caller may carry on from the next line.
+ *
+ * @param <R> Type of the records
+ */
+public interface BlockInterpreter<R> extends Function<String, R> {
+
+    /**
+     * @param lines Lines to interpret
+     * @param from Index of the first line
+     * @param to Index after the last line
+     * @param out Array receiving the record of line {@code i} at index {@code i - from}
+     * @throws BlockFailure When a line cannot be interpreted, giving its index in {@code lines}
+     */
+    default void applyAll(final String[] lines, final int from, final int to, final R[] out) {
+        for (int i = from; i < to; i++) {
+            try {
+                out[i - from] = apply(lines[i]);
+            } catch (final RuntimeException e) {
+                throw lineFailed(i, e);
+            }
+        }
+    }
+
+    /**
+     * @param data Buffer of UTF-8 lines, e.g. a block read from a file
+     * @param lineOffsets Offsets of the lines in the buffer, as found by {@link #indexLines}: line {@code i}
+     *                    spans {@code [lineOffsets[i], lineOffsets[i + 1])}, its line separator included
+     * @param from Index of the first line
+     * @param to Index after the last line
+     * @param out Array receiving the record of line {@code i} at index {@code i - from}
+     * @throws BlockFailure When a line cannot be interpreted, giving its index in {@code lineOffsets}
+     */
+    default void applyAll(final byte[] data, final int[] lineOffsets, final int from, final int to, final R[] out) {
+        for (int i = from; i < to; i++) {
+            final int start = lineOffsets[i];
+            int end = lineOffsets[i + 1];
+            while (end > start && (data[end - 1] == '\n' || data[end - 1] == '\r')) {
+                end--;
+            }
+            try {
+                out[i - from] = apply(new String(data, start, end - start, StandardCharsets.UTF_8));
+            } catch (final RuntimeException e) {
+                throw lineFailed(i, e);
+            }
+        }
+    }
+
+    /**
+     * Find the complete lines of a buffer, for {@link #applyAll(byte[], int[], int, int, Object[])}.
+     *
+     * @param data Buffer of lines
+     * @param from Offset of the first line
+     * @param to End of the data: a trailing line without separator is not counted, and can be carried over to
+     *           the next block
+     * @param lineOffsets Array receiving the offsets of the lines, followed by the end of the last one
+     * @return Number of complete lines found, at most {@code lineOffsets.length - 1}
+     */
+    static int indexLines(final byte[] data, final int from, final int to, final int[] lineOffsets) {
+        int count = 0;
+        lineOffsets[0] = from;
+        for (int i = from; i < to && count < lineOffsets.length - 1; i++) {
+            if (data[i] == '\n') {
+                lineOffsets[++count] = i + 1;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.vari.Cepheid;
+import com.github.gaiadr2.avro.vari.ClassCepheid;
+import com.github.gaiadr2.avro.vari.ModeCepheid;
+import com.github.gaiadr2.avro.vari.MultiModeCepheid;
+import com.github.gaiadr2.avro.vari.SubClassType2;
+import com.github.gaiadr2.avro.vari.VarInfo;
+import com.github.gaiadr2.load.csv.specs.CepheidSpec;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_cepheid} Gaia DR2 archive table
+ */
+public final class CepheidInterpreter extends AnyInterpreter<CepheidSpec> implements Function<String, Cepheid> {
+
+    public CepheidInterpreter() {
+        super(CepheidSpec.class);
+    }
+
+    @Override
+    public Cepheid apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        return new Cepheid(
+                getLong(CepheidSpec.SolutionId),
+                getLong(CepheidSpec.SourceId),
+                varInfo(),
+                dvalOrNaN(CepheidSpec.P3O, CepheidSpec.P3OError),
+                getEnum(ClassCepheid.class, CepheidSpec.TypeBestClassification),
+                subType(),
+                getEnum(ModeCepheid.class, CepheidSpec.ModeBestClassification),
+                multiMode());
+    }
+
+    /**
+     * Generate the required {@link VarInfo} component. Cepheids have no interstellar absorption estimate.
+     *
+     * @return The interpreted component
+     */
+    private VarInfo varInfo() {
+        return new VarInfo(
+                dvalOrNaN(CepheidSpec.Pf, CepheidSpec.PfError),
+                dvalOrNaN(CepheidSpec.P1O, CepheidSpec.P1OError),
+                dvalOrNaN(CepheidSpec.P2O, CepheidSpec.P2OError),
+                dvalOrNaN(CepheidSpec.EpochG, CepheidSpec.EpochGError),
+                optionalDval(CepheidSpec.EpochBp, CepheidSpec.EpochBpError),
+                optionalDval(CepheidSpec.EpochRp, CepheidSpec.EpochRpError),
+                dvalOrNaN(CepheidSpec.IntAverageG, CepheidSpec.IntAverageGError),
+                optionalDval(CepheidSpec.IntAverageBp, CepheidSpec.IntAverageBpError),
+                optionalDval(CepheidSpec.IntAverageRp, CepheidSpec.IntAverageRpError),
+                dvalOrNaN(CepheidSpec.PeakToPeakG, CepheidSpec.PeakToPeakGError),
+                optionalDval(CepheidSpec.PeakToPeakBp, CepheidSpec.PeakToPeakBpError),
+                optionalDval(CepheidSpec.PeakToPeakRp, CepheidSpec.PeakToPeakRpError),
+                dvalOrNaN(CepheidSpec.Metallicity, CepheidSpec.MetallicityError),
+                dvalOrNaN(CepheidSpec.R21G, CepheidSpec.R21GError),
+                dvalOrNaN(CepheidSpec.R31G, CepheidSpec.R31GError),
+                dvalOrNaN(CepheidSpec.Phi21G, CepheidSpec.Phi21GError),
+                dvalOrNaN(CepheidSpec.Phi31G, CepheidSpec.Phi31GError),
+                interpreter.intValue(CepheidSpec.NumCleanEpochsG).orElse(0),
+                interpreter.intValue(CepheidSpec.NumCleanEpochsBp).orElse(0),
+                interpreter.intValue(CepheidSpec.NumCleanEpochsRp).orElse(0),
+                new Dval(Double.NaN, Double.NaN));
+    }
+
+    /**
+     * @return The type II sub-classification, {@link SubClassType2#NOT_APPLICABLE} when not provided
+     */
+    private SubClassType2 subType() {
+        return interpreter.rawValue(CepheidSpec.Type2BestSubClassification).isPresent() ?
+                getEnum(SubClassType2.class, CepheidSpec.Type2BestSubClassification) :
+                SubClassType2.NOT_APPLICABLE;
+    }
+
+    /**
+     * The archive labels the modes as {@code F/1O}, {@code 1O/2O/3O}, etc.
+     *
+     * @return The multi-mode classification, when available, {@code null} otherwise
+     */
+    private MultiModeCepheid multiMode() {
+        final Optional<String> raw = interpreter.rawValue(CepheidSpec.MultiModeBestClassification);
+        if (!raw.isPresent()) {
+            return null;
+        }
+        final String label = raw.get()
+                .replace("1O", "FO")
+                .replace("2O", "SO")
+                .replace("3O", "TO")
+                .replace('/', '_');
+        try {
+            return MultiModeCepheid.valueOf(label);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown multi-mode classification " + raw.get());
+        }
+    }
+}
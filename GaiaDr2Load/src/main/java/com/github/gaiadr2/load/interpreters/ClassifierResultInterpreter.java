@@ -0,0 +1,29 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.ClassName;
+import com.github.gaiadr2.avro.vari.ClassifierResult;
+import com.github.gaiadr2.load.csv.specs.ClassifierResultSpec;
+
+import java.util.function.Function;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_classifier_result} Gaia DR2 archive table
+ */
+public final class ClassifierResultInterpreter extends AnyInterpreter<ClassifierResultSpec>
+        implements Function<String, ClassifierResult> {
+
+    public ClassifierResultInterpreter() {
+        super(ClassifierResultSpec.class);
+    }
+
+    @Override
+    public ClassifierResult apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        return new ClassifierResult(
+                getLong(ClassifierResultSpec.SolutionId),
+                getLong(ClassifierResultSpec.SourceId),
+                getRaw(ClassifierResultSpec.ClassifierName),
+                getEnum(ClassName.class, ClassifierResultSpec.BestClassName),
+                getDouble(ClassifierResultSpec.BestClassScore));
+    }
+}
@@ -14,25 +14,44 @@ import com.github.gaiadr2.avro.source.PhotMode;
 import com.github.gaiadr2.avro.source.RotatorObjectType;
 import com.github.gaiadr2.avro.source.Rvs;
 import com.github.gaiadr2.avro.source.VarFlag;
+import com.github.gaiadr2.load.csv.SafeCsvInterpreter;
 import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.stats.ColumnRecorder;
+import com.github.gaiadr2.load.stats.ColumnStatistics;
 
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
-import java.util.function.Function;
 
 /**
- * Interpreter for the CSV representation of the {@code gaia_source} Gaia DR2 archive table
+ * Interpreter for the CSV representation of the {@code gaia_source} Gaia DR2 archive table, one line or one
+ * block of lines at a time
  */
-public final class GaiaSourceInterpreter extends AnyInterpreter<GaiaSourceSpec> implements Function<String, GaiaSource> {
+public final class GaiaSourceInterpreter extends AnyInterpreter<GaiaSourceSpec> implements BlockInterpreter<GaiaSource> {
+
+    /** Recorder of the column statistics of the interpreted lines, when requested */
+    private final ColumnRecorder<GaiaSourceSpec> recorder;
 
     public GaiaSourceInterpreter() {
         super(GaiaSourceSpec.class);
+        this.recorder = null;
+    }
+
+    /**
+     * @param statistics Collector accounting for every successfully interpreted line
+     */
+    public GaiaSourceInterpreter(final ColumnStatistics<GaiaSourceSpec> statistics) {
+        this(statistics.recorder(new SafeCsvInterpreter<>(GaiaSourceSpec.class)));
+    }
+
+    private GaiaSourceInterpreter(final ColumnRecorder<GaiaSourceSpec> recorder) {
+        super(recorder);
+        this.recorder = recorder;
     }
 
     @Override
     public GaiaSource apply(final String csvLine) {
         interpreter.accept(csvLine);
-        return new GaiaSource(
+        final GaiaSource source = new GaiaSource(
                 getLong(GaiaSourceSpec.SolutionId),
                 getLong(GaiaSourceSpec.SourceId),
                 getLong(GaiaSourceSpec.RandomIndex),
@@ -49,6 +68,10 @@ public final class GaiaSourceInterpreter extends AnyInterpreter<GaiaSourceSpec>
                 variFlag(getRaw(GaiaSourceSpec.PhotVariableFlag)),
                 rvs(),
                 astrophysicalParameters());
+        if (recorder != null) {
+            recorder.commit();
+        }
+        return source;
     }
 
     /**
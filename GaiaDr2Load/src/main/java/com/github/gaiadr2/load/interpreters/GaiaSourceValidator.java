@@ -0,0 +1,372 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.source.PhotMode;
+import com.github.gaiadr2.avro.source.RotatorObjectType;
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
+import com.github.gaiadr2.load.validate.ColumnViolations;
+
+import java.util.OptionalInt;
+
+import static com.github.gaiadr2.load.exception.EmptyColumnFailure.emptyColumn;
+
+/**
+ * Checks the CSV representation of the {@code gaia_source} table as {@link GaiaSourceInterpreter} does, without
+ * building any record: the number of columns, the type of every column read by the interpreter, the enumerated
+ * codes, and the required columns, depending on the optional components present in the line.
+ * <p>
+ * Unlike the interpreter, which stops at the first failure of a line, every column of the line is checked, so
+ * that a line failing several checks is accounted for in each of the failed columns.
+ * <p>
+ * Parsing floating-point values dominates the interpretation, so plain decimal values far from the overflow of
+ * their type are accepted from their characters alone; any other value is parsed as the interpreter does.
+ */
+public final class GaiaSourceValidator extends AnyInterpreter<GaiaSourceSpec> {
+
+    private static final GaiaSourceSpec[] IDENTIFIERS = {
+            GaiaSourceSpec.SolutionId,
+            GaiaSourceSpec.SourceId,
+            GaiaSourceSpec.RandomIndex};
+
+    private static final GaiaSourceSpec[] CORE_DOUBLES = {
+            GaiaSourceSpec.RefEpoch,
+            GaiaSourceSpec.Ra,
+            GaiaSourceSpec.RaError,
+            GaiaSourceSpec.Dec,
+            GaiaSourceSpec.DecError,
+            GaiaSourceSpec.LongitudeGalactic,
+            GaiaSourceSpec.LatitudeGalactic,
+            GaiaSourceSpec.LongitudeEcliptic,
+            GaiaSourceSpec.LatitudeEcliptic};
+
+    /** Required when the parallax is available */
+    private static final GaiaSourceSpec[] FULL_DOUBLES = {
+            GaiaSourceSpec.ParallaxError,
+            GaiaSourceSpec.PmRa,
+            GaiaSourceSpec.PmRaError,
+            GaiaSourceSpec.PmDec,
+            GaiaSourceSpec.PmDecError};
+
+    /** Required when the parallax is available */
+    private static final GaiaSourceSpec[] FULL_FLOATS = {
+            GaiaSourceSpec.RaParallaxCorr,
+            GaiaSourceSpec.RaPmRaCorr,
+            GaiaSourceSpec.RaPmDecCorr,
+            GaiaSourceSpec.DecParallaxCorr,
+            GaiaSourceSpec.DecPmRaCorr,
+            GaiaSourceSpec.DecPmDecCorr,
+            GaiaSourceSpec.ParallaxPmRaCorr,
+            GaiaSourceSpec.ParallaxPmDecCorr,
+            GaiaSourceSpec.PmRaPmDecCorr};
+
+    private static final GaiaSourceSpec[] METADATA_INTS = {
+            GaiaSourceSpec.AstroNobsAl,
+            GaiaSourceSpec.AstroNobsAc,
+            GaiaSourceSpec.AstroNobsGoodAl,
+            GaiaSourceSpec.AstroNobsBadAl,
+            GaiaSourceSpec.AstroMatchedObs,
+            GaiaSourceSpec.VisibilityPeriodsUsed,
+            GaiaSourceSpec.MatchedObservations,
+            GaiaSourceSpec.PhotGNobs};
+
+    private static final GaiaSourceSpec[] METADATA_FLOATS = {
+            GaiaSourceSpec.RaDecCorr,
+            GaiaSourceSpec.AstroGofAl,
+            GaiaSourceSpec.AstroChi2Al,
+            GaiaSourceSpec.AstroWeightAl,
+            GaiaSourceSpec.MeanVarPiFactor,
+            GaiaSourceSpec.AstroSigma5dMax,
+            GaiaSourceSpec.PhotGMeanMag};
+
+    private static final GaiaSourceSpec[] METADATA_DOUBLES = {
+            GaiaSourceSpec.AstroExcessNoise,
+            GaiaSourceSpec.AstroExcessNoiseSig,
+            GaiaSourceSpec.PhotGMeanFlux,
+            GaiaSourceSpec.PhotGMeanFluxError};
+
+    private static final GaiaSourceSpec[] FLAGS = {
+            GaiaSourceSpec.AstroPrimaryFlag,
+            GaiaSourceSpec.DuplicatedSource};
+
+    /** Required when the pseudo colour is available */
+    private static final GaiaSourceSpec[] PSEUDO_COLOUR = {
+            GaiaSourceSpec.AstroPseudoColour,
+            GaiaSourceSpec.AstroPseudoColourError};
+
+    /** Required when BP observations are available */
+    private static final GaiaSourceSpec[] BP_FLUX = {
+            GaiaSourceSpec.PhotBpMeanFlux,
+            GaiaSourceSpec.PhotBpMeanFluxError};
+
+    /** Required when RP observations are available */
+    private static final GaiaSourceSpec[] RP_FLUX = {
+            GaiaSourceSpec.PhotRpMeanFlux,
+            GaiaSourceSpec.PhotRpMeanFluxError};
+
+    /** Optional */
+    private static final GaiaSourceSpec[] COLOURS = {
+            GaiaSourceSpec.PhotBpRpExcessFactor,
+            GaiaSourceSpec.ColourBpRp,
+            GaiaSourceSpec.ColourBpG,
+            GaiaSourceSpec.ColourGRp};
+
+    /** Required when RVS transits are available */
+    private static final GaiaSourceSpec[] RVS_DOUBLES = {
+            GaiaSourceSpec.RadialVelocity,
+            GaiaSourceSpec.RadialVelocityError};
+
+    /** Required when RVS transits are available */
+    private static final GaiaSourceSpec[] RVS_FLOATS = {
+            GaiaSourceSpec.RvsTemplateTeff,
+            GaiaSourceSpec.RvsTemplateLogg,
+            GaiaSourceSpec.RvsTemplateFeh};
+
+    /** Required when the astrophysical parameters flags are available */
+    private static final GaiaSourceSpec[] PARAMS_FLOATS = {
+            GaiaSourceSpec.ParamsTeffValue,
+            GaiaSourceSpec.ParamsTeffPercLower,
+            GaiaSourceSpec.ParamsTeffPercUpper,
+            GaiaSourceSpec.ParamsExtinctionG,
+            GaiaSourceSpec.ParamsExtinctionGPercLower,
+            GaiaSourceSpec.ParamsExtinctionGPercUpper,
+            GaiaSourceSpec.ParamsReddening,
+            GaiaSourceSpec.ParamsReddeningPercLower,
+            GaiaSourceSpec.ParamsReddeningPercUpper,
+            GaiaSourceSpec.ParamsRadius,
+            GaiaSourceSpec.ParamsRadiusPercLower,
+            GaiaSourceSpec.ParamsRadiusPercUpper,
+            GaiaSourceSpec.ParamsLuminosity,
+            GaiaSourceSpec.ParamsLuminosityPercLower,
+            GaiaSourceSpec.ParamsLuminosityPercUpper};
+
+    /** Values below {@code 10^38} are finite as {@code float} */
+    private static final int FLOAT_EXPONENT = 38;
+
+    /** Values below {@code 10^308} are finite as {@code double} */
+    private static final int DOUBLE_EXPONENT = 308;
+
+    private static final int ROTATOR_TYPES = RotatorObjectType.values().length;
+    private static final int PHOT_MODES = PhotMode.values().length;
+
+    /** Value types of the columns */
+    private enum Type {
+        INT, LONG, FLOAT, DOUBLE, BOOLEAN
+    }
+
+    public GaiaSourceValidator() {
+        super(GaiaSourceSpec.class);
+    }
+
+    /**
+     * Check a line, accounting for its failures in the violations.
+     *
+     * @param csvLine A CSV line
+     * @param violations Violations of the lines checked by the calling thread
+     * @return {@code true} when {@link GaiaSourceInterpreter} accepts the line
+     */
+    public boolean validate(final String csvLine, final ColumnViolations<GaiaSourceSpec> violations) {
+        try {
+            interpreter.accept(csvLine);
+        } catch (IllegalArgumentException e) {
+            violations.malformed(e.getMessage());
+            return false;
+        }
+        require(Type.LONG, IDENTIFIERS, violations);
+        require(Type.DOUBLE, CORE_DOUBLES, violations);
+        if (check(Type.DOUBLE, GaiaSourceSpec.Parallax, false, violations)) {
+            require(Type.DOUBLE, FULL_DOUBLES, violations);
+            require(Type.FLOAT, FULL_FLOATS, violations);
+        }
+        require(Type.INT, METADATA_INTS, violations);
+        require(Type.FLOAT, METADATA_FLOATS, violations);
+        require(Type.DOUBLE, METADATA_DOUBLES, violations);
+        require(Type.BOOLEAN, FLAGS, violations);
+        if (interpreter.rawValue(GaiaSourceSpec.AstroPseudoColour).isPresent()) {
+            require(Type.DOUBLE, PSEUDO_COLOUR, violations);
+        }
+        final OptionalInt solved = intValue(GaiaSourceSpec.AstroParamSolved, violations);
+        if (solved.isPresent() && solved.getAsInt() != 3 && solved.getAsInt() != 31) {
+            violations.add(GaiaSourceSpec.AstroParamSolved,
+                    "Unknown value for AstroParamSolved: " + solved.getAsInt());
+        }
+        checkCode(GaiaSourceSpec.FrameRotatorObjType, "RotatorObjectType", ROTATOR_TYPES, violations);
+        checkCode(GaiaSourceSpec.PhotProcMode, "PhotMode", PHOT_MODES, violations);
+        if (observed(GaiaSourceSpec.PhotBpNobs, violations)) {
+            require(Type.DOUBLE, BP_FLUX, violations);
+            check(Type.FLOAT, GaiaSourceSpec.PhotBpMeanMag, true, violations);
+        }
+        if (observed(GaiaSourceSpec.PhotRpNobs, violations)) {
+            require(Type.DOUBLE, RP_FLUX, violations);
+            check(Type.FLOAT, GaiaSourceSpec.PhotRpMeanMag, true, violations);
+        }
+        for (final GaiaSourceSpec column : COLOURS) {
+            check(Type.FLOAT, column, false, violations);
+        }
+        checkVariability(violations);
+        if (observed(GaiaSourceSpec.RvsNbTransits, violations)) {
+            require(Type.DOUBLE, RVS_DOUBLES, violations);
+            require(Type.FLOAT, RVS_FLOATS, violations);
+        }
+        if (check(Type.LONG, GaiaSourceSpec.ParamsFlags, false, violations)) {
+            check(Type.LONG, GaiaSourceSpec.ParamsFlameFlags, true, violations);
+            require(Type.FLOAT, PARAMS_FLOATS, violations);
+        }
+        return violations.line();
+    }
+
+    private void require(final Type type,
+                         final GaiaSourceSpec[] columns,
+                         final ColumnViolations<GaiaSourceSpec> violations) {
+        for (final GaiaSourceSpec column : columns) {
+            check(type, column, true, violations);
+        }
+    }
+
+    /**
+     * @return Whether the column holds a value of the type; invalid values, and missing required values, are
+     * accounted for in the violations
+     */
+    private boolean check(final Type type,
+                          final GaiaSourceSpec column,
+                          final boolean required,
+                          final ColumnViolations<GaiaSourceSpec> violations) {
+        if (type == Type.FLOAT || type == Type.DOUBLE) {
+            final String raw = interpreter.rawValue(column).orElse("");
+            if (isDecimal(raw, type == Type.FLOAT ? FLOAT_EXPONENT : DOUBLE_EXPONENT)) {
+                return true;
+            }
+        }
+        final boolean present;
+        try {
+            switch (type) {
+                case INT:
+                    present = interpreter.intValue(column).isPresent();
+                    break;
+                case LONG:
+                    present = interpreter.longValue(column).isPresent();
+                    break;
+                case FLOAT:
+                    present = interpreter.floatValue(column).isPresent();
+                    break;
+                case DOUBLE:
+                    present = interpreter.doubleValue(column).isPresent();
+                    break;
+                default:
+                    present = interpreter.booleanValue(column).isPresent();
+                    break;
+            }
+        } catch (NonCompliantColumnFailure e) {
+            violations.add(column, e.getMessage());
+            return false;
+        }
+        if (required && !present) {
+            violations.add(column, emptyColumn(column).getMessage());
+        }
+        return present;
+    }
+
+    /**
+     * @param raw A trimmed value
+     * @param maxExponent Largest accepted decimal exponent of the value
+     * @return Whether the value is a decimal number, {@code [+-]digits[.digits][(e|E)[+-]digits]}, of magnitude
+     * below {@code 10^maxExponent}; {@code false} does not mean that the value cannot be parsed
+     */
+    static boolean isDecimal(final String raw, final int maxExponent) {
+        final int length = raw.length();
+        int i = 0;
+        if (i < length && (raw.charAt(i) == '-' || raw.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        int integerDigits = 0;
+        while (i < length && isDigit(raw.charAt(i))) {
+            if (integerDigits > 0 || raw.charAt(i) != '0') {
+                integerDigits++;
+            }
+            digits++;
+            i++;
+        }
+        if (i < length && raw.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(raw.charAt(i))) {
+                digits++;
+                i++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        int exponent = 0;
+        if (i < length && (raw.charAt(i) == 'e' || raw.charAt(i) == 'E')) {
+            i++;
+            boolean negative = false;
+            if (i < length && (raw.charAt(i) == '-' || raw.charAt(i) == '+')) {
+                negative = raw.charAt(i) == '-';
+                i++;
+            }
+            final int start = i;
+            while (i < length && isDigit(raw.charAt(i)) && i - start < 4) {
+                exponent = 10 * exponent + raw.charAt(i) - '0';
+                i++;
+            }
+            if (i == start) {
+                return false;
+            }
+            if (negative) {
+                exponent = -exponent;
+            }
+        }
+        return i == length && integerDigits + exponent <= maxExponent;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return The value of a required {@code int} column, empty when missing or invalid
+     */
+    private OptionalInt intValue(final GaiaSourceSpec column, final ColumnViolations<GaiaSourceSpec> violations) {
+        try {
+            final OptionalInt value = interpreter.intValue(column);
+            if (!value.isPresent()) {
+                violations.add(column, emptyColumn(column).getMessage());
+            }
+            return value;
+        } catch (NonCompliantColumnFailure e) {
+            violations.add(column, e.getMessage());
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * @return Whether a required count of observations is positive, making its component available
+     */
+    private boolean observed(final GaiaSourceSpec column, final ColumnViolations<GaiaSourceSpec> violations) {
+        final OptionalInt count = intValue(column, violations);
+        return count.isPresent() && count.getAsInt() > 0;
+    }
+
+    /**
+     * Check a required column holding the index of an enum symbol.
+     */
+    private void checkCode(final GaiaSourceSpec column,
+                           final String type,
+                           final int symbols,
+                           final ColumnViolations<GaiaSourceSpec> violations) {
+        final OptionalInt code = intValue(column, violations);
+        if (code.isPresent() && (code.getAsInt() < 0 || code.getAsInt() >= symbols)) {
+            violations.add(column, "Unknown value for " + type + ": " + code.getAsInt());
+        }
+    }
+
+    private void checkVariability(final ColumnViolations<GaiaSourceSpec> violations) {
+        final String flag = interpreter.rawValue(GaiaSourceSpec.PhotVariableFlag).orElse(null);
+        if (flag == null) {
+            violations.add(GaiaSourceSpec.PhotVariableFlag,
+                    emptyColumn(GaiaSourceSpec.PhotVariableFlag).getMessage());
+        } else if (!"NOT_AVAILABLE".equals(flag) && !"CONSTANT".equals(flag) && !"VARIABLE".equals(flag)) {
+            violations.add(GaiaSourceSpec.PhotVariableFlag, "Unknown variability flag " + flag);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.LongPeriodVariable;
+import com.github.gaiadr2.load.csv.specs.LongPeriodVariableSpec;
+
+import java.util.function.Function;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_long_period_variable} Gaia DR2 archive table
+ */
+public final class LongPeriodVariableInterpreter extends AnyInterpreter<LongPeriodVariableSpec>
+        implements Function<String, LongPeriodVariable> {
+
+    public LongPeriodVariableInterpreter() {
+        super(LongPeriodVariableSpec.class);
+    }
+
+    @Override
+    public LongPeriodVariable apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        return new LongPeriodVariable(
+                getLong(LongPeriodVariableSpec.SolutionId),
+                getLong(LongPeriodVariableSpec.SourceId),
+                dvalOrNaN(LongPeriodVariableSpec.BolMag, LongPeriodVariableSpec.BolMagError),
+                interpreter.booleanValue(LongPeriodVariableSpec.SupergiantFlag).orElse(false),
+                dvalOrNaN(LongPeriodVariableSpec.BolCorr, LongPeriodVariableSpec.BolCorrError),
+                getDval(LongPeriodVariableSpec.Frequency, LongPeriodVariableSpec.FrequencyError));
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.vari.ClassRRLyrae;
+import com.github.gaiadr2.avro.vari.RRLyrae;
+import com.github.gaiadr2.avro.vari.VarInfo;
+import com.github.gaiadr2.load.csv.specs.RRLyraeSpec;
+
+import java.util.function.Function;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_rrlyrae} Gaia DR2 archive table
+ */
+public final class RRLyraeInterpreter extends AnyInterpreter<RRLyraeSpec> implements Function<String, RRLyrae> {
+
+    public RRLyraeInterpreter() {
+        super(RRLyraeSpec.class);
+    }
+
+    @Override
+    public RRLyrae apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        return new RRLyrae(
+                getLong(RRLyraeSpec.SolutionId),
+                getLong(RRLyraeSpec.SourceId),
+                varInfo(),
+                getEnum(ClassRRLyrae.class, RRLyraeSpec.BestClassification));
+    }
+
+    /**
+     * Generate the required {@link VarInfo} component. RR Lyrae stars have no second overtone period.
+     *
+     * @return The interpreted component
+     */
+    private VarInfo varInfo() {
+        return new VarInfo(
+                dvalOrNaN(RRLyraeSpec.Pf, RRLyraeSpec.PfError),
+                dvalOrNaN(RRLyraeSpec.P1O, RRLyraeSpec.P1OError),
+                new Dval(Double.NaN, Double.NaN),
+                dvalOrNaN(RRLyraeSpec.EpochG, RRLyraeSpec.EpochGError),
+                optionalDval(RRLyraeSpec.EpochBp, RRLyraeSpec.EpochBpError),
+                optionalDval(RRLyraeSpec.EpochRp, RRLyraeSpec.EpochRpError),
+                dvalOrNaN(RRLyraeSpec.IntAverageG, RRLyraeSpec.IntAverageGError),
+                optionalDval(RRLyraeSpec.IntAverageBp, RRLyraeSpec.IntAverageBpError),
+                optionalDval(RRLyraeSpec.IntAverageRp, RRLyraeSpec.IntAverageRpError),
+                dvalOrNaN(RRLyraeSpec.PeakToPeakG, RRLyraeSpec.PeakToPeakGError),
+                optionalDval(RRLyraeSpec.PeakToPeakBp, RRLyraeSpec.PeakToPeakBpError),
+                optionalDval(RRLyraeSpec.PeakToPeakRp, RRLyraeSpec.PeakToPeakRpError),
+                dvalOrNaN(RRLyraeSpec.Metallicity, RRLyraeSpec.MetallicityError),
+                dvalOrNaN(RRLyraeSpec.R21G, RRLyraeSpec.R21GError),
+                dvalOrNaN(RRLyraeSpec.R31G, RRLyraeSpec.R31GError),
+                dvalOrNaN(RRLyraeSpec.Phi21G, RRLyraeSpec.Phi21GError),
+                dvalOrNaN(RRLyraeSpec.Phi31G, RRLyraeSpec.Phi31GError),
+                interpreter.intValue(RRLyraeSpec.NumCleanEpochsG).orElse(0),
+                interpreter.intValue(RRLyraeSpec.NumCleanEpochsBp).orElse(0),
+                interpreter.intValue(RRLyraeSpec.NumCleanEpochsRp).orElse(0),
+                dvalOrNaN(RRLyraeSpec.GAbsorption, RRLyraeSpec.GAbsorptionError));
+    }
+}
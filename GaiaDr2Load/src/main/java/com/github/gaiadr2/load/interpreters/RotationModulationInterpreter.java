@@ -0,0 +1,154 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.vari.RotationModulation;
+import com.github.gaiadr2.avro.vari.SegmentInfo;
+import com.github.gaiadr2.load.csv.DoubleArray;
+import com.github.gaiadr2.load.csv.specs.RotationModulationSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_rotation_modulation} Gaia DR2 archive table.
+ *
+ * The archive stores the segment information column-wise, one list per quantity with one element per segment.
+ * Those lists are parsed into primitive buffers, reused from one line to the next by each thread, and then
+ * transposed into {@link SegmentInfo} records.
+ */
+public final class RotationModulationInterpreter extends AnyInterpreter<RotationModulationSpec>
+        implements Function<String, RotationModulation> {
+
+    /** One reusable buffer per column and per thread, indexed by ordinal */
+    private final ThreadLocal<DoubleArray[]> buffers =
+            ThreadLocal.withInitial(() -> new DoubleArray[RotationModulationSpec.values().length]);
+
+    public RotationModulationInterpreter() {
+        super(RotationModulationSpec.class);
+    }
+
+    @Override
+    public RotationModulation apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        final int numSegments = getInt(RotationModulationSpec.NumSegments);
+        final DoubleArray outliers = buffer(RotationModulationSpec.OutliersTime);
+        // No outlier leaves the column empty, and the buffer cleared
+        interpreter.doubleArrayValue(RotationModulationSpec.OutliersTime, outliers);
+        return new RotationModulation(
+                getLong(RotationModulationSpec.SolutionId),
+                getLong(RotationModulationSpec.SourceId),
+                numSegments,
+                segments(numSegments),
+                getInt(RotationModulationSpec.NumOutliers),
+                outliers.toList(),
+                getDval(RotationModulationSpec.BestRotationPeriod, RotationModulationSpec.BestRotationPeriodError),
+                dvalOrNaN(RotationModulationSpec.MaxActivityIndex, RotationModulationSpec.MaxActivityIndexError),
+                dvalOrNaN(RotationModulationSpec.GUnspotted, RotationModulationSpec.GUnspottedError),
+                optionalDval(RotationModulationSpec.BpUnspotted, RotationModulationSpec.BpUnspottedError),
+                optionalDval(RotationModulationSpec.RpUnspotted, RotationModulationSpec.RpUnspottedError));
+    }
+
+    /**
+     * Transpose the per-quantity lists into one record per segment
+     *
+     * @param numSegments Expected number of segments
+     * @return The segments information
+     */
+    private List<SegmentInfo> segments(final int numSegments) {
+        final DoubleArray start = required(RotationModulationSpec.SegmentsStartTime, numSegments);
+        final DoubleArray end = required(RotationModulationSpec.SegmentsEndTime, numSegments);
+        final DoubleArray intercept = required(RotationModulationSpec.SegmentsColourMagIntercept, numSegments);
+        final DoubleArray interceptErr = optional(RotationModulationSpec.SegmentsColourMagInterceptError, numSegments);
+        final DoubleArray slope = required(RotationModulationSpec.SegmentsColourMagSlope, numSegments);
+        final DoubleArray slopeErr = optional(RotationModulationSpec.SegmentsColourMagSlopeError, numSegments);
+        final DoubleArray corr = required(RotationModulationSpec.SegmentsCorrelationCoefficient, numSegments);
+        final DoubleArray corrSig = optional(RotationModulationSpec.SegmentsCorrelationSignificance, numSegments);
+        final DoubleArray period = required(RotationModulationSpec.SegmentsRotationPeriod, numSegments);
+        final DoubleArray periodErr = optional(RotationModulationSpec.SegmentsRotationPeriodError, numSegments);
+        final DoubleArray periodFap = optional(RotationModulationSpec.SegmentsRotationPeriodFap, numSegments);
+        final DoubleArray cos = required(RotationModulationSpec.SegmentsCosTerm, numSegments);
+        final DoubleArray cosErr = optional(RotationModulationSpec.SegmentsCosTermError, numSegments);
+        final DoubleArray sin = required(RotationModulationSpec.SegmentsSinTerm, numSegments);
+        final DoubleArray sinErr = optional(RotationModulationSpec.SegmentsSinTermError, numSegments);
+        final DoubleArray a0 = required(RotationModulationSpec.SegmentsA0Term, numSegments);
+        final DoubleArray a0Err = optional(RotationModulationSpec.SegmentsA0TermError, numSegments);
+        final DoubleArray activity = required(RotationModulationSpec.SegmentsActivityIndex, numSegments);
+        final DoubleArray activityErr = optional(RotationModulationSpec.SegmentsActivityIndexError, numSegments);
+        final DoubleArray gMag = required(RotationModulationSpec.SegmentsUnspottedGMag, numSegments);
+        final DoubleArray gMagErr = optional(RotationModulationSpec.SegmentsUnspottedGMagError, numSegments);
+        final DoubleArray bpMag = optional(RotationModulationSpec.SegmentsUnspottedBpMag, numSegments);
+        final DoubleArray bpMagErr = optional(RotationModulationSpec.SegmentsUnspottedBpMagError, numSegments);
+        final DoubleArray rpMag = optional(RotationModulationSpec.SegmentsUnspottedRpMag, numSegments);
+        final DoubleArray rpMagErr = optional(RotationModulationSpec.SegmentsUnspottedRpMagError, numSegments);
+
+        final List<SegmentInfo> segments = new ArrayList<>(numSegments);
+        for (int i = 0; i < numSegments; i++) {
+            segments.add(new SegmentInfo(
+                    start.get(i),
+                    end.get(i),
+                    new Dval(intercept.get(i), interceptErr.get(i)),
+                    new Dval(slope.get(i), slopeErr.get(i)),
+                    corr.get(i),
+                    corrSig.get(i),
+                    new Dval(period.get(i), periodErr.get(i)),
+                    periodFap.get(i),
+                    new Dval(cos.get(i), cosErr.get(i)),
+                    new Dval(sin.get(i), sinErr.get(i)),
+                    new Dval(a0.get(i), a0Err.get(i)),
+                    new Dval(activity.get(i), activityErr.get(i)),
+                    new Dval(gMag.get(i), gMagErr.get(i)),
+                    Double.isNaN(bpMag.get(i)) ? null : new Dval(bpMag.get(i), bpMagErr.get(i)),
+                    Double.isNaN(rpMag.get(i)) ? null : new Dval(rpMag.get(i), rpMagErr.get(i))));
+        }
+        return segments;
+    }
+
+    /**
+     * @param column A required per-segment column
+     * @param numSegments Expected number of segments
+     * @return The buffer holding the column values
+     */
+    private DoubleArray required(final RotationModulationSpec column, final int numSegments) {
+        return checked(column, getDoubles(column, buffer(column)), numSegments);
+    }
+
+    /**
+     * @param column An optional per-segment column
+     * @param numSegments Expected number of segments
+     * @return The buffer holding the column values, filled with {@code NaN} when the column is empty
+     */
+    private DoubleArray optional(final RotationModulationSpec column, final int numSegments) {
+        final DoubleArray values = buffer(column);
+        if (!interpreter.doubleArrayValue(column, values)) {
+            for (int i = 0; i < numSegments; i++) {
+                values.add(Double.NaN);
+            }
+        }
+        return checked(column, values, numSegments);
+    }
+
+    private static DoubleArray checked(final RotationModulationSpec column, final DoubleArray values, final int numSegments) {
+        if (values.size() != numSegments) {
+            throw new IllegalArgumentException(format(
+                    "Column %d [%s] should have %d segment values but has %d",
+                    column.ordinal(),
+                    column.name(),
+                    numSegments,
+                    values.size()));
+        }
+        return values;
+    }
+
+    private DoubleArray buffer(final RotationModulationSpec column) {
+        final DoubleArray[] threadBuffers = buffers.get();
+        DoubleArray buffer = threadBuffers[column.ordinal()];
+        if (buffer == null) {
+            buffer = new DoubleArray();
+            threadBuffers[column.ordinal()] = buffer;
+        }
+        return buffer;
+    }
+}
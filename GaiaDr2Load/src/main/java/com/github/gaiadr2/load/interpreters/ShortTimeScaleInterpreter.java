@@ -0,0 +1,40 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.ShortTimeScale;
+import com.github.gaiadr2.load.csv.DoubleArray;
+import com.github.gaiadr2.load.csv.specs.ShortTimeScaleSpec;
+
+import java.util.function.Function;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_short_timescale} Gaia DR2 archive table.
+ *
+ * The variogram columns are parsed into primitive buffers reused from one line to the next, one set per thread.
+ */
+public final class ShortTimeScaleInterpreter extends AnyInterpreter<ShortTimeScaleSpec>
+        implements Function<String, ShortTimeScale> {
+
+    private final ThreadLocal<DoubleArray> timescales = ThreadLocal.withInitial(DoubleArray::new);
+    private final ThreadLocal<DoubleArray> values = ThreadLocal.withInitial(DoubleArray::new);
+
+    public ShortTimeScaleInterpreter() {
+        super(ShortTimeScaleSpec.class);
+    }
+
+    @Override
+    public ShortTimeScale apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        return new ShortTimeScale(
+                getLong(ShortTimeScaleSpec.SolutionId),
+                getLong(ShortTimeScaleSpec.SourceId),
+                getDouble(ShortTimeScaleSpec.AmplitudeEstimate),
+                getInt(ShortTimeScaleSpec.NumberOfFovTransits),
+                getDouble(ShortTimeScaleSpec.MeanOfFovAbbeValues),
+                getInt(ShortTimeScaleSpec.VariogramNumPoints),
+                getDoubles(ShortTimeScaleSpec.VariogramCharTimescales, timescales.get()).toList(),
+                getDoubles(ShortTimeScaleSpec.VariogramValues, values.get()).toList(),
+                interpreter.doubleValue(ShortTimeScaleSpec.Frequency).isPresent() ?
+                        getDouble(ShortTimeScaleSpec.Frequency) :
+                        null);
+    }
+}
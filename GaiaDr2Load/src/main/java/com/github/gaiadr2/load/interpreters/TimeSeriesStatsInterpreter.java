@@ -0,0 +1,118 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.aux.BandStats;
+import com.github.gaiadr2.avro.vari.aux.TimeSeriesStats;
+import com.github.gaiadr2.load.csv.specs.TimeSeriesStatsSpec;
+
+import java.util.function.Function;
+
+/**
+ * Interpreter for the CSV representation of the {@code vari_time_series_statistics} Gaia DR2 archive table
+ */
+public final class TimeSeriesStatsInterpreter extends AnyInterpreter<TimeSeriesStatsSpec>
+        implements Function<String, TimeSeriesStats> {
+
+    /** Columns of each band, in the order of the {@link BandStats} fields */
+    private static final TimeSeriesStatsSpec[] G_BAND = {
+            TimeSeriesStatsSpec.NumSelectedGFov,
+            TimeSeriesStatsSpec.MeanObsTimeGFov,
+            TimeSeriesStatsSpec.TimeDurationGFov,
+            TimeSeriesStatsSpec.MinMagGFov,
+            TimeSeriesStatsSpec.MaxMagGFov,
+            TimeSeriesStatsSpec.MeanMagGFov,
+            TimeSeriesStatsSpec.MedianMagGFov,
+            TimeSeriesStatsSpec.RangeMagGFov,
+            TimeSeriesStatsSpec.StdDevMagGFov,
+            TimeSeriesStatsSpec.SkewnessMagGFov,
+            TimeSeriesStatsSpec.KurtosisMagGFov,
+            TimeSeriesStatsSpec.MadMagGFov,
+            TimeSeriesStatsSpec.AbbeMagGFov,
+            TimeSeriesStatsSpec.IqrMagGFov
+    };
+    private static final TimeSeriesStatsSpec[] BP_BAND = {
+            TimeSeriesStatsSpec.NumSelectedBp,
+            TimeSeriesStatsSpec.MeanObsTimeBp,
+            TimeSeriesStatsSpec.TimeDurationBp,
+            TimeSeriesStatsSpec.MinMagBp,
+            TimeSeriesStatsSpec.MaxMagBp,
+            TimeSeriesStatsSpec.MeanMagBp,
+            TimeSeriesStatsSpec.MedianMagBp,
+            TimeSeriesStatsSpec.RangeMagBp,
+            TimeSeriesStatsSpec.StdDevMagBp,
+            TimeSeriesStatsSpec.SkewnessMagBp,
+            TimeSeriesStatsSpec.KurtosisMagBp,
+            TimeSeriesStatsSpec.MadMagBp,
+            TimeSeriesStatsSpec.AbbeMagBp,
+            TimeSeriesStatsSpec.IqrMagBp
+    };
+    private static final TimeSeriesStatsSpec[] RP_BAND = {
+            TimeSeriesStatsSpec.NumSelectedRp,
+            TimeSeriesStatsSpec.MeanObsTimeRp,
+            TimeSeriesStatsSpec.TimeDurationRp,
+            TimeSeriesStatsSpec.MinMagRp,
+            TimeSeriesStatsSpec.MaxMagRp,
+            TimeSeriesStatsSpec.MeanMagRp,
+            TimeSeriesStatsSpec.MedianMagRp,
+            TimeSeriesStatsSpec.RangeMagRp,
+            TimeSeriesStatsSpec.StdDevMagRp,
+            TimeSeriesStatsSpec.SkewnessMagRp,
+            TimeSeriesStatsSpec.KurtosisMagRp,
+            TimeSeriesStatsSpec.MadMagRp,
+            TimeSeriesStatsSpec.AbbeMagRp,
+            TimeSeriesStatsSpec.IqrMagRp
+    };
+
+    public TimeSeriesStatsInterpreter() {
+        super(TimeSeriesStatsSpec.class);
+    }
+
+    @Override
+    public TimeSeriesStats apply(final String csvLine) {
+        interpreter.accept(csvLine);
+        return new TimeSeriesStats(
+                getLong(TimeSeriesStatsSpec.SolutionId),
+                getLong(TimeSeriesStatsSpec.SourceId),
+                bandStats(G_BAND),
+                optionalBandStats(BP_BAND),
+                optionalBandStats(RP_BAND));
+    }
+
+    /**
+     * @param band Columns of a band for which statistics may be missing
+     * @return The statistics, when at least one transit was selected, {@code null} otherwise
+     */
+    private BandStats optionalBandStats(final TimeSeriesStatsSpec[] band) {
+        return interpreter.intValue(band[0]).orElse(0) > 0 ?
+                bandStats(band) :
+                null;
+    }
+
+    /**
+     * Statistics that cannot be computed for short time series are left empty by the archive and set to
+     * {@code NaN} here.
+     *
+     * @param band Columns of the band
+     * @return The statistics of the band
+     */
+    private BandStats bandStats(final TimeSeriesStatsSpec[] band) {
+        return new BandStats(
+                getInt(band[0]),
+                orNaN(band[1]),
+                orNaN(band[2]),
+                orNaN(band[3]),
+                orNaN(band[4]),
+                orNaN(band[5]),
+                orNaN(band[6]),
+                orNaN(band[7]),
+                orNaN(band[8]),
+                orNaN(band[9]),
+                orNaN(band[10]),
+                orNaN(band[11]),
+                orNaN(band[12]),
+                orNaN(band[13]));
+    }
+
+    private double orNaN(final TimeSeriesStatsSpec column) {
+        return interpreter.doubleValue(column).orElse(Double.NaN);
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.gaiadr2.load.join;
+
+/**
+ * A pair of records sharing the same join key
+ */
+public final class Joined<L, R> {
+
+    private final long key;
+    private final L left;
+    private final R right;
+
+    /**
+     * @param key Shared join key
+     * @param left Record from the left stream
+     * @param right Record from the right stream, {@code null} when unmatched in a left outer join
+     */
+    public Joined(final long key, final L left, final R right) {
+        this.key = key;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * @return The join key shared by both records
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return The record from the left stream
+     */
+    public L getLeft() {
+        return left;
+    }
+
+    /**
+     * @return The record from the right stream, {@code null} when the left record had no match
+     */
+    public R getRight() {
+        return right;
+    }
+}
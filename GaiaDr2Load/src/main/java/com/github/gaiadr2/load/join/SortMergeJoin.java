@@ -0,0 +1,174 @@
+package com.github.gaiadr2.load.join;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Streaming sort-merge join of two record streams sorted in ascending key order.
+ *
+ * Both inputs are consumed lazily, one record at a time. The only records held in memory are those of the
+ * right stream sharing the key currently being joined, so one-to-one and one-to-few joins (such as
+ * {@code gaia_source} against a variability table) run in constant memory. Inputs that are not sorted are
+ * detected and rejected with an {@link IllegalStateException}: use
+ * {@link com.github.gaiadr2.load.sort.ExternalSorter} to sort them first.
+ */
+public final class SortMergeJoin<L, R> implements Iterator<Joined<L, R>> {
+
+    private final Iterator<L> left;
+    private final ToLongFunction<L> leftKey;
+    private final Iterator<R> right;
+    private final ToLongFunction<R> rightKey;
+    private final boolean keepUnmatched;
+
+    /** Right records sharing {@link #groupKey} */
+    private final List<R> group = new ArrayList<>();
+    private long groupKey;
+
+    /** First right record past the current group, if already read */
+    private R pendingRight;
+    private long pendingRightKey = Long.MIN_VALUE;
+
+    /** Current left record and position within the right group */
+    private L current;
+    private long currentKey = Long.MIN_VALUE;
+    private int groupIndex;
+    private boolean currentMatched;
+
+    private Joined<L, R> next;
+
+    private SortMergeJoin(
+            final Iterator<L> left,
+            final ToLongFunction<L> leftKey,
+            final Iterator<R> right,
+            final ToLongFunction<R> rightKey,
+            final boolean keepUnmatched) {
+        this.left = left;
+        this.leftKey = leftKey;
+        this.right = right;
+        this.rightKey = rightKey;
+        this.keepUnmatched = keepUnmatched;
+        advanceRight();
+    }
+
+    /**
+     * @param left Left stream, sorted by key
+     * @param leftKey Key of the left records
+     * @param right Right stream, sorted by key
+     * @param rightKey Key of the right records
+     * @return Join producing only the pairs having a matching key
+     */
+    public static <L, R> SortMergeJoin<L, R> inner(
+            final Iterator<L> left,
+            final ToLongFunction<L> leftKey,
+            final Iterator<R> right,
+            final ToLongFunction<R> rightKey) {
+        return new SortMergeJoin<>(left, leftKey, right, rightKey, false);
+    }
+
+    /**
+     * @param left Left stream, sorted by key
+     * @param leftKey Key of the left records
+     * @param right Right stream, sorted by key
+     * @param rightKey Key of the right records
+     * @return Join producing every left record, paired with {@code null} when no right record matches
+     */
+    public static <L, R> SortMergeJoin<L, R> leftOuter(
+            final Iterator<L> left,
+            final ToLongFunction<L> leftKey,
+            final Iterator<R> right,
+            final ToLongFunction<R> rightKey) {
+        return new SortMergeJoin<>(left, leftKey, right, rightKey, true);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = computeNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Joined<L, R> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Joined<L, R> result = next;
+        next = null;
+        return result;
+    }
+
+    private Joined<L, R> computeNext() {
+        while (true) {
+            if (current != null && groupIndex < group.size() && groupKey == currentKey) {
+                currentMatched = true;
+                return new Joined<>(currentKey, current, group.get(groupIndex++));
+            }
+            if (current != null && keepUnmatched && !currentMatched) {
+                final L unmatched = current;
+                current = null;
+                return new Joined<>(currentKey, unmatched, null);
+            }
+            if (!left.hasNext()) {
+                current = null;
+                return null;
+            }
+            final L record = left.next();
+            final long key = leftKey.applyAsLong(record);
+            if (key < currentKey) {
+                throw unsorted("left", currentKey, key);
+            }
+            current = record;
+            currentKey = key;
+            currentMatched = false;
+            groupIndex = 0;
+            if (group.isEmpty() || groupKey < key) {
+                loadGroup(key);
+            }
+        }
+    }
+
+    /**
+     * Skip right records with a key lower than the requested one and buffer those that match it
+     *
+     * @param key Key of the current left record
+     */
+    private void loadGroup(final long key) {
+        group.clear();
+        while (pendingRight != null && pendingRightKey < key) {
+            advanceRight();
+        }
+        groupKey = key;
+        while (pendingRight != null && pendingRightKey == key) {
+            group.add(pendingRight);
+            advanceRight();
+        }
+    }
+
+    private void advanceRight() {
+        if (right.hasNext()) {
+            final R record = right.next();
+            final long key = rightKey.applyAsLong(record);
+            if (pendingRight != null && key < pendingRightKey) {
+                throw unsorted("right", pendingRightKey, key);
+            }
+            pendingRight = record;
+            pendingRightKey = key;
+        } else {
+            pendingRight = null;
+        }
+    }
+
+    private static IllegalStateException unsorted(final String side, final long previous, final long key) {
+        return new IllegalStateException(format(
+                "The %s input is not sorted: key %d follows %d",
+                side,
+                key,
+                previous));
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.gaiadr2.load.join;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.vari.Cepheid;
+import com.github.gaiadr2.avro.vari.ClassifierResult;
+import com.github.gaiadr2.avro.vari.LongPeriodVariable;
+import com.github.gaiadr2.avro.vari.RRLyrae;
+import com.github.gaiadr2.avro.vari.RotationModulation;
+import com.github.gaiadr2.avro.vari.ShortTimeScale;
+import com.github.gaiadr2.avro.vari.aux.TimeSeriesStats;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * The {@code sourceId} join key of the Gaia DR2 records
+ */
+public final class SourceIdKeys {
+
+    public static final ToLongFunction<GaiaSource> GAIA_SOURCE = GaiaSource::getSourceId;
+    public static final ToLongFunction<Cepheid> CEPHEID = Cepheid::getSourceId;
+    public static final ToLongFunction<RRLyrae> RR_LYRAE = RRLyrae::getSourceId;
+    public static final ToLongFunction<LongPeriodVariable> LONG_PERIOD_VARIABLE = LongPeriodVariable::getSourceId;
+    public static final ToLongFunction<ShortTimeScale> SHORT_TIME_SCALE = ShortTimeScale::getSourceId;
+    public static final ToLongFunction<RotationModulation> ROTATION_MODULATION = RotationModulation::getSourceId;
+    public static final ToLongFunction<ClassifierResult> CLASSIFIER_RESULT = ClassifierResult::getSourceId;
+    public static final ToLongFunction<TimeSeriesStats> TIME_SERIES_STATS = TimeSeriesStats::getSourceId;
+
+    private SourceIdKeys() {
+    }
+}
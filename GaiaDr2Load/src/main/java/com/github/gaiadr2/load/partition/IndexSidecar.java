@@ -0,0 +1,65 @@
+package com.github.gaiadr2.load.partition;
+
+import com.github.gaiadr2.avro.index.SparseIndex;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sparse index of the files of a directory written by {@link SortedPartitioner}, stored in the directory in
+ * the Avro JSON encoding of {@link SparseIndex}.
+ */
+public final class IndexSidecar {
+
+    /**
+     * Name of the index file within the directory of the data files.
+     */
+    public static final String NAME = "_index.json";
+
+    private IndexSidecar() {
+    }
+
+    /**
+     * @param directory Directory of the data files
+     * @return Path of the index of the files
+     */
+    public static Path pathFor(final Path directory) {
+        return directory.resolve(NAME);
+    }
+
+    /**
+     * @param index Index to write
+     * @param path Path of the index file, overwritten if it exists
+     * @throws IOException When the file cannot be written
+     */
+    public static void write(final SparseIndex index, final Path path) throws IOException {
+        final DatumWriter<SparseIndex> writer = new SpecificDatumWriter<>(SparseIndex.class);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            final Encoder encoder = EncoderFactory.get().jsonEncoder(SparseIndex.getClassSchema(), out, true);
+            writer.write(index, encoder);
+            encoder.flush();
+        }
+    }
+
+    /**
+     * @param path Path of an index file
+     * @return The index it holds
+     * @throws IOException When the file cannot be read, or does not hold an index
+     */
+    public static SparseIndex read(final Path path) throws IOException {
+        final DatumReader<SparseIndex> reader = new SpecificDatumReader<>(SparseIndex.class);
+        try (InputStream in = Files.newInputStream(path)) {
+            return reader.read(null, DecoderFactory.get().jsonDecoder(SparseIndex.getClassSchema(), in));
+        }
+    }
+}
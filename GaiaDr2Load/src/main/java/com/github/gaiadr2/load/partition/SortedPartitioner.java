@@ -0,0 +1,184 @@
+package com.github.gaiadr2.load.partition;
+
+import com.github.gaiadr2.avro.index.BlockRange;
+import com.github.gaiadr2.avro.index.FileRange;
+import com.github.gaiadr2.avro.index.SparseIndex;
+import com.github.gaiadr2.avro.io.GaiaSourceDatumWriter;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.join.SourceIdKeys;
+import com.github.gaiadr2.load.sort.CloseableIterator;
+import com.github.gaiadr2.load.sort.ExternalSorter;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Writes records as Avro data files globally sorted and range-partitioned by a {@code long} key, typically
+ * {@code sourceId}, together with a sparse index of the key range of every file and of every block of the files.
+ * <p>
+ * Records are sorted within a bounded amount of memory by an {@link ExternalSorter}, then written in key order,
+ * starting a new block once a block holds enough records, and a new file at the first block boundary past the
+ * target file size. Boundaries only fall between different keys, so that the key ranges of the files, and of
+ * the blocks, never overlap: files can be read in order by a {@link com.github.gaiadr2.load.join.SortMergeJoin},
+ * and keys looked up by a binary search of the index, see {@link SortedPartitions}.
+ */
+public final class SortedPartitioner<T extends SpecificRecord> {
+
+    private final ExternalSorter<T> sorter;
+    private final Schema schema;
+    private final DatumWriter<T> datumWriter;
+    private final ToLongFunction<T> key;
+    private final long fileBytes;
+    private final int blockRecords;
+
+    /**
+     * @param sorter Sorter of the records, by the same key
+     * @param schema Schema of the records
+     * @param datumWriter Encoder of the records
+     * @param key Sort key of a record
+     * @param fileBytes Target size of a data file: a file is closed at the first block boundary past this size
+     * @param blockRecords Target number of records of an indexed block
+     */
+    public SortedPartitioner(final ExternalSorter<T> sorter,
+                             final Schema schema,
+                             final DatumWriter<T> datumWriter,
+                             final ToLongFunction<T> key,
+                             final long fileBytes,
+                             final int blockRecords) {
+        if (fileBytes <= 0) {
+            throw new IllegalArgumentException("File size must be positive, but was: " + fileBytes);
+        }
+        if (blockRecords <= 0) {
+            throw new IllegalArgumentException("Block size must be positive, but was: " + blockRecords);
+        }
+        this.sorter = sorter;
+        this.schema = schema;
+        this.datumWriter = datumWriter;
+        this.key = key;
+        this.fileBytes = fileBytes;
+        this.blockRecords = blockRecords;
+    }
+
+    /**
+     * @param memoryBudget Maximum amount of bytes of records buffered by the sort before spilling to disk
+     * @param spillDirectory Directory in which temporary sort runs are created
+     * @param fileBytes Target size of a data file
+     * @param blockRecords Target number of records of an indexed block
+     * @return Partitioner of {@link GaiaSource} records by {@code sourceId}
+     */
+    public static SortedPartitioner<GaiaSource> gaiaSource(final long memoryBudget,
+                                                           final Path spillDirectory,
+                                                           final long fileBytes,
+                                                           final int blockRecords) {
+        return new SortedPartitioner<>(
+                new ExternalSorter<>(GaiaSource.getClassSchema(), SourceIdKeys.GAIA_SOURCE, memoryBudget,
+                        spillDirectory),
+                GaiaSource.getClassSchema(),
+                new GaiaSourceDatumWriter(),
+                SourceIdKeys.GAIA_SOURCE,
+                fileBytes,
+                blockRecords);
+    }
+
+    /**
+     * Sort the records and write them, with their index, see {@link IndexSidecar}.
+     *
+     * @param records Records, in any order
+     * @param directory Existing directory receiving the data files and the index
+     * @param prefix Prefix of the names of the data files, followed by their rank
+     * @return The index of the written files
+     * @throws IOException When the records cannot be sorted, or the files cannot be written
+     */
+    public SparseIndex write(final Iterator<T> records, final Path directory, final String prefix)
+            throws IOException {
+        try (CloseableIterator<T> sorted = sorter.sort(records)) {
+            return writeSorted(sorted, directory, prefix);
+        }
+    }
+
+    /**
+     * Write records already sorted by key, with their index, see {@link IndexSidecar}.
+     *
+     * @param sorted Records, in ascending key order
+     * @param directory Existing directory receiving the data files and the index
+     * @param prefix Prefix of the names of the data files, followed by their rank
+     * @return The index of the written files
+     * @throws IOException When the files cannot be written
+     * @throws IllegalStateException When the records are not sorted
+     */
+    public SparseIndex writeSorted(final Iterator<T> sorted, final Path directory, final String prefix)
+            throws IOException {
+        final List<FileRange> files = new ArrayList<>();
+        DataFileWriter<T> writer = null;
+        try {
+            List<BlockRange> blocks = null;
+            long fileFirst = 0;
+            long fileRecords = 0;
+            long blockPosition = 0;
+            long blockFirst = 0;
+            long count = 0;
+            long previous = 0;
+            while (sorted.hasNext()) {
+                final T record = sorted.next();
+                final long current = key.applyAsLong(record);
+                if (writer != null && current < previous) {
+                    throw new IllegalStateException(
+                            format("Records are not sorted: key %d after %d", current, previous));
+                }
+                if (writer != null && current != previous && count >= blockRecords) {
+                    blocks.add(new BlockRange(blockPosition, blockFirst, previous, count));
+                    fileRecords += count;
+                    count = 0;
+                    blockPosition = writer.sync();
+                    blockFirst = current;
+                    if (blockPosition >= fileBytes) {
+                        writer.close();
+                        writer = null;
+                        files.add(new FileRange(fileName(prefix, files.size()), fileFirst, previous, fileRecords,
+                                blocks));
+                    }
+                }
+                if (writer == null) {
+                    final String name = fileName(prefix, files.size());
+                    writer = new DataFileWriter<>(datumWriter).create(schema, directory.resolve(name).toFile());
+                    blocks = new ArrayList<>();
+                    fileFirst = current;
+                    fileRecords = 0;
+                    blockPosition = writer.sync();
+                    blockFirst = current;
+                }
+                writer.append(record);
+                count++;
+                previous = current;
+            }
+            if (writer != null) {
+                blocks.add(new BlockRange(blockPosition, blockFirst, previous, count));
+                writer.close();
+                writer = null;
+                files.add(new FileRange(fileName(prefix, files.size()), fileFirst, previous, fileRecords + count,
+                        blocks));
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        final SparseIndex index = new SparseIndex(files);
+        IndexSidecar.write(index, IndexSidecar.pathFor(directory));
+        return index;
+    }
+
+    private static String fileName(final String prefix, final int rank) {
+        return format("%s-%05d.avro", prefix, rank);
+    }
+}
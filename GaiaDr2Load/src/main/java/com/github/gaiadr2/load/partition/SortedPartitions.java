@@ -0,0 +1,210 @@
+package com.github.gaiadr2.load.partition;
+
+import com.github.gaiadr2.avro.index.BlockRange;
+import com.github.gaiadr2.avro.index.FileRange;
+import com.github.gaiadr2.avro.index.SparseIndex;
+import com.github.gaiadr2.avro.io.GaiaSourceDatumReader;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.join.SourceIdKeys;
+import com.github.gaiadr2.load.sort.CloseableIterator;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.io.DatumReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Reads the data files written by a {@link SortedPartitioner}, through their sparse index: lookups of a key
+ * decode a single block found by binary search, and scans of a key range only open the files overlapping the
+ * range, starting at the block holding the first key.
+ */
+public final class SortedPartitions<T> {
+
+    private final Path directory;
+    private final Supplier<DatumReader<T>> readers;
+    private final ToLongFunction<T> key;
+    private final SparseIndex index;
+    private final long[] fileLastKeys;
+    private final long[][] blockLastKeys;
+
+    /**
+     * @param directory Directory of the data files and of their index
+     * @param readers Creates the decoder of the records of each opened file
+     * @param key Sort key of a record
+     * @throws IOException When the index cannot be read
+     */
+    public SortedPartitions(final Path directory,
+                            final Supplier<DatumReader<T>> readers,
+                            final ToLongFunction<T> key) throws IOException {
+        this.directory = directory;
+        this.readers = readers;
+        this.key = key;
+        this.index = IndexSidecar.read(IndexSidecar.pathFor(directory));
+        final List<FileRange> files = index.getFiles();
+        this.fileLastKeys = new long[files.size()];
+        this.blockLastKeys = new long[files.size()][];
+        for (int f = 0; f < files.size(); f++) {
+            final List<BlockRange> blocks = files.get(f).getBlocks();
+            fileLastKeys[f] = files.get(f).getLastKey();
+            blockLastKeys[f] = new long[blocks.size()];
+            for (int b = 0; b < blocks.size(); b++) {
+                blockLastKeys[f][b] = blocks.get(b).getLastKey();
+            }
+        }
+    }
+
+    /**
+     * @param directory Directory of {@link GaiaSource} data files and of their index
+     * @return Reader of the sources by {@code sourceId}
+     * @throws IOException When the index cannot be read
+     */
+    public static SortedPartitions<GaiaSource> gaiaSource(final Path directory) throws IOException {
+        return new SortedPartitions<>(directory, GaiaSourceDatumReader::new, SourceIdKeys.GAIA_SOURCE);
+    }
+
+    public SparseIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @param value A key
+     * @return The records of the key, in file order
+     * @throws IOException When the block holding the key cannot be read
+     */
+    public List<T> find(final long value) throws IOException {
+        final List<T> found = new ArrayList<>();
+        try (CloseableIterator<T> records = scan(value, value)) {
+            records.forEachRemaining(found::add);
+        }
+        return found;
+    }
+
+    /**
+     * @return Every record, in ascending key order. The iterator must be closed to release the open file.
+     * @throws IOException When the first file cannot be opened
+     */
+    public CloseableIterator<T> scan() throws IOException {
+        return scan(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param from Smallest key of the range
+     * @param to Largest key of the range
+     * @return The records of the key range, in ascending key order. The iterator must be closed to release the
+     * open file.
+     * @throws IOException When the first file of the range cannot be opened
+     */
+    public CloseableIterator<T> scan(final long from, final long to) throws IOException {
+        final int file = firstAtLeast(fileLastKeys, fileLastKeys.length, from);
+        if (from > to || file == fileLastKeys.length || index.getFiles().get(file).getFirstKey() > to) {
+            return CloseableIterator.of(new ArrayList<T>().iterator());
+        }
+        final int block = firstAtLeast(blockLastKeys[file], blockLastKeys[file].length, from);
+        return new RangeIterator(file, index.getFiles().get(file).getBlocks().get(block).getPosition(), from, to);
+    }
+
+    /**
+     * @return Index of the first of the sorted keys at least the value, {@code size} for none
+     */
+    private static int firstAtLeast(final long[] sorted, final int size, final long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads the records of a key range, file after file, from a block of the first file
+     */
+    private final class RangeIterator implements CloseableIterator<T> {
+
+        private final long from;
+        private final long to;
+        private int file;
+        private DataFileReader<T> reader;
+        private T next;
+
+        RangeIterator(final int file, final long position, final long from, final long to) throws IOException {
+            this.from = from;
+            this.to = to;
+            this.file = file;
+            open(position);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final T record = next;
+            try {
+                advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            next = null;
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+        }
+
+        private void open(final long position) throws IOException {
+            final FileRange range = index.getFiles().get(file);
+            reader = new DataFileReader<>(directory.resolve(range.getFile().toString()).toFile(), readers.get());
+            if (position >= 0) {
+                reader.seek(position);
+            }
+        }
+
+        private void advance() throws IOException {
+            while (true) {
+                if (!reader.hasNext()) {
+                    reader.close();
+                    reader = null;
+                    file++;
+                    if (file == fileLastKeys.length || index.getFiles().get(file).getFirstKey() > to) {
+                        next = null;
+                        return;
+                    }
+                    open(-1);
+                    continue;
+                }
+                final T record = reader.next();
+                final long value = key.applyAsLong(record);
+                if (value > to) {
+                    close();
+                    return;
+                }
+                if (value >= from) {
+                    next = record;
+                    return;
+                }
+            }
+        }
+    }
+}
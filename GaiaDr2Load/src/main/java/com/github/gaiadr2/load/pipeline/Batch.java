@@ -0,0 +1,47 @@
+package com.github.gaiadr2.load.pipeline;
+
+import java.util.Arrays;
+
+/**
+ * Preallocated batch of items travelling through a {@link RingBuffer}, recycled once consumed
+ *
+ * @param <T> Type of the items
+ */
+final class Batch<T> {
+
+    private final Object[] items;
+    private int size;
+
+    Batch(final int capacity) {
+        this.items = new Object[capacity];
+    }
+
+    boolean isFull() {
+        return size == items.length;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(final T item) {
+        items[size++] = item;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(final int index) {
+        return (T) items[index];
+    }
+
+    /**
+     * Drop the items, so that they can be garbage collected while the batch waits for reuse.
+     */
+    void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+    }
+}
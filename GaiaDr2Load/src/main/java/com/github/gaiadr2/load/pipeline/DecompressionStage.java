@@ -0,0 +1,387 @@
+package com.github.gaiadr2.load.pipeline;
+
+import com.github.gaiadr2.load.sort.CloseableIterator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflates gzip files on dedicated threads, ahead of the threads parsing them.
+ * <p>
+ * Each inflater thread owns a pool of {@code depth} buffers of {@code bufferSize} bytes, recycled once
+ * consumed: it takes the next file, inflates it into its free buffers and hands them over to whoever reads
+ * that file, blocking once all its buffers are waiting to be read. Readers therefore only copy bytes out of
+ * inflated buffers, and the number of inflater threads can be tuned independently of the parser threads:
+ * see {@link #stats()} and {@link #getStarvedNanos()}.
+ * <p>
+ * Files are read through {@link #next()} or {@link #lines(boolean)} in the given order, possibly by several
+ * threads each reading a different file.
+ */
+public final class DecompressionStage implements Closeable {
+
+    /**
+     * Default size of the inflated buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Default number of buffers per inflater thread.
+     */
+    public static final int DEFAULT_DEPTH = 4;
+
+    private final List<Path> files;
+    private final int depth;
+    private final AtomicInteger nextInflated = new AtomicInteger();
+    private final AtomicInteger nextRead = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Chunks> chunks = new ConcurrentHashMap<>();
+    private final List<RingBuffer<byte[]>> pools;
+    private final List<Thread> threads;
+    private final Stage inflating;
+    private final LongAdder starved = new LongAdder();
+    private final long startNanos;
+    private volatile boolean closed;
+
+    /**
+     * Start inflating the files.
+     *
+     * @param files Gzip files, read in this order
+     * @param threads Number of inflater threads
+     * @param depth Number of buffers per inflater thread, i.e. how far each thread can read ahead
+     * @param bufferSize Size of each buffer
+     */
+    public DecompressionStage(final List<Path> files, final int threads, final int depth, final int bufferSize) {
+        if (threads <= 0 || depth <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Threads, depth and buffer size must be positive, but were: "
+                            + threads + ", " + depth + ", " + bufferSize);
+        }
+        this.files = new ArrayList<>(files);
+        this.depth = depth;
+        this.inflating = new Stage("inflate", threads);
+        this.pools = new ArrayList<>(threads);
+        this.threads = new ArrayList<>(threads);
+        this.startNanos = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final RingBuffer<byte[]> pool = new RingBuffer<>(depth);
+            for (int j = 0; j < depth; j++) {
+                recycle(pool, new byte[bufferSize]);
+            }
+            pools.add(pool);
+            final Thread thread = new Thread(() -> inflate(pool), "inflater-" + i);
+            thread.setDaemon(true);
+            this.threads.add(thread);
+        }
+        this.threads.forEach(Thread::start);
+    }
+
+    /**
+     * @return The inflated content of the next file, or {@code null} once every file was returned; close it
+     * to release its buffers when not fully read
+     */
+    public InputStream next() {
+        final int index = nextRead.getAndIncrement();
+        if (index >= files.size()) {
+            return null;
+        }
+        return new InflatedStream(index, chunksOf(index));
+    }
+
+    /**
+     * @param skipHeader Whether the first line of every file is a header
+     * @return Lines of every file in order, e.g. as the input of a {@link StagedPipeline}; read from a single
+     * thread
+     */
+    public CloseableIterator<String> lines(final boolean skipHeader) {
+        return new CloseableIterator<String>() {
+
+            private BufferedReader reader;
+            private String line;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (line == null) {
+                        if (reader == null) {
+                            final InputStream stream = DecompressionStage.this.next();
+                            if (stream == null) {
+                                return false;
+                            }
+                            reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+                            if (skipHeader) {
+                                reader.readLine();
+                            }
+                        }
+                        line = reader.readLine();
+                        if (line == null) {
+                            reader.close();
+                            reader = null;
+                        }
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final String next = line;
+                line = null;
+                return next;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (reader != null) {
+                    reader.close();
+                    reader = null;
+                }
+            }
+        };
+    }
+
+    /**
+     * @return Activity of the inflater threads: a high utilization calls for more inflater threads, a high
+     * output wait means the readers are the bottleneck
+     */
+    public StageStats stats() {
+        return inflating.snapshot(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return Time readers spent waiting for inflated bytes, summed over the readers
+     */
+    public long getStarvedNanos() {
+        return starved.sum();
+    }
+
+    /**
+     * Stop the inflater threads and release the buffers. Readers of unfinished files fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pools.forEach(RingBuffer::abort);
+        chunks.values().forEach(file -> file.ring.drainAndAbort());
+        threads.forEach(Thread::interrupt);
+        for (final Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Chunks chunksOf(final int index) {
+        return chunks.computeIfAbsent(index, i -> new Chunks(files.get(i), depth));
+    }
+
+    private void inflate(final RingBuffer<byte[]> pool) {
+        int index;
+        while (!closed && (index = nextInflated.getAndIncrement()) < files.size()) {
+            final Chunks file = chunksOf(index);
+            try {
+                inflate(pool, file);
+            } catch (final CancellationException e) {
+                if (closed) {
+                    return;
+                }
+                // The reader abandoned the file
+                chunks.remove(index);
+            } catch (final InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void inflate(final RingBuffer<byte[]> pool, final Chunks file) throws InterruptedException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file.path), 1 << 16)) {
+            while (true) {
+                long time = System.nanoTime();
+                final byte[] buffer = pool.take();
+                time = inflating.outputWait(time);
+                final int length = fill(in, buffer);
+                inflating.busy(time, 1);
+                if (length == 0) {
+                    recycle(pool, buffer);
+                    break;
+                }
+                try {
+                    file.ring.put(new Chunk(buffer, length, pool));
+                } catch (final CancellationException e) {
+                    recycle(pool, buffer);
+                    throw e;
+                }
+                if (length < buffer.length) {
+                    break;
+                }
+            }
+        } catch (final CancellationException e) {
+            throw e;
+        } catch (final IOException | RuntimeException e) {
+            file.failure = e;
+        }
+        file.ring.close();
+    }
+
+    private static int fill(final InputStream in, final byte[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+            length += read;
+        }
+        return length;
+    }
+
+    private static void recycle(final RingBuffer<byte[]> pool, final byte[] buffer) {
+        try {
+            pool.put(buffer);
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException("Pools cannot be full while a buffer is out", e);
+        } catch (final CancellationException e) {
+            // The stage is closed, buffers are no longer needed
+        }
+    }
+
+    /**
+     * Inflated buffers of one file, in order
+     */
+    private static final class Chunks {
+
+        private final Path path;
+        private final RingBuffer<Chunk> ring;
+        private volatile Exception failure;
+
+        Chunks(final Path path, final int depth) {
+            this.path = path;
+            this.ring = new RingBuffer<>(depth);
+        }
+    }
+
+    private static final class Chunk {
+
+        private final byte[] buffer;
+        private final int length;
+        private final RingBuffer<byte[]> pool;
+
+        Chunk(final byte[] buffer, final int length, final RingBuffer<byte[]> pool) {
+            this.buffer = buffer;
+            this.length = length;
+            this.pool = pool;
+        }
+
+        void recycle() {
+            DecompressionStage.recycle(pool, buffer);
+        }
+    }
+
+    private final class InflatedStream extends InputStream {
+
+        private final int index;
+        private final Chunks file;
+        private Chunk current;
+        private int position;
+        private boolean done;
+
+        InflatedStream(final int index, final Chunks file) {
+            this.index = index;
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!advance()) {
+                return -1;
+            }
+            return current.buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+            final int count = Math.min(len, current.length - position);
+            System.arraycopy(current.buffer, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current == null ? 0 : current.length - position;
+        }
+
+        @Override
+        public void close() {
+            if (done) {
+                return;
+            }
+            done = true;
+            release();
+            for (final Chunk chunk : file.ring.drainAndAbort()) {
+                chunk.recycle();
+            }
+        }
+
+        private boolean advance() throws IOException {
+            while (current == null || position == current.length) {
+                if (done) {
+                    return false;
+                }
+                release();
+                final long time = System.nanoTime();
+                try {
+                    current = file.ring.take();
+                } catch (final CancellationException e) {
+                    throw new IOException("Decompression stage was closed while reading " + file.path, e);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading " + file.path, e);
+                } finally {
+                    starved.add(System.nanoTime() - time);
+                }
+                if (current == null) {
+                    done = true;
+                    chunks.remove(index);
+                    if (file.failure != null) {
+                        throw new IOException("Cannot inflate " + file.path, file.failure);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void release() {
+            if (current != null) {
+                current.recycle();
+                current = null;
+                position = 0;
+            }
+        }
+    }
+}
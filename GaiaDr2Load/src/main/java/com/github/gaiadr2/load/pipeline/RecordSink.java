@@ -0,0 +1,19 @@
+package com.github.gaiadr2.load.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of the records produced by a pipeline, such as an Avro or Parquet file writer. Each writer
+ * thread has its own sink, which is closed when the thread stops.
+ *
+ * @param <R> Type of the records
+ */
+public interface RecordSink<R> extends Closeable {
+
+    /**
+     * @param record Record to write
+     * @throws IOException When the record cannot be written
+     */
+    void write(final R record) throws IOException;
+}
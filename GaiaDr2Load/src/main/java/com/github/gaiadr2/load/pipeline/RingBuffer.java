@@ -0,0 +1,144 @@
+package com.github.gaiadr2.load.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring of slots connecting two pipeline stages.
+ *
+ * Producers block while the ring is full, which propagates backpressure upstream. Once closed, consumers
+ * drain the remaining items and then receive {@code null}. Once aborted, every blocked or later call
+ * throws a {@link CancellationException}, so that all the stages stop promptly after a failure.
+ *
+ * @param <T> Type of the items
+ */
+final class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int count;
+    private boolean closed;
+    private boolean aborted;
+
+    /**
+     * @param capacity Number of slots
+     */
+    RingBuffer(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, but was: " + capacity);
+        }
+        this.slots = new Object[capacity];
+    }
+
+    /**
+     * @param item Item to add, waiting for a free slot if needed
+     * @throws InterruptedException When interrupted while waiting
+     */
+    void put(final T item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == slots.length && !aborted) {
+                notFull.await();
+            }
+            checkNotAborted();
+            if (closed) {
+                throw new IllegalStateException("Ring buffer is closed");
+            }
+            slots[(head + count) % slots.length] = item;
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The oldest item, waiting for one if needed, or {@code null} when closed and empty
+     * @throws InterruptedException When interrupted while waiting
+     */
+    @SuppressWarnings("unchecked")
+    T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0 && !closed && !aborted) {
+                notEmpty.await();
+            }
+            checkNotAborted();
+            if (count == 0) {
+                return null;
+            }
+            final T item = (T) slots[head];
+            slots[head] = null;
+            head = (head + 1) % slots.length;
+            count--;
+            notFull.signal();
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * No more items will be added: consumers get {@code null} once the ring is drained.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wake up and cancel every producer and consumer.
+     */
+    void abort() {
+        lock.lock();
+        try {
+            aborted = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Abort the ring, see {@link #abort()}, and remove the items left in it so that they can be recycled.
+     *
+     * @return The items left, oldest first
+     */
+    @SuppressWarnings("unchecked")
+    List<T> drainAndAbort() {
+        lock.lock();
+        try {
+            final List<T> items = new ArrayList<>(count);
+            while (count > 0) {
+                items.add((T) slots[head]);
+                slots[head] = null;
+                head = (head + 1) % slots.length;
+                count--;
+            }
+            aborted = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            return items;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotAborted() {
+        if (aborted) {
+            throw new CancellationException("Pipeline aborted");
+        }
+    }
+}
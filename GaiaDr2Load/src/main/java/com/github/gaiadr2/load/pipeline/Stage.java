@@ -0,0 +1,55 @@
+package com.github.gaiadr2.load.pipeline;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Activity counters of a stage, shared by its threads
+ */
+final class Stage {
+
+    private final String name;
+    private final int threads;
+    private final LongAdder items = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final LongAdder inputWait = new LongAdder();
+    private final LongAdder outputWait = new LongAdder();
+
+    Stage(final String name, final int threads) {
+        this.name = name;
+        this.threads = threads;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long busy(final long since, final int processed) {
+        items.add(processed);
+        return add(busy, since);
+    }
+
+    long inputWait(final long since) {
+        return add(inputWait, since);
+    }
+
+    long outputWait(final long since) {
+        return add(outputWait, since);
+    }
+
+    private static long add(final LongAdder counter, final long since) {
+        final long now = System.nanoTime();
+        counter.add(now - since);
+        return now;
+    }
+
+    StageStats snapshot(final long elapsedNanos) {
+        return new StageStats(
+                name,
+                threads,
+                items.sum(),
+                busy.sum(),
+                inputWait.sum(),
+                outputWait.sum(),
+                elapsedNanos);
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.gaiadr2.load.pipeline;
+
+import static java.lang.String.format;
+
+/**
+ * Snapshot of the activity of one pipeline stage.
+ *
+ * A stage whose utilization stays close to 1 is the bottleneck and deserves more threads; a stage mostly
+ * waiting for output is held back by the stages downstream.
+ */
+public final class StageStats {
+
+    private final String name;
+    private final int threads;
+    private final long items;
+    private final long busyNanos;
+    private final long inputWaitNanos;
+    private final long outputWaitNanos;
+    private final long elapsedNanos;
+
+    StageStats(
+            final String name,
+            final int threads,
+            final long items,
+            final long busyNanos,
+            final long inputWaitNanos,
+            final long outputWaitNanos,
+            final long elapsedNanos) {
+        this.name = name;
+        this.threads = threads;
+        this.items = items;
+        this.busyNanos = busyNanos;
+        this.inputWaitNanos = inputWaitNanos;
+        this.outputWaitNanos = outputWaitNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return Number of lines or records processed by the stage
+     */
+    public long getItems() {
+        return items;
+    }
+
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+
+    /**
+     * @return Time spent waiting for the upstream stage, summed over the threads
+     */
+    public long getInputWaitNanos() {
+        return inputWaitNanos;
+    }
+
+    /**
+     * @return Time spent waiting for the downstream stage, i.e. under backpressure, summed over the threads
+     */
+    public long getOutputWaitNanos() {
+        return outputWaitNanos;
+    }
+
+    /**
+     * @return Fraction of the available thread time spent working
+     */
+    public double getUtilization() {
+        return fraction(busyNanos);
+    }
+
+    public double getInputWaitFraction() {
+        return fraction(inputWaitNanos);
+    }
+
+    public double getOutputWaitFraction() {
+        return fraction(outputWaitNanos);
+    }
+
+    private double fraction(final long nanos) {
+        return elapsedNanos == 0 ? 0.0 : nanos / ((double) threads * elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return format(
+                "%s[threads=%d, items=%d, busy=%.0f%%, waiting input=%.0f%%, waiting output=%.0f%%]",
+                name,
+                threads,
+                items,
+                100 * getUtilization(),
+                100 * getInputWaitFraction(),
+                100 * getOutputWaitFraction());
+    }
+}
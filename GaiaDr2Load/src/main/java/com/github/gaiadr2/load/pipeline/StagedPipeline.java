@@ -0,0 +1,257 @@
+package com.github.gaiadr2.load.pipeline;
+
+import com.github.gaiadr2.load.exception.PipelineFailure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Loading pipeline running the reading, parsing and writing of CSV lines on separate threads:
+ * <ul>
+ *     <li>a single reader pulls lines from the input (e.g. a gzip file) into batches;</li>
+ *     <li>N parser threads turn line batches into record batches, each with its own interpreter;</li>
+ *     <li>M writer threads push record batches into their own {@link RecordSink}.</li>
+ * </ul>
+ * The stages are connected by bounded {@link RingBuffer}s of preallocated batches, which are recycled once
+ * consumed, so a slow stage holds back the ones upstream instead of letting memory grow. The first failure
+ * of any stage aborts all of them; {@link #run()} then rethrows it once every thread has stopped and every
+ * sink has been closed. With several parsers or writers, records do not keep the input order.
+ * <p>
+ * Statistics are collected on the way rather than by a second pass: column statistics by the parsers, e.g.
+ * {@code () -> new GaiaSourceInterpreter(statistics)}, and sky maps of each output file by its sink, see
+ * {@link com.github.gaiadr2.load.stats.SkyMapSink}.
+ *
+ * @param <R> Type of the records
+ */
+public final class StagedPipeline<R> {
+
+    private final Iterator<String> input;
+    private final Supplier<? extends Function<String, ? extends R>> parsers;
+    private final Supplier<? extends RecordSink<? super R>> sinks;
+    private final int parserThreads;
+    private final int writerThreads;
+
+    private final RingBuffer<Batch<String>> freeLines;
+    private final RingBuffer<Batch<String>> fullLines;
+    private final RingBuffer<Batch<R>> freeRecords;
+    private final RingBuffer<Batch<R>> fullRecords;
+
+    private final Stage reading = new Stage("read", 1);
+    private final Stage parsing;
+    private final Stage writing;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicReference<PipelineFailure> failure = new AtomicReference<>();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * @param input Lines to parse, read from the reader thread only
+     * @param parsers Factory of line parsers, such as {@code GaiaSourceInterpreter::new}, called once per
+     *                parser thread
+     * @param sinks Factory of record sinks, called once per writer thread
+     * @param parserThreads Number of parser threads
+     * @param writerThreads Number of writer threads
+     * @param batchSize Number of lines or records per batch
+     * @param ringCapacity Number of batches in flight between two stages
+     */
+    public StagedPipeline(
+            final Iterator<String> input,
+            final Supplier<? extends Function<String, ? extends R>> parsers,
+            final Supplier<? extends RecordSink<? super R>> sinks,
+            final int parserThreads,
+            final int writerThreads,
+            final int batchSize,
+            final int ringCapacity) {
+        if (parserThreads <= 0 || writerThreads <= 0) {
+            throw new IllegalArgumentException(
+                    "Thread counts must be positive, but were: " + parserThreads + ", " + writerThreads);
+        }
+        if (batchSize <= 0 || ringCapacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Batch size and ring capacity must be positive, but were: " + batchSize + ", " + ringCapacity);
+        }
+        this.input = input;
+        this.parsers = parsers;
+        this.sinks = sinks;
+        this.parserThreads = parserThreads;
+        this.writerThreads = writerThreads;
+        this.parsing = new Stage("parse", parserThreads);
+        this.writing = new Stage("write", writerThreads);
+        this.freeLines = new RingBuffer<>(ringCapacity);
+        this.fullLines = new RingBuffer<>(ringCapacity);
+        this.freeRecords = new RingBuffer<>(ringCapacity);
+        this.fullRecords = new RingBuffer<>(ringCapacity);
+        try {
+            for (int i = 0; i < ringCapacity; i++) {
+                freeLines.put(new Batch<>(batchSize));
+                freeRecords.put(new Batch<>(batchSize));
+            }
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException("Rings cannot block while empty", e);
+        }
+    }
+
+    /**
+     * Run the pipeline until the input is exhausted and every record is written. A pipeline can only run once.
+     *
+     * @return Activity of the stages
+     * @throws PipelineFailure When a stage fails, or when interrupted
+     */
+    public List<StageStats> run() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Pipeline has already been run");
+        }
+        startNanos = System.nanoTime();
+        final List<Thread> threads = new ArrayList<>();
+        threads.add(start("reader", reading, this::read));
+        final AtomicInteger activeParsers = new AtomicInteger(parserThreads);
+        for (int i = 0; i < parserThreads; i++) {
+            threads.add(start("parser-" + i, parsing, () -> parse(activeParsers)));
+        }
+        for (int i = 0; i < writerThreads; i++) {
+            threads.add(start("writer-" + i, writing, this::write));
+        }
+        try {
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+        } catch (final InterruptedException e) {
+            abort();
+            threads.forEach(Thread::interrupt);
+            joinUninterruptibly(threads);
+            Thread.currentThread().interrupt();
+            throw PipelineFailure.interrupted(e);
+        } finally {
+            endNanos = System.nanoTime();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return stats();
+    }
+
+    /**
+     * @return Activity of the stages so far; can be called from any thread while the pipeline runs
+     */
+    public List<StageStats> stats() {
+        final long start = startNanos;
+        final long end = endNanos != 0 ? endNanos : System.nanoTime();
+        final long elapsed = start == 0 ? 0 : end - start;
+        return Arrays.asList(reading.snapshot(elapsed), parsing.snapshot(elapsed), writing.snapshot(elapsed));
+    }
+
+    private void read() throws InterruptedException {
+        while (true) {
+            long time = System.nanoTime();
+            final Batch<String> batch = freeLines.take();
+            time = reading.outputWait(time);
+            while (!batch.isFull() && input.hasNext()) {
+                batch.add(input.next());
+            }
+            time = reading.busy(time, batch.size());
+            if (batch.isEmpty()) {
+                fullLines.close();
+                return;
+            }
+            fullLines.put(batch);
+            reading.outputWait(time);
+        }
+    }
+
+    private void parse(final AtomicInteger activeParsers) throws InterruptedException {
+        final Function<String, ? extends R> parser = parsers.get();
+        while (true) {
+            long time = System.nanoTime();
+            final Batch<String> lines = fullLines.take();
+            time = parsing.inputWait(time);
+            if (lines == null) {
+                if (activeParsers.decrementAndGet() == 0) {
+                    fullRecords.close();
+                }
+                return;
+            }
+            final Batch<R> records = freeRecords.take();
+            time = parsing.outputWait(time);
+            for (int i = 0; i < lines.size(); i++) {
+                records.add(parser.apply(lines.get(i)));
+            }
+            lines.clear();
+            time = parsing.busy(time, records.size());
+            freeLines.put(lines);
+            fullRecords.put(records);
+            parsing.outputWait(time);
+        }
+    }
+
+    private void write() throws Exception {
+        try (RecordSink<? super R> sink = sinks.get()) {
+            while (true) {
+                long time = System.nanoTime();
+                final Batch<R> records = fullRecords.take();
+                time = writing.inputWait(time);
+                if (records == null) {
+                    return;
+                }
+                for (int i = 0; i < records.size(); i++) {
+                    sink.write(records.get(i));
+                }
+                writing.busy(time, records.size());
+                records.clear();
+                freeRecords.put(records);
+            }
+        }
+    }
+
+    private Thread start(final String name, final Stage stage, final Task task) {
+        final Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (final CancellationException e) {
+                // Another stage failed first
+            } catch (final Throwable e) {
+                if (failure.compareAndSet(null, PipelineFailure.stageFailed(stage.getName(), e))) {
+                    abort();
+                }
+            }
+        }, "pipeline-" + name);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Wait for the threads to stop, even when interrupted again, so that no sink is still open once
+     * {@link #run()} returns.
+     */
+    private static void joinUninterruptibly(final List<Thread> threads) {
+        for (final Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (final InterruptedException ignored) {
+                    // The interrupt is restored by the caller
+                }
+            }
+        }
+    }
+
+    private void abort() {
+        freeLines.abort();
+        fullLines.abort();
+        freeRecords.abort();
+        fullRecords.abort();
+    }
+
+    private interface Task {
+
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.gaiadr2.load.sample;
+
+import com.github.gaiadr2.load.csv.CsvTokenizer;
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+
+import java.util.function.Predicate;
+
+import static com.github.gaiadr2.load.exception.EmptyColumnFailure.emptyColumn;
+import static com.github.gaiadr2.load.exception.NonCompliantColumnFailure.notLong;
+
+/**
+ * Selects the {@code gaia_source} CSV lines whose {@code random_index} is below a limit, reading only the
+ * first columns of the lines, so that unselected lines are never interpreted.
+ * <p>
+ * The random index is a random permutation of the rows of the table: the lines below a limit are a uniform
+ * random sample, the same from one run to the next, and the sample of a smaller fraction is a subset of the
+ * sample of a larger one.
+ */
+public final class RandomIndexFilter implements Predicate<String> {
+
+    /**
+     * Number of rows of the {@code gaia_source} table, and bound of its random index.
+     */
+    public static final long GAIA_DR2_SOURCES = 1_692_919_135L;
+
+    private final long limit;
+
+    /**
+     * @param limit Bound of the selected random indices, exclusive
+     */
+    public RandomIndexFilter(final long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * @param fraction Fraction of the table to select, from 0 to 1
+     * @return Filter selecting this fraction of the {@code gaia_source} table
+     */
+    public static RandomIndexFilter fraction(final double fraction) {
+        if (!(fraction >= 0.0 && fraction <= 1.0)) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        return new RandomIndexFilter(Math.round(fraction * GAIA_DR2_SOURCES));
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public boolean test(final String line) {
+        return randomIndex(line) < limit;
+    }
+
+    /**
+     * @param line A {@code gaia_source} CSV line
+     * @return Its {@code random_index}
+     */
+    public static long randomIndex(final String line) {
+        return longColumn(line, GaiaSourceSpec.RandomIndex);
+    }
+
+    /**
+     * @param line A {@code gaia_source} CSV line
+     * @return Its {@code source_id}
+     */
+    public static long sourceId(final String line) {
+        return longColumn(line, GaiaSourceSpec.SourceId);
+    }
+
+    private static long longColumn(final String line, final GaiaSourceSpec column) {
+        final String value = CsvTokenizer.token(line, column.ordinal());
+        if (value.isEmpty()) {
+            throw emptyColumn(column);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw notLong(column, value);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.gaiadr2.load.sample;
+
+import com.github.gaiadr2.load.stats.HealpixMaps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * Sample of at most a given number of items per HEALPix pixel, stratifying a sample over the sky.
+ * <p>
+ * Every pixel keeps the items of lowest random index: as the random index is a random permutation, they are
+ * a uniform random sample of the items of the pixel, independent from the order in which items are added.
+ * Reservoirs filled from different parts of the input, e.g. by the threads of a parallel stream, therefore
+ * merge into exactly the reservoir of the whole input. A reservoir is not thread-safe.
+ *
+ * @param <T> Type of the sampled items, e.g. CSV lines interpreted once sampled
+ */
+public final class StratifiedReservoir<T> {
+
+    private final int level;
+    private final int capacity;
+    private final Map<Integer, Heap> pixels = new HashMap<>();
+
+    /**
+     * @param level HEALPix level of the strata, from 0 to {@link HealpixMaps#MAX_LEVEL}
+     * @param capacity Maximum number of items per pixel
+     */
+    public StratifiedReservoir(final int level, final int capacity) {
+        HealpixMaps.pixels(level);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.level = level;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param level HEALPix level of the strata, from 0 to {@link HealpixMaps#MAX_LEVEL}
+     * @param capacity Maximum number of lines per pixel
+     * @return Collector sampling {@code gaia_source} CSV lines, reading only their first columns
+     */
+    public static Collector<String, ?, StratifiedReservoir<String>> lines(final int level, final int capacity) {
+        return Collector.of(
+                () -> new StratifiedReservoir<String>(level, capacity),
+                (reservoir, line) -> reservoir.add(
+                        RandomIndexFilter.sourceId(line), RandomIndexFilter.randomIndex(line), line),
+                StratifiedReservoir::merge);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param sourceId Gaia source identifier, giving the pixel of the item
+     * @param randomIndex Random index of the source
+     * @param item Item to sample
+     */
+    public void add(final long sourceId, final long randomIndex, final T item) {
+        final int pixel = HealpixMaps.pixel(sourceId, level);
+        Heap heap = pixels.get(pixel);
+        if (heap == null) {
+            heap = new Heap();
+            pixels.put(pixel, heap);
+        }
+        heap.offer(randomIndex, item);
+    }
+
+    /**
+     * Add the items of another reservoir of the same level and capacity.
+     *
+     * @param other Reservoir to merge, left unchanged
+     * @return This reservoir
+     */
+    public StratifiedReservoir<T> merge(final StratifiedReservoir<T> other) {
+        if (other.level != level || other.capacity != capacity) {
+            throw new IllegalArgumentException("Cannot merge reservoirs of level " + other.level + " and capacity "
+                    + other.capacity + " into level " + level + " and capacity " + capacity);
+        }
+        for (final Map.Entry<Integer, Heap> entry : other.pixels.entrySet()) {
+            final Heap source = entry.getValue();
+            Heap heap = pixels.get(entry.getKey());
+            if (heap == null) {
+                heap = new Heap();
+                pixels.put(entry.getKey(), heap);
+            }
+            for (int i = 0; i < source.size; i++) {
+                heap.offer(source.keys[i], source.items[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return Number of sampled items
+     */
+    public int size() {
+        int size = 0;
+        for (final Heap heap : pixels.values()) {
+            size += heap.size;
+        }
+        return size;
+    }
+
+    /**
+     * @return Number of pixels holding items
+     */
+    public int getPixels() {
+        return pixels.size();
+    }
+
+    /**
+     * @return The sampled items, by ascending pixel then random index
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> sample() {
+        final List<T> sample = new ArrayList<>(size());
+        final Integer[] keys = pixels.keySet().toArray(new Integer[0]);
+        Arrays.sort(keys);
+        for (final Integer pixel : keys) {
+            final Heap heap = pixels.get(pixel);
+            final Integer[] order = new Integer[heap.size];
+            for (int i = 0; i < heap.size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> heap.keys[i]));
+            for (final int i : order) {
+                sample.add((T) heap.items[i]);
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Items of lowest keys of a pixel, as a binary max-heap on the keys, growing up to the capacity.
+     */
+    private final class Heap {
+
+        private long[] keys = new long[Math.min(capacity, 16)];
+        private Object[] items = new Object[keys.length];
+        private int size;
+
+        void offer(final long key, final Object item) {
+            if (size < capacity) {
+                if (size == keys.length) {
+                    final int grown = (int) Math.min(capacity, 2L * size);
+                    keys = Arrays.copyOf(keys, grown);
+                    items = Arrays.copyOf(items, grown);
+                }
+                int child = size++;
+                while (child > 0) {
+                    final int parent = (child - 1) / 2;
+                    if (keys[parent] >= key) {
+                        break;
+                    }
+                    keys[child] = keys[parent];
+                    items[child] = items[parent];
+                    child = parent;
+                }
+                keys[child] = key;
+                items[child] = item;
+            } else if (key < keys[0]) {
+                int parent = 0;
+                while (true) {
+                    int child = 2 * parent + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && keys[child + 1] > keys[child]) {
+                        child++;
+                    }
+                    if (keys[child] <= key) {
+                        break;
+                    }
+                    keys[parent] = keys[child];
+                    items[parent] = items[child];
+                    parent = child;
+                }
+                keys[parent] = key;
+                items[parent] = item;
+            }
+        }
+    }
+}
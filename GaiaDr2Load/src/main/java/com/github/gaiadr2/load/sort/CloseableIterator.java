@@ -0,0 +1,37 @@
+package com.github.gaiadr2.load.sort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} holding resources (files, streams) that must be released once the iteration
+ * is over, or abandoned.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+    /**
+     * Wrap an iterator that does not hold any resource
+     *
+     * @param iterator The iterator to wrap
+     * @return An iterator whose {@link #close()} does nothing
+     */
+    static <T> CloseableIterator<T> of(final Iterator<T> iterator) {
+        return new CloseableIterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Nothing to release
+            }
+        };
+    }
+}
@@ -0,0 +1,425 @@
+package com.github.gaiadr2.load.sort;
+
+import com.github.gaiadr2.avro.io.PrimitiveArrayDatumReader;
+import com.github.gaiadr2.avro.io.PrimitiveArrayDatumWriter;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+
+/**
+ * Sorts a stream of Avro records by a {@code long} key (typically {@code sourceId}) within a bounded
+ * amount of memory.
+ *
+ * Records are encoded to Avro binary as soon as they are read, so the memory budget accounts for the
+ * actual encoded size rather than for the object graph. Whenever the buffered records exceed the budget
+ * they are sorted and spilled to a run file; the runs are then merged lazily by the returned iterator.
+ * When the whole input fits in the budget nothing is written to disk. The sort is stable: records with
+ * the same key keep their input order.
+ * <p>
+ * Every merged run holds an open file and a read buffer, so a merge reads a bounded number of runs at once,
+ * its fan-in: at most {@link #DEFAULT_MAX_FAN_IN}, and no more read buffers than fit in the memory budget.
+ * When there are more runs, groups of runs are first merged into intermediate runs until one merge reads them
+ * all.
+ */
+public final class ExternalSorter<T extends SpecificRecord> {
+
+    /** Maximum number of runs merged at once, well below the usual limit of 1024 open files */
+    public static final int DEFAULT_MAX_FAN_IN = 256;
+
+    /** Approximate per-record bookkeeping cost on top of the encoded bytes */
+    private static final int RECORD_OVERHEAD = 48;
+
+    /** Size of the buffer of every run file, read or written */
+    private static final int RUN_BUFFER = 1 << 16;
+
+    private final Schema schema;
+    private final ToLongFunction<T> key;
+    private final long memoryBudget;
+    private final Path spillDirectory;
+    private final int fanIn;
+
+    /**
+     * @param schema Schema of the records to sort
+     * @param key Sort key of a record
+     * @param memoryBudget Maximum amount of bytes of buffered records before spilling to disk
+     * @param spillDirectory Directory in which temporary run files are created
+     */
+    public ExternalSorter(
+            final Schema schema,
+            final ToLongFunction<T> key,
+            final long memoryBudget,
+            final Path spillDirectory) {
+        this(schema, key, memoryBudget, spillDirectory, DEFAULT_MAX_FAN_IN);
+    }
+
+    /**
+     * @param schema Schema of the records to sort
+     * @param key Sort key of a record
+     * @param memoryBudget Maximum amount of bytes of buffered records before spilling to disk, which also
+     *                     bounds the read buffers of the merged runs
+     * @param spillDirectory Directory in which temporary run files are created
+     * @param maxFanIn Maximum number of runs merged at once, at least 2
+     */
+    public ExternalSorter(
+            final Schema schema,
+            final ToLongFunction<T> key,
+            final long memoryBudget,
+            final Path spillDirectory,
+            final int maxFanIn) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive, but was: " + memoryBudget);
+        }
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2, but was: " + maxFanIn);
+        }
+        this.schema = schema;
+        this.key = key;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+        // One buffer per merged run, and one for the output of an intermediate merge
+        this.fanIn = (int) Math.max(2, Math.min(maxFanIn, memoryBudget / RUN_BUFFER - 1));
+    }
+
+    /**
+     * Sort the input records. The input is fully consumed before this method returns.
+     *
+     * @param input Records to sort, in any order
+     * @return The records in ascending key order. The iterator must be closed to release the run files.
+     * @throws IOException When the runs cannot be spilled to disk
+     */
+    public CloseableIterator<T> sort(final Iterator<T> input) throws IOException {
+        final DatumWriter<T> writer = new PrimitiveArrayDatumWriter<>(schema);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        BinaryEncoder encoder = null;
+
+        final List<Path> runs = new ArrayList<>();
+        final List<Entry> buffer = new ArrayList<>();
+        long buffered = 0;
+        long sequence = 0;
+        try {
+            while (input.hasNext()) {
+                final T record = input.next();
+                bytes.reset();
+                encoder = EncoderFactory.get().directBinaryEncoder(bytes, encoder);
+                writer.write(record, encoder);
+                final Entry entry = new Entry(key.applyAsLong(record), sequence++, bytes.toByteArray());
+                buffer.add(entry);
+                buffered += entry.payload.length + RECORD_OVERHEAD;
+                if (buffered >= memoryBudget) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                    buffered = 0;
+                }
+            }
+            buffer.sort(Entry.ORDER);
+            if (runs.isEmpty()) {
+                return CloseableIterator.of(new InMemoryRun(buffer));
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(spill(buffer));
+                buffer.clear();
+            }
+            reduce(runs);
+            return new MergingIterator(runs);
+        } catch (IOException | RuntimeException e) {
+            for (final Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sort a buffer and write it to a new run file. Each entry is stored as key, sequence number,
+     * payload length and payload.
+     *
+     * @param buffer Buffered records
+     * @return Path to the run file
+     * @throws IOException When the file cannot be written
+     */
+    private Path spill(final List<Entry> buffer) throws IOException {
+        buffer.sort(Entry.ORDER);
+        final Path run = Files.createTempFile(spillDirectory, "sort-run-", ".bin");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER))) {
+            for (final Entry entry : buffer) {
+                out.writeLong(entry.key);
+                out.writeLong(entry.sequence);
+                out.writeInt(entry.payload.length);
+                out.write(entry.payload);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Merge runs into intermediate runs until there are no more than the fan-in. Each merge reads the oldest
+     * runs, as many as the fan-in but no more than needed to get down to it, so that the last intermediate merge
+     * does not copy more entries than it must. Sequence numbers are copied along, so the sort stays stable.
+     *
+     * @param runs Run files, replaced in place by the merged runs; the merged runs are deleted
+     * @throws IOException When a run cannot be read or written
+     */
+    private void reduce(final List<Path> runs) throws IOException {
+        while (runs.size() > fanIn) {
+            final int count = Math.min(fanIn, runs.size() - fanIn + 1);
+            final List<Path> group = new ArrayList<>(runs.subList(0, count));
+            final Path merged = merge(group);
+            runs.subList(0, count).clear();
+            runs.add(merged);
+            for (final Path run : group) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * @param group Runs to merge
+     * @return A new run file holding the entries of the runs, in order
+     * @throws IOException When a run cannot be read or written
+     */
+    private Path merge(final List<Path> group) throws IOException {
+        final Path run = Files.createTempFile(spillDirectory, "sort-run-", ".bin");
+        try (RunHeap heap = new RunHeap(group);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER))) {
+            RunReader head;
+            while ((head = heap.poll()) != null) {
+                out.writeLong(head.key);
+                out.writeLong(head.sequence);
+                out.writeInt(head.length);
+                out.write(head.payload, 0, head.length);
+                heap.advance(head);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * An encoded record with its sort key
+     */
+    private static final class Entry {
+
+        static final Comparator<Entry> ORDER = Comparator
+                .comparingLong((Entry e) -> e.key)
+                .thenComparingLong(e -> e.sequence);
+
+        final long key;
+        final long sequence;
+        final byte[] payload;
+
+        Entry(final long key, final long sequence, final byte[] payload) {
+            this.key = key;
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Decodes the sorted entries of a run that never left memory
+     */
+    private final class InMemoryRun implements Iterator<T> {
+
+        private final DatumReader<T> reader = new PrimitiveArrayDatumReader<>(schema, schema);
+        private final Iterator<Entry> entries;
+        private BinaryDecoder decoder;
+
+        InMemoryRun(final List<Entry> entries) {
+            this.entries = entries.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public T next() {
+            final Entry entry = entries.next();
+            decoder = DecoderFactory.get().binaryDecoder(entry.payload, decoder);
+            try {
+                return reader.read(null, decoder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Reader for a single run file, positioned on its current head entry
+     */
+    private static final class RunReader {
+
+        private final DataInputStream in;
+        long key;
+        long sequence;
+        byte[] payload = new byte[256];
+        int length;
+
+        RunReader(final InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in, RUN_BUFFER));
+        }
+
+        /**
+         * @return {@code true} when a new head entry was read, {@code false} at the end of the run
+         * @throws IOException When the run file is truncated or unreadable
+         */
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            sequence = in.readLong();
+            length = in.readInt();
+            if (payload.length < length) {
+                payload = Arrays.copyOf(payload, Math.max(length, payload.length * 2));
+            }
+            in.readFully(payload, 0, length);
+            return true;
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Readers of runs, ordered by their head entry
+     */
+    private static final class RunHeap implements Closeable {
+
+        private final PriorityQueue<RunReader> heads = new PriorityQueue<>(Comparator
+                .comparingLong((RunReader r) -> r.key)
+                .thenComparingLong(r -> r.sequence));
+        private final List<RunReader> readers = new ArrayList<>();
+
+        RunHeap(final List<Path> runs) throws IOException {
+            try {
+                for (final Path run : runs) {
+                    final RunReader runReader = new RunReader(Files.newInputStream(run));
+                    readers.add(runReader);
+                    if (runReader.advance()) {
+                        heads.add(runReader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        boolean isEmpty() {
+            return heads.isEmpty();
+        }
+
+        /**
+         * @return The reader holding the smallest head entry, to {@link #advance} once the entry is consumed, or
+         *         {@code null} when every run is exhausted
+         */
+        RunReader poll() {
+            return heads.poll();
+        }
+
+        void advance(final RunReader head) throws IOException {
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            heads.clear();
+            IOException failure = null;
+            for (final RunReader runReader : readers) {
+                try {
+                    runReader.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * K-way merge of the spilled runs
+     */
+    private final class MergingIterator implements CloseableIterator<T> {
+
+        private final DatumReader<T> reader = new PrimitiveArrayDatumReader<>(schema, schema);
+        private final List<Path> runs;
+        private final RunHeap heap;
+        private BinaryDecoder decoder;
+
+        MergingIterator(final List<Path> runs) throws IOException {
+            this.runs = runs;
+            this.heap = new RunHeap(runs);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            final RunReader head = heap.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            try {
+                decoder = DecoderFactory.get().binaryDecoder(head.payload, 0, head.length, decoder);
+                final T record = reader.read(null, decoder);
+                heap.advance(head);
+                return record;
+            } catch (IOException e) {
+                throw new UncheckedIOException(format("Could not read sort run: %s", e.getMessage()), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                heap.close();
+            } finally {
+                for (final Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.gaiadr2.load.spark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.github.gaiadr2.avro.io.GaiaSourceDatumReader;
+import com.github.gaiadr2.avro.io.GaiaSourceDatumWriter;
+import com.github.gaiadr2.avro.io.PrimitiveArrayDatumReader;
+import com.github.gaiadr2.avro.io.PrimitiveArrayDatumWriter;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.io.IOException;
+
+/**
+ * Kryo serializer of a generated Avro record class, writing records in the Avro binary encoding of the schema
+ * of the class: neither the schema nor the field names are written, only the values.
+ * <p>
+ * {@link GaiaSource} records go through the hand-written {@link GaiaSourceDatumWriter} and
+ * {@link GaiaSourceDatumReader}. Like Kryo instances, serializers are confined to a thread.
+ *
+ * @param <T> Generated record class
+ */
+public final class AvroKryoSerializer<T extends SpecificRecord> extends Serializer<T> {
+
+    private final Schema schema;
+    private final DatumWriter<T> writer;
+    private final DatumReader<T> reader;
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+
+    /**
+     * @param type Generated record class
+     */
+    @SuppressWarnings("unchecked")
+    public AvroKryoSerializer(final Class<T> type) {
+        this.schema = SpecificData.get().getSchema(type);
+        if (type == GaiaSource.class) {
+            this.writer = (DatumWriter<T>) new GaiaSourceDatumWriter();
+            this.reader = (DatumReader<T>) new GaiaSourceDatumReader();
+            writer.setSchema(schema);
+            reader.setSchema(schema);
+        } else {
+            this.writer = new PrimitiveArrayDatumWriter<>(schema);
+            this.reader = new PrimitiveArrayDatumReader<>(schema, schema);
+        }
+    }
+
+    @Override
+    public void write(final Kryo kryo, final Output output, final T record) {
+        // Direct encoder and decoder: no buffer of their own, so no byte is read past the record
+        encoder = EncoderFactory.get().directBinaryEncoder(output, encoder);
+        try {
+            writer.write(record, encoder);
+        } catch (IOException e) {
+            throw new KryoException("Could not encode " + schema.getName() + " record", e);
+        }
+    }
+
+    @Override
+    public T read(final Kryo kryo, final Input input, final Class<T> type) {
+        decoder = DecoderFactory.get().directBinaryDecoder(input, decoder);
+        try {
+            return reader.read(null, decoder);
+        } catch (IOException e) {
+            throw new KryoException("Could not decode " + schema.getName() + " record", e);
+        }
+    }
+
+    @Override
+    public T copy(final Kryo kryo, final T original) {
+        return SpecificData.get().deepCopy(schema, original);
+    }
+}
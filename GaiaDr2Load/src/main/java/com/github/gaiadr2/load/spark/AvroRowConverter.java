@@ -0,0 +1,258 @@
+package com.github.gaiadr2.load.spark;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.expressions.GenericRowWithSchema;
+import org.apache.spark.sql.catalyst.util.GenericArrayData;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import scala.collection.JavaConverters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maps an Avro record schema to a Spark SQL {@link StructType}, and converts records of the schema to Spark
+ * rows, so that Spark jobs hold columnar rows instead of serialized Avro objects.
+ * <p>
+ * Nested records become nested structs, optional unions ({@code union {null, T}}) nullable fields, enums their
+ * symbol as a string, and arrays arrays. Other unions, maps, bytes and fixed are not supported. The conversion
+ * of each field is resolved once from the schema, not for every record.
+ * <p>
+ * Avro schemas are not serializable: create converters where the records are, e.g. once per partition.
+ */
+public final class AvroRowConverter {
+
+    private final StructType structType;
+    private final Converter converter;
+
+    /**
+     * @param schema Schema of a record
+     * @throws IllegalArgumentException When the schema is not a record, or holds unsupported types
+     */
+    public AvroRowConverter(final Schema schema) {
+        if (schema.getType() != Schema.Type.RECORD) {
+            throw new IllegalArgumentException("Only records can be converted to rows, but was: " + schema);
+        }
+        this.converter = converter(schema);
+        this.structType = (StructType) converter.type;
+    }
+
+    /**
+     * @return Converter of {@link GaiaSource} records
+     */
+    public static AvroRowConverter gaiaSource() {
+        return new AvroRowConverter(GaiaSource.getClassSchema());
+    }
+
+    public StructType getStructType() {
+        return structType;
+    }
+
+    /**
+     * @param record A record of the schema
+     * @return The record as an external row with its schema, e.g. for {@code SparkSession.createDataFrame}
+     */
+    public Row toRow(final IndexedRecord record) {
+        return (Row) converter.external(record);
+    }
+
+    /**
+     * @param record A record of the schema
+     * @return The record as a Catalyst row, e.g. for a data source reader
+     */
+    public InternalRow toInternalRow(final IndexedRecord record) {
+        return (InternalRow) converter.internal(record);
+    }
+
+    private static Converter converter(final Schema schema) {
+        switch (schema.getType()) {
+            case RECORD:
+                return new RecordConverter(schema);
+            case UNION:
+                return converter(optionalType(schema));
+            case ARRAY:
+                return new ArrayConverter(schema);
+            case ENUM:
+            case STRING:
+                return new StringConverter();
+            case INT:
+                return new Converter(DataTypes.IntegerType);
+            case LONG:
+                return new Converter(DataTypes.LongType);
+            case FLOAT:
+                return new Converter(DataTypes.FloatType);
+            case DOUBLE:
+                return new Converter(DataTypes.DoubleType);
+            case BOOLEAN:
+                return new Converter(DataTypes.BooleanType);
+            default:
+                throw new IllegalArgumentException("Unsupported Avro type: " + schema);
+        }
+    }
+
+    /**
+     * @param union A union schema
+     * @return The type of the optional value, for a union of {@code null} and of another type
+     */
+    private static Schema optionalType(final Schema union) {
+        final List<Schema> types = union.getTypes();
+        if (types.size() == 2 && types.get(0).getType() == Schema.Type.NULL) {
+            return types.get(1);
+        }
+        if (types.size() == 2 && types.get(1).getType() == Schema.Type.NULL) {
+            return types.get(0);
+        }
+        throw new IllegalArgumentException("Only unions of null and of another type are supported: " + union);
+    }
+
+    private static boolean isNullable(final Schema schema) {
+        return schema.getType() == Schema.Type.UNION || schema.getType() == Schema.Type.NULL;
+    }
+
+    /**
+     * Conversion of the values of a type, here of primitive values, which need none
+     */
+    private static class Converter {
+
+        final DataType type;
+
+        Converter(final DataType type) {
+            this.type = type;
+        }
+
+        Object external(final Object value) {
+            return value;
+        }
+
+        Object internal(final Object value) {
+            return value;
+        }
+    }
+
+    private static final class StringConverter extends Converter {
+
+        StringConverter() {
+            super(DataTypes.StringType);
+        }
+
+        @Override
+        Object external(final Object value) {
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        Object internal(final Object value) {
+            return value == null ? null : UTF8String.fromString(value.toString());
+        }
+    }
+
+    private static final class ArrayConverter extends Converter {
+
+        private final Converter element;
+
+        ArrayConverter(final Schema schema) {
+            this(schema, converter(schema.getElementType()));
+        }
+
+        private ArrayConverter(final Schema schema, final Converter element) {
+            super(DataTypes.createArrayType(element.type, isNullable(schema.getElementType())));
+            this.element = element;
+        }
+
+        @Override
+        Object external(final Object value) {
+            if (value == null) {
+                return null;
+            }
+            final Collection<?> values = (Collection<?>) value;
+            final List<Object> converted = new ArrayList<>(values.size());
+            for (final Object item : values) {
+                converted.add(element.external(item));
+            }
+            return JavaConverters.asScalaBufferConverter(converted).asScala();
+        }
+
+        @Override
+        Object internal(final Object value) {
+            if (value == null) {
+                return null;
+            }
+            final Collection<?> values = (Collection<?>) value;
+            final Object[] converted = new Object[values.size()];
+            int i = 0;
+            for (final Object item : values) {
+                converted[i++] = element.internal(item);
+            }
+            return new GenericArrayData(converted);
+        }
+    }
+
+    private static final class RecordConverter extends Converter {
+
+        private final Converter[] fields;
+
+        RecordConverter(final Schema schema) {
+            this(schema, fieldConverters(schema));
+        }
+
+        private RecordConverter(final Schema schema, final Converter[] fields) {
+            super(structType(schema, fields));
+            this.fields = fields;
+        }
+
+        private static Converter[] fieldConverters(final Schema schema) {
+            final List<Schema.Field> fields = schema.getFields();
+            final Converter[] converters = new Converter[fields.size()];
+            for (int i = 0; i < converters.length; i++) {
+                converters[i] = converter(fields.get(i).schema());
+            }
+            return converters;
+        }
+
+        private static StructType structType(final Schema schema, final Converter[] converters) {
+            final List<Schema.Field> fields = schema.getFields();
+            final StructField[] structFields = new StructField[converters.length];
+            for (int i = 0; i < structFields.length; i++) {
+                structFields[i] = new StructField(fields.get(i).name(), converters[i].type,
+                        isNullable(fields.get(i).schema()), Metadata.empty());
+            }
+            return new StructType(structFields);
+        }
+
+        @Override
+        Object external(final Object value) {
+            if (value == null) {
+                return null;
+            }
+            final IndexedRecord record = (IndexedRecord) value;
+            final Object[] values = new Object[fields.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = fields[i].external(record.get(i));
+            }
+            return new GenericRowWithSchema(values, (StructType) type);
+        }
+
+        @Override
+        Object internal(final Object value) {
+            if (value == null) {
+                return null;
+            }
+            final IndexedRecord record = (IndexedRecord) value;
+            final Object[] values = new Object[fields.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = fields[i].internal(record.get(i));
+            }
+            return new GenericInternalRow(values);
+        }
+    }
+}
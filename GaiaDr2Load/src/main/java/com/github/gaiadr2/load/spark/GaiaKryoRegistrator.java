@@ -0,0 +1,117 @@
+package com.github.gaiadr2.load.spark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.index.BlockRange;
+import com.github.gaiadr2.avro.index.FileRange;
+import com.github.gaiadr2.avro.index.SparseIndex;
+import com.github.gaiadr2.avro.source.AstroPar;
+import com.github.gaiadr2.avro.source.AstroParamSolved;
+import com.github.gaiadr2.avro.source.AstroParams;
+import com.github.gaiadr2.avro.source.AstrometryMetadata;
+import com.github.gaiadr2.avro.source.BandPhot;
+import com.github.gaiadr2.avro.source.ColourInfo;
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.OptAstro;
+import com.github.gaiadr2.avro.source.PhotMode;
+import com.github.gaiadr2.avro.source.RotatorObjectType;
+import com.github.gaiadr2.avro.source.Rvs;
+import com.github.gaiadr2.avro.source.VarFlag;
+import com.github.gaiadr2.avro.stats.ColumnStats;
+import com.github.gaiadr2.avro.stats.Histogram;
+import com.github.gaiadr2.avro.stats.PixelStats;
+import com.github.gaiadr2.avro.stats.TableStats;
+import com.github.gaiadr2.avro.vari.Cepheid;
+import com.github.gaiadr2.avro.vari.ClassCepheid;
+import com.github.gaiadr2.avro.vari.ClassName;
+import com.github.gaiadr2.avro.vari.ClassRRLyrae;
+import com.github.gaiadr2.avro.vari.ClassifierResult;
+import com.github.gaiadr2.avro.vari.LongPeriodVariable;
+import com.github.gaiadr2.avro.vari.ModeCepheid;
+import com.github.gaiadr2.avro.vari.MultiModeCepheid;
+import com.github.gaiadr2.avro.vari.RRLyrae;
+import com.github.gaiadr2.avro.vari.RotationModulation;
+import com.github.gaiadr2.avro.vari.SegmentInfo;
+import com.github.gaiadr2.avro.vari.ShortTimeScale;
+import com.github.gaiadr2.avro.vari.SubClassType2;
+import com.github.gaiadr2.avro.vari.VarInfo;
+import com.github.gaiadr2.avro.vari.aux.BandStats;
+import com.github.gaiadr2.avro.vari.aux.TimeSeriesStats;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.spark.serializer.KryoRegistrator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registers the generated Avro classes of Gaia DR2 with Kryo, records with an {@link AvroKryoSerializer}, so that
+ * Spark shuffles write a class identifier and the Avro binary values instead of class names and schemas.
+ * <p>
+ * Enable with {@code spark.serializer=org.apache.spark.serializer.KryoSerializer} and
+ * {@code spark.kryo.registrator=com.github.gaiadr2.load.spark.GaiaKryoRegistrator}.
+ */
+public final class GaiaKryoRegistrator implements KryoRegistrator {
+
+    /**
+     * Generated record classes, in registration order: appending keeps the identifiers of the others.
+     */
+    public static final List<Class<? extends SpecificRecord>> RECORDS = Collections.unmodifiableList(Arrays.asList(
+            GaiaSource.class,
+            CoreAstro.class,
+            OptAstro.class,
+            AstrometryMetadata.class,
+            BandPhot.class,
+            ColourInfo.class,
+            Rvs.class,
+            AstroPar.class,
+            AstroParams.class,
+            Dval.class,
+            Cepheid.class,
+            RRLyrae.class,
+            LongPeriodVariable.class,
+            ShortTimeScale.class,
+            RotationModulation.class,
+            SegmentInfo.class,
+            ClassifierResult.class,
+            VarInfo.class,
+            TimeSeriesStats.class,
+            BandStats.class,
+            Histogram.class,
+            ColumnStats.class,
+            TableStats.class,
+            PixelStats.class,
+            BlockRange.class,
+            FileRange.class,
+            SparseIndex.class));
+
+    /**
+     * Generated enum classes, serialized by Kryo itself.
+     */
+    public static final List<Class<? extends Enum<?>>> ENUMS = Collections.unmodifiableList(Arrays.asList(
+            AstroParamSolved.class,
+            RotatorObjectType.class,
+            PhotMode.class,
+            VarFlag.class,
+            ClassName.class,
+            ClassCepheid.class,
+            ModeCepheid.class,
+            MultiModeCepheid.class,
+            ClassRRLyrae.class,
+            SubClassType2.class));
+
+    @Override
+    public void registerClasses(final Kryo kryo) {
+        for (final Class<? extends SpecificRecord> type : RECORDS) {
+            register(kryo, type);
+        }
+        for (final Class<? extends Enum<?>> type : ENUMS) {
+            kryo.register(type);
+        }
+    }
+
+    private static <T extends SpecificRecord> void register(final Kryo kryo, final Class<T> type) {
+        kryo.register(type, new AvroKryoSerializer<>(type));
+    }
+}
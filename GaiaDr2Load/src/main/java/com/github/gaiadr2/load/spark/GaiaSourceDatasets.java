@@ -0,0 +1,88 @@
+package com.github.gaiadr2.load.spark;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.encoders.ExpressionEncoder;
+import org.apache.spark.sql.catalyst.encoders.RowEncoder;
+import org.apache.spark.sql.types.StructType;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Spark SQL datasets of {@code gaia_source} rows, typed by the {@link StructType} of the {@link GaiaSource}
+ * schema, so that Spark jobs get columnar caching and generated code instead of shuffling Avro objects.
+ */
+public final class GaiaSourceDatasets {
+
+    /**
+     * First column name of the header line of the CSV files.
+     */
+    private static final String HEADER = "solution_id,";
+
+    private GaiaSourceDatasets() {
+    }
+
+    /**
+     * @return Schema of the rows, see {@link AvroRowConverter}
+     */
+    public static StructType schema() {
+        return AvroRowConverter.gaiaSource().getStructType();
+    }
+
+    /**
+     * @return Encoder of the rows, e.g. for {@code Dataset.map} producing sources
+     */
+    public static ExpressionEncoder<Row> encoder() {
+        return RowEncoder.apply(schema());
+    }
+
+    /**
+     * Interpret CSV lines straight into rows, one partition at a time.
+     *
+     * @param spark Spark session
+     * @param lines Lines of {@code gaia_source} CSV files, e.g. {@code spark.read().textFile(path).javaRDD()};
+     *              header lines are skipped
+     * @return Dataset of the sources
+     */
+    public static Dataset<Row> fromCsv(final SparkSession spark, final JavaRDD<String> lines) {
+        final JavaRDD<Row> rows = lines.mapPartitions(partition -> {
+            final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+            final AvroRowConverter converter = AvroRowConverter.gaiaSource();
+            return new Iterator<Row>() {
+
+                private String next = advance();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Row next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    final GaiaSource source = interpreter.apply(next);
+                    next = advance();
+                    return converter.toRow(source);
+                }
+
+                private String advance() {
+                    while (partition.hasNext()) {
+                        final String line = partition.next();
+                        if (!line.startsWith(HEADER)) {
+                            return line;
+                        }
+                    }
+                    return null;
+                }
+            };
+        });
+        return spark.createDataFrame(rows, schema());
+    }
+}
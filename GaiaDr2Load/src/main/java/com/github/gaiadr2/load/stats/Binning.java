@@ -0,0 +1,57 @@
+package com.github.gaiadr2.load.stats;
+
+/**
+ * Equal-width bins of a histogram, between a lower and an upper bound.
+ */
+public final class Binning {
+
+    private final double min;
+    private final double max;
+    private final int bins;
+    private final double scale;
+
+    /**
+     * @param min Lower bound of the first bin
+     * @param max Upper bound of the last bin
+     * @param bins Number of bins
+     */
+    public Binning(final double min, final double max, final int bins) {
+        if (!(min < max) || Double.isInfinite(min) || Double.isInfinite(max)) {
+            throw new IllegalArgumentException("Bounds must be finite and increasing, but were: " + min + ", " + max);
+        }
+        if (bins <= 0) {
+            throw new IllegalArgumentException("Number of bins must be positive, but was: " + bins);
+        }
+        this.min = min;
+        this.max = max;
+        this.bins = bins;
+        this.scale = bins / (max - min);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int getBins() {
+        return bins;
+    }
+
+    /**
+     * @param value A value, not NaN
+     * @return Index of the bin holding the value; -1 below the lower bound, {@link #getBins()} at or above the
+     * upper bound
+     */
+    public int bin(final double value) {
+        if (value < min) {
+            return -1;
+        }
+        if (value >= max) {
+            return bins;
+        }
+        return Math.min((int) ((value - min) * scale), bins - 1);
+    }
+}
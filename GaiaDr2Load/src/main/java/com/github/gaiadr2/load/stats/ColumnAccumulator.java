@@ -0,0 +1,182 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.stats.ColumnStats;
+import com.github.gaiadr2.avro.stats.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running statistics of one column: counts by kind of value, extrema, and mean and variance using Welford's
+ * online algorithm, merged with the pairwise update of Chan et al.
+ */
+final class ColumnAccumulator {
+
+    private final Binning binning;
+    private final long[] counts;
+    private long count;
+    private long nullCount;
+    private long textCount;
+    private long booleanCount;
+    private long trueCount;
+    private long underflow;
+    private long overflow;
+    private long n;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param binning Bins of the histogram, {@code null} for none
+     */
+    ColumnAccumulator(final Binning binning) {
+        this.binning = binning;
+        this.counts = binning == null ? null : new long[binning.getBins()];
+    }
+
+    /**
+     * Account for an empty value.
+     */
+    void addNull() {
+        count++;
+        nullCount++;
+    }
+
+    /**
+     * Account for a value which is not a number, such as a designation.
+     */
+    void addText() {
+        count++;
+        textCount++;
+    }
+
+    /**
+     * @param value A boolean value
+     */
+    void addBoolean(final boolean value) {
+        count++;
+        booleanCount++;
+        if (value) {
+            trueCount++;
+        }
+    }
+
+    /**
+     * @param value A numeric value; values which are not finite count as null, as the interpreters read them
+     */
+    void add(final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            addNull();
+            return;
+        }
+        count++;
+        n++;
+        final double delta = value - mean;
+        mean += delta / n;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (binning != null) {
+            final int bin = binning.bin(value);
+            if (bin < 0) {
+                underflow++;
+            } else if (bin == counts.length) {
+                overflow++;
+            } else {
+                counts[bin]++;
+            }
+        }
+    }
+
+    /**
+     * @param other Statistics of another part of the same column, with the same binning
+     */
+    void merge(final ColumnAccumulator other) {
+        count += other.count;
+        nullCount += other.nullCount;
+        textCount += other.textCount;
+        booleanCount += other.booleanCount;
+        trueCount += other.trueCount;
+        merge(other.n, other.mean, other.m2, other.min, other.max);
+        if (counts != null && other.counts != null) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            underflow += other.underflow;
+            overflow += other.overflow;
+        }
+    }
+
+    /**
+     * @param column Name of the column
+     * @return The statistics as a record
+     */
+    ColumnStats toStats(final String column) {
+        final ColumnStats stats = new ColumnStats();
+        stats.setColumn(column);
+        stats.setCount(count);
+        stats.setNullCount(nullCount);
+        stats.setTextCount(textCount);
+        stats.setBooleanCount(booleanCount);
+        stats.setTrueCount(trueCount);
+        if (n > 0) {
+            stats.setMin(min);
+            stats.setMax(max);
+            stats.setMean(mean);
+            stats.setVariance(n > 1 ? m2 / (n - 1) : 0.0);
+        }
+        if (counts != null) {
+            final List<Long> bins = new ArrayList<>(counts.length);
+            for (final long bin : counts) {
+                bins.add(bin);
+            }
+            stats.setHistogram(new Histogram(binning.getMin(), binning.getMax(), bins, underflow, overflow));
+        }
+        return stats;
+    }
+
+    /**
+     * @param stats Statistics of a column, e.g. read from a sidecar file
+     * @return An accumulator holding these statistics, which can be merged with others
+     */
+    static ColumnAccumulator of(final ColumnStats stats) {
+        final Histogram histogram = stats.getHistogram();
+        final ColumnAccumulator accumulator = new ColumnAccumulator(histogram == null
+                ? null
+                : new Binning(histogram.getMin(), histogram.getMax(), histogram.getCounts().size()));
+        accumulator.count = stats.getCount();
+        accumulator.nullCount = stats.getNullCount();
+        accumulator.textCount = stats.getTextCount();
+        accumulator.booleanCount = stats.getBooleanCount();
+        accumulator.trueCount = stats.getTrueCount();
+        if (stats.getMean() != null) {
+            final long numbers = stats.getCount() - stats.getNullCount() - stats.getTextCount()
+                    - stats.getBooleanCount();
+            accumulator.merge(numbers, stats.getMean(), stats.getVariance() * (numbers - 1),
+                    stats.getMin(), stats.getMax());
+        }
+        if (histogram != null) {
+            for (int i = 0; i < accumulator.counts.length; i++) {
+                accumulator.counts[i] = histogram.getCounts().get(i);
+            }
+            accumulator.underflow = histogram.getUnderflow();
+            accumulator.overflow = histogram.getOverflow();
+        }
+        return accumulator;
+    }
+
+    private void merge(final long otherN, final double otherMean, final double otherM2,
+                       final double otherMin, final double otherMax) {
+        if (otherN == 0) {
+            return;
+        }
+        final long total = n + otherN;
+        final double delta = otherMean - mean;
+        mean += delta * otherN / total;
+        m2 += otherM2 + delta * delta * n * otherN / total;
+        n = total;
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+}
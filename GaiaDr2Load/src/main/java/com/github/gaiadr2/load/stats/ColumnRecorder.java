@@ -0,0 +1,184 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.load.csv.CsvInterpreter;
+import com.github.gaiadr2.load.csv.CsvRow;
+import com.github.gaiadr2.load.csv.DoubleArray;
+import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * A {@link CsvInterpreter} recording the values read through its typed accessors, so that
+ * {@link ColumnStatistics} accounts for the values the interpreter produced instead of parsing the columns again.
+ * <p>
+ * Values of the current line are kept aside until {@link #commit()}, so that a line failing half way through
+ * its interpretation is not accounted for. Columns which were not read are parsed on commit, when they look
+ * like numbers. Like the current line, the recorded values are confined to the calling thread.
+ *
+ * @param <F> Enumeration of the CSV columns
+ */
+public final class ColumnRecorder<F extends Enum<F>> implements CsvInterpreter<F> {
+
+    /** Kinds of recorded values */
+    static final byte UNREAD = 0;
+    static final byte NULL = 1;
+    static final byte TEXT = 2;
+    static final byte NUMBER = 3;
+    static final byte FALSE = 4;
+    static final byte TRUE = 5;
+
+    private final CsvInterpreter<F> delegate;
+    private final ColumnStatistics<F> statistics;
+
+    /**
+     * @param delegate Interpreter of the lines
+     * @param statistics Collector of the committed lines
+     */
+    ColumnRecorder(final CsvInterpreter<F> delegate, final ColumnStatistics<F> statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Account for the values read from the current line of the calling thread, in the accumulators of that thread.
+     */
+    public void commit() {
+        final ColumnStatistics.Accumulators accumulators = statistics.local();
+        final F[] columns = statistics.columns();
+        accumulators.rows++;
+        for (int i = 0; i < columns.length; i++) {
+            final ColumnAccumulator column = accumulators.columns[i];
+            switch (accumulators.kinds[i]) {
+                case NULL:
+                    column.addNull();
+                    break;
+                case TEXT:
+                    column.addText();
+                    break;
+                case NUMBER:
+                    column.add(accumulators.values[i]);
+                    break;
+                case FALSE:
+                    column.addBoolean(false);
+                    break;
+                case TRUE:
+                    column.addBoolean(true);
+                    break;
+                default:
+                    addUnread(column, columns[i]);
+            }
+        }
+    }
+
+    @Override
+    public CsvRow<F> parse(final String line) {
+        return delegate.parse(line);
+    }
+
+    @Override
+    public void accept(final String line) {
+        Arrays.fill(statistics.local().kinds, UNREAD);
+        delegate.accept(line);
+    }
+
+    @Override
+    public OptionalInt intValue(final F column) {
+        final OptionalInt value = delegate.intValue(column);
+        if (value.isPresent()) {
+            record(column, NUMBER, value.getAsInt());
+        } else {
+            record(column, NULL, Double.NaN);
+        }
+        return value;
+    }
+
+    @Override
+    public OptionalLong longValue(final F column) {
+        final OptionalLong value = delegate.longValue(column);
+        if (value.isPresent()) {
+            record(column, NUMBER, value.getAsLong());
+        } else {
+            record(column, NULL, Double.NaN);
+        }
+        return value;
+    }
+
+    @Override
+    public Optional<Float> floatValue(final F column) {
+        final Optional<Float> value = delegate.floatValue(column);
+        if (value.isPresent()) {
+            record(column, NUMBER, value.get());
+        } else {
+            record(column, NULL, Double.NaN);
+        }
+        return value;
+    }
+
+    @Override
+    public OptionalDouble doubleValue(final F column) {
+        final OptionalDouble value = delegate.doubleValue(column);
+        if (value.isPresent()) {
+            record(column, NUMBER, value.getAsDouble());
+        } else {
+            record(column, NULL, Double.NaN);
+        }
+        return value;
+    }
+
+    @Override
+    public Optional<Boolean> booleanValue(final F column) {
+        final Optional<Boolean> value = delegate.booleanValue(column);
+        if (value.isPresent()) {
+            record(column, value.get() ? TRUE : FALSE, Double.NaN);
+        } else {
+            record(column, NULL, Double.NaN);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean doubleArrayValue(final F column, final DoubleArray target) {
+        final boolean present = delegate.doubleArrayValue(column, target);
+        record(column, present ? TEXT : NULL, Double.NaN);
+        return present;
+    }
+
+    @Override
+    public Optional<String> rawValue(final F column) {
+        final Optional<String> value = delegate.rawValue(column);
+        record(column, value.isPresent() ? TEXT : NULL, Double.NaN);
+        return value;
+    }
+
+    /**
+     * Account for a column the interpreter did not read, such as a value derived from other columns. Only these
+     * columns are parsed here, and only when they look like numbers.
+     */
+    private void addUnread(final ColumnAccumulator accumulator, final F column) {
+        final Optional<String> raw = delegate.rawValue(column);
+        if (!raw.isPresent()) {
+            accumulator.addNull();
+            return;
+        }
+        final char first = raw.get().charAt(0);
+        if (first != '-' && first != '+' && first != '.' && (first < '0' || first > '9')) {
+            accumulator.addText();
+            return;
+        }
+        try {
+            accumulator.add(delegate.doubleValue(column).orElse(Double.NaN));
+        } catch (final NonCompliantColumnFailure e) {
+            accumulator.addText();
+        }
+    }
+
+    private void record(final F column, final byte kind, final double value) {
+        final ColumnStatistics.Accumulators accumulators = statistics.local();
+        accumulators.kinds[column.ordinal()] = kind;
+        accumulators.values[column.ordinal()] = value;
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.stats.ColumnStats;
+import com.github.gaiadr2.avro.stats.TableStats;
+import com.github.gaiadr2.load.csv.CsvInterpreter;
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects per-column statistics of CSV rows while they are interpreted, so that no extra pass over the
+ * converted data is needed: counts of null, text and boolean values, extrema, mean and variance, and
+ * histograms for selected columns.
+ * <p>
+ * Every thread accumulates into its own accumulators, merged by {@link #summarize()} once the threads are
+ * done. Values are not parsed again: a {@link ColumnRecorder} sits between the interpreter and its CSV lines,
+ * and records the values the interpreter reads. Typical use gives each output file its own collector, e.g.
+ * {@code new GaiaSourceInterpreter(statistics)}, writes its summary with {@link StatisticsSidecar}, and merges
+ * the summaries of all the files with {@link #merge(TableStats, TableStats)} for the whole run.
+ *
+ * @param <F> Enumeration of the CSV columns
+ */
+public final class ColumnStatistics<F extends Enum<F>> {
+
+    private final F[] columns;
+    private final Binning[] binnings;
+    private final Queue<Accumulators> all = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Accumulators> local = ThreadLocal.withInitial(this::register);
+
+    /**
+     * @param columnType Enum representing the CSV columns in the expected order
+     * @param histograms Bins of the columns whose distribution is wanted
+     */
+    public ColumnStatistics(final Class<F> columnType, final Map<F, Binning> histograms) {
+        this.columns = columnType.getEnumConstants();
+        this.binnings = new Binning[columns.length];
+        for (final Map.Entry<F, Binning> histogram : histograms.entrySet()) {
+            binnings[histogram.getKey().ordinal()] = histogram.getValue();
+        }
+    }
+
+    /**
+     * @return A collector for {@code gaia_source}, with histograms of the magnitudes, colours and parallaxes
+     */
+    public static ColumnStatistics<GaiaSourceSpec> gaiaSource() {
+        final Map<GaiaSourceSpec, Binning> histograms = new EnumMap<>(GaiaSourceSpec.class);
+        final Binning magnitudes = new Binning(2.0, 22.0, 200);
+        histograms.put(GaiaSourceSpec.PhotGMeanMag, magnitudes);
+        histograms.put(GaiaSourceSpec.PhotBpMeanMag, magnitudes);
+        histograms.put(GaiaSourceSpec.PhotRpMeanMag, magnitudes);
+        final Binning colours = new Binning(-1.0, 5.0, 120);
+        histograms.put(GaiaSourceSpec.ColourBpRp, colours);
+        histograms.put(GaiaSourceSpec.ColourBpG, colours);
+        histograms.put(GaiaSourceSpec.ColourGRp, colours);
+        histograms.put(GaiaSourceSpec.Parallax, new Binning(-5.0, 25.0, 300));
+        return new ColumnStatistics<>(GaiaSourceSpec.class, histograms);
+    }
+
+    /**
+     * @param interpreter Interpreter of the lines
+     * @return An interpreter recording the values read from each line, accounted for by
+     *         {@link ColumnRecorder#commit()}
+     */
+    public ColumnRecorder<F> recorder(final CsvInterpreter<F> interpreter) {
+        return new ColumnRecorder<>(interpreter, this);
+    }
+
+    /**
+     * @return Statistics of every row committed so far; call once the committing threads are done
+     */
+    public TableStats summarize() {
+        final ColumnAccumulator[] merged = newAccumulators();
+        long rows = 0;
+        for (final Accumulators accumulators : all) {
+            rows += accumulators.rows;
+            for (int i = 0; i < merged.length; i++) {
+                merged[i].merge(accumulators.columns[i]);
+            }
+        }
+        final List<ColumnStats> stats = new ArrayList<>(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            stats.add(merged[i].toStats(columns[i].name()));
+        }
+        return new TableStats(rows, stats);
+    }
+
+    /**
+     * @param first Statistics of a set of rows
+     * @param second Statistics of other rows with the same columns, e.g. from another file
+     * @return Statistics of both sets of rows
+     */
+    public static TableStats merge(final TableStats first, final TableStats second) {
+        final List<ColumnStats> firstColumns = first.getColumns();
+        final List<ColumnStats> secondColumns = second.getColumns();
+        if (firstColumns.size() != secondColumns.size()) {
+            throw new IllegalArgumentException("Statistics of different columns: "
+                    + firstColumns.size() + " and " + secondColumns.size() + " columns");
+        }
+        final List<ColumnStats> merged = new ArrayList<>(firstColumns.size());
+        for (int i = 0; i < firstColumns.size(); i++) {
+            final ColumnStats column = firstColumns.get(i);
+            if (!column.getColumn().toString().equals(secondColumns.get(i).getColumn().toString())) {
+                throw new IllegalArgumentException("Statistics of different columns: "
+                        + column.getColumn() + " and " + secondColumns.get(i).getColumn());
+            }
+            final ColumnAccumulator accumulator = ColumnAccumulator.of(column);
+            accumulator.merge(ColumnAccumulator.of(secondColumns.get(i)));
+            merged.add(accumulator.toStats(column.getColumn().toString()));
+        }
+        return new TableStats(first.getRows() + second.getRows(), merged);
+    }
+
+    /**
+     * @return Accumulators of the calling thread
+     */
+    Accumulators local() {
+        return local.get();
+    }
+
+    F[] columns() {
+        return columns;
+    }
+
+    private Accumulators register() {
+        final Accumulators accumulators = new Accumulators(newAccumulators());
+        all.add(accumulators);
+        return accumulators;
+    }
+
+    private ColumnAccumulator[] newAccumulators() {
+        final ColumnAccumulator[] accumulators = new ColumnAccumulator[columns.length];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = new ColumnAccumulator(binnings[i]);
+        }
+        return accumulators;
+    }
+
+    /**
+     * Accumulators of one thread, and the values recorded from its current line
+     */
+    static final class Accumulators {
+
+        final ColumnAccumulator[] columns;
+        final byte[] kinds;
+        final double[] values;
+        long rows;
+
+        Accumulators(final ColumnAccumulator[] columns) {
+            this.columns = columns;
+            this.kinds = new byte[columns.length];
+            this.values = new double[columns.length];
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Accumulates HEALPix maps of the source count, the mean G magnitude and the mean BP - RP colour while
+ * sources are converted, e.g. from the writer threads of a pipeline, so that no separate scan is needed.
+ * <p>
+ * The pixel of a source is read from its {@code sourceId}, whose upper bits hold its level 12 nested HEALPix
+ * index. Every thread accumulates into its own arrays, of about 56 bytes per pixel, merged by
+ * {@link #snapshot()} once the threads are done. Maps are therefore limited to {@link #MAX_MAP_LEVEL}, about
+ * 44 MB per thread, where level 12 would take 11 GB.
+ */
+public final class HealpixMaps implements Consumer<GaiaSource> {
+
+    /**
+     * Deepest level encoded in source identifiers.
+     */
+    public static final int MAX_LEVEL = 12;
+
+    /**
+     * Deepest level of the maps: 786,432 pixels.
+     */
+    public static final int MAX_MAP_LEVEL = 8;
+
+    private final int level;
+    private final int shift;
+    private final Queue<PixelMoments> all = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<PixelMoments> local = ThreadLocal.withInitial(this::register);
+
+    /**
+     * @param level HEALPix level of the maps, from 0 (12 pixels) to {@link #MAX_MAP_LEVEL}
+     */
+    public HealpixMaps(final int level) {
+        mapPixels(level);
+        this.shift = shift(level);
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @param sourceId Gaia DR2 source identifier
+     * @param level HEALPix level, from 0 to {@link #MAX_LEVEL}
+     * @return Nested HEALPix index of the source at this level
+     */
+    public static int pixel(final long sourceId, final int level) {
+        return (int) (sourceId >>> shift(level));
+    }
+
+    /**
+     * @param level HEALPix level, from 0 to {@link #MAX_LEVEL}
+     * @return Number of pixels of a map at this level
+     */
+    public static int pixels(final int level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("HEALPix level must be between 0 and " + MAX_LEVEL + ": " + level);
+        }
+        return 12 << (2 * level);
+    }
+
+    /**
+     * @param level HEALPix level of a map, from 0 to {@link #MAX_MAP_LEVEL}
+     * @return Number of pixels of the map
+     */
+    static int mapPixels(final int level) {
+        if (level > MAX_MAP_LEVEL) {
+            throw new IllegalArgumentException("HEALPix level of maps must be at most " + MAX_MAP_LEVEL + ": " + level);
+        }
+        return pixels(level);
+    }
+
+    @Override
+    public void accept(final GaiaSource source) {
+        final Float bpRp = source.getColourInfo() == null ? null : source.getColourInfo().getBpRp();
+        local.get().add(
+                (int) (source.getSourceId() >>> shift),
+                source.getGPhot() == null ? Double.NaN : source.getGPhot().getMag(),
+                bpRp == null ? Double.NaN : bpRp);
+    }
+
+    /**
+     * @return The maps of every source accepted so far; call once the accepting threads are done
+     */
+    public SkyMap snapshot() {
+        final PixelMoments merged = new PixelMoments(pixels(level));
+        for (final PixelMoments moments : all) {
+            merged.merge(moments);
+        }
+        return new SkyMap(level, merged);
+    }
+
+    private PixelMoments register() {
+        final PixelMoments moments = new PixelMoments(pixels(level));
+        all.add(moments);
+        return moments;
+    }
+
+    private static int shift(final int level) {
+        pixels(level);
+        return 35 + 2 * (MAX_LEVEL - level);
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.gaiadr2.load.stats;
+
+/**
+ * Per-pixel counts and power sums of the G magnitude and BP - RP colour, in primitive arrays indexed by pixel.
+ * <p>
+ * Values are accumulated relative to a typical value, which keeps the sums of squares small and the
+ * variances accurate, while merging is a plain addition.
+ */
+final class PixelMoments {
+
+    /** Typical G magnitude [mag] */
+    static final double G_SHIFT = 17.0;
+
+    /** Typical BP - RP colour [mag] */
+    static final double BP_RP_SHIFT = 1.0;
+
+    final long[] count;
+    final long[] gCount;
+    final double[] gSum;
+    final double[] gSquares;
+    final long[] bpRpCount;
+    final double[] bpRpSum;
+    final double[] bpRpSquares;
+
+    /**
+     * @param pixels Number of pixels of the map
+     */
+    PixelMoments(final int pixels) {
+        count = new long[pixels];
+        gCount = new long[pixels];
+        gSum = new double[pixels];
+        gSquares = new double[pixels];
+        bpRpCount = new long[pixels];
+        bpRpSum = new double[pixels];
+        bpRpSquares = new double[pixels];
+    }
+
+    /**
+     * @param pixel Pixel of the source
+     * @param gMag G magnitude, NaN when unknown
+     * @param bpRp BP - RP colour, NaN when unknown
+     */
+    void add(final int pixel, final double gMag, final double bpRp) {
+        count[pixel]++;
+        if (gMag == gMag) {
+            final double value = gMag - G_SHIFT;
+            gCount[pixel]++;
+            gSum[pixel] += value;
+            gSquares[pixel] += value * value;
+        }
+        if (bpRp == bpRp) {
+            final double value = bpRp - BP_RP_SHIFT;
+            bpRpCount[pixel]++;
+            bpRpSum[pixel] += value;
+            bpRpSquares[pixel] += value * value;
+        }
+    }
+
+    /**
+     * @param other Moments of other sources, over the same pixels
+     */
+    void merge(final PixelMoments other) {
+        for (int pixel = 0; pixel < count.length; pixel++) {
+            count[pixel] += other.count[pixel];
+            gCount[pixel] += other.gCount[pixel];
+            gSum[pixel] += other.gSum[pixel];
+            gSquares[pixel] += other.gSquares[pixel];
+            bpRpCount[pixel] += other.bpRpCount[pixel];
+            bpRpSum[pixel] += other.bpRpSum[pixel];
+            bpRpSquares[pixel] += other.bpRpSquares[pixel];
+        }
+    }
+
+    static double mean(final long n, final double sum, final double shift) {
+        return n == 0 ? Double.NaN : shift + sum / n;
+    }
+
+    static double variance(final long n, final double sum, final double squares) {
+        return n < 2 ? Double.NaN : Math.max(0.0, (squares - sum * sum / n) / (n - 1));
+    }
+
+    /**
+     * Restore the power sums of a pixel from its mean and variance.
+     */
+    static double sum(final long n, final double mean, final double shift) {
+        return n == 0 ? 0.0 : n * (mean - shift);
+    }
+
+    static double squares(final long n, final double mean, final double variance, final double shift) {
+        if (n == 0) {
+            return 0.0;
+        }
+        final double shifted = mean - shift;
+        return (n > 1 ? (n - 1) * variance : 0.0) + n * shifted * shifted;
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.stats.PixelStats;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * HEALPix maps (nested scheme) of the source count, and of the mean and variance of the G magnitude and of the
+ * BP - RP colour, as built by {@link HealpixMaps}. Maps of the same level, e.g. of different files, merge into
+ * the maps of all their sources.
+ * <p>
+ * Maps are stored as Avro data files holding one {@link PixelStats} per non-empty pixel, with the level in
+ * the {@value #LEVEL} metadata entry.
+ */
+public final class SkyMap {
+
+    /**
+     * Suffix appended to the name of a converted file to name its maps.
+     */
+    public static final String SUFFIX = ".healpix.avro";
+
+    /**
+     * Metadata entry holding the HEALPix level.
+     */
+    public static final String LEVEL = "healpix.level";
+
+    private final int level;
+    private final PixelMoments moments;
+
+    SkyMap(final int level, final PixelMoments moments) {
+        this.level = level;
+        this.moments = moments;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return Number of pixels of the maps
+     */
+    public int getPixels() {
+        return moments.count.length;
+    }
+
+    /**
+     * @return Number of sources over the whole sky
+     */
+    public long getTotal() {
+        long total = 0;
+        for (final long count : moments.count) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getCount(final int pixel) {
+        return moments.count[pixel];
+    }
+
+    /**
+     * @param pixel Nested index of the pixel
+     * @return Mean G magnitude [mag], NaN when no source of the pixel has one
+     */
+    public double getMeanG(final int pixel) {
+        return PixelMoments.mean(moments.gCount[pixel], moments.gSum[pixel], PixelMoments.G_SHIFT);
+    }
+
+    /**
+     * @param pixel Nested index of the pixel
+     * @return Sample variance of the G magnitude [mag^2], NaN with fewer than two values
+     */
+    public double getVarianceG(final int pixel) {
+        return PixelMoments.variance(moments.gCount[pixel], moments.gSum[pixel], moments.gSquares[pixel]);
+    }
+
+    /**
+     * @param pixel Nested index of the pixel
+     * @return Mean BP - RP colour [mag], NaN when no source of the pixel has one
+     */
+    public double getMeanBpRp(final int pixel) {
+        return PixelMoments.mean(moments.bpRpCount[pixel], moments.bpRpSum[pixel], PixelMoments.BP_RP_SHIFT);
+    }
+
+    /**
+     * @param pixel Nested index of the pixel
+     * @return Sample variance of the BP - RP colour [mag^2], NaN with fewer than two values
+     */
+    public double getVarianceBpRp(final int pixel) {
+        return PixelMoments.variance(
+                moments.bpRpCount[pixel], moments.bpRpSum[pixel], moments.bpRpSquares[pixel]);
+    }
+
+    /**
+     * @param other Maps of other sources, at the same level
+     * @return Maps of the sources of both
+     */
+    public SkyMap merge(final SkyMap other) {
+        if (other.level != level) {
+            throw new IllegalArgumentException("Cannot merge maps of levels " + level + " and " + other.level);
+        }
+        final PixelMoments merged = new PixelMoments(getPixels());
+        merged.merge(moments);
+        merged.merge(other.moments);
+        return new SkyMap(level, merged);
+    }
+
+    /**
+     * @param file A converted file
+     * @return Path of the maps of the file
+     */
+    public static Path pathFor(final Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @param path File to write, overwritten if it exists
+     * @throws IOException When the file cannot be written
+     */
+    public void write(final Path path) throws IOException {
+        try (DataFileWriter<PixelStats> writer = new DataFileWriter<>(new SpecificDatumWriter<>(PixelStats.class))) {
+            writer.setMeta(LEVEL, level);
+            writer.create(PixelStats.getClassSchema(), path.toFile());
+            final PixelStats stats = new PixelStats();
+            for (int pixel = 0; pixel < getPixels(); pixel++) {
+                if (moments.count[pixel] == 0) {
+                    continue;
+                }
+                stats.setPixel((long) pixel);
+                stats.setCount(moments.count[pixel]);
+                stats.setGMagCount(moments.gCount[pixel]);
+                stats.setGMagMean(getMeanG(pixel));
+                stats.setGMagVariance(getVarianceG(pixel));
+                stats.setBpRpCount(moments.bpRpCount[pixel]);
+                stats.setBpRpMean(getMeanBpRp(pixel));
+                stats.setBpRpVariance(getVarianceBpRp(pixel));
+                writer.append(stats);
+            }
+        }
+    }
+
+    /**
+     * @param path Maps written by {@link #write(Path)}
+     * @return The maps
+     * @throws IOException When the file cannot be read, or holds no maps
+     * @throws IllegalArgumentException When the maps are deeper than {@link HealpixMaps#MAX_MAP_LEVEL}
+     */
+    public static SkyMap read(final Path path) throws IOException {
+        try (DataFileReader<PixelStats> reader =
+                     new DataFileReader<>(path.toFile(), new SpecificDatumReader<>(PixelStats.class))) {
+            if (reader.getMeta(LEVEL) == null) {
+                throw new IOException("Not a HEALPix map file: " + path);
+            }
+            final int level = (int) reader.getMetaLong(LEVEL);
+            final PixelMoments moments = new PixelMoments(HealpixMaps.mapPixels(level));
+            PixelStats stats = null;
+            while (reader.hasNext()) {
+                stats = reader.next(stats);
+                final int pixel = (int) stats.getPixel().longValue();
+                final long g = stats.getGMagCount();
+                final long bpRp = stats.getBpRpCount();
+                moments.count[pixel] = stats.getCount();
+                moments.gCount[pixel] = g;
+                moments.gSum[pixel] = PixelMoments.sum(g, stats.getGMagMean(), PixelMoments.G_SHIFT);
+                moments.gSquares[pixel] = PixelMoments.squares(
+                        g, stats.getGMagMean(), stats.getGMagVariance(), PixelMoments.G_SHIFT);
+                moments.bpRpCount[pixel] = bpRp;
+                moments.bpRpSum[pixel] = PixelMoments.sum(bpRp, stats.getBpRpMean(), PixelMoments.BP_RP_SHIFT);
+                moments.bpRpSquares[pixel] = PixelMoments.squares(
+                        bpRp, stats.getBpRpMean(), stats.getBpRpVariance(), PixelMoments.BP_RP_SHIFT);
+            }
+            return new SkyMap(level, moments);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.pipeline.RecordSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A {@link RecordSink} accumulating the {@link HealpixMaps} of the sources written to a file, and writing them
+ * next to it, at {@link SkyMap#pathFor(Path)}, once the file is closed. Used as the sink of a writer thread of
+ * a {@link com.github.gaiadr2.load.pipeline.StagedPipeline}, the maps come without a second pass over the
+ * converted files; column statistics come from the parser threads the same way, through
+ * {@code new GaiaSourceInterpreter(statistics)}.
+ */
+public final class SkyMapSink implements RecordSink<GaiaSource> {
+
+    private final RecordSink<? super GaiaSource> delegate;
+    private final Path file;
+    private final HealpixMaps maps;
+
+    /**
+     * @param delegate Sink writing the sources to the file
+     * @param file File the sources are written to
+     * @param level HEALPix level of the maps, from 0 to {@link HealpixMaps#MAX_MAP_LEVEL}
+     */
+    public SkyMapSink(final RecordSink<? super GaiaSource> delegate, final Path file, final int level) {
+        this.delegate = delegate;
+        this.file = file;
+        this.maps = new HealpixMaps(level);
+    }
+
+    @Override
+    public void write(final GaiaSource record) throws IOException {
+        delegate.write(record);
+        maps.accept(record);
+    }
+
+    /**
+     * Close the file, then write its maps.
+     *
+     * @throws IOException When the file cannot be closed, or its maps cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+        maps.snapshot().write(SkyMap.pathFor(file));
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.stats.TableStats;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Statistics files stored next to the files they describe, in the Avro JSON encoding of {@link TableStats},
+ * so that readers can prune files by statistics without opening them.
+ */
+public final class StatisticsSidecar {
+
+    /**
+     * Suffix appended to the name of the described file.
+     */
+    public static final String SUFFIX = ".stats.json";
+
+    private StatisticsSidecar() {
+    }
+
+    /**
+     * @param file A data file, e.g. a Parquet file
+     * @return Path of the statistics of the file
+     */
+    public static Path pathFor(final Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @param stats Statistics to write
+     * @param path Path of the sidecar file, overwritten if it exists
+     * @throws IOException When the file cannot be written
+     */
+    public static void write(final TableStats stats, final Path path) throws IOException {
+        final DatumWriter<TableStats> writer = new SpecificDatumWriter<>(TableStats.class);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            final Encoder encoder = EncoderFactory.get().jsonEncoder(TableStats.getClassSchema(), out, true);
+            writer.write(stats, encoder);
+            encoder.flush();
+        }
+    }
+
+    /**
+     * @param path Path of a sidecar file
+     * @return The statistics it holds
+     * @throws IOException When the file cannot be read, or does not hold statistics
+     */
+    public static TableStats read(final Path path) throws IOException {
+        final DatumReader<TableStats> reader = new SpecificDatumReader<>(TableStats.class);
+        try (InputStream in = Files.newInputStream(path)) {
+            return reader.read(null, DecoderFactory.get().jsonDecoder(TableStats.getClassSchema(), in));
+        }
+    }
+}
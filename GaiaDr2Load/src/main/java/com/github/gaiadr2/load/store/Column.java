@@ -0,0 +1,143 @@
+package com.github.gaiadr2.load.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap values of one leaf field of a {@link ColumnarStore}, e.g. {@code basicAstrometry.ra.value}.
+ *
+ * The getters do not check the column type: use the one matching {@link #getType()}. Rows whose value is
+ * absent, because an enclosing optional field is null, read as zero.
+ */
+public final class Column {
+
+    private final String name;
+    private final ColumnType type;
+    private final int width;
+    private ByteBuffer buffer;
+
+    Column(final String name, final ColumnType type, final int capacity) {
+        this.name = name;
+        this.type = type;
+        this.width = type.width();
+        this.buffer = allocate((long) capacity * width);
+    }
+
+    /**
+     * @return Path of the leaf field, with nested field names separated by dots
+     */
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public boolean getBoolean(final int row) {
+        return buffer.get(row) != 0;
+    }
+
+    public int getInt(final int row) {
+        return buffer.getInt(row << 2);
+    }
+
+    public long getLong(final int row) {
+        return buffer.getLong(row << 3);
+    }
+
+    public float getFloat(final int row) {
+        return buffer.getFloat(row << 2);
+    }
+
+    public double getDouble(final int row) {
+        return buffer.getDouble(row << 3);
+    }
+
+    /**
+     * @return Ordinal of the enum symbol
+     */
+    public int getOrdinal(final int row) {
+        return buffer.get(row);
+    }
+
+    void putBoolean(final int row, final boolean value) {
+        buffer.put(row, value ? (byte) 1 : (byte) 0);
+    }
+
+    void putInt(final int row, final int value) {
+        buffer.putInt(row << 2, value);
+    }
+
+    void putLong(final int row, final long value) {
+        buffer.putLong(row << 3, value);
+    }
+
+    void putFloat(final int row, final float value) {
+        buffer.putFloat(row << 2, value);
+    }
+
+    void putDouble(final int row, final double value) {
+        buffer.putDouble(row << 3, value);
+    }
+
+    void putOrdinal(final int row, final int ordinal) {
+        buffer.put(row, (byte) ordinal);
+    }
+
+    void clear(final int row) {
+        final int offset = row * width;
+        for (int i = 0; i < width; i++) {
+            buffer.put(offset + i, (byte) 0);
+        }
+    }
+
+    /**
+     * @return Position of the values of the rows, for the {@link SchemaTree} of the store
+     */
+    SchemaTree.Position position() {
+        return new SchemaTree.Position() {
+
+            @Override
+            public ByteBuffer buffer(final ByteBuffer unused) {
+                return buffer;
+            }
+
+            @Override
+            public int index(final int row) {
+                return row * width;
+            }
+        };
+    }
+
+    /**
+     * @return Number of off-heap bytes allocated for this column
+     */
+    long allocatedBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Move the values to a larger buffer.
+     *
+     * @param capacity New number of rows
+     */
+    void resize(final int capacity) {
+        final ByteBuffer grown = allocate((long) capacity * width);
+        final ByteBuffer old = buffer.duplicate();
+        old.clear();
+        grown.put(old);
+        buffer = grown;
+    }
+
+    /**
+     * @param bytes Size of the buffer
+     * @return Zeroed direct buffer in native byte order
+     */
+    static ByteBuffer allocate(final long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Column buffer cannot exceed 2 GB, requested: " + bytes);
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+}
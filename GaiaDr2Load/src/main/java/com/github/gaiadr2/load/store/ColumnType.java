@@ -0,0 +1,27 @@
+package com.github.gaiadr2.load.store;
+
+/**
+ * Primitive type of a {@link Column}, with the number of bytes used per row
+ */
+public enum ColumnType {
+    BOOLEAN(1),
+    INT(4),
+    LONG(8),
+    FLOAT(4),
+    DOUBLE(8),
+    /** Enum symbol, stored as its ordinal */
+    ENUM(1);
+
+    private final int width;
+
+    ColumnType(final int width) {
+        this.width = width;
+    }
+
+    /**
+     * @return Number of bytes used per row
+     */
+    public int width() {
+        return width;
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * In-memory struct-of-arrays store for Avro records such as {@code GaiaSource}.
+ *
+ * Each leaf field (e.g. {@code basicAstrometry.ra.value}) is held in its own off-heap {@link Column}, and
+ * each optional union (e.g. {@code fullAstrometry}) in a {@link NullBitmap}. A {@code GaiaSource} then
+ * costs its primitive payload only, instead of the headers, references and boxes of ~20 heap objects,
+ * and scanning a handful of columns only touches their own memory.
+ *
+ * Records are appended once and never modified. Appends are not thread-safe; once loaded, the store can
+ * be read concurrently. The number of rows is limited to {@link #MAX_ROWS}, so that the largest column
+ * fits in a single direct buffer.
+ *
+ * @param <T> Type of the stored records
+ */
+public final class ColumnarStore<T extends IndexedRecord> {
+
+    /** Maximum number of rows, bounded by the size of an 8-byte column */
+    public static final int MAX_ROWS = Integer.MAX_VALUE >>> 3;
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final Schema schema;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final Map<String, NullBitmap> bitmaps = new LinkedHashMap<>();
+    private final SchemaTree tree;
+    private int capacity;
+    private int size;
+
+    /**
+     * @param schema Schema of the records to store
+     */
+    public ColumnarStore(final Schema schema) {
+        this(schema, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param schema Schema of the records to store. Only records, {@code null} unions, enums and
+     *               primitives other than strings and bytes are supported
+     * @param initialCapacity Number of rows allocated upfront
+     */
+    public ColumnarStore(final Schema schema, final int initialCapacity) {
+        if (initialCapacity <= 0 || initialCapacity > MAX_ROWS) {
+            throw new IllegalArgumentException("Invalid initial capacity: " + initialCapacity);
+        }
+        this.schema = schema;
+        this.capacity = initialCapacity;
+        this.tree = new SchemaTree(schema, new SchemaTree.Storage() {
+
+            @Override
+            public SchemaTree.Position leaf(final String path, final ColumnType type) {
+                final Column column = new Column(path, type, initialCapacity);
+                columns.put(path, column);
+                return column.position();
+            }
+
+            @Override
+            public SchemaTree.Presence optional(final String path) {
+                final NullBitmap bitmap = new NullBitmap(path, initialCapacity);
+                bitmaps.put(path, bitmap);
+                return bitmap.presence();
+            }
+        });
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return Number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param record Record to add
+     * @return Row of the record
+     * @throws IllegalArgumentException When a required field of the record is null; the store is left as it
+     *                                  was, and the next record takes the row
+     */
+    public int append(final T record) {
+        if (size == capacity) {
+            grow();
+        }
+        try {
+            tree.write(record, null, size);
+        } catch (final RuntimeException e) {
+            clear(size);
+            throw e;
+        }
+        return size++;
+    }
+
+    /**
+     * @param row Row to read
+     * @param reuse Record to fill in, or {@code null} to create a new one
+     * @return The record at the given row
+     */
+    @SuppressWarnings("unchecked")
+    public T get(final int row, final T reuse) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(format("Row %d out of [0, %d)", row, size));
+        }
+        return (T) tree.read(null, row, reuse);
+    }
+
+    /**
+     * @return A new cursor positioned before the first row
+     */
+    public Cursor<T> cursor() {
+        return new Cursor<>(this);
+    }
+
+    /**
+     * @return All the columns, in schema order
+     */
+    public Collection<Column> getColumns() {
+        return Collections.unmodifiableCollection(columns.values());
+    }
+
+    /**
+     * @return All the null bitmaps, in schema order
+     */
+    public Collection<NullBitmap> getNullBitmaps() {
+        return Collections.unmodifiableCollection(bitmaps.values());
+    }
+
+    /**
+     * @param name Dotted path of a leaf field, e.g. {@code basicAstrometry.ra.value}
+     * @return The column of that field
+     */
+    public Column column(final String name) {
+        final Column column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("No such column: " + name);
+        }
+        return column;
+    }
+
+    /**
+     * @param name Dotted path of a leaf field
+     * @param type Expected type of the column
+     * @return The column of that field
+     */
+    public Column column(final String name, final ColumnType type) {
+        final Column column = column(name);
+        if (column.getType() != type) {
+            throw new IllegalArgumentException(format("Column %s is %s, not %s", name, column.getType(), type));
+        }
+        return column;
+    }
+
+    /**
+     * @param name Dotted path of an optional field, e.g. {@code fullAstrometry}
+     * @return The null bitmap of that field
+     */
+    public NullBitmap nullBitmap(final String name) {
+        final NullBitmap bitmap = bitmaps.get(name);
+        if (bitmap == null) {
+            throw new IllegalArgumentException("No such optional field: " + name);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return Number of off-heap bytes allocated by the columns and the null bitmaps
+     */
+    public long allocatedBytes() {
+        long bytes = 0;
+        for (final Column column : columns.values()) {
+            bytes += column.allocatedBytes();
+        }
+        for (final NullBitmap bitmap : bitmaps.values()) {
+            bytes += bitmap.allocatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Reset a row partly written by a rejected record, so that absent values of the next record read as zero
+     */
+    private void clear(final int row) {
+        for (final Column column : columns.values()) {
+            column.clear(row);
+        }
+        for (final NullBitmap bitmap : bitmaps.values()) {
+            bitmap.clear(row);
+        }
+    }
+
+    private void grow() {
+        if (capacity == MAX_ROWS) {
+            throw new IllegalStateException("Store is full: " + MAX_ROWS + " rows");
+        }
+        capacity = (int) Math.min(MAX_ROWS, capacity * 2L);
+        for (final Column column : columns.values()) {
+            column.resize(capacity);
+        }
+        for (final NullBitmap bitmap : bitmaps.values()) {
+            bitmap.resize(capacity);
+        }
+    }
+}
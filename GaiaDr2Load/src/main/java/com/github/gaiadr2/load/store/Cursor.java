@@ -0,0 +1,97 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.generic.IndexedRecord;
+
+/**
+ * Flyweight over the rows of a {@link ColumnarStore}: reads values of the current row straight from the
+ * columns, without materialising a record.
+ *
+ * <pre>{@code
+ * final Column parallax = store.column("fullAstrometry.parallax.value", ColumnType.DOUBLE);
+ * final NullBitmap full = store.nullBitmap("fullAstrometry");
+ * final Cursor<GaiaSource> cursor = store.cursor();
+ * while (cursor.next()) {
+ *     if (cursor.isPresent(full)) {
+ *         sum += cursor.getDouble(parallax);
+ *     }
+ * }
+ * }</pre>
+ *
+ * @param <T> Type of the stored records
+ */
+public final class Cursor<T extends IndexedRecord> {
+
+    private final ColumnarStore<T> store;
+    private int row = -1;
+
+    Cursor(final ColumnarStore<T> store) {
+        this.store = store;
+    }
+
+    /**
+     * Move to the next row.
+     *
+     * @return Whether there is such a row
+     */
+    public boolean next() {
+        if (row < store.size()) {
+            row++;
+        }
+        return row < store.size();
+    }
+
+    /**
+     * @param row Row to move to
+     * @return This cursor
+     */
+    public Cursor<T> seek(final int row) {
+        if (row < 0 || row >= store.size()) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of [0, " + store.size() + ")");
+        }
+        this.row = row;
+        return this;
+    }
+
+    /**
+     * @return The current row
+     */
+    public int row() {
+        return row;
+    }
+
+    public boolean getBoolean(final Column column) {
+        return column.getBoolean(row);
+    }
+
+    public int getInt(final Column column) {
+        return column.getInt(row);
+    }
+
+    public long getLong(final Column column) {
+        return column.getLong(row);
+    }
+
+    public float getFloat(final Column column) {
+        return column.getFloat(row);
+    }
+
+    public double getDouble(final Column column) {
+        return column.getDouble(row);
+    }
+
+    public int getOrdinal(final Column column) {
+        return column.getOrdinal(row);
+    }
+
+    public boolean isPresent(final NullBitmap bitmap) {
+        return bitmap.isPresent(row);
+    }
+
+    /**
+     * @param reuse Record to fill in, or {@code null} to create a new one
+     * @return The record at the current row
+     */
+    public T get(final T reuse) {
+        return store.get(row, reuse);
+    }
+}
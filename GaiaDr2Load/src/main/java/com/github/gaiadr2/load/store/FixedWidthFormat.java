@@ -0,0 +1,77 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Header of the fixed-width row files written by {@link FixedWidthWriter}.
+ *
+ * A file starts with an 8-byte magic, the length and JSON text of the record schema, and padding up to
+ * the next multiple of 8 bytes. It is followed by the rows, laid out by the {@link RowLayout} of the
+ * schema, in little-endian byte order. The number of rows is derived from the file size.
+ */
+final class FixedWidthFormat {
+
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final byte[] MAGIC = "GDR2ROWS".getBytes(StandardCharsets.US_ASCII);
+
+    private FixedWidthFormat() {
+    }
+
+    /**
+     * @param schema Schema of the records
+     * @return The header of a file holding records of that schema
+     */
+    static ByteBuffer header(final Schema schema) {
+        final byte[] json = schema.toString().getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer header = ByteBuffer.allocate(align(MAGIC.length + 4 + json.length)).order(ORDER);
+        header.put(MAGIC).putInt(json.length).put(json);
+        header.clear();
+        return header;
+    }
+
+    /**
+     * Read the header of a file and position the channel at the first row.
+     *
+     * @param path Path of the file, for error messages
+     * @param channel Channel positioned at the start of the file
+     * @return The schema of the records in the file
+     * @throws IOException When the header cannot be read or is not valid
+     */
+    static Schema readHeader(final Path path, final FileChannel channel) throws IOException {
+        final ByteBuffer prefix = ByteBuffer.allocate(MAGIC.length + 4).order(ORDER);
+        readFully(path, channel, prefix);
+        final byte[] magic = new byte[MAGIC.length];
+        prefix.get(magic);
+        final int length = prefix.getInt();
+        if (!Arrays.equals(MAGIC, magic) || length <= 0) {
+            throw new IOException("Not a fixed-width row file: " + path);
+        }
+        final ByteBuffer json = ByteBuffer.allocate(length);
+        readFully(path, channel, json);
+        channel.position(align(MAGIC.length + 4 + length));
+        return new Schema.Parser().parse(new String(json.array(), StandardCharsets.UTF_8));
+    }
+
+    private static void readFully(final Path path, final FileChannel channel, final ByteBuffer buffer)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated header in fixed-width row file: " + path);
+            }
+        }
+        buffer.flip();
+    }
+
+    private static int align(final int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.generic.IndexedRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.lang.String.format;
+
+/**
+ * Random access to the rows of a file written by {@link FixedWidthWriter}.
+ *
+ * The file is memory-mapped, in segments of whole rows when it exceeds the 2 GB limit of a single mapping,
+ * so that row N is located by arithmetic only. {@link #view} reads values in place without deserialising
+ * the row; {@link #get} materialises the record. A reader can be shared between threads as long as each
+ * thread uses its own views.
+ *
+ * @param <T> Type of the records
+ */
+public final class FixedWidthReader<T extends IndexedRecord> {
+
+    private final RowLayout layout;
+    private final ByteBuffer[] segments;
+    private final long rowsPerSegment;
+    private final long rows;
+
+    /**
+     * @param path File to read
+     * @throws IOException When the file cannot be opened or is not a fixed-width row file
+     */
+    public FixedWidthReader(final Path path) throws IOException {
+        this(path, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param path File to read
+     * @param maxSegmentBytes Maximum size of a mapped segment
+     * @throws IOException When the file cannot be opened or is not a fixed-width row file
+     */
+    FixedWidthReader(final Path path, final long maxSegmentBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.layout = RowLayout.of(FixedWidthFormat.readHeader(path, channel));
+            final long start = channel.position();
+            final int rowWidth = layout.getRowWidth();
+            this.rows = (channel.size() - start) / rowWidth;
+            this.rowsPerSegment = Math.max(1, maxSegmentBytes / rowWidth);
+            this.segments = new ByteBuffer[(int) ((rows + rowsPerSegment - 1) / rowsPerSegment)];
+            for (int i = 0; i < segments.length; i++) {
+                final long first = i * rowsPerSegment;
+                final long size = Math.min(rowsPerSegment, rows - first) * rowWidth;
+                segments[i] = channel
+                        .map(FileChannel.MapMode.READ_ONLY, start + first * rowWidth, size)
+                        .order(FixedWidthFormat.ORDER);
+            }
+        }
+    }
+
+    public RowLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return Number of rows in the file
+     */
+    public long size() {
+        return rows;
+    }
+
+    /**
+     * @param row Row to read
+     * @param reuse Record to fill in, or {@code null} to create a new one
+     * @return The record at the given row
+     */
+    @SuppressWarnings("unchecked")
+    public T get(final long row, final T reuse) {
+        checkRow(row);
+        return (T) layout.read(segment(row), offset(row), reuse);
+    }
+
+    /**
+     * @param row Row to look at
+     * @param reuse View to move, or {@code null} to create a new one
+     * @return A view over the given row
+     */
+    public RowView view(final long row, final RowView reuse) {
+        checkRow(row);
+        final RowView view = reuse == null ? new RowView() : reuse;
+        view.moveTo(segment(row), offset(row));
+        return view;
+    }
+
+    private ByteBuffer segment(final long row) {
+        return segments[(int) (row / rowsPerSegment)];
+    }
+
+    private int offset(final long row) {
+        return (int) (row % rowsPerSegment) * layout.getRowWidth();
+    }
+
+    private void checkRow(final long row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException(format("Row %d out of [0, %d)", row, rows));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes records, typically the output of {@code GaiaSourceInterpreter}, to a fixed-width row file which
+ * can then be read by row number with {@link FixedWidthReader}.
+ *
+ * @param <T> Type of the records
+ */
+public final class FixedWidthWriter<T extends IndexedRecord> implements Closeable {
+
+    private static final int BATCH_BYTES = 1 << 20;
+
+    private final RowLayout layout;
+    private final FileChannel channel;
+    private final ByteBuffer batch;
+    private final int rowWidth;
+    private long rows;
+
+    /**
+     * @param schema Schema of the records
+     * @param path File to create or overwrite
+     * @throws IOException When the file cannot be created
+     */
+    public FixedWidthWriter(final Schema schema, final Path path) throws IOException {
+        this.layout = RowLayout.of(schema);
+        this.rowWidth = layout.getRowWidth();
+        this.batch = ByteBuffer.allocate(Math.max(1, BATCH_BYTES / rowWidth) * rowWidth).order(FixedWidthFormat.ORDER);
+        this.channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        writeFully(FixedWidthFormat.header(schema));
+    }
+
+    public RowLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param record Record to write
+     * @return Row number of the record
+     * @throws IOException When the file cannot be written
+     */
+    public long append(final T record) throws IOException {
+        if (!batch.hasRemaining()) {
+            flush();
+        }
+        final int base = batch.position();
+        Arrays.fill(batch.array(), base, base + rowWidth, (byte) 0);
+        layout.write(record, batch, base);
+        batch.position(base + rowWidth);
+        return rows++;
+    }
+
+    /**
+     * @return Number of rows written so far
+     */
+    public long size() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        batch.flip();
+        writeFully(batch);
+        batch.clear();
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.gaiadr2.load.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Off-heap presence bits of an optional field of a {@link ColumnarStore}, e.g. {@code fullAstrometry}
+ */
+public final class NullBitmap {
+
+    private final String name;
+    private ByteBuffer words;
+
+    NullBitmap(final String name, final int capacity) {
+        this.name = name;
+        this.words = Column.allocate(bytes(capacity));
+    }
+
+    /**
+     * @return Path of the optional field, with nested field names separated by dots
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Whether the field has a value in the given row
+     */
+    public boolean isPresent(final int row) {
+        return (words.getLong((row >>> 6) << 3) & (1L << row)) != 0;
+    }
+
+    public boolean isNull(final int row) {
+        return !isPresent(row);
+    }
+
+    void setPresent(final int row) {
+        final int offset = (row >>> 6) << 3;
+        words.putLong(offset, words.getLong(offset) | (1L << row));
+    }
+
+    void clear(final int row) {
+        final int offset = (row >>> 6) << 3;
+        words.putLong(offset, words.getLong(offset) & ~(1L << row));
+    }
+
+    /**
+     * @return Presence bits of the rows, for the {@link SchemaTree} of the store
+     */
+    SchemaTree.Presence presence() {
+        return new SchemaTree.Presence() {
+
+            @Override
+            public void setPresent(final ByteBuffer unused, final int row) {
+                NullBitmap.this.setPresent(row);
+            }
+
+            @Override
+            public boolean isPresent(final ByteBuffer unused, final int row) {
+                return NullBitmap.this.isPresent(row);
+            }
+        };
+    }
+
+    long allocatedBytes() {
+        return words.capacity();
+    }
+
+    void resize(final int capacity) {
+        final ByteBuffer grown = Column.allocate(bytes(capacity));
+        final ByteBuffer old = words.duplicate();
+        old.clear();
+        grown.put(old);
+        words = grown;
+    }
+
+    private static long bytes(final int capacity) {
+        return (((long) capacity + 63) >>> 6) << 3;
+    }
+}
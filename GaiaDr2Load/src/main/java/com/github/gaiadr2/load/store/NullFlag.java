@@ -0,0 +1,66 @@
+package com.github.gaiadr2.load.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Presence bit of an optional field, e.g. {@code fullAstrometry}, within a fixed-width row
+ */
+public final class NullFlag {
+
+    private final String name;
+    private final int bit;
+    private int offset;
+
+    NullFlag(final String name, final int bit) {
+        this.name = name;
+        this.bit = bit;
+    }
+
+    /**
+     * @return Path of the optional field, with nested field names separated by dots
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Offset of the byte holding the flag from the start of the row
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Mask of the flag within its byte
+     */
+    public int getMask() {
+        return 1 << (bit & 7);
+    }
+
+    /**
+     * @return Flag in a row, for the {@link SchemaTree} of the layout
+     */
+    SchemaTree.Presence presence() {
+        return new SchemaTree.Presence() {
+
+            @Override
+            public void setPresent(final ByteBuffer row, final int base) {
+                final int index = base + offset;
+                row.put(index, (byte) (row.get(index) | getMask()));
+            }
+
+            @Override
+            public boolean isPresent(final ByteBuffer row, final int base) {
+                return (row.get(base + offset) & getMask()) != 0;
+            }
+        };
+    }
+
+    int getBit() {
+        return bit;
+    }
+
+    void setOffset(final int offset) {
+        this.offset = offset;
+    }
+}
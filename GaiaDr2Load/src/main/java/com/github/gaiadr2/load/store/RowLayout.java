@@ -0,0 +1,155 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Fixed-width binary layout of the records of a schema: one {@link Slot} per leaf field and one bit per
+ * optional union.
+ *
+ * Slots are ordered by decreasing width so that every value is naturally aligned, followed by the null
+ * bitmap; the row width is padded to a multiple of 8 bytes. Values under a null union are left as zeros.
+ * The layout only depends on the schema, so writers and readers agree on it without storing it.
+ */
+public final class RowLayout {
+
+    private final Schema schema;
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+    private final Map<String, NullFlag> flags = new LinkedHashMap<>();
+    private final SchemaTree tree;
+    private final int rowWidth;
+
+    private RowLayout(final Schema schema) {
+        this.schema = schema;
+        this.tree = new SchemaTree(schema, new SchemaTree.Storage() {
+
+            @Override
+            public SchemaTree.Position leaf(final String path, final ColumnType type) {
+                final Slot slot = new Slot(path, type);
+                slots.put(path, slot);
+                return slot.position();
+            }
+
+            @Override
+            public SchemaTree.Presence optional(final String path) {
+                final NullFlag flag = new NullFlag(path, flags.size());
+                flags.put(path, flag);
+                return flag.presence();
+            }
+        });
+
+        final List<Slot> byWidth = new ArrayList<>(slots.values());
+        byWidth.sort(Comparator.comparingInt((Slot slot) -> slot.getType().width()).reversed());
+        int offset = 0;
+        for (final Slot slot : byWidth) {
+            slot.setOffset(offset);
+            offset += slot.getType().width();
+        }
+        for (final NullFlag flag : flags.values()) {
+            flag.setOffset(offset + (flag.getBit() >>> 3));
+        }
+        offset += (flags.size() + 7) >>> 3;
+        this.rowWidth = (offset + 7) & ~7;
+    }
+
+    /**
+     * @param schema Schema of the records. Only records, {@code null} unions, enums and primitives other
+     *               than strings and bytes are supported
+     * @return Layout of the records of the schema
+     */
+    public static RowLayout of(final Schema schema) {
+        return new RowLayout(schema);
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return Size of a row, in bytes
+     */
+    public int getRowWidth() {
+        return rowWidth;
+    }
+
+    /**
+     * @return All the slots, in schema order
+     */
+    public Collection<Slot> getSlots() {
+        return Collections.unmodifiableCollection(slots.values());
+    }
+
+    /**
+     * @return All the null flags, in schema order
+     */
+    public Collection<NullFlag> getNullFlags() {
+        return Collections.unmodifiableCollection(flags.values());
+    }
+
+    /**
+     * @param name Dotted path of a leaf field, e.g. {@code basicAstrometry.ra.value}
+     * @return The slot of that field
+     */
+    public Slot slot(final String name) {
+        final Slot slot = slots.get(name);
+        if (slot == null) {
+            throw new IllegalArgumentException("No such slot: " + name);
+        }
+        return slot;
+    }
+
+    /**
+     * @param name Dotted path of a leaf field
+     * @param type Expected type of the slot
+     * @return The slot of that field
+     */
+    public Slot slot(final String name, final ColumnType type) {
+        final Slot slot = slot(name);
+        if (slot.getType() != type) {
+            throw new IllegalArgumentException(format("Slot %s is %s, not %s", name, slot.getType(), type));
+        }
+        return slot;
+    }
+
+    /**
+     * @param name Dotted path of an optional field, e.g. {@code fullAstrometry}
+     * @return The null flag of that field
+     */
+    public NullFlag nullFlag(final String name) {
+        final NullFlag flag = flags.get(name);
+        if (flag == null) {
+            throw new IllegalArgumentException("No such optional field: " + name);
+        }
+        return flag;
+    }
+
+    /**
+     * @param record Record to write
+     * @param buffer Buffer in which the row is written. The row must be zeroed beforehand
+     * @param base Offset of the row in the buffer
+     */
+    void write(final IndexedRecord record, final ByteBuffer buffer, final int base) {
+        tree.write(record, buffer, base);
+    }
+
+    /**
+     * @param buffer Buffer holding the row
+     * @param base Offset of the row in the buffer
+     * @param reuse Record to fill in, or {@code null} to create a new one
+     * @return The record held by the row
+     */
+    Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+        return tree.read(buffer, base, reuse);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.gaiadr2.load.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over one row of a {@link FixedWidthReader}: values are read in place from the mapped file.
+ * The getters do not check the slot type: use the one matching {@link Slot#getType()}.
+ */
+public final class RowView {
+
+    private ByteBuffer buffer;
+    private int base;
+
+    RowView() {
+    }
+
+    void moveTo(final ByteBuffer buffer, final int base) {
+        this.buffer = buffer;
+        this.base = base;
+    }
+
+    public boolean getBoolean(final Slot slot) {
+        return buffer.get(base + slot.getOffset()) != 0;
+    }
+
+    public int getInt(final Slot slot) {
+        return buffer.getInt(base + slot.getOffset());
+    }
+
+    public long getLong(final Slot slot) {
+        return buffer.getLong(base + slot.getOffset());
+    }
+
+    public float getFloat(final Slot slot) {
+        return buffer.getFloat(base + slot.getOffset());
+    }
+
+    public double getDouble(final Slot slot) {
+        return buffer.getDouble(base + slot.getOffset());
+    }
+
+    /**
+     * @return Ordinal of the enum symbol
+     */
+    public int getOrdinal(final Slot slot) {
+        return buffer.get(base + slot.getOffset());
+    }
+
+    public boolean isPresent(final NullFlag flag) {
+        return (buffer.get(base + flag.getOffset()) & flag.getMask()) != 0;
+    }
+
+    public boolean isNull(final NullFlag flag) {
+        return !isPresent(flag);
+    }
+}
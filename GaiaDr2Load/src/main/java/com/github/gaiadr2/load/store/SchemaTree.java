@@ -0,0 +1,338 @@
+package com.github.gaiadr2.load.store;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificData;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Tree of the fields of a record schema, copying records to and from byte buffers, shared by the
+ * {@link ColumnarStore} and the {@link RowLayout} of fixed-width files.
+ * <p>
+ * Where the values go is decided by a {@link Storage}, once per field while the tree is compiled: a column per
+ * leaf field for a store, a slot in a row for a layout. The node of each field is resolved from its type at
+ * the same time, so copying a record does not dispatch on types.
+ */
+final class SchemaTree {
+
+    private final Node root;
+
+    /**
+     * @param schema Schema of the records. Only records, {@code null} unions, enums and primitives other
+     *               than strings and bytes are supported
+     * @param storage Positions of the fields
+     */
+    SchemaTree(final Schema schema, final Storage storage) {
+        if (schema.getType() != Schema.Type.RECORD) {
+            throw new IllegalArgumentException("Not a record schema: " + schema.getFullName());
+        }
+        this.root = compile(schema, "", storage);
+    }
+
+    /**
+     * @param record Record to write
+     * @param buffer Buffer of the record, passed to the {@link Position}s of its fields
+     * @param base Position of the record, e.g. its row number or the offset of its row
+     */
+    void write(final IndexedRecord record, final ByteBuffer buffer, final int base) {
+        root.write(record, buffer, base);
+    }
+
+    /**
+     * @param buffer Buffer of the record, passed to the {@link Position}s of its fields
+     * @param base Position of the record, e.g. its row number or the offset of its row
+     * @param reuse Record to fill in, or {@code null} to create a new one
+     * @return The record
+     */
+    Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+        return root.read(buffer, base, reuse);
+    }
+
+    private static Node compile(final Schema schema, final String path, final Storage storage) {
+        switch (schema.getType()) {
+            case RECORD:
+                final List<Schema.Field> fields = schema.getFields();
+                final Node[] nodes = new Node[fields.size()];
+                for (int i = 0; i < nodes.length; i++) {
+                    final String name = path.isEmpty() ? fields.get(i).name() : path + "." + fields.get(i).name();
+                    nodes[i] = compile(fields.get(i).schema(), name, storage);
+                }
+                return new RecordNode(schema, path, nodes);
+            case UNION:
+                final List<Schema> types = schema.getTypes();
+                if (types.size() != 2 || types.get(0).getType() != Schema.Type.NULL) {
+                    throw new IllegalArgumentException(format("Unsupported union at %s: %s", path, schema));
+                }
+                final Presence presence = storage.optional(path);
+                return new OptionalNode(presence, compile(types.get(1), path, storage));
+            case ENUM:
+                return new EnumNode(schema, storage.leaf(path, ColumnType.ENUM));
+            case BOOLEAN:
+                return new BooleanNode(storage.leaf(path, ColumnType.BOOLEAN));
+            case INT:
+                return new IntNode(storage.leaf(path, ColumnType.INT));
+            case LONG:
+                return new LongNode(storage.leaf(path, ColumnType.LONG));
+            case FLOAT:
+                return new FloatNode(storage.leaf(path, ColumnType.FLOAT));
+            case DOUBLE:
+                return new DoubleNode(storage.leaf(path, ColumnType.DOUBLE));
+            default:
+                throw new IllegalArgumentException(format("Unsupported type at %s: %s", path, schema.getType()));
+        }
+    }
+
+    /**
+     * Allocates the positions of the fields, in schema order
+     */
+    interface Storage {
+
+        /**
+         * @param path Dotted path of a leaf field, e.g. {@code basicAstrometry.ra.value}
+         * @param type Type of the field
+         * @return Position of the values of the field
+         */
+        Position leaf(String path, ColumnType type);
+
+        /**
+         * @param path Dotted path of an optional field, e.g. {@code fullAstrometry}
+         * @return Presence flag of the field
+         */
+        Presence optional(String path);
+    }
+
+    /**
+     * Position of the value of a leaf field
+     */
+    interface Position {
+
+        /**
+         * @param buffer Buffer of the record
+         * @return Buffer holding the value
+         */
+        ByteBuffer buffer(ByteBuffer buffer);
+
+        /**
+         * @param base Position of the record
+         * @return Index of the value in its buffer
+         */
+        int index(int base);
+    }
+
+    /**
+     * Presence flag of an optional field, clear until set
+     */
+    interface Presence {
+
+        void setPresent(ByteBuffer buffer, int base);
+
+        boolean isPresent(ByteBuffer buffer, int base);
+    }
+
+    /**
+     * Copies one value of the schema to and from its position
+     */
+    private interface Node {
+
+        /**
+         * @param value Value to store, never {@code null}
+         */
+        void write(Object value, ByteBuffer buffer, int base);
+
+        /**
+         * @param reuse Previous value which may be reused, or {@code null}
+         * @return The stored value
+         */
+        Object read(ByteBuffer buffer, int base, Object reuse);
+    }
+
+    private static final class RecordNode implements Node {
+
+        private final Schema schema;
+        private final String path;
+        private final Node[] fields;
+
+        RecordNode(final Schema schema, final String path, final Node[] fields) {
+            this.schema = schema;
+            this.path = path;
+            this.fields = fields;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            final IndexedRecord record = (IndexedRecord) value;
+            for (int i = 0; i < fields.length; i++) {
+                final Object field = record.get(i);
+                if (field == null) {
+                    if (!(fields[i] instanceof OptionalNode)) {
+                        throw new IllegalArgumentException(format(
+                                "Required field %s is null in %s",
+                                schema.getFields().get(i).name(),
+                                path.isEmpty() ? schema.getName() : path));
+                    }
+                } else {
+                    fields[i].write(field, buffer, base);
+                }
+            }
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            final IndexedRecord record = (IndexedRecord) SpecificData.get().newRecord(reuse, schema);
+            for (int i = 0; i < fields.length; i++) {
+                record.put(i, fields[i].read(buffer, base, record.get(i)));
+            }
+            return record;
+        }
+    }
+
+    private static final class OptionalNode implements Node {
+
+        private final Presence presence;
+        private final Node value;
+
+        OptionalNode(final Presence presence, final Node value) {
+            this.presence = presence;
+            this.value = value;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            presence.setPresent(buffer, base);
+            this.value.write(value, buffer, base);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return presence.isPresent(buffer, base) ? value.read(buffer, base, reuse) : null;
+        }
+    }
+
+    private static final class EnumNode implements Node {
+
+        private final Schema schema;
+        private final Position position;
+        private final Object[] symbols;
+
+        EnumNode(final Schema schema, final Position position) {
+            this.schema = schema;
+            this.position = position;
+            this.symbols = new Object[schema.getEnumSymbols().size()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = SpecificData.get().createEnum(schema.getEnumSymbols().get(i), schema);
+            }
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            final int ordinal = value instanceof Enum
+                    ? ((Enum<?>) value).ordinal()
+                    : schema.getEnumOrdinal(value.toString());
+            position.buffer(buffer).put(position.index(base), (byte) ordinal);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return symbols[position.buffer(buffer).get(position.index(base))];
+        }
+    }
+
+    private static final class BooleanNode implements Node {
+
+        private final Position position;
+
+        BooleanNode(final Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            position.buffer(buffer).put(position.index(base), (Boolean) value ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return position.buffer(buffer).get(position.index(base)) != 0;
+        }
+    }
+
+    private static final class IntNode implements Node {
+
+        private final Position position;
+
+        IntNode(final Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            position.buffer(buffer).putInt(position.index(base), (Integer) value);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return position.buffer(buffer).getInt(position.index(base));
+        }
+    }
+
+    private static final class LongNode implements Node {
+
+        private final Position position;
+
+        LongNode(final Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            position.buffer(buffer).putLong(position.index(base), (Long) value);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return position.buffer(buffer).getLong(position.index(base));
+        }
+    }
+
+    private static final class FloatNode implements Node {
+
+        private final Position position;
+
+        FloatNode(final Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            position.buffer(buffer).putFloat(position.index(base), (Float) value);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return position.buffer(buffer).getFloat(position.index(base));
+        }
+    }
+
+    private static final class DoubleNode implements Node {
+
+        private final Position position;
+
+        DoubleNode(final Position position) {
+            this.position = position;
+        }
+
+        @Override
+        public void write(final Object value, final ByteBuffer buffer, final int base) {
+            position.buffer(buffer).putDouble(position.index(base), (Double) value);
+        }
+
+        @Override
+        public Object read(final ByteBuffer buffer, final int base, final Object reuse) {
+            return position.buffer(buffer).getDouble(position.index(base));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.gaiadr2.load.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Position of a leaf field, e.g. {@code basicAstrometry.ra.value}, within a fixed-width row
+ */
+public final class Slot {
+
+    private final String name;
+    private final ColumnType type;
+    private int offset;
+
+    Slot(final String name, final ColumnType type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * @return Path of the leaf field, with nested field names separated by dots
+     */
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    /**
+     * @return Offset of the value from the start of the row, in bytes
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Position of the value in a row, for the {@link SchemaTree} of the layout
+     */
+    SchemaTree.Position position() {
+        return new SchemaTree.Position() {
+
+            @Override
+            public ByteBuffer buffer(final ByteBuffer row) {
+                return row;
+            }
+
+            @Override
+            public int index(final int base) {
+                return base + offset;
+            }
+        };
+    }
+
+    void setOffset(final int offset) {
+        this.offset = offset;
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.gaiadr2.load.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Spliterator over the lines of CSV files, interpreted as records.
+ * <p>
+ * Splits happen on file boundaries first; once a single uncompressed file remains it is split on byte
+ * ranges, each range owning the lines that start within it, so splits never share or lose a line.
+ * Compressed ({@code .gz}) files are never split. Every split creates its own interpreter from the
+ * supplier, so interpreters need not be thread-safe.
+ * <p>
+ * Readers are opened lazily and closed once their segment is consumed; readers left open by a
+ * short-circuited traversal are closed by {@link #close()} on any spliterator of the same tree.
+ *
+ * @param <T> Type of the interpreted records
+ */
+public final class CsvFileSpliterator<T> implements Spliterator<T>, Closeable {
+
+    /**
+     * Smallest byte range produced by splitting an uncompressed file.
+     */
+    public static final long DEFAULT_MIN_SPLIT_BYTES = 1 << 20;
+
+    private final List<FileSegment> segments;
+    private final Supplier<? extends Function<String, ? extends T>> interpreters;
+    private final boolean skipHeader;
+    private final long minSplitBytes;
+    private final SizeEstimator sizes;
+    private final Queue<LineReader> open;
+
+    private int index;
+    private Function<String, ? extends T> interpreter;
+    private LineReader reader;
+
+    /**
+     * @param files CSV files, optionally gzip compressed (name ending in {@code .gz}), in encounter order
+     * @param interpreters Creates one interpreter per split
+     * @param skipHeader Whether the first line of every file is a header
+     * @throws IOException When the files cannot be sampled for size estimation
+     */
+    public CsvFileSpliterator(final Collection<Path> files,
+                              final Supplier<? extends Function<String, ? extends T>> interpreters,
+                              final boolean skipHeader) throws IOException {
+        this(files, interpreters, skipHeader, DEFAULT_MIN_SPLIT_BYTES);
+    }
+
+    CsvFileSpliterator(final Collection<Path> files,
+                       final Supplier<? extends Function<String, ? extends T>> interpreters,
+                       final boolean skipHeader,
+                       final long minSplitBytes) throws IOException {
+        if (minSplitBytes < 1) {
+            throw new IllegalArgumentException("Minimum split size must be positive: " + minSplitBytes);
+        }
+        this.segments = new ArrayList<>(files.size());
+        for (final Path file : files) {
+            segments.add(new FileSegment(file, 0, Files.size(file), SizeEstimator.isCompressed(file)));
+        }
+        this.interpreters = interpreters;
+        this.skipHeader = skipHeader;
+        this.minSplitBytes = minSplitBytes;
+        this.sizes = SizeEstimator.sample(segments, skipHeader);
+        this.open = new ConcurrentLinkedQueue<>();
+    }
+
+    private CsvFileSpliterator(final CsvFileSpliterator<T> parent, final List<FileSegment> segments) {
+        this.segments = segments;
+        this.interpreters = parent.interpreters;
+        this.skipHeader = parent.skipHeader;
+        this.minSplitBytes = parent.minSplitBytes;
+        this.sizes = parent.sizes;
+        this.open = parent.open;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        final String line = nextLine();
+        if (line == null) {
+            return false;
+        }
+        if (interpreter == null) {
+            interpreter = interpreters.get();
+        }
+        action.accept(interpreter.apply(line));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        // Once reading started, what remains is not a prefix of this spliterator and cannot be handed out
+        if (reader != null) {
+            return null;
+        }
+        final int remaining = segments.size() - index;
+        if (remaining > 1) {
+            return splitSegments();
+        }
+        return remaining == 1 ? splitRange() : null;
+    }
+
+    @Override
+    public long estimateSize() {
+        double lines = 0;
+        for (int i = index; i < segments.size(); i++) {
+            final FileSegment segment = segments.get(i);
+            final long bytes = i == index && reader != null && !segment.isCompressed()
+                    ? segment.getEnd() - reader.position()
+                    : segment.bytes();
+            lines += sizes.lines(segment, bytes);
+        }
+        return Math.round(lines);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Close every reader still open in this spliterator and in the ones split from the same root.
+     *
+     * @throws IOException When a reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        LineReader next;
+        while ((next = open.poll()) != null) {
+            try {
+                next.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Spliterator<T> splitSegments() {
+        final int first = index;
+        long total = 0;
+        for (int i = first; i < segments.size(); i++) {
+            total += segments.get(i).bytes();
+        }
+        // Hand out a prefix holding about half of the bytes, keeping at least one segment on each side
+        int end = first + 1;
+        long prefix = segments.get(first).bytes();
+        while (end < segments.size() - 1 && prefix + segments.get(end).bytes() / 2 < total / 2) {
+            prefix += segments.get(end++).bytes();
+        }
+        final List<FileSegment> head = new ArrayList<>(segments.subList(first, end));
+        final List<FileSegment> tail = new ArrayList<>(segments.subList(end, segments.size()));
+        segments.clear();
+        segments.addAll(tail);
+        index = 0;
+        return new CsvFileSpliterator<>(this, head);
+    }
+
+    private Spliterator<T> splitRange() {
+        final FileSegment segment = segments.get(index);
+        if (segment.isCompressed() || segment.bytes() < 2 * minSplitBytes) {
+            return null;
+        }
+        final long middle = segment.getStart() + segment.bytes() / 2;
+        final List<FileSegment> head = new ArrayList<>(1);
+        head.add(segment.head(middle));
+        segments.set(index, segment.tail(middle));
+        return new CsvFileSpliterator<>(this, head);
+    }
+
+    private String nextLine() {
+        try {
+            while (index < segments.size()) {
+                final FileSegment segment = segments.get(index);
+                if (reader == null) {
+                    reader = segment.open(skipHeader);
+                    open.add(reader);
+                }
+                final String line = segment.nextLine(reader);
+                if (line != null) {
+                    return line;
+                }
+                open.remove(reader);
+                reader.close();
+                reader = null;
+                index++;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.gaiadr2.load.stream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Part of a CSV file owned by one spliterator: the lines starting within {@code [start, end)}. Compressed
+ * files can only be read from their beginning, so their segments always cover the whole file.
+ */
+final class FileSegment {
+
+    private final Path path;
+    private final long start;
+    private final long end;
+    private final boolean compressed;
+
+    FileSegment(final Path path, final long start, final long end, final boolean compressed) {
+        this.path = path;
+        this.start = start;
+        this.end = end;
+        this.compressed = compressed;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * @return Size of the segment on disk
+     */
+    long bytes() {
+        return end - start;
+    }
+
+    /**
+     * @param at Position of the split, strictly within the segment
+     * @return The part of the segment before the split
+     */
+    FileSegment head(final long at) {
+        return new FileSegment(path, start, at, compressed);
+    }
+
+    /**
+     * @param at Position of the split, strictly within the segment
+     * @return The part of the segment after the split
+     */
+    FileSegment tail(final long at) {
+        return new FileSegment(path, at, end, compressed);
+    }
+
+    /**
+     * @param reader Reader opened by {@link #open(boolean)}
+     * @return The next line starting within the segment, or {@code null} when there is none left
+     * @throws IOException When the file cannot be read
+     */
+    String nextLine(final LineReader reader) throws IOException {
+        return compressed || reader.position() < end ? reader.readLine() : null;
+    }
+
+    @Override
+    public String toString() {
+        return compressed ? path.toString() : path + "[" + start + ", " + end + ")";
+    }
+
+    /**
+     * Open the segment, positioned at the first line starting in it. The header line of the file, when
+     * present, is skipped.
+     *
+     * @param skipHeader Whether the first line of the file is a header
+     * @return Reader of the lines of the segment; read with {@link #nextLine(LineReader)}
+     * @throws IOException When the file cannot be opened
+     */
+    LineReader open(final boolean skipHeader) throws IOException {
+        if (compressed) {
+            final InputStream in = new GZIPInputStream(
+                    new BufferedInputStream(Files.newInputStream(path), 1 << 16),
+                    1 << 16);
+            final LineReader reader = new LineReader(in, 0);
+            if (skipHeader) {
+                reader.readLine();
+            }
+            return reader;
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            // Start one byte early: when it is a line terminator, the line at 'start' belongs to this segment
+            final long from = start == 0 ? 0 : start - 1;
+            channel.position(from);
+            final LineReader reader = new LineReader(Channels.newInputStream(channel), from);
+            if (start > 0 || skipHeader) {
+                reader.readLine();
+            }
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
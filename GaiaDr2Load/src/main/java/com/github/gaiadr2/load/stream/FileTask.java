@@ -0,0 +1,101 @@
+package com.github.gaiadr2.load.stream;
+
+import com.github.gaiadr2.load.sort.CloseableIterator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Unit of work of a {@link LargestFirstScheduler}: a whole CSV file, or one part of an oversized
+ * uncompressed file.
+ */
+public final class FileTask {
+
+    private final FileSegment segment;
+    private final int part;
+    private final int parts;
+    private final boolean skipHeader;
+
+    FileTask(final FileSegment segment, final int part, final int parts, final boolean skipHeader) {
+        this.segment = segment;
+        this.part = part;
+        this.parts = parts;
+        this.skipHeader = skipHeader;
+    }
+
+    public Path getPath() {
+        return segment.getPath();
+    }
+
+    /**
+     * @return Size of the task on disk, compressed for compressed files
+     */
+    public long getBytes() {
+        return segment.bytes();
+    }
+
+    public boolean isCompressed() {
+        return segment.isCompressed();
+    }
+
+    /**
+     * @return Index of this part within its file, from 0
+     */
+    public int getPart() {
+        return part;
+    }
+
+    /**
+     * @return Number of parts the file was split into, 1 when not split
+     */
+    public int getParts() {
+        return parts;
+    }
+
+    /**
+     * @return The data lines of the task, without the header of the file
+     * @throws IOException When the file cannot be opened
+     */
+    public CloseableIterator<String> lines() throws IOException {
+        final LineReader reader = segment.open(skipHeader);
+        return new CloseableIterator<String>() {
+
+            private String next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                final String line = next;
+                next = advance();
+                return line;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+
+            private String advance() {
+                try {
+                    return segment.nextLine(reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return parts == 1 ? getPath().toString() : getPath() + " part " + (part + 1) + "/" + parts;
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.gaiadr2.load.stream;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams over Gaia DR2 CSV files, e.g. {@code GaiaSources.stream(path).parallel().filter(...)}.
+ * <p>
+ * The returned streams hold open files; close them, e.g. with try-with-resources, when they are not
+ * fully consumed.
+ */
+public final class GaiaSources {
+
+    private static final String CSV = "glob:*.{csv,csv.gz}";
+
+    private GaiaSources() {
+    }
+
+    /**
+     * @param path A {@code gaia_source} CSV file, or a directory of such files (optionally gzip compressed)
+     * @return Stream of the sources, in file name order within a directory
+     * @throws IOException When the files cannot be listed or sampled
+     */
+    public static Stream<GaiaSource> stream(final Path path) throws IOException {
+        return stream(path, GaiaSourceInterpreter::new);
+    }
+
+    /**
+     * @param path A CSV file with a header line, or a directory of such files (optionally gzip compressed)
+     * @param interpreters Creates the interpreter of each split
+     * @param <T> Type of the interpreted records
+     * @return Stream of the interpreted records, in file name order within a directory
+     * @throws IOException When the files cannot be listed or sampled
+     */
+    public static <T> Stream<T> stream(final Path path,
+                                       final Supplier<? extends Function<String, ? extends T>> interpreters)
+            throws IOException {
+        final CsvFileSpliterator<T> spliterator = new CsvFileSpliterator<>(files(path), interpreters, true);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                spliterator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @param path A {@code gaia_source} CSV file, or a directory of such files (optionally gzip compressed)
+     * @param sample Selects the CSV lines to interpret, e.g. a
+     * {@link com.github.gaiadr2.load.sample.RandomIndexFilter}
+     * @return Stream of the selected sources, in file name order within a directory
+     * @throws IOException When the files cannot be listed or sampled
+     */
+    public static Stream<GaiaSource> sample(final Path path, final Predicate<String> sample) throws IOException {
+        return stream(path, () -> Function.<String>identity()).filter(sample).map(new GaiaSourceInterpreter());
+    }
+
+    /**
+     * @param path A file, or a directory
+     * @return The file itself, or the CSV files of the directory sorted by name
+     * @throws IOException When the directory cannot be listed
+     */
+    static List<Path> files(final Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        final PathMatcher csv = path.getFileSystem().getPathMatcher(CSV);
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(path,
+                entry -> csv.matches(entry.getFileName()))) {
+            for (final Path entry : entries) {
+                if (Files.isRegularFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+}
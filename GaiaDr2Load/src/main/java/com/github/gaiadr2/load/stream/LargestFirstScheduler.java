@@ -0,0 +1,178 @@
+package com.github.gaiadr2.load.stream;
+
+import com.github.gaiadr2.load.exception.PipelineFailure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts many CSV files on a fixed number of threads, largest task first (LPT scheduling).
+ * <p>
+ * Converting files in directory order leaves cores idle at the end of a run while a few huge files, e.g.
+ * Galactic plane HEALPix ranges, are still being converted. Starting with the largest tasks leaves the small
+ * ones to fill the gaps at the end. Oversized uncompressed files can additionally be split into byte ranges
+ * aligned on lines, so that no single task dominates the run.
+ * <p>
+ * Tasks are weighted by their size on disk, so compressed and uncompressed files should not be mixed in one
+ * run.
+ */
+public final class LargestFirstScheduler {
+
+    /**
+     * Maximum task size for which files are never split.
+     */
+    public static final long NO_SPLIT = Long.MAX_VALUE;
+
+    private static final Comparator<FileTask> LARGEST_FIRST = Comparator
+            .comparingLong(FileTask::getBytes).reversed()
+            .thenComparing(FileTask::getPath)
+            .thenComparingInt(FileTask::getPart);
+
+    private final int threads;
+    private final long maxTaskBytes;
+    private final boolean skipHeader;
+
+    /**
+     * @param threads Number of tasks converted concurrently
+     * @param maxTaskBytes Uncompressed files larger than this are split into parts of about equal size, at
+     *                     most this large; {@link #NO_SPLIT} to never split
+     * @param skipHeader Whether the first line of every file is a header, skipped by {@link FileTask#lines()}
+     */
+    public LargestFirstScheduler(final int threads, final long maxTaskBytes, final boolean skipHeader) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive, but was: " + threads);
+        }
+        if (maxTaskBytes <= 0) {
+            throw new IllegalArgumentException("Maximum task size must be positive, but was: " + maxTaskBytes);
+        }
+        this.threads = threads;
+        this.maxTaskBytes = maxTaskBytes;
+        this.skipHeader = skipHeader;
+    }
+
+    /**
+     * @param files CSV files, optionally gzip compressed (name ending in {@code .gz})
+     * @return The tasks for these files, largest first
+     * @throws IOException When the size of a file cannot be read
+     */
+    public List<FileTask> plan(final Collection<Path> files) throws IOException {
+        final List<FileTask> tasks = new ArrayList<>();
+        for (final Path file : files) {
+            final long size = Files.size(file);
+            final boolean compressed = SizeEstimator.isCompressed(file);
+            final FileSegment whole = new FileSegment(file, 0, size, compressed);
+            if (compressed || size <= maxTaskBytes) {
+                tasks.add(new FileTask(whole, 0, 1, skipHeader));
+                continue;
+            }
+            final int parts = (int) Math.min(Integer.MAX_VALUE, (size - 1) / maxTaskBytes + 1);
+            for (int part = 0; part < parts; part++) {
+                final long start = size / parts * part + Math.min(part, size % parts);
+                final long end = size / parts * (part + 1) + Math.min(part + 1, size % parts);
+                tasks.add(new FileTask(new FileSegment(file, start, end, false), part, parts, skipHeader));
+            }
+        }
+        tasks.sort(LARGEST_FIRST);
+        return tasks;
+    }
+
+    /**
+     * Convert the files, see {@link #plan(Collection)} and {@link #runPlan(List, TaskConverter)}
+     *
+     * @param files CSV files, optionally gzip compressed
+     * @param converter Conversion of each task
+     * @return Timings of the run
+     * @throws IOException When the size of a file cannot be read
+     */
+    public ScheduleReport run(final Collection<Path> files, final TaskConverter converter) throws IOException {
+        return runPlan(plan(files), converter);
+    }
+
+    /**
+     * Convert the tasks in the given order, each worker taking the next task as soon as it is done with its
+     * previous one. The first failure stops workers from starting new tasks, and is rethrown once every
+     * running task is over. So is an interruption of the calling thread, which is also passed on to the running
+     * tasks; no task is left running once this method returns.
+     *
+     * @param tasks Tasks, usually from {@link #plan(Collection)}
+     * @param converter Conversion of each task
+     * @return Timings of the run
+     * @throws PipelineFailure When a task fails, or when interrupted
+     */
+    public ScheduleReport runPlan(final List<FileTask> tasks, final TaskConverter converter) {
+        final int workers = Math.min(threads, Math.max(tasks.size(), 1));
+        final TaskTiming[] timings = new TaskTiming[tasks.size()];
+        final long[] workerEndNanos = new long[workers];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<PipelineFailure> failure = new AtomicReference<>();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final long startNanos = System.nanoTime();
+        final List<Thread> started = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            final Thread thread = new Thread(() -> {
+                // A converter may clear the interrupt of its thread, hence the flag
+                while (failure.get() == null && !cancelled.get() && !Thread.currentThread().isInterrupted()) {
+                    // Read the clock before claiming the task, so that no task starts after a worker found none
+                    final long taskStart = System.nanoTime() - startNanos;
+                    final int index = next.getAndIncrement();
+                    if (index >= tasks.size()) {
+                        break;
+                    }
+                    final FileTask task = tasks.get(index);
+                    try {
+                        converter.convert(task);
+                    } catch (final Throwable e) {
+                        failure.compareAndSet(null, PipelineFailure.taskFailed(task.toString(), e));
+                        return;
+                    }
+                    timings[index] = new TaskTiming(task, worker, taskStart, System.nanoTime() - startNanos);
+                }
+                workerEndNanos[worker] = System.nanoTime() - startNanos;
+            }, "scheduler-" + worker);
+            thread.start();
+            started.add(thread);
+        }
+        try {
+            for (final Thread thread : started) {
+                thread.join();
+            }
+        } catch (final InterruptedException e) {
+            cancelled.set(true);
+            started.forEach(Thread::interrupt);
+            joinUninterruptibly(started);
+            Thread.currentThread().interrupt();
+            throw PipelineFailure.interrupted(e);
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new ScheduleReport(workers, Arrays.asList(timings), workerEndNanos, elapsedNanos);
+    }
+
+    /**
+     * Wait for the workers to stop, even when interrupted again, so that no task is still running once
+     * {@link #runPlan(List, TaskConverter)} returns.
+     */
+    private static void joinUninterruptibly(final List<Thread> threads) {
+        for (final Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (final InterruptedException ignored) {
+                    // The interrupt is restored by the caller
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.gaiadr2.load.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 lines from a stream while tracking the byte position of the next line, so that a reader can
+ * stop at the end of a byte range.
+ */
+final class LineReader implements Closeable {
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private byte[] line = new byte[1024];
+    private int position;
+    private int limit;
+    private long offset;
+
+    /**
+     * @param in Stream to read
+     * @param offset Position of the first byte of the stream, e.g. within a file
+     */
+    LineReader(final InputStream in, final long offset) {
+        this.in = in;
+        this.offset = offset;
+    }
+
+    /**
+     * @return Position of the next byte to read, i.e. the start of the next line after a full line was read
+     */
+    long position() {
+        return offset;
+    }
+
+    /**
+     * @return The next line without its terminator, or {@code null} at the end of the stream
+     * @throws IOException When the stream cannot be read
+     */
+    String readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (position == limit && !fill()) {
+                return length == 0 ? null : decode(length);
+            }
+            int end = position;
+            while (end < limit && buffer[end] != '\n') {
+                end++;
+            }
+            final int chunk = end - position;
+            if (length + chunk > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + chunk));
+            }
+            System.arraycopy(buffer, position, line, length, chunk);
+            length += chunk;
+            offset += chunk;
+            position = end;
+            if (end < limit) {
+                position++;
+                offset++;
+                return decode(length);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        final int read = in.read(buffer);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private String decode(final int length) {
+        final int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        return new String(line, 0, end, StandardCharsets.UTF_8);
+    }
+}
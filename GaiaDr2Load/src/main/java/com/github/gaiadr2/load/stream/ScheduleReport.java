@@ -0,0 +1,118 @@
+package com.github.gaiadr2.load.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Outcome of a {@link LargestFirstScheduler} run: per-task timings, and how long workers sat idle at the
+ * end of the run waiting for the last tasks.
+ */
+public final class ScheduleReport {
+
+    private final int threads;
+    private final List<TaskTiming> timings;
+    private final long[] workerEndNanos;
+    private final long elapsedNanos;
+
+    ScheduleReport(final int threads,
+                   final List<TaskTiming> timings,
+                   final long[] workerEndNanos,
+                   final long elapsedNanos) {
+        this.threads = threads;
+        this.timings = Collections.unmodifiableList(timings);
+        this.workerEndNanos = workerEndNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return Timings of the tasks, in scheduling order (largest first)
+     */
+    public List<TaskTiming> getTimings() {
+        return timings;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Time between the first worker running out of tasks and the end of the run
+     */
+    public long getTailNanos() {
+        long firstIdle = elapsedNanos;
+        for (final long end : workerEndNanos) {
+            firstIdle = Math.min(firstIdle, end);
+        }
+        return elapsedNanos - firstIdle;
+    }
+
+    /**
+     * @return Tasks still running once the first worker ran out of tasks, slowest to finish first; these kept
+     * cores idle at the end of the run
+     */
+    public List<TaskTiming> getStragglers() {
+        final long firstIdle = elapsedNanos - getTailNanos();
+        final List<TaskTiming> stragglers = new ArrayList<>();
+        for (final TaskTiming timing : timings) {
+            if (timing.getEndNanos() > firstIdle) {
+                stragglers.add(timing);
+            }
+        }
+        stragglers.sort(Comparator.comparingLong(TaskTiming::getEndNanos).reversed());
+        return stragglers;
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.99
+     * @return Task duration at this quantile, 0 when no task ran
+     */
+    public long getDurationQuantileNanos(final double quantile) {
+        if (quantile < 0.0 || quantile > 1.0) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        if (timings.isEmpty()) {
+            return 0;
+        }
+        final long[] durations = new long[timings.size()];
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = timings.get(i).getDurationNanos();
+        }
+        Arrays.sort(durations);
+        return durations[(int) Math.ceil(quantile * (durations.length - 1))];
+    }
+
+    /**
+     * @return Fraction of the available thread time spent converting
+     */
+    public double getUtilization() {
+        if (elapsedNanos == 0) {
+            return 0.0;
+        }
+        long busy = 0;
+        for (final TaskTiming timing : timings) {
+            busy += timing.getDurationNanos();
+        }
+        return Math.min(1.0, (double) busy / elapsedNanos / threads);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder(format(
+                "%d tasks on %d threads in %.3f s, utilization %.1f%%, p50 %.3f s, p99 %.3f s, tail %.3f s",
+                timings.size(), threads, elapsedNanos / 1E9, 100 * getUtilization(),
+                getDurationQuantileNanos(0.5) / 1E9, getDurationQuantileNanos(0.99) / 1E9, getTailNanos() / 1E9));
+        for (final TaskTiming straggler : getStragglers()) {
+            report.append(System.lineSeparator()).append("  straggler ").append(straggler);
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.gaiadr2.load.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts byte counts into line counts using the average line length sampled from the first uncompressed
+ * and the first compressed file. For compressed files the sample also measures the compression ratio.
+ */
+final class SizeEstimator {
+
+    private static final int SAMPLE_LINES = 1000;
+    private static final long SAMPLE_BYTES = 4 << 20;
+
+    private final double plainBytesPerLine;
+    private final double compressedBytesPerLine;
+
+    private SizeEstimator(final double plainBytesPerLine, final double compressedBytesPerLine) {
+        this.plainBytesPerLine = plainBytesPerLine;
+        this.compressedBytesPerLine = compressedBytesPerLine;
+    }
+
+    static boolean isCompressed(final Path file) {
+        return file.getFileName().toString().endsWith(".gz");
+    }
+
+    /**
+     * @param segments Whole-file segments to sample
+     * @param skipHeader Whether the first line of every file is a header, excluded from the sample
+     * @return Estimator sampling the first file of each kind
+     * @throws IOException When a sampled file cannot be read
+     */
+    static SizeEstimator sample(final List<FileSegment> segments, final boolean skipHeader) throws IOException {
+        double plain = Double.NaN;
+        double compressed = Double.NaN;
+        for (final FileSegment segment : segments) {
+            if (segment.isCompressed() && Double.isNaN(compressed)) {
+                compressed = sampleCompressed(segment.getPath(), skipHeader);
+            } else if (!segment.isCompressed() && Double.isNaN(plain)) {
+                plain = samplePlain(segment, skipHeader);
+            }
+        }
+        return new SizeEstimator(plain, compressed);
+    }
+
+    /**
+     * @param segment Segment the bytes belong to
+     * @param bytes Bytes of the segment left to read; for compressed segments, the size on disk
+     * @return Estimated number of lines in these bytes
+     */
+    double lines(final FileSegment segment, final long bytes) {
+        final double bytesPerLine = segment.isCompressed() ? compressedBytesPerLine : plainBytesPerLine;
+        return bytesPerLine > 0 ? bytes / bytesPerLine : 0;
+    }
+
+    private static double samplePlain(final FileSegment segment, final boolean skipHeader) throws IOException {
+        try (LineReader reader = segment.open(skipHeader)) {
+            final long start = reader.position();
+            int lines = 0;
+            while (lines < SAMPLE_LINES && reader.readLine() != null) {
+                lines++;
+            }
+            return lines == 0 ? 0 : (double) (reader.position() - start) / lines;
+        }
+    }
+
+    private static double sampleCompressed(final Path file, final boolean skipHeader) throws IOException {
+        // Small decompressor buffer, so that the compressed bytes consumed closely follow the lines read
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+             LineReader reader = new LineReader(new GZIPInputStream(counted), 0)) {
+            if (skipHeader) {
+                reader.readLine();
+            }
+            final long start = reader.position();
+            final long compressedStart = counted.count;
+            int lines = 0;
+            while (lines < SAMPLE_LINES && reader.readLine() != null) {
+                lines++;
+            }
+            if (lines == 0) {
+                return 0;
+            }
+            final double bytesPerLine = (double) (reader.position() - start) / lines;
+            // The compression ratio needs a larger sample than the line length
+            while (reader.position() - start < SAMPLE_BYTES && reader.readLine() != null) {
+                lines++;
+            }
+            final double ratio = (double) (counted.count - compressedStart) / (reader.position() - start);
+            return bytesPerLine * Math.min(ratio, 1.0);
+        }
+    }
+
+    private static final class CountingInputStream extends InputStream {
+
+        private final InputStream in;
+        private long count;
+
+        CountingInputStream(final InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = in.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = in.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
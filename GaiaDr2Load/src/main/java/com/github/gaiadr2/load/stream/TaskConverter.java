@@ -0,0 +1,15 @@
+package com.github.gaiadr2.load.stream;
+
+/**
+ * Conversion of one {@link FileTask}, e.g. reading its lines and writing them to a Parquet file named after
+ * the task. Called concurrently for different tasks.
+ */
+@FunctionalInterface
+public interface TaskConverter {
+
+    /**
+     * @param task The file, or part of a file, to convert
+     * @throws Exception When the conversion fails, which stops the whole run
+     */
+    void convert(FileTask task) throws Exception;
+}
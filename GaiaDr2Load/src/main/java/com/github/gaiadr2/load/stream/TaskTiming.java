@@ -0,0 +1,51 @@
+package com.github.gaiadr2.load.stream;
+
+import static java.lang.String.format;
+
+/**
+ * When and where one task of a {@link LargestFirstScheduler} run was converted. Times are relative to the
+ * start of the run.
+ */
+public final class TaskTiming {
+
+    private final FileTask task;
+    private final int worker;
+    private final long startNanos;
+    private final long endNanos;
+
+    TaskTiming(final FileTask task, final int worker, final long startNanos, final long endNanos) {
+        this.task = task;
+        this.worker = worker;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    public FileTask getTask() {
+        return task;
+    }
+
+    /**
+     * @return Index of the worker thread which converted the task
+     */
+    public int getWorker() {
+        return worker;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return format("%s: %.3f s on worker %d, from %.3f s to %.3f s (%d bytes)",
+                task, getDurationNanos() / 1E9, worker, startNanos / 1E9, endNanos / 1E9, task.getBytes());
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.gaiadr2.load.tune;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What an {@link OutputTuner} optimizes when recommending {@link OutputSettings}.
+ */
+public enum Objective {
+
+    /** Smallest files, e.g. for archival; a tie goes to the fastest writer */
+    SMALLEST,
+
+    /** Fastest conversion, e.g. for intermediate files */
+    FASTEST_WRITE,
+
+    /** Fastest reading, e.g. for files scanned by many queries */
+    FASTEST_READ,
+
+    /** Least sum of the size, write time and read time, each relative to the best of the candidates */
+    BALANCED;
+
+    /**
+     * @param measurements Measurements of the same sample
+     * @return The best measurement for this objective, the first one of equals
+     */
+    public OutputMeasurement choose(final List<OutputMeasurement> measurements) {
+        if (measurements.isEmpty()) {
+            throw new IllegalArgumentException("No measurement to choose from");
+        }
+        return measurements.stream().min(order(measurements)).get();
+    }
+
+    private Comparator<OutputMeasurement> order(final List<OutputMeasurement> measurements) {
+        switch (this) {
+            case SMALLEST:
+                return Comparator.comparingLong(OutputMeasurement::getBytes)
+                        .thenComparingLong(OutputMeasurement::getWriteNanos);
+            case FASTEST_WRITE:
+                return Comparator.comparingLong(OutputMeasurement::getWriteNanos);
+            case FASTEST_READ:
+                return Comparator.comparingLong(OutputMeasurement::getReadNanos);
+            default:
+                long bytes = Long.MAX_VALUE;
+                long writeNanos = Long.MAX_VALUE;
+                long readNanos = Long.MAX_VALUE;
+                for (final OutputMeasurement m : measurements) {
+                    bytes = Math.min(bytes, m.getBytes());
+                    writeNanos = Math.min(writeNanos, m.getWriteNanos());
+                    readNanos = Math.min(readNanos, m.getReadNanos());
+                }
+                final double minBytes = Math.max(bytes, 1L);
+                final double minWrite = Math.max(writeNanos, 1L);
+                final double minRead = Math.max(readNanos, 1L);
+                return Comparator.comparingDouble(m -> m.getBytes() / minBytes
+                        + m.getWriteNanos() / minWrite
+                        + m.getReadNanos() / minRead);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.gaiadr2.load.tune;
+
+/**
+ * File format of converted records.
+ */
+public enum OutputFormat {
+
+    /** Avro data files, codec and sync interval of the blocks */
+    AVRO(".avro"),
+
+    /** Parquet files, codec and size of the row groups */
+    PARQUET(".parquet");
+
+    private final String extension;
+
+    OutputFormat(final String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return File name extension, with its dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.gaiadr2.load.tune;
+
+import static java.lang.String.format;
+
+/**
+ * Size and throughput of a sample converted with some {@link OutputSettings}: fastest write and read of the
+ * rounds of an {@link OutputTuner}.
+ */
+public final class OutputMeasurement {
+
+    private final OutputSettings settings;
+    private final long records;
+    private final long bytes;
+    private final long writeNanos;
+    private final long readNanos;
+
+    OutputMeasurement(final OutputSettings settings,
+                      final long records,
+                      final long bytes,
+                      final long writeNanos,
+                      final long readNanos) {
+        this.settings = settings;
+        this.records = records;
+        this.bytes = bytes;
+        this.writeNanos = writeNanos;
+        this.readNanos = readNanos;
+    }
+
+    public OutputSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return Number of records of the sample
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * @return Size of the file of the sample
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Time to write the sample, from opening the file to closing it
+     */
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * @return Time to read every record of the file back
+     */
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public double getBytesPerRecord() {
+        return (double) bytes / records;
+    }
+
+    /**
+     * @return Records written per second
+     */
+    public double getWriteRate() {
+        return records * 1E9 / Math.max(writeNanos, 1L);
+    }
+
+    /**
+     * @return Records read per second
+     */
+    public double getReadRate() {
+        return records * 1E9 / Math.max(readNanos, 1L);
+    }
+
+    @Override
+    public String toString() {
+        return format("%s: %.1f bytes/record, write %.0f records/s, read %.0f records/s",
+                settings, getBytesPerRecord(), getWriteRate(), getReadRate());
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.gaiadr2.load.tune;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.specific.SpecificData;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Format, compression codec and block size of converted files: Avro sync interval, or Parquet row group size.
+ * <p>
+ * Settings open the writers of the files, so that the settings recommended by an {@link OutputTuner} are
+ * applied as they were measured.
+ */
+public final class OutputSettings {
+
+    private static final List<String> AVRO_CODECS =
+            Arrays.asList("null", "deflate-1", "deflate-6", "deflate-9", "snappy", "xz-6");
+    private static final List<Integer> SYNC_INTERVALS = Arrays.asList(DataFileConstants.DEFAULT_SYNC_INTERVAL, 1 << 20);
+    private static final List<CompressionCodecName> PARQUET_CODECS = Arrays.asList(
+            CompressionCodecName.UNCOMPRESSED, CompressionCodecName.SNAPPY, CompressionCodecName.GZIP);
+    private static final List<Integer> ROW_GROUP_SIZES = Arrays.asList(16 << 20, ParquetWriter.DEFAULT_BLOCK_SIZE);
+
+    /** Codec names taking a compression level, from 0 to 9 */
+    private static final Pattern LEVEL = Pattern.compile("(deflate|xz)-([0-9])");
+
+    private final OutputFormat format;
+    private final String codec;
+    private final int blockBytes;
+
+    private OutputSettings(final OutputFormat format, final String codec, final int blockBytes) {
+        this.format = format;
+        this.codec = codec;
+        this.blockBytes = blockBytes;
+    }
+
+    /**
+     * @param codec Avro codec, as parsed by {@link CodecFactory#fromString(String)}, or {@code deflate} and
+     *              {@code xz} followed by a dash and a level, e.g. {@code deflate-6}
+     * @param syncInterval Approximate size of the blocks before compression, from 32 bytes to 1 GiB
+     * @return Avro data file settings
+     */
+    public static OutputSettings avro(final String codec, final int syncInterval) {
+        avroCodec(codec);
+        if (syncInterval < 32 || syncInterval > 1 << 30) {
+            throw new IllegalArgumentException("Sync interval must be from 32 bytes to 1 GiB: " + syncInterval);
+        }
+        return new OutputSettings(OutputFormat.AVRO, codec, syncInterval);
+    }
+
+    /**
+     * @param codec Parquet codec
+     * @param rowGroupBytes Size of the row groups, buffered in memory by the writer
+     * @return Parquet file settings
+     */
+    public static OutputSettings parquet(final CompressionCodecName codec, final int rowGroupBytes) {
+        if (rowGroupBytes <= 0) {
+            throw new IllegalArgumentException("Row group size must be positive, but was: " + rowGroupBytes);
+        }
+        return new OutputSettings(OutputFormat.PARQUET, codec.name(), rowGroupBytes);
+    }
+
+    /**
+     * @return Every usual Avro codec at the default and at a large sync interval, then uncompressed, snappy and
+     * gzip Parquet files with 16 MiB and default row groups
+     */
+    public static List<OutputSettings> defaultMatrix() {
+        final List<OutputSettings> matrix = new ArrayList<>();
+        for (final String codec : AVRO_CODECS) {
+            for (final int syncInterval : SYNC_INTERVALS) {
+                matrix.add(avro(codec, syncInterval));
+            }
+        }
+        for (final CompressionCodecName codec : PARQUET_CODECS) {
+            for (final int rowGroupBytes : ROW_GROUP_SIZES) {
+                matrix.add(parquet(codec, rowGroupBytes));
+            }
+        }
+        return matrix;
+    }
+
+    public OutputFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return Name of the codec, Avro codec string or Parquet codec name
+     */
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * @return Avro sync interval, or Parquet row group size
+     */
+    public int getBlockBytes() {
+        return blockBytes;
+    }
+
+    /**
+     * @param datumWriter Encoder of the records
+     * @param schema Schema of the records
+     * @param file Created file
+     * @param <T> Type of the records
+     * @return Writer of an Avro data file with these settings
+     * @throws IOException When the file cannot be created
+     */
+    public <T> DataFileWriter<T> openAvro(final DatumWriter<T> datumWriter, final Schema schema, final Path file)
+            throws IOException {
+        checkFormat(OutputFormat.AVRO);
+        final DataFileWriter<T> writer = new DataFileWriter<>(datumWriter)
+                .setCodec(avroCodec(codec))
+                .setSyncInterval(blockBytes);
+        return writer.create(schema, file.toFile());
+    }
+
+    /**
+     * @param schema Schema of the records
+     * @param file Created file, which must not exist
+     * @param <T> Generated record class
+     * @return Writer of a Parquet file with these settings
+     * @throws IOException When the file cannot be created
+     */
+    public <T> ParquetWriter<T> openParquet(final Schema schema, final Path file) throws IOException {
+        checkFormat(OutputFormat.PARQUET);
+        return AvroParquetWriter.<T>builder(new org.apache.hadoop.fs.Path(file.toUri()))
+                .withSchema(schema)
+                .withDataModel(SpecificData.get())
+                .withCompressionCodec(CompressionCodecName.valueOf(codec))
+                .withRowGroupSize(blockBytes)
+                .build();
+    }
+
+    /**
+     * @param codec Avro codec, with an optional level
+     * @return Factory of the codec
+     */
+    private static CodecFactory avroCodec(final String codec) {
+        final Matcher level = LEVEL.matcher(codec);
+        try {
+            if (!level.matches()) {
+                return CodecFactory.fromString(codec);
+            }
+            final int value = Integer.parseInt(level.group(2));
+            return level.group(1).equals(DataFileConstants.DEFLATE_CODEC)
+                    ? CodecFactory.deflateCodec(value)
+                    : CodecFactory.xzCodec(value);
+        } catch (AvroRuntimeException e) {
+            throw new IllegalArgumentException("Unknown Avro codec: " + codec, e);
+        }
+    }
+
+    private void checkFormat(final OutputFormat expected) {
+        if (format != expected) {
+            throw new IllegalStateException("Settings of " + format + " files cannot open " + expected + " files");
+        }
+    }
+
+    /**
+     * @return E.g. {@code AVRO deflate-6 64000}
+     */
+    @Override
+    public String toString() {
+        return format + " " + codec + " " + blockBytes;
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.gaiadr2.load.tune;
+
+import com.github.gaiadr2.avro.io.GaiaSourceDatumReader;
+import com.github.gaiadr2.avro.io.GaiaSourceDatumWriter;
+import com.github.gaiadr2.avro.io.PrimitiveArrayDatumReader;
+import com.github.gaiadr2.avro.io.PrimitiveArrayDatumWriter;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Recommends the {@link OutputSettings} of a table by converting a sample of its records under every candidate
+ * settings, measuring the size of the files and the throughput of writing and reading them.
+ * <p>
+ * The best settings depend on the table: the wide {@code gaia_source} rows do not compress like the arrays of
+ * the variability tables. The sample should be representative, e.g. from a
+ * {@link com.github.gaiadr2.load.sample.RandomIndexFilter}, and larger than the largest block size of the
+ * candidates, otherwise these block sizes measure alike. Every candidate is written and read back several
+ * times, keeping the fastest round, so that the first rounds warm the JVM up.
+ *
+ * @param <T> Generated record class
+ */
+public final class OutputTuner<T extends SpecificRecord> {
+
+    private final Schema schema;
+    private final Supplier<DatumWriter<T>> writers;
+    private final Supplier<DatumReader<T>> readers;
+    private final Path workDirectory;
+    private final int rounds;
+
+    /**
+     * @param schema Schema of the records
+     * @param writers Creates the encoders of the records written to Avro files
+     * @param readers Creates the decoders of the records read from Avro files
+     * @param workDirectory Directory in which the files of the sample are written, then deleted
+     * @param rounds Number of times every candidate is written and read
+     */
+    public OutputTuner(final Schema schema,
+                       final Supplier<DatumWriter<T>> writers,
+                       final Supplier<DatumReader<T>> readers,
+                       final Path workDirectory,
+                       final int rounds) {
+        if (rounds <= 0) {
+            throw new IllegalArgumentException("Round count must be positive, but was: " + rounds);
+        }
+        this.schema = schema;
+        this.writers = writers;
+        this.readers = readers;
+        this.workDirectory = workDirectory;
+        this.rounds = rounds;
+    }
+
+    /**
+     * @param workDirectory Directory in which the files of the sample are written, then deleted
+     * @param rounds Number of times every candidate is written and read
+     * @return Tuner of {@link GaiaSource} files, using the hand-written datum writer and reader
+     */
+    public static OutputTuner<GaiaSource> gaiaSource(final Path workDirectory, final int rounds) {
+        return new OutputTuner<>(GaiaSource.getClassSchema(),
+                GaiaSourceDatumWriter::new, GaiaSourceDatumReader::new, workDirectory, rounds);
+    }
+
+    /**
+     * @param type Generated record class, e.g. of a variability table
+     * @param workDirectory Directory in which the files of the sample are written, then deleted
+     * @param rounds Number of times every candidate is written and read
+     * @param <T> Generated record class
+     * @return Tuner of files of the records, using the primitive array datum writer and reader
+     */
+    public static <T extends SpecificRecord> OutputTuner<T> of(final Class<T> type,
+                                                               final Path workDirectory,
+                                                               final int rounds) {
+        final Schema schema = SpecificData.get().getSchema(type);
+        return new OutputTuner<>(schema, () -> new PrimitiveArrayDatumWriter<>(schema),
+                () -> new PrimitiveArrayDatumReader<>(schema, schema), workDirectory, rounds);
+    }
+
+    /**
+     * @param sample Records of the table
+     * @param candidates Settings to measure, e.g. {@link OutputSettings#defaultMatrix()}
+     * @param objective What the recommendation optimizes
+     * @return Measurements of the candidates and recommended settings
+     * @throws IOException When a file of the sample cannot be written, read or deleted
+     */
+    public TuningReport run(final List<T> sample,
+                            final List<OutputSettings> candidates,
+                            final Objective objective) throws IOException {
+        if (sample.isEmpty()) {
+            throw new IllegalArgumentException("Cannot tune on an empty sample");
+        }
+        final List<OutputMeasurement> measurements = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            final OutputSettings settings = candidates.get(i);
+            measurements.add(measure(sample, settings,
+                    workDirectory.resolve("tuning-" + i + settings.getFormat().getExtension())));
+        }
+        return new TuningReport(objective, measurements);
+    }
+
+    /**
+     * @return Fastest write and read of the rounds, and size of the file
+     */
+    private OutputMeasurement measure(final List<T> sample, final OutputSettings settings, final Path file)
+            throws IOException {
+        long writeNanos = Long.MAX_VALUE;
+        long readNanos = Long.MAX_VALUE;
+        long bytes = 0;
+        try {
+            for (int round = 0; round < rounds; round++) {
+                delete(file);
+                long start = System.nanoTime();
+                write(sample, settings, file);
+                writeNanos = Math.min(writeNanos, System.nanoTime() - start);
+                bytes = Files.size(file);
+                start = System.nanoTime();
+                final long read = read(settings, file);
+                readNanos = Math.min(readNanos, System.nanoTime() - start);
+                if (read != sample.size()) {
+                    throw new IllegalStateException(
+                            settings + ": read " + read + " records of " + sample.size() + " written");
+                }
+            }
+        } finally {
+            delete(file);
+        }
+        return new OutputMeasurement(settings, sample.size(), bytes, writeNanos, readNanos);
+    }
+
+    private void write(final List<T> sample, final OutputSettings settings, final Path file) throws IOException {
+        if (settings.getFormat() == OutputFormat.AVRO) {
+            final DatumWriter<T> datumWriter = writers.get();
+            datumWriter.setSchema(schema);
+            try (DataFileWriter<T> writer = settings.openAvro(datumWriter, schema, file)) {
+                for (final T record : sample) {
+                    writer.append(record);
+                }
+            }
+        } else {
+            try (ParquetWriter<T> writer = settings.openParquet(schema, file)) {
+                for (final T record : sample) {
+                    writer.write(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of records read
+     */
+    private long read(final OutputSettings settings, final Path file) throws IOException {
+        long count = 0;
+        if (settings.getFormat() == OutputFormat.AVRO) {
+            final DatumReader<T> datumReader = readers.get();
+            datumReader.setSchema(schema);
+            try (DataFileReader<T> reader = new DataFileReader<>(file.toFile(), datumReader)) {
+                T record = null;
+                while (reader.hasNext()) {
+                    record = reader.next(record);
+                    count++;
+                }
+            }
+        } else {
+            // Through the read support rather than AvroParquetReader, whose builder is a raw ParquetReader builder
+            try (ParquetReader<T> reader = ParquetReader.builder(new AvroReadSupport<T>(SpecificData.get()),
+                    new org.apache.hadoop.fs.Path(file.toUri())).build()) {
+                while (reader.read() != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Delete a file, and the checksum file written next to it by Hadoop.
+     */
+    private static void delete(final Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling("." + file.getFileName() + ".crc"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.gaiadr2.load.tune;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Outcome of an {@link OutputTuner} run: measurement of every candidate, and the best one for the objective.
+ */
+public final class TuningReport {
+
+    private final Objective objective;
+    private final List<OutputMeasurement> measurements;
+    private final OutputMeasurement best;
+
+    TuningReport(final Objective objective, final List<OutputMeasurement> measurements) {
+        this.objective = objective;
+        this.measurements = Collections.unmodifiableList(measurements);
+        this.best = objective.choose(measurements);
+    }
+
+    public Objective getObjective() {
+        return objective;
+    }
+
+    /**
+     * @return Measurement of every candidate, in the order of the candidates
+     */
+    public List<OutputMeasurement> getMeasurements() {
+        return measurements;
+    }
+
+    /**
+     * @return Measurement of the recommended settings
+     */
+    public OutputMeasurement getBest() {
+        return best;
+    }
+
+    /**
+     * @return Recommended settings, to open the writers of the conversion
+     */
+    public OutputSettings getRecommended() {
+        return best.getSettings();
+    }
+
+    /**
+     * @return Recommendation, then the measurement of every candidate
+     */
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder(format("%s: %s, %d records sampled",
+                objective, best.getSettings(), best.getRecords()));
+        for (final OutputMeasurement measurement : measurements) {
+            report.append(format("%n%s %s", measurement == best ? "*" : " ", measurement));
+        }
+        return report.toString();
+    }
+}
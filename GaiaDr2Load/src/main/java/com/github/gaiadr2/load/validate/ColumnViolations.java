@@ -0,0 +1,164 @@
+package com.github.gaiadr2.load.validate;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Violations found in the lines of one file, or of several files once merged: number of failures and first
+ * failure message of every column, and lines rejected as a whole for not having the expected number of
+ * columns.
+ * <p>
+ * Not thread-safe: every thread accounts into its own instance, merged once the threads are done.
+ *
+ * @param <C> Enumeration of the CSV columns
+ */
+public final class ColumnViolations<C extends Enum<C>> {
+
+    private final Class<C> columnType;
+    private final C[] columns;
+    private final long[] counts;
+    private final String[] examples;
+    private long lines;
+    private long invalidLines;
+    private long malformedLines;
+    private String malformedExample;
+    private boolean failed;
+
+    /**
+     * @param columnType Enum representing the CSV columns in the expected order
+     */
+    public ColumnViolations(final Class<C> columnType) {
+        this.columnType = columnType;
+        this.columns = columnType.getEnumConstants();
+        this.counts = new long[columns.length];
+        this.examples = new String[columns.length];
+    }
+
+    /**
+     * Account for a failed check of a column of the current line.
+     *
+     * @param column Column whose value is invalid
+     * @param message Description of the failure
+     */
+    public void add(final C column, final String message) {
+        final int index = column.ordinal();
+        failed = true;
+        if (counts[index]++ == 0) {
+            examples[index] = message;
+        }
+    }
+
+    /**
+     * Account for a line without the expected number of columns, none of which can be checked.
+     *
+     * @param message Description of the failure
+     */
+    public void malformed(final String message) {
+        if (malformedLines++ == 0) {
+            malformedExample = message;
+        }
+        lines++;
+        invalidLines++;
+    }
+
+    /**
+     * Account for a checked line, invalid when a failure was added since the previous line.
+     *
+     * @return Whether every column of the line passed its checks
+     */
+    public boolean line() {
+        lines++;
+        final boolean valid = !failed;
+        if (failed) {
+            invalidLines++;
+            failed = false;
+        }
+        return valid;
+    }
+
+    /**
+     * Add the violations of another instance to this one, keeping the examples of this one first.
+     *
+     * @param other Violations found in other lines
+     * @return This instance
+     */
+    public ColumnViolations<C> merge(final ColumnViolations<C> other) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                examples[i] = other.examples[i];
+            }
+            counts[i] += other.counts[i];
+        }
+        if (malformedLines == 0) {
+            malformedExample = other.malformedExample;
+        }
+        malformedLines += other.malformedLines;
+        lines += other.lines;
+        invalidLines += other.invalidLines;
+        return this;
+    }
+
+    /**
+     * @return Number of lines checked
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * @return Number of lines failing at least one check
+     */
+    public long getInvalidLines() {
+        return invalidLines;
+    }
+
+    /**
+     * @return Number of lines without the expected number of columns
+     */
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    /**
+     * @return Message of the first line without the expected number of columns, {@code null} for none
+     */
+    public String getMalformedExample() {
+        return malformedExample;
+    }
+
+    /**
+     * @return {@code true} when every line passed every check
+     */
+    public boolean isValid() {
+        return invalidLines == 0;
+    }
+
+    /**
+     * @param column A column
+     * @return Number of lines whose value of the column failed its checks
+     */
+    public long count(final C column) {
+        return counts[column.ordinal()];
+    }
+
+    /**
+     * @param column A column
+     * @return Message of the first failure of the column, {@code null} for none
+     */
+    public String example(final C column) {
+        return examples[column.ordinal()];
+    }
+
+    /**
+     * @return Number of failures of the columns having failed at least once, in column order
+     */
+    public Map<C, Long> getCounts() {
+        final Map<C, Long> failed = new EnumMap<>(columnType);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                failed.put(columns[i], counts[i]);
+            }
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.gaiadr2.load.validate;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static java.lang.String.format;
+
+/**
+ * Outcome of a {@link ValidationScan}: violations of every file, and of all the files together.
+ *
+ * @param <C> Enumeration of the CSV columns
+ */
+public final class ValidationReport<C extends Enum<C>> {
+
+    private final SortedMap<Path, ColumnViolations<C>> files;
+    private final ColumnViolations<C> total;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    ValidationReport(final SortedMap<Path, ColumnViolations<C>> files,
+                     final ColumnViolations<C> total,
+                     final long bytes,
+                     final long elapsedNanos) {
+        this.files = Collections.unmodifiableSortedMap(files);
+        this.total = total;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return Violations of every file, by path
+     */
+    public SortedMap<Path, ColumnViolations<C>> getFiles() {
+        return files;
+    }
+
+    /**
+     * @return Violations of all the files together
+     */
+    public ColumnViolations<C> getTotal() {
+        return total;
+    }
+
+    /**
+     * @return {@code true} when every line of every file passed every check
+     */
+    public boolean isValid() {
+        return total.isValid();
+    }
+
+    /**
+     * @return Size of the files on disk, compressed for compressed files
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Summary of the run, then the failed columns of every invalid file with their first failure
+     */
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder(format(
+                "%d files, %d lines, %d invalid; %.1f MB in %.1f s (%.1f MB/s)",
+                files.size(),
+                total.getLines(),
+                total.getInvalidLines(),
+                bytes / 1E6,
+                elapsedNanos / 1E9,
+                elapsedNanos == 0 ? 0.0 : bytes * 1E3 / elapsedNanos));
+        for (final Map.Entry<Path, ColumnViolations<C>> file : files.entrySet()) {
+            final ColumnViolations<C> violations = file.getValue();
+            if (violations.isValid()) {
+                continue;
+            }
+            report.append(format("%n%s: %d of %d lines invalid",
+                    file.getKey(), violations.getInvalidLines(), violations.getLines()));
+            if (violations.getMalformedLines() > 0) {
+                report.append(format("%n    %d malformed lines, e.g. %s",
+                        violations.getMalformedLines(), violations.getMalformedExample()));
+            }
+            for (final Map.Entry<C, Long> column : violations.getCounts().entrySet()) {
+                report.append(format("%n    %s: %d, e.g. %s",
+                        column.getKey(), column.getValue(), violations.example(column.getKey())));
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.gaiadr2.load.validate;
+
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.interpreters.GaiaSourceValidator;
+import com.github.gaiadr2.load.sort.CloseableIterator;
+import com.github.gaiadr2.load.stream.FileTask;
+import com.github.gaiadr2.load.stream.LargestFirstScheduler;
+import com.github.gaiadr2.load.stream.ScheduleReport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checks that the CSV files of an archive drop of the {@code gaia_source} table conform to
+ * {@link GaiaSourceSpec} before converting them: every line goes through the checks of
+ * {@link com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter}, with {@link GaiaSourceValidator}, but
+ * no record is built, so that the scan is bound by reading and tokenizing the files.
+ * <p>
+ * Files are scanned in parallel, largest first, oversized uncompressed files being split into parts, see
+ * {@link LargestFirstScheduler}. Failures do not stop the scan: they are reported by file and by column.
+ */
+public final class ValidationScan {
+
+    private final LargestFirstScheduler scheduler;
+
+    /**
+     * @param threads Number of files, or parts of files, scanned concurrently
+     * @param maxTaskBytes Uncompressed files larger than this are split into parts at most this large;
+     *                     {@link LargestFirstScheduler#NO_SPLIT} to never split
+     */
+    public ValidationScan(final int threads, final long maxTaskBytes) {
+        this.scheduler = new LargestFirstScheduler(threads, maxTaskBytes, true);
+    }
+
+    /**
+     * @param files CSV files with a header line, optionally gzip compressed (name ending in {@code .gz})
+     * @return Violations found in the files
+     * @throws IOException When the size of a file cannot be read
+     * @throws com.github.gaiadr2.load.exception.PipelineFailure When a file cannot be read
+     */
+    public ValidationReport<GaiaSourceSpec> run(final Collection<Path> files) throws IOException {
+        final List<FileTask> tasks = scheduler.plan(files);
+        final GaiaSourceValidator validator = new GaiaSourceValidator();
+        final Map<Path, ColumnViolations<GaiaSourceSpec>> byFile = new ConcurrentHashMap<>();
+        final ScheduleReport schedule = scheduler.runPlan(tasks, task -> {
+            final ColumnViolations<GaiaSourceSpec> violations = new ColumnViolations<>(GaiaSourceSpec.class);
+            try (CloseableIterator<String> lines = task.lines()) {
+                while (lines.hasNext()) {
+                    validator.validate(lines.next(), violations);
+                }
+            }
+            byFile.merge(task.getPath(), violations, ColumnViolations::merge);
+        });
+        final ColumnViolations<GaiaSourceSpec> total = new ColumnViolations<>(GaiaSourceSpec.class);
+        final TreeMap<Path, ColumnViolations<GaiaSourceSpec>> sorted = new TreeMap<>(byFile);
+        sorted.values().forEach(total::merge);
+        final long bytes = tasks.stream().mapToLong(FileTask::getBytes).sum();
+        return new ValidationReport<>(sorted, total, bytes, schedule.getElapsedNanos());
+    }
+}
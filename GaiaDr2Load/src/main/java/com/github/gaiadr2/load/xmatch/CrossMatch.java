@@ -0,0 +1,255 @@
+package com.github.gaiadr2.load.xmatch;
+
+import com.github.gaiadr2.load.stats.HealpixMaps;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Positional cross-match of external positions against the Gaia sources of converted files, within a search
+ * radius.
+ * <p>
+ * External positions are loaded in chunks fitting the memory budget, and grouped by HEALPix pixel, at the
+ * deepest level whose pixels are wider than the radius: a position can then only match sources of its pixel
+ * and of the neighbouring pixels. The Gaia files are streamed once per chunk, in batches whose sources are
+ * swept in parallel against the buckets of their pixel and its neighbours. Successive sources mostly share
+ * their pixel, since converted files are ordered by {@code sourceId}, so the lookup of the buckets is cached.
+ * <p>
+ * All the matches are delivered once their Gaia batch is swept; best matches, the nearest source of every
+ * matched position, once the chunk of their position is complete, in input order. The sink is called from
+ * the calling thread.
+ */
+public final class CrossMatch {
+
+    /**
+     * Number of Gaia sources read per batch.
+     */
+    public static final int BATCH_SIZE = 1 << 16;
+
+    /** Number of Gaia sources swept by a parallel task */
+    private static final int PART_SIZE = 4096;
+
+    /** Mean pixel width at level 0 [arcsec]: sqrt(pi / 3) rad */
+    private static final double PIXEL_WIDTH = Math.toDegrees(Math.sqrt(Math.PI / 3.0)) * 3600.0;
+
+    /** Narrowest pixels relatively to the mean width, with a margin */
+    private static final double NARROWEST = 1.0 / 3.0;
+
+    private final double radius;
+    private final boolean best;
+    private final long memoryBudget;
+    private final int level;
+    private final double chord2;
+
+    private CrossMatch(final double radius, final boolean best, final long memoryBudget) {
+        if (!(radius > 0.0) || radius > PIXEL_WIDTH * NARROWEST) {
+            throw new IllegalArgumentException(
+                    "Radius must be positive and at most " + PIXEL_WIDTH * NARROWEST + " arcsec: " + radius);
+        }
+        if (memoryBudget < (long) BATCH_SIZE * GaiaPositions.BYTES_PER_SOURCE + TargetBuckets.BYTES_PER_TARGET) {
+            throw new IllegalArgumentException("Memory budget is too small: " + memoryBudget);
+        }
+        this.radius = radius;
+        this.best = best;
+        this.memoryBudget = memoryBudget;
+        this.level = level(radius);
+        final double chord = 2.0 * Math.sin(Math.toRadians(radius / 3600.0) / 2.0);
+        this.chord2 = chord * chord;
+    }
+
+    /**
+     * @param radius Search radius [arcsec]
+     * @param memoryBudget Maximum amount of bytes held by the external positions and the Gaia batch
+     * @return Cross-match producing the nearest Gaia source of every matched position
+     */
+    public static CrossMatch best(final double radius, final long memoryBudget) {
+        return new CrossMatch(radius, true, memoryBudget);
+    }
+
+    /**
+     * @param radius Search radius [arcsec]
+     * @param memoryBudget Maximum amount of bytes held by the external positions and the Gaia batch
+     * @return Cross-match producing every Gaia source within the radius of every position
+     */
+    public static CrossMatch all(final double radius, final long memoryBudget) {
+        return new CrossMatch(radius, false, memoryBudget);
+    }
+
+    /**
+     * @param radius Search radius [arcsec]
+     * @return Deepest HEALPix level, up to {@link HealpixMaps#MAX_LEVEL}, whose pixels are wider than the radius
+     */
+    public static int level(final double radius) {
+        int level = 0;
+        while (level < HealpixMaps.MAX_LEVEL && radius <= PIXEL_WIDTH * NARROWEST / (2 << level)) {
+            level++;
+        }
+        return level;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return Maximum number of external positions per chunk, each chunk requiring a scan of the Gaia files
+     */
+    public int getChunkSize() {
+        final long available = memoryBudget - (long) BATCH_SIZE * GaiaPositions.BYTES_PER_SOURCE;
+        return (int) Math.min(Integer.MAX_VALUE - 8, available / TargetBuckets.BYTES_PER_TARGET);
+    }
+
+    /**
+     * Match every external position.
+     *
+     * @param targets External positions
+     * @param gaiaFiles Avro data files of Gaia sources
+     * @param sink Receives the matches
+     * @return Number of matches
+     * @throws IOException When a Gaia file cannot be read
+     */
+    public long run(final Iterator<Target> targets,
+                    final Collection<Path> gaiaFiles,
+                    final Consumer<Match> sink) throws IOException {
+        long matches = 0;
+        while (targets.hasNext()) {
+            matches += match(TargetBuckets.load(targets, getChunkSize(), level), gaiaFiles, sink);
+        }
+        return matches;
+    }
+
+    private long match(final TargetBuckets buckets,
+                       final Collection<Path> gaiaFiles,
+                       final Consumer<Match> sink) throws IOException {
+        final double[] nearest = best ? new double[buckets.size] : null;
+        final long[] nearestSource = best ? new long[buckets.size] : null;
+        if (best) {
+            Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        }
+        long matches = 0;
+        try (GaiaPositions gaia = new GaiaPositions(gaiaFiles, level, BATCH_SIZE)) {
+            int size;
+            while ((size = gaia.read()) > 0) {
+                final int batchSize = size;
+                final List<Candidates> found = IntStream.range(0, (batchSize + PART_SIZE - 1) / PART_SIZE)
+                        .parallel()
+                        .mapToObj(part -> sweep(buckets, gaia, part * PART_SIZE,
+                                Math.min(batchSize, (part + 1) * PART_SIZE)))
+                        .collect(Collectors.toList());
+                for (final Candidates candidates : found) {
+                    for (int i = 0; i < candidates.size; i++) {
+                        final int target = candidates.targets[i];
+                        final long source = candidates.sources[i];
+                        final double distance = candidates.chords2[i];
+                        if (!best) {
+                            sink.accept(new Match(buckets.ids[target], source, separation(distance)));
+                            matches++;
+                        } else if (distance < nearest[target]
+                                || distance == nearest[target] && source < nearestSource[target]) {
+                            nearest[target] = distance;
+                            nearestSource[target] = source;
+                        }
+                    }
+                }
+            }
+        }
+        if (best) {
+            for (final int target : buckets.positions) {
+                if (nearest[target] != Double.POSITIVE_INFINITY) {
+                    sink.accept(new Match(buckets.ids[target], nearestSource[target], separation(nearest[target])));
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return Candidate matches of the Gaia sources of a range of the batch
+     */
+    private Candidates sweep(final TargetBuckets buckets, final GaiaPositions gaia, final int from, final int to) {
+        final Candidates candidates = new Candidates();
+        final int[] neighbours = new int[8];
+        final int[] ranges = new int[18];
+        int rangeCount = 0;
+        int cachedPixel = -1;
+        for (int i = from; i < to; i++) {
+            final int pixel = gaia.pixels[i];
+            if (pixel != cachedPixel) {
+                cachedPixel = pixel;
+                rangeCount = addRange(buckets, pixel, ranges, 0);
+                final int count = Healpix.neighbours(level, pixel, neighbours);
+                for (int n = 0; n < count; n++) {
+                    rangeCount = addRange(buckets, neighbours[n], ranges, rangeCount);
+                }
+            }
+            final double x = gaia.x[i];
+            final double y = gaia.y[i];
+            final double z = gaia.z[i];
+            for (int r = 0; r < rangeCount; r += 2) {
+                for (int target = ranges[r]; target < ranges[r + 1]; target++) {
+                    final double dx = buckets.x[target] - x;
+                    final double dy = buckets.y[target] - y;
+                    final double dz = buckets.z[target] - z;
+                    final double distance = dx * dx + dy * dy + dz * dz;
+                    if (distance <= chord2) {
+                        candidates.add(target, gaia.ids[i], distance);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static int addRange(final TargetBuckets buckets, final int pixel, final int[] ranges, final int count) {
+        final int bucket = buckets.find(pixel);
+        if (bucket < 0) {
+            return count;
+        }
+        ranges[count] = buckets.start(bucket);
+        ranges[count + 1] = buckets.end(bucket);
+        return count + 2;
+    }
+
+    /**
+     * @param chord2 Squared distance between unit vectors
+     * @return Angular separation [arcsec]
+     */
+    private static double separation(final double chord2) {
+        return Math.toDegrees(2.0 * Math.asin(Math.sqrt(chord2) / 2.0)) * 3600.0;
+    }
+
+    /**
+     * Matches found by a parallel task: position of the target, Gaia source and squared chord.
+     */
+    private static final class Candidates {
+
+        private int size;
+        private int[] targets = new int[16];
+        private long[] sources = new long[16];
+        private double[] chords2 = new double[16];
+
+        void add(final int target, final long source, final double chord2) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, 2 * size);
+                sources = Arrays.copyOf(sources, 2 * size);
+                chords2 = Arrays.copyOf(chords2, 2 * size);
+            }
+            targets[size] = target;
+            sources[size] = source;
+            chords2[size] = chord2;
+            size++;
+        }
+    }
+}
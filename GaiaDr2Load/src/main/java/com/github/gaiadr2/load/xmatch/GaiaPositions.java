@@ -0,0 +1,96 @@
+package com.github.gaiadr2.load.xmatch;
+
+import com.github.gaiadr2.avro.io.ProjectedGaiaSourceReader;
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import org.apache.avro.file.DataFileReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the positions of the Gaia sources of converted files in batches, as unit vectors with their
+ * HEALPix pixel. Only the identifier and the basic astrometry of the records are decoded.
+ */
+final class GaiaPositions implements Closeable {
+
+    /**
+     * Bytes held per source of a batch.
+     */
+    static final int BYTES_PER_SOURCE = 36;
+
+    private static final List<String> FIELDS = Arrays.asList("sourceId", "basicAstrometry");
+
+    final long[] ids;
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    final int[] pixels;
+
+    private final int level;
+    private final Iterator<Path> files;
+    private DataFileReader<GaiaSource> reader;
+    private GaiaSource reuse;
+
+    /**
+     * @param files Avro data files of {@link GaiaSource} records
+     * @param level HEALPix level of the pixels
+     * @param batchSize Maximum number of sources of a batch
+     */
+    GaiaPositions(final Collection<Path> files, final int level, final int batchSize) {
+        this.files = new ArrayList<>(files).iterator();
+        this.level = level;
+        this.ids = new long[batchSize];
+        this.x = new double[batchSize];
+        this.y = new double[batchSize];
+        this.z = new double[batchSize];
+        this.pixels = new int[batchSize];
+    }
+
+    /**
+     * @return Number of sources read into the batch, zero once every file is read
+     * @throws IOException When a file cannot be read
+     */
+    int read() throws IOException {
+        int size = 0;
+        while (size < ids.length) {
+            if (reader == null || !reader.hasNext()) {
+                if (!files.hasNext()) {
+                    break;
+                }
+                close();
+                reader = new DataFileReader<>(files.next().toFile(), new ProjectedGaiaSourceReader(FIELDS));
+                continue;
+            }
+            reuse = reader.next(reuse);
+            final CoreAstro astrometry = reuse.getBasicAstrometry();
+            final double alpha = Math.toRadians(astrometry.getRa().getValue());
+            final double delta = Math.toRadians(astrometry.getDec().getValue());
+            if (Double.isNaN(alpha) || Double.isNaN(delta)) {
+                continue;
+            }
+            final double cd = Math.cos(delta);
+            ids[size] = reuse.getSourceId();
+            x[size] = cd * Math.cos(alpha);
+            y[size] = cd * Math.sin(alpha);
+            z[size] = Math.sin(delta);
+            pixels[size] = Healpix.pixel(level, x[size], y[size], z[size]);
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
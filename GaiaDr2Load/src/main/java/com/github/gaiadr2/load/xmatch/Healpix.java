@@ -0,0 +1,193 @@
+package com.github.gaiadr2.load.xmatch;
+
+import com.github.gaiadr2.load.stats.HealpixMaps;
+
+/**
+ * Nested HEALPix indexing of unit vectors, and neighbours of a pixel, up to the level encoded in Gaia
+ * source identifiers. Follows the reference implementation (Gorski et al. 2005, {@code healpix_base}).
+ */
+public final class Healpix {
+
+    private static final double TWO_THIRDS = 2.0 / 3.0;
+
+    private static final int[] X_OFFSET = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] Y_OFFSET = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    /** Face beyond the border of a face, by direction (south, south-east, ..., north) and face */
+    private static final int[][] FACES = {
+            {8, 9, 10, 11, -1, -1, -1, -1, 10, 11, 8, 9},
+            {5, 6, 7, 4, 8, 9, 10, 11, 9, 10, 11, 8},
+            {-1, -1, -1, -1, 5, 6, 7, 4, -1, -1, -1, -1},
+            {4, 5, 6, 7, 11, 8, 9, 10, 11, 8, 9, 10},
+            {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11},
+            {1, 2, 3, 0, 0, 1, 2, 3, 5, 6, 7, 4},
+            {-1, -1, -1, -1, 7, 4, 5, 6, -1, -1, -1, -1},
+            {3, 0, 1, 2, 3, 0, 1, 2, 4, 5, 6, 7},
+            {2, 3, 0, 1, -1, -1, -1, -1, 0, 1, 2, 3}};
+
+    /** Flips of the coordinates on the face beyond the border, by direction and row of faces */
+    private static final int[][] SWAPS = {
+            {0, 0, 3}, {0, 0, 6}, {0, 0, 0}, {0, 0, 5}, {0, 0, 0}, {5, 0, 0}, {0, 0, 0}, {6, 0, 0}, {3, 0, 0}};
+
+    private Healpix() {
+    }
+
+    /**
+     * @param level HEALPix level, from 0 to {@link HealpixMaps#MAX_LEVEL}
+     * @param ra Right ascension [deg]
+     * @param dec Declination [deg]
+     * @return Nested index of the pixel holding the direction
+     */
+    public static int pixel(final int level, final double ra, final double dec) {
+        final double alpha = Math.toRadians(ra);
+        final double delta = Math.toRadians(dec);
+        final double cd = Math.cos(delta);
+        return pixel(level, cd * Math.cos(alpha), cd * Math.sin(alpha), Math.sin(delta));
+    }
+
+    /**
+     * @param level HEALPix level, from 0 to {@link HealpixMaps#MAX_LEVEL}
+     * @param x First coordinate of a unit vector
+     * @param y Second coordinate of a unit vector
+     * @param z Third coordinate of a unit vector, towards the north pole
+     * @return Nested index of the pixel holding the direction
+     */
+    public static int pixel(final int level, final double x, final double y, final double z) {
+        HealpixMaps.pixels(level);
+        final int nside = 1 << level;
+        final double za = Math.abs(z);
+        double tt = Math.atan2(y, x) * (2.0 / Math.PI);
+        if (tt < 0.0) {
+            tt += 4.0;
+        }
+        if (tt >= 4.0) {
+            tt -= 4.0;
+        }
+        final int face;
+        final int ix;
+        final int iy;
+        if (za <= TWO_THIRDS) {
+            final double temp1 = nside * (0.5 + tt);
+            final double temp2 = nside * (z * 0.75);
+            final int jp = (int) (temp1 - temp2);
+            final int jm = (int) (temp1 + temp2);
+            final int ifp = jp >> level;
+            final int ifm = jm >> level;
+            face = ifp == ifm ? ifp | 4 : ifp < ifm ? ifp : ifm + 8;
+            ix = jm & (nside - 1);
+            iy = nside - (jp & (nside - 1)) - 1;
+        } else {
+            final int ntt = Math.min(3, (int) tt);
+            final double tp = tt - ntt;
+            // sqrt(3 (1 - |z|)), from the distance to the axis to keep the precision near the poles
+            final double tmp = nside * Math.sqrt(x * x + y * y) * Math.sqrt(3.0 / (1.0 + za));
+            final int jp = Math.min(nside - 1, (int) (tp * tmp));
+            final int jm = Math.min(nside - 1, (int) ((1.0 - tp) * tmp));
+            if (z >= 0) {
+                face = ntt;
+                ix = nside - jm - 1;
+                iy = nside - jp - 1;
+            } else {
+                face = ntt + 8;
+                ix = jp;
+                iy = jm;
+            }
+        }
+        return nest(level, ix, iy, face);
+    }
+
+    /**
+     * @param level HEALPix level, from 0 to {@link HealpixMaps#MAX_LEVEL}
+     * @param pixel Nested index of a pixel
+     * @param neighbours Receives the nested indices of the neighbours, at least 8 elements
+     * @return Number of neighbours, 7 or 8 (fewer at level 0)
+     */
+    public static int neighbours(final int level, final int pixel, final int[] neighbours) {
+        HealpixMaps.pixels(level);
+        final int nside = 1 << level;
+        final int face = pixel >>> (2 * level);
+        final int inFace = pixel & ((1 << (2 * level)) - 1);
+        final int ix = compress(inFace);
+        final int iy = compress(inFace >>> 1);
+        int count = 0;
+        if (ix > 0 && ix < nside - 1 && iy > 0 && iy < nside - 1) {
+            for (int m = 0; m < 8; m++) {
+                neighbours[count++] = nest(level, ix + X_OFFSET[m], iy + Y_OFFSET[m], face);
+            }
+            return count;
+        }
+        for (int m = 0; m < 8; m++) {
+            int x = ix + X_OFFSET[m];
+            int y = iy + Y_OFFSET[m];
+            int direction = 4;
+            if (x < 0) {
+                x += nside;
+                direction -= 1;
+            } else if (x >= nside) {
+                x -= nside;
+                direction += 1;
+            }
+            if (y < 0) {
+                y += nside;
+                direction -= 3;
+            } else if (y >= nside) {
+                y -= nside;
+                direction += 3;
+            }
+            final int target = FACES[direction][face];
+            if (target < 0) {
+                continue;
+            }
+            final int bits = SWAPS[direction][face >> 2];
+            if ((bits & 1) != 0) {
+                x = nside - x - 1;
+            }
+            if ((bits & 2) != 0) {
+                y = nside - y - 1;
+            }
+            if ((bits & 4) != 0) {
+                final int swap = x;
+                x = y;
+                y = swap;
+            }
+            final int neighbour = nest(level, x, y, target);
+            if (neighbour != pixel && !contains(neighbours, count, neighbour)) {
+                neighbours[count++] = neighbour;
+            }
+        }
+        return count;
+    }
+
+    private static boolean contains(final int[] values, final int count, final int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int nest(final int level, final int ix, final int iy, final int face) {
+        return (face << (2 * level)) + spread(ix) + (spread(iy) << 1);
+    }
+
+    /** Interleave zeros between the 16 lower bits */
+    private static int spread(final int value) {
+        int v = value;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    /** Inverse of {@link #spread(int)}, reading the even bits */
+    private static int compress(final int value) {
+        int v = value & 0x55555555;
+        v = (v | (v >>> 1)) & 0x33333333;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F;
+        v = (v | (v >>> 4)) & 0x00FF00FF;
+        v = (v | (v >>> 8)) & 0x0000FFFF;
+        return v;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.gaiadr2.load.xmatch;
+
+/**
+ * A Gaia source within the search radius of an external position
+ */
+public final class Match {
+
+    private final long targetId;
+    private final long sourceId;
+    private final double separation;
+
+    /**
+     * @param targetId Identifier of the external position
+     * @param sourceId Identifier of the Gaia source
+     * @param separation Angular separation [arcsec]
+     */
+    public Match(final long targetId, final long sourceId, final double separation) {
+        this.targetId = targetId;
+        this.sourceId = sourceId;
+        this.separation = separation;
+    }
+
+    /**
+     * @return Identifier of the external position
+     */
+    public long getTargetId() {
+        return targetId;
+    }
+
+    /**
+     * @return Identifier of the Gaia source
+     */
+    public long getSourceId() {
+        return sourceId;
+    }
+
+    /**
+     * @return Angular separation [arcsec]
+     */
+    public double getSeparation() {
+        return separation;
+    }
+
+    @Override
+    public String toString() {
+        return targetId + " - " + sourceId + ": " + separation + "\"";
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.gaiadr2.load.xmatch;
+
+/**
+ * A position of an external catalogue, to match against Gaia sources
+ */
+public final class Target {
+
+    private final long id;
+    private final double ra;
+    private final double dec;
+
+    /**
+     * @param id Identifier of the position in its catalogue
+     * @param ra Right ascension [deg]
+     * @param dec Declination [deg]
+     */
+    public Target(final long id, final double ra, final double dec) {
+        this.id = id;
+        this.ra = ra;
+        this.dec = dec;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public double getRa() {
+        return ra;
+    }
+
+    public double getDec() {
+        return dec;
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.gaiadr2.load.xmatch;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * External positions as unit vectors, grouped by HEALPix pixel: the positions of a pixel are contiguous, and
+ * pixels are in ascending order.
+ */
+final class TargetBuckets {
+
+    /**
+     * Bytes held per position while loading and matching, including the best match.
+     */
+    static final int BYTES_PER_TARGET = 88;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    final int size;
+    final long[] ids;
+    final double[] x;
+    final double[] y;
+    final double[] z;
+
+    /** Position within the buckets of the positions, in input order */
+    final int[] positions;
+
+    private final int[] pixels;
+    private final int[] starts;
+
+    private TargetBuckets(final int size, final int buckets) {
+        this.size = size;
+        this.ids = new long[size];
+        this.x = new double[size];
+        this.y = new double[size];
+        this.z = new double[size];
+        this.positions = new int[size];
+        this.pixels = new int[buckets];
+        this.starts = new int[buckets + 1];
+    }
+
+    /**
+     * @param targets Positions to load
+     * @param capacity Maximum number of positions to load
+     * @param level HEALPix level of the buckets
+     * @return The next positions of the input, grouped by pixel
+     */
+    static TargetBuckets load(final Iterator<Target> targets, final int capacity, final int level) {
+        long[] ids = new long[Math.min(capacity, INITIAL_CAPACITY)];
+        double[] xs = new double[ids.length];
+        double[] ys = new double[ids.length];
+        double[] zs = new double[ids.length];
+        long[] keys = new long[ids.length];
+        int size = 0;
+        while (size < capacity && targets.hasNext()) {
+            final Target target = targets.next();
+            if (!(Math.abs(target.getDec()) <= 90.0) || Double.isInfinite(target.getRa())
+                    || Double.isNaN(target.getRa())) {
+                throw new IllegalArgumentException("Invalid position of target " + target.getId() + ": "
+                        + target.getRa() + ", " + target.getDec());
+            }
+            if (size == ids.length) {
+                final int grown = (int) Math.min(capacity, 2L * size);
+                ids = Arrays.copyOf(ids, grown);
+                xs = Arrays.copyOf(xs, grown);
+                ys = Arrays.copyOf(ys, grown);
+                zs = Arrays.copyOf(zs, grown);
+                keys = Arrays.copyOf(keys, grown);
+            }
+            final double alpha = Math.toRadians(target.getRa());
+            final double delta = Math.toRadians(target.getDec());
+            final double cd = Math.cos(delta);
+            ids[size] = target.getId();
+            xs[size] = cd * Math.cos(alpha);
+            ys[size] = cd * Math.sin(alpha);
+            zs[size] = Math.sin(delta);
+            keys[size] = (long) Healpix.pixel(level, xs[size], ys[size], zs[size]) << 32 | size;
+            size++;
+        }
+        Arrays.sort(keys, 0, size);
+
+        int buckets = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || keys[i] >>> 32 != keys[i - 1] >>> 32) {
+                buckets++;
+            }
+        }
+        final TargetBuckets loaded = new TargetBuckets(size, buckets);
+        int bucket = -1;
+        for (int position = 0; position < size; position++) {
+            final int pixel = (int) (keys[position] >>> 32);
+            final int index = (int) keys[position];
+            if (bucket < 0 || loaded.pixels[bucket] != pixel) {
+                bucket++;
+                loaded.pixels[bucket] = pixel;
+                loaded.starts[bucket] = position;
+            }
+            loaded.ids[position] = ids[index];
+            loaded.x[position] = xs[index];
+            loaded.y[position] = ys[index];
+            loaded.z[position] = zs[index];
+            loaded.positions[index] = position;
+        }
+        loaded.starts[buckets] = size;
+        return loaded;
+    }
+
+    /**
+     * @param pixel Nested HEALPix index
+     * @return Index of the bucket of the pixel, negative when no position lies in the pixel
+     */
+    int find(final int pixel) {
+        return Arrays.binarySearch(pixels, pixel);
+    }
+
+    /**
+     * @param bucket Index of a bucket
+     * @return Position of the first target of the bucket
+     */
+    int start(final int bucket) {
+        return starts[bucket];
+    }
+
+    /**
+     * @param bucket Index of a bucket
+     * @return Position past the last target of the bucket
+     */
+    int end(final int bucket) {
+        return starts[bucket + 1];
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.gaiadr2.load.arrow;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.NullableMapVector;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.SeekableReadChannel;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link ArrowExporter}
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+final class ArrowExporterTest {
+
+    private static final int BATCH_SIZE = 4;
+
+    private final List<GaiaSource> sources = new ArrayList<>();
+
+    @BeforeAll
+    void loadCsvFile() throws IOException, URISyntaxException {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        for (final String line : lines.subList(1, lines.size())) {
+            sources.add(interpreter.apply(line));
+        }
+        assertFalse(sources.isEmpty());
+    }
+
+    @Test
+    void fileHoldsAllRecords() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ArrowExporter<GaiaSource> exporter =
+                     ArrowExporter.toFile(GaiaSource.getClassSchema(), Channels.newChannel(bytes), BATCH_SIZE)) {
+            for (final GaiaSource source : sources) {
+                exporter.append(source);
+            }
+        }
+
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+             ArrowFileReader reader = new ArrowFileReader(
+                     new SeekableReadChannel(new ByteArrayReadableSeekableByteChannel(bytes.toByteArray())),
+                     allocator)) {
+            assertEquals((sources.size() + BATCH_SIZE - 1) / BATCH_SIZE, reader.getRecordBlocks().size());
+            assertRecords(reader, sources);
+        }
+    }
+
+    @Test
+    void streamHoldsAllRecords() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ArrowExporter<GaiaSource> exporter = ArrowExporter.toStream(GaiaSource.getClassSchema(), bytes, BATCH_SIZE)) {
+            for (final GaiaSource source : sources) {
+                exporter.append(source);
+            }
+        }
+
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(bytes.toByteArray()), allocator)) {
+            assertRecords(reader, sources);
+        }
+    }
+
+    @Test
+    void rejectedRecordsLeaveNoTrace() throws IOException {
+        final GaiaSource full = sources.stream().filter(s -> s.getFullAstrometry() != null).findFirst().get();
+        final GaiaSource partial = sources.stream().filter(s -> s.getFullAstrometry() == null).findFirst().get();
+        final GaiaSource invalid = GaiaSource.newBuilder(full).build();
+        invalid.setVarFlag(null);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ArrowExporter<GaiaSource> exporter = ArrowExporter.toStream(GaiaSource.getClassSchema(), bytes, BATCH_SIZE)) {
+            assertThrows(IllegalArgumentException.class, () -> exporter.append(invalid));
+            exporter.append(partial);
+        }
+
+        try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(bytes.toByteArray()), allocator)) {
+            assertRecords(reader, Collections.singletonList(partial));
+        }
+    }
+
+    @Test
+    void invalidBatchSizeIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ArrowExporter.toStream(GaiaSource.getClassSchema(), new ByteArrayOutputStream(), 0));
+    }
+
+    private static void assertRecords(final ArrowReader reader, final List<GaiaSource> sources) throws IOException {
+        final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        assertTrue(root.getSchema().findField("basicAstrometry").getChildren().size() > 0);
+        assertFalse(root.getSchema().findField("sourceId").isNullable());
+        assertTrue(root.getSchema().findField("fullAstrometry").isNullable());
+
+        int row = 0;
+        while (reader.loadNextBatch()) {
+            final BigIntVector sourceId = (BigIntVector) root.getVector("sourceId");
+            final Float8Vector ra = ((NullableMapVector) root.getVector("basicAstrometry"))
+                    .getChild("ra", NullableMapVector.class)
+                    .getChild("value", Float8Vector.class);
+            final NullableMapVector full = (NullableMapVector) root.getVector("fullAstrometry");
+            final Float8Vector parallax = full
+                    .getChild("parallax", NullableMapVector.class)
+                    .getChild("value", Float8Vector.class);
+            final Float4Vector bpRp = ((NullableMapVector) root.getVector("colourInfo"))
+                    .getChild("bp_rp", Float4Vector.class);
+            final TinyIntVector varFlag = (TinyIntVector) root.getVector("varFlag");
+            final VarCharVector varFlags = (VarCharVector) reader
+                    .lookup(root.getSchema().findField("varFlag").getDictionary().getId())
+                    .getVector();
+
+            for (int i = 0; i < root.getRowCount(); i++, row++) {
+                final GaiaSource expected = sources.get(row);
+                assertEquals(expected.getSourceId().longValue(), sourceId.get(i));
+                assertEquals(expected.getBasicAstrometry().getRa().getValue(), ra.get(i), 1E-30);
+                if (expected.getFullAstrometry() == null) {
+                    assertTrue(full.isNull(i));
+                    assertTrue(parallax.isNull(i));
+                } else {
+                    assertFalse(full.isNull(i));
+                    assertEquals(expected.getFullAstrometry().getParallax().getValue(), parallax.get(i), 1E-30);
+                }
+                if (expected.getColourInfo().getBpRp() == null) {
+                    assertTrue(bpRp.isNull(i));
+                } else {
+                    assertEquals(expected.getColourInfo().getBpRp(), bpRp.get(i), 1E-30f);
+                }
+                final byte[] symbol = varFlags.get(varFlag.get(i));
+                assertNotNull(symbol);
+                assertEquals(expected.getVarFlag().name(), new String(symbol, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(sources.size(), row);
+    }
+}
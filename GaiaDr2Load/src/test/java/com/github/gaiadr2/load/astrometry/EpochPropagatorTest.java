@@ -0,0 +1,287 @@
+package com.github.gaiadr2.load.astrometry;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.gaiadr2.load.astrometry.AstrometryBatch.A;
+import static com.github.gaiadr2.load.astrometry.AstrometryBatch.PARAMETERS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link EpochPropagator}, against a scalar reference propagating barycentric positions and
+ * velocities, with a Jacobian from finite differences.
+ */
+final class EpochPropagatorTest {
+
+    private static final double MAS = Math.PI / (180.0 * 3600.0 * 1000.0);
+
+    @Test
+    void gaiaSourcesMatchTheReference() throws Exception {
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final AstrometryBatch batch = new AstrometryBatch(lines.size(), 2015.5);
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        for (final String line : lines.subList(1, lines.size())) {
+            final GaiaSource source = interpreter.apply(line);
+            if (source.getFullAstrometry() != null) {
+                batch.add(source);
+            }
+        }
+        assertTrue(batch.size() > 0);
+
+        for (final double epoch : new double[]{1991.25, 2000.0, 2015.5, 2030.0}) {
+            assertMatchesReference(batch, epoch);
+        }
+    }
+
+    @Test
+    void fastNearbyStarsMatchTheReference() {
+        final Random random = new Random(3);
+        final AstrometryBatch batch = new AstrometryBatch(200, 2015.5);
+        for (int i = 0; i < batch.capacity(); i++) {
+            batch.getRa()[i] = 360.0 * random.nextDouble();
+            batch.getDec()[i] = Math.toDegrees(Math.asin(1.8 * random.nextDouble() - 0.9));
+            batch.getParallax()[i] = 1.0 + 700.0 * random.nextDouble();
+            batch.getPmRa()[i] = 10_000.0 * (random.nextDouble() - 0.5);
+            batch.getPmDec()[i] = 10_000.0 * (random.nextDouble() - 0.5);
+            batch.getRadialVelocity()[i] = i % 5 == 0 ? Double.NaN : 300.0 * (random.nextDouble() - 0.5);
+            final double[] errors = {0.05, 0.04, 0.08, 0.1, 0.09};
+            for (int row = 0; row < 5; row++) {
+                for (int column = row; column < 5; column++) {
+                    final double correlation = row == column ? 1.0 : 0.6 * (random.nextDouble() - 0.5);
+                    batch.getCovariance()[i * AstrometryBatch.COVARIANCE_SIZE
+                            + AstrometryBatch.covarianceIndex(row, column)] = correlation * errors[row] * errors[column];
+                }
+            }
+            if (batch.getRadialVelocity()[i] == batch.getRadialVelocity()[i]) {
+                final double vr = batch.getRadialVelocity()[i];
+                final double offset = i * AstrometryBatch.COVARIANCE_SIZE;
+                for (int row = 0; row < 5; row++) {
+                    batch.getCovariance()[(int) offset + AstrometryBatch.covarianceIndex(row, 5)] =
+                            batch.covariance(i, row, 2) * vr / A;
+                }
+                batch.getCovariance()[(int) offset + AstrometryBatch.covarianceIndex(5, 5)] =
+                        (Math.pow(batch.getParallax()[i] * 0.5, 2) + Math.pow(vr * errors[2], 2)) / (A * A);
+            }
+        }
+        batch.setSize(batch.capacity());
+
+        for (final double epoch : new double[]{1000.0, 1900.0, 2016.0, 3000.0}) {
+            assertMatchesReference(batch, epoch);
+        }
+    }
+
+    @Test
+    void parallelPropagationMatchesSequentialAndCanRunInPlace() {
+        final Random random = new Random(11);
+        final AstrometryBatch batch = new AstrometryBatch(3 * EpochPropagator.CHUNK_SIZE + 17, 2015.5);
+        for (int i = 0; i < batch.capacity(); i++) {
+            batch.getRa()[i] = 360.0 * random.nextDouble();
+            batch.getDec()[i] = 180.0 * random.nextDouble() - 90.0;
+            batch.getParallax()[i] = 10.0 * random.nextDouble();
+            batch.getPmRa()[i] = 100.0 * random.nextGaussian();
+            batch.getPmDec()[i] = 100.0 * random.nextGaussian();
+            batch.getRadialVelocity()[i] = Double.NaN;
+            for (int row = 0; row < 5; row++) {
+                batch.getCovariance()[i * AstrometryBatch.COVARIANCE_SIZE
+                        + AstrometryBatch.covarianceIndex(row, row)] = 0.01;
+            }
+        }
+        batch.setSize(batch.capacity());
+        final AstrometryBatch sequential = new AstrometryBatch(batch.capacity(), 0.0);
+        final AstrometryBatch parallel = new AstrometryBatch(batch.capacity(), 0.0);
+
+        EpochPropagator.propagateSequentially(batch, 2000.0, sequential, 0, batch.size());
+        EpochPropagator.propagate(batch, 2000.0, parallel);
+        EpochPropagator.propagate(batch, 2000.0, batch);
+
+        assertEquals(2000.0, sequential.getEpoch(), 1E-30);
+        assertEquals(2000.0, parallel.getEpoch(), 1E-30);
+        assertArrayEquals(sequential.getRa(), parallel.getRa(), 1E-30);
+        assertArrayEquals(sequential.getCovariance(), parallel.getCovariance(), 1E-30);
+        assertArrayEquals(sequential.getRa(), batch.getRa(), 1E-30);
+        assertArrayEquals(sequential.getPmDec(), batch.getPmDec(), 1E-30);
+        assertArrayEquals(sequential.getCovariance(), batch.getCovariance(), 1E-30);
+    }
+
+    @Test
+    void sourcesWithoutParallaxAreNotPropagated() {
+        final AstrometryBatch batch = new AstrometryBatch(1, 2015.5);
+        batch.getRa()[0] = 10.0;
+        batch.getDec()[0] = 20.0;
+        batch.getParallax()[0] = Double.NaN;
+        batch.getPmRa()[0] = Double.NaN;
+        batch.getPmDec()[0] = Double.NaN;
+        batch.getRadialVelocity()[0] = Double.NaN;
+        batch.setSize(1);
+
+        EpochPropagator.propagate(batch, 2000.0, batch);
+
+        assertTrue(Double.isNaN(batch.getRa()[0]));
+        assertTrue(Double.isNaN(batch.getParallax()[0]));
+        assertTrue(Double.isNaN(batch.covariance(0, 0, 0)));
+    }
+
+    @Test
+    void outputMustHoldEverySource() {
+        final AstrometryBatch batch = new AstrometryBatch(10, 2015.5);
+        batch.setSize(10);
+        assertThrows(IllegalArgumentException.class,
+                () -> EpochPropagator.propagate(batch, 2000.0, new AstrometryBatch(5, 2015.5)));
+        assertThrows(IllegalArgumentException.class,
+                () -> EpochPropagator.propagateSequentially(batch, 2000.0, batch, 5, 11));
+    }
+
+    private static void assertMatchesReference(final AstrometryBatch batch, final double epoch) {
+        final AstrometryBatch out = new AstrometryBatch(batch.size(), 0.0);
+        EpochPropagator.propagate(batch, epoch, out);
+        final double t = epoch - batch.getEpoch();
+        for (int i = 0; i < batch.size(); i++) {
+            final double[] parameters = parameters(batch, i);
+            final double[] expected = reference(parameters, t);
+            final String name = "Source " + i + " at " + epoch;
+            final double dAlpha = (out.getRa()[i] - expected[0]) * Math.cos(Math.toRadians(expected[1]));
+            assertEquals(0.0, dAlpha * 3.6E6, 1E-6, name);
+            assertEquals(expected[1], out.getDec()[i], 1E-6 / 3.6E6, name);
+            assertEquals(expected[2], out.getParallax()[i], 1E-9 * Math.abs(expected[2]), name);
+            assertEquals(expected[3], out.getPmRa()[i], 1E-9 * (1 + Math.abs(expected[3])), name);
+            assertEquals(expected[4], out.getPmDec()[i], 1E-9 * (1 + Math.abs(expected[4])), name);
+            if (batch.getRadialVelocity()[i] == batch.getRadialVelocity()[i]) {
+                assertEquals(expected[5] * A / expected[2], out.getRadialVelocity()[i], 1E-6, name);
+            }
+
+            final double[][] jacobian = referenceJacobian(parameters, t);
+            for (int row = 0; row < PARAMETERS; row++) {
+                for (int column = row; column < PARAMETERS; column++) {
+                    double sum = 0.0;
+                    for (int k = 0; k < PARAMETERS; k++) {
+                        for (int l = 0; l < PARAMETERS; l++) {
+                            sum += jacobian[row][k] * batch.covariance(i, k, l) * jacobian[column][l];
+                        }
+                    }
+                    final double scale = Math.sqrt(out.covariance(i, row, row) * out.covariance(i, column, column));
+                    assertEquals(sum, out.covariance(i, row, column), 1E-5 * scale + 1E-12,
+                            name + ", covariance " + row + ", " + column);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return ra, dec [deg], parallax [mas], pmra, pmdec and radial proper motion [mas/yr]
+     */
+    private static double[] parameters(final AstrometryBatch batch, final int i) {
+        final double vr = batch.getRadialVelocity()[i];
+        return new double[]{
+                batch.getRa()[i],
+                batch.getDec()[i],
+                batch.getParallax()[i],
+                batch.getPmRa()[i],
+                batch.getPmDec()[i],
+                vr == vr ? vr * batch.getParallax()[i] / A : 0.0};
+    }
+
+    /**
+     * Propagate by moving the barycentric position linearly with the barycentric velocity.
+     *
+     * @return ra, dec [deg], parallax [mas], pmra, pmdec, radial proper motion [mas/yr] and direction
+     */
+    private static double[] reference(final double[] parameters, final double t) {
+        return reference(parameters, 0.0, 0.0, t);
+    }
+
+    /**
+     * @param xi Offset of the direction towards east [mas]
+     * @param eta Offset of the direction towards north [mas]
+     */
+    private static double[] reference(final double[] parameters, final double xi, final double eta, final double t) {
+        final double[][] triad = triad(Math.toRadians(parameters[0]), Math.toRadians(parameters[1]));
+        final double[] direction = new double[3];
+        for (int k = 0; k < 3; k++) {
+            direction[k] = triad[2][k] + (triad[0][k] * xi + triad[1][k] * eta) * MAS;
+        }
+        final double norm = Math.sqrt(dot(direction, direction));
+        final double[][] start = triad(Math.atan2(direction[1], direction[0]), Math.asin(direction[2] / norm));
+        final double plx = parameters[2] * MAS;
+        final double[] position = new double[3];
+        final double[] velocity = new double[3];
+        for (int k = 0; k < 3; k++) {
+            velocity[k] = (start[0][k] * parameters[3] + start[1][k] * parameters[4] + start[2][k] * parameters[5])
+                    * MAS / plx;
+            position[k] = start[2][k] / plx + velocity[k] * t;
+        }
+        final double distance = Math.sqrt(dot(position, position));
+        final double alpha = Math.atan2(position[1], position[0]);
+        final double delta = Math.asin(position[2] / distance);
+        final double[][] end = triad(alpha, delta);
+        final double plxOut = 1.0 / distance;
+        return new double[]{
+                (Math.toDegrees(alpha) + 360.0) % 360.0,
+                Math.toDegrees(delta),
+                plxOut / MAS,
+                dot(end[0], velocity) * plxOut / MAS,
+                dot(end[1], velocity) * plxOut / MAS,
+                dot(end[2], velocity) * plxOut / MAS,
+                position[0] / distance,
+                position[1] / distance,
+                position[2] / distance};
+    }
+
+    /**
+     * Central differences, in mas and mas/yr, positions being offsets along the normal triad. Large steps keep
+     * the differences of directions above rounding: the outputs are linear in the parallax, and nearly linear
+     * in the other parameters over a few hundred mas.
+     */
+    private static double[][] referenceJacobian(final double[] parameters, final double t) {
+        final double[] nominal = reference(parameters, t);
+        final double[][] triad = triad(Math.toRadians(nominal[0]), Math.toRadians(nominal[1]));
+        final double[][] jacobian = new double[PARAMETERS][PARAMETERS];
+        for (int j = 0; j < PARAMETERS; j++) {
+            final double step = j == 2 ? 0.1 * parameters[2] : 100.0;
+            final double[] plus = parameters.clone();
+            final double[] minus = parameters.clone();
+            double xi = 0.0;
+            double eta = 0.0;
+            if (j == 0) {
+                xi = step;
+            } else if (j == 1) {
+                eta = step;
+            } else {
+                plus[j] += step;
+                minus[j] -= step;
+            }
+            final double[] high = reference(plus, xi, eta, t);
+            final double[] low = reference(minus, -xi, -eta, t);
+            final double[] difference = {high[6] - low[6], high[7] - low[7], high[8] - low[8]};
+            jacobian[0][j] = dot(triad[0], difference) / MAS / (2 * step);
+            jacobian[1][j] = dot(triad[1], difference) / MAS / (2 * step);
+            for (int k = 2; k < PARAMETERS; k++) {
+                jacobian[k][j] = (high[k] - low[k]) / (2 * step);
+            }
+        }
+        return jacobian;
+    }
+
+    /**
+     * @return Directions towards east, north and the source
+     */
+    private static double[][] triad(final double alpha, final double delta) {
+        final double sa = Math.sin(alpha);
+        final double ca = Math.cos(alpha);
+        final double sd = Math.sin(delta);
+        final double cd = Math.cos(delta);
+        return new double[][]{{-sa, ca, 0.0}, {-sd * ca, -sd * sa, cd}, {cd * ca, cd * sa, sd}};
+    }
+
+    private static double dot(final double[] a, final double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+}
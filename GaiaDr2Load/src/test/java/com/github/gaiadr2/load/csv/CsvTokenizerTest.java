@@ -0,0 +1,56 @@
+package com.github.gaiadr2.load.csv;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link CsvTokenizer}
+ */
+class CsvTokenizerTest {
+
+    @Test
+    void unquotedLineIsSplitOnCommas() {
+        assertArrayEquals(new String[]{"1", "", "abc", ""}, CsvTokenizer.tokenize("1,,abc,"));
+    }
+
+    @Test
+    void quotedArrayIsKeptInOneToken() {
+        assertArrayEquals(
+                new String[]{"12", "(1.5,2.5,3.5)", "", "x"},
+                CsvTokenizer.tokenize("12,\"(1.5,2.5,3.5)\",,x"));
+    }
+
+    @Test
+    void quotedFieldAtEndOfLine() {
+        assertArrayEquals(new String[]{"1", "a,b"}, CsvTokenizer.tokenize("1,\"a,b\""));
+    }
+
+    @Test
+    void doubledQuotesAreUnescaped() {
+        assertArrayEquals(new String[]{"say \"hi\"", "2"}, CsvTokenizer.tokenize("\"say \"\"hi\"\"\",2"));
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CsvTokenizer.tokenize("1,\"(1,2"));
+    }
+
+    @Test
+    void garbageAfterQuotedFieldIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CsvTokenizer.tokenize("\"a\"b,2"));
+    }
+
+    @Test
+    void singleTokenMatchesTheSplitLine() {
+        final String line = "12,\"(1.5,2.5)\",,\"say \"\"hi\"\"\",x";
+        final String[] tokens = CsvTokenizer.tokenize(line);
+        for (int i = 0; i < tokens.length; i++) {
+            assertEquals(tokens[i], CsvTokenizer.token(line, i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> CsvTokenizer.token(line, tokens.length));
+        assertThrows(IllegalArgumentException.class, () -> CsvTokenizer.token("1,\"(1,2", 2));
+    }
+}
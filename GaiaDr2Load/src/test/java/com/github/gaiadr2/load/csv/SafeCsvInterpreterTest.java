@@ -8,6 +8,10 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
@@ -34,6 +38,11 @@ class SafeCsvInterpreterTest {
         BooleanColumn
     }
 
+    enum ArrayColumns {
+        IdColumn,
+        ArrayColumn
+    }
+
     private final Random rng = new Random(424242242424L);
     private final CsvInterpreter<Columns> interpreter = new SafeCsvInterpreter<>(Columns.class);
 
@@ -203,6 +212,67 @@ class SafeCsvInterpreterTest {
         assertEquals(expected, optVal.get());
     }
 
+    @Test
+    void quotedArrayColumnIsParsedIntoBuffer() {
+        final CsvInterpreter<ArrayColumns> arrays = new SafeCsvInterpreter<>(ArrayColumns.class);
+        final DoubleArray buffer = new DoubleArray(1);
+        arrays.accept("42,\"(1.5, -2.25,,NaN,3E2)\"");
+        assertTrue(arrays.doubleArrayValue(ArrayColumns.ArrayColumn, buffer));
+        assertEquals(5, buffer.size());
+        assertEquals(1.5, buffer.get(0), 1E-30);
+        assertEquals(-2.25, buffer.get(1), 1E-30);
+        assertTrue(Double.isNaN(buffer.get(2)));
+        assertTrue(Double.isNaN(buffer.get(3)));
+        assertEquals(300.0, buffer.get(4), 1E-30);
+    }
+
+    @Test
+    void emptyArrayColumnClearsBuffer() {
+        final CsvInterpreter<ArrayColumns> arrays = new SafeCsvInterpreter<>(ArrayColumns.class);
+        final DoubleArray buffer = new DoubleArray();
+        buffer.add(1.0);
+        arrays.accept("42,");
+        assertFalse(arrays.doubleArrayValue(ArrayColumns.ArrayColumn, buffer));
+        assertEquals(0, buffer.size());
+        arrays.accept("42,\"()\"");
+        assertTrue(arrays.doubleArrayValue(ArrayColumns.ArrayColumn, buffer));
+        assertEquals(0, buffer.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"42,\"(1.0,abc)\"", "42,\"(1.0,2.0\"", "42,\"(1.0,2.0,)\"", "42,\"[1.0, ]\""})
+    void illegalArrayCausesFailure(final String line) {
+        final CsvInterpreter<ArrayColumns> arrays = new SafeCsvInterpreter<>(ArrayColumns.class);
+        arrays.accept(line);
+        assertThrows(
+                NonCompliantColumnFailure.class,
+                () -> arrays.doubleArrayValue(ArrayColumns.ArrayColumn, new DoubleArray()));
+    }
+
+    @Test
+    void arrayElementsAreParsedLikeParseDouble() {
+        final Random random = new Random(42L);
+        final List<String> items = new ArrayList<>(Arrays.asList("0", "-0.0", "+1", "1.", ".5", "007", "1e22",
+                "1e23", "1E-22", "4.9e-324", "123456789012345", "1234567890123456789", "0.1e-30", "1.5f", "2d",
+                "Infinity", "-NaN", "NaN"));
+        for (int i = 0; i < 1_000; i++) {
+            final double value = (random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(40) - 20);
+            items.add(Double.toString(value));
+            items.add(format(Locale.ROOT, "%.6f", value));
+            items.add(format(Locale.ROOT, "%.3e", value));
+        }
+        final CsvInterpreter<ArrayColumns> arrays = new SafeCsvInterpreter<>(ArrayColumns.class);
+        final DoubleArray buffer = new DoubleArray();
+        arrays.accept("42,\"(" + String.join(", ", items) + ")\"");
+
+        assertTrue(arrays.doubleArrayValue(ArrayColumns.ArrayColumn, buffer));
+        assertEquals(items.size(), buffer.size());
+        for (int i = 0; i < items.size(); i++) {
+            final double expected = Double.parseDouble(items.get(i));
+            assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(buffer.get(i)), items.get(i));
+        }
+    }
+
     private Method method(final String type) throws NoSuchMethodException {
         return SafeCsvInterpreter.class.getMethod(format("%sValue", type), Enum.class);
     }
@@ -0,0 +1,139 @@
+package com.github.gaiadr2.load.dedup;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link DuplicateDetector}
+ */
+final class DuplicateDetectorTest {
+
+    private final Map<Path, long[]> files = new HashMap<>();
+    private final IdReader reader = (file, ids) -> Arrays.stream(files.get(file)).forEach(ids);
+
+    @Test
+    void duplicatesAreReportedWithTheirOrigins() throws IOException {
+        final Random random = new Random(2);
+        final long[] ids = new long[30_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (long) random.nextInt(12 << 24) << 35 | i;
+        }
+        final Path first = add("first", Arrays.copyOfRange(ids, 0, 10_000));
+        final Path second = add("second", Arrays.copyOfRange(ids, 10_000, 20_000));
+        // The third file repeats one identifier of each other file, and one of its own
+        final long[] third = Arrays.copyOfRange(ids, 19_997, 30_000);
+        third[0] = ids[5];
+        third[1] = ids[15_000];
+        third[2] = ids[25_000];
+        final Path last = add("third", third);
+        final List<Path> order = Arrays.asList(first, second, last);
+
+        for (final long budget : new long[]{1L << 30, 64 * 1024L}) {
+            final DuplicateReport report = new DuplicateDetector(budget, 100).run(order, reader);
+
+            assertEquals(30_003, report.getIds());
+            assertEquals(30_000, report.getDistinct());
+            assertFalse(report.isUnique());
+            final List<Duplicate> duplicates = report.getDuplicates();
+            assertEquals(3, duplicates.size());
+            final Map<Long, List<Path>> origins = new HashMap<>();
+            for (final Duplicate duplicate : duplicates) {
+                origins.put(duplicate.getSourceId(), duplicate.getOrigins());
+            }
+            assertEquals(Arrays.asList(first, last), origins.get(ids[5]));
+            assertEquals(Arrays.asList(second, last), origins.get(ids[15_000]));
+            assertEquals(Arrays.asList(last, last), origins.get(ids[25_000]));
+            assertTrue(report.getTableBytes() <= budget, report.toString());
+            if (budget < 1L << 20) {
+                assertTrue(report.getPasses() > 1, report.toString());
+            } else {
+                assertEquals(1, report.getPasses());
+            }
+        }
+    }
+
+    @Test
+    void reportedDuplicatesAreBounded() throws IOException {
+        final long[] ids = new long[1_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (long) i << 35;
+        }
+        final List<Path> order = Arrays.asList(add("a", ids), add("b", ids), add("c", ids));
+
+        final DuplicateReport report = new DuplicateDetector(1L << 20, 10).run(order, reader);
+
+        assertEquals(3_000, report.getIds());
+        assertEquals(1_000, report.getDistinct());
+        assertEquals(10, report.getDuplicates().size());
+        assertEquals(3, report.getDuplicates().get(0).getOrigins().size());
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateDetector(1L << 20, 10)
+                .run(Arrays.asList(add("invalid", new long[]{-1L})), reader));
+        assertThrows(IllegalArgumentException.class, () -> new DuplicateDetector(10L, 10));
+    }
+
+    @Test
+    void gaiaSourceFilesAreRead() throws Exception {
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final Path directory = Files.createTempDirectory("dedup");
+        final Path first = directory.resolve("first.avro");
+        final Path second = directory.resolve("second.avro");
+        try {
+            write(first, interpreter, lines.subList(1, 5));
+            write(second, interpreter, lines.subList(4, 7));
+
+            final DuplicateReport report = new DuplicateDetector(1L << 20, 10)
+                    .run(Arrays.asList(first, second), IdReader.gaiaSources());
+
+            assertEquals(7, report.getIds());
+            assertEquals(6, report.getDistinct());
+            assertEquals(1, report.getDuplicates().size());
+            assertEquals(interpreter.apply(lines.get(4)).getSourceId().longValue(),
+                    report.getDuplicates().get(0).getSourceId());
+            assertEquals(Arrays.asList(first, second), report.getDuplicates().get(0).getOrigins());
+        } finally {
+            Files.deleteIfExists(first);
+            Files.deleteIfExists(second);
+            Files.delete(directory);
+        }
+    }
+
+    private Path add(final String name, final long[] ids) {
+        final Path path = Paths.get(name);
+        files.put(path, ids);
+        return path;
+    }
+
+    private static void write(final Path file, final GaiaSourceInterpreter interpreter, final List<String> lines)
+            throws IOException {
+        try (DataFileWriter<GaiaSource> writer = new DataFileWriter<>(new SpecificDatumWriter<>(GaiaSource.class))) {
+            writer.create(GaiaSource.getClassSchema(), file.toFile());
+            final List<GaiaSource> sources = new ArrayList<>();
+            for (final String line : lines) {
+                sources.add(interpreter.apply(line));
+            }
+            for (final GaiaSource source : sources) {
+                writer.append(source);
+            }
+        }
+    }
+}
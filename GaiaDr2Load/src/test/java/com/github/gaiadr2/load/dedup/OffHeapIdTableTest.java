@@ -0,0 +1,49 @@
+package com.github.gaiadr2.load.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link OffHeapIdTable}
+ */
+final class OffHeapIdTableTest {
+
+    @Test
+    void firstOriginIsKept() {
+        final Random random = new Random(9);
+        final OffHeapIdTable table = new OffHeapIdTable(20_000);
+        final Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            // Identifiers sharing their upper bits, as within a HEALPix pixel, and including zero
+            final long id = i % 3 == 0 ? random.nextInt(5_000) : (123_456L << 35) | random.nextInt(15_000);
+            final int origin = random.nextInt(100);
+            final Integer previous = expected.putIfAbsent(id, origin);
+            assertEquals(previous == null ? OffHeapIdTable.ABSENT : previous, table.putIfAbsent(id, origin));
+        }
+        assertEquals(expected.size(), table.size());
+    }
+
+    @Test
+    void tableIsSizedForItsCapacity() {
+        assertEquals(2L, OffHeapIdTable.slots(0));
+        assertEquals(4L, OffHeapIdTable.slots(3));
+        assertEquals(6L, OffHeapIdTable.slots(4));
+        assertEquals(2_000_000_000L, OffHeapIdTable.slots(1_500_000_000L));
+        assertEquals(16 * OffHeapIdTable.BYTES_PER_SLOT, new OffHeapIdTable(12).allocatedBytes());
+
+        final OffHeapIdTable table = new OffHeapIdTable(2);
+        table.putIfAbsent(1L, 0);
+        table.putIfAbsent(2L, 0);
+        assertEquals(0, table.putIfAbsent(2L, 1));
+        assertThrows(IllegalStateException.class, () -> table.putIfAbsent(3L, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.putIfAbsent(1L, -1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapIdTable(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapIdTable(4_000_000_000L));
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.exception.BlockFailure;
+import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link BlockInterpreter}
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+final class BlockInterpreterTest {
+
+    private final List<String> lines = new ArrayList<>();
+    private final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+
+    @BeforeAll
+    void loadCsvFile() {
+        lines.addAll(TestUtil.streamResource("/GaiaSource_valid.csv"));
+        assertTrue(lines.size() > 2);
+    }
+
+    @Test
+    void blockOfStringsMatchesSingleLines() {
+        final String[] block = lines.toArray(new String[0]);
+        final GaiaSource[] out = new GaiaSource[block.length];
+        interpreter.applyAll(block, 1, block.length, out);
+
+        for (int i = 1; i < block.length; i++) {
+            assertEquals(interpreter.apply(block[i]), out[i - 1]);
+        }
+        assertNull(out[block.length - 1]);
+    }
+
+    @Test
+    void blockOfBytesMatchesSingleLines() {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            text.append(lines.get(i)).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        text.append("truncated,line");
+        final byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+        final int[] offsets = new int[lines.size() + 8];
+
+        final int count = BlockInterpreter.indexLines(data, 0, data.length, offsets);
+        assertEquals(lines.size(), count);
+        final GaiaSource[] out = new GaiaSource[count];
+        interpreter.applyAll(data, offsets, 0, count, out);
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(interpreter.apply(lines.get(i)), out[i]);
+        }
+        assertEquals(2, BlockInterpreter.indexLines(data, 0, data.length, new int[3]));
+    }
+
+    @Test
+    void failedLineLeavesTheOtherRecordsAlone() {
+        final String[] block = lines.toArray(new String[0]);
+        block[1] = "not a number" + block[1];
+        final GaiaSource previous = interpreter.apply(block[0]);
+        final GaiaSource[] out = new GaiaSource[block.length];
+        Arrays.fill(out, previous);
+
+        final BlockFailure failure = assertThrows(
+                BlockFailure.class,
+                () -> interpreter.applyAll(block, 0, block.length, out));
+        assertEquals(1, failure.getLine());
+        assertTrue(failure.getCause() instanceof NonCompliantColumnFailure);
+        assertNotSame(previous, out[0]);
+        assertEquals(previous, out[0]);
+        for (int i = 1; i < out.length; i++) {
+            assertSame(previous, out[i]);
+        }
+
+        interpreter.applyAll(block, failure.getLine() + 1, block.length, out);
+        for (int i = 2; i < block.length; i++) {
+            assertEquals(interpreter.apply(block[i]), out[i - 2]);
+        }
+    }
+}
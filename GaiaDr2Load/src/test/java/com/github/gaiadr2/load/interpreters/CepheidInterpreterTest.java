@@ -0,0 +1,64 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.Cepheid;
+import com.github.gaiadr2.avro.vari.ClassCepheid;
+import com.github.gaiadr2.avro.vari.ModeCepheid;
+import com.github.gaiadr2.avro.vari.MultiModeCepheid;
+import com.github.gaiadr2.avro.vari.SubClassType2;
+import com.github.gaiadr2.load.csv.specs.CepheidSpec;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link CepheidInterpreter}
+ */
+final class CepheidInterpreterTest {
+
+    private final Function<String, Cepheid> interpreter = new CepheidInterpreter();
+
+    @ParameterizedTest
+    @CsvSource({
+            "F/1O, F_FO",
+            "1O/2O, FO_SO",
+            "1O/2O/3O, FO_SO_TO"})
+    void multiModeLabelsAreMapped(final String label, final MultiModeCepheid expected) {
+        final Cepheid result = interpreter.apply(line("DCEP", "", "MULTI", label));
+        assertSame(ClassCepheid.DCEP, result.getBestType());
+        assertSame(ModeCepheid.MULTI, result.getBestMode());
+        assertSame(SubClassType2.NOT_APPLICABLE, result.getType2subtype());
+        assertSame(expected, result.getBestMultiMode());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"T2CEP, BL_HER, NOT_APPLICABLE", "T2CEP, W_VIR, NOT_APPLICABLE"})
+    void singleModeCepheidHasNoMultiMode(final String type, final SubClassType2 subType, final String mode) {
+        final Cepheid result = interpreter.apply(line(type, subType.name(), mode, ""));
+        assertSame(subType, result.getType2subtype());
+        assertNull(result.getBestMultiMode());
+        assertEquals(1.5, result.getInfo().getPf().getValue(), 1E-30);
+        assertTrue(Double.isNaN(result.getInfo().getP1o().getValue()));
+        assertNull(result.getInfo().getEpochMaxBp());
+    }
+
+    private static String line(final String type, final String subType, final String mode, final String multiMode) {
+        final String[] values = new String[CepheidSpec.values().length];
+        Arrays.fill(values, "");
+        values[CepheidSpec.SolutionId.ordinal()] = "369295551293819386";
+        values[CepheidSpec.SourceId.ordinal()] = "4658269336800428672";
+        values[CepheidSpec.Pf.ordinal()] = "1.5";
+        values[CepheidSpec.PfError.ordinal()] = "0.001";
+        values[CepheidSpec.TypeBestClassification.ordinal()] = type;
+        values[CepheidSpec.Type2BestSubClassification.ordinal()] = subType;
+        values[CepheidSpec.ModeBestClassification.ordinal()] = mode;
+        values[CepheidSpec.MultiModeBestClassification.ordinal()] = multiMode;
+        return String.join(",", values);
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.csv.CsvInterpreter;
+import com.github.gaiadr2.load.csv.CsvRow;
+import com.github.gaiadr2.load.csv.SafeCsvInterpreter;
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test sharing a single {@link GaiaSourceInterpreter} between threads
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+final class ConcurrentInterpretationTest {
+
+    private static final int LINES = 10_000;
+    private static final int THREADS = 8;
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<GaiaSource> expected = new ArrayList<>();
+
+    @BeforeAll
+    void generateLines() {
+        final List<String> templates = TestUtil.streamResource("/GaiaSource_valid.csv");
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        for (int i = 0; i < LINES; i++) {
+            final String[] columns = templates.get(i % templates.size()).split(",", -1);
+            columns[GaiaSourceSpec.SourceId.ordinal()] = Integer.toString(i);
+            final String line = String.join(",", columns);
+            lines.add(line);
+            expected.add(interpreter.apply(line));
+        }
+    }
+
+    @Test
+    void parallelStreamMatchesSequentialParsing() {
+        final GaiaSourceInterpreter shared = new GaiaSourceInterpreter();
+        final List<GaiaSource> actual = lines.parallelStream().map(shared).collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void contendedThreadsSeeTheirOwnLines() throws Exception {
+        final GaiaSourceInterpreter shared = new GaiaSourceInterpreter();
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            final List<Future<Integer>> mismatches = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int first = t * LINES / THREADS;
+                mismatches.add(pool.submit(() -> {
+                    start.await();
+                    int failures = 0;
+                    for (int i = 0; i < LINES; i++) {
+                        final int index = (first + i) % LINES;
+                        if (!expected.get(index).equals(shared.apply(lines.get(index)))) {
+                            failures++;
+                        }
+                    }
+                    return failures;
+                }));
+            }
+            start.countDown();
+            for (final Future<Integer> failures : mismatches) {
+                assertEquals(0, failures.get().intValue());
+            }
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Test
+    void parsedRowsAreIndependent() {
+        final CsvInterpreter<GaiaSourceSpec> interpreter = new SafeCsvInterpreter<>(GaiaSourceSpec.class);
+        final CsvRow<GaiaSourceSpec> first = interpreter.parse(lines.get(0));
+        final CsvRow<GaiaSourceSpec> second = interpreter.parse(lines.get(1));
+        interpreter.accept(lines.get(2));
+
+        assertEquals(0L, first.longValue(GaiaSourceSpec.SourceId).getAsLong());
+        assertEquals(1L, second.longValue(GaiaSourceSpec.SourceId).getAsLong());
+        assertEquals(2L, interpreter.longValue(GaiaSourceSpec.SourceId).getAsLong());
+    }
+
+    @Test
+    void acceptedLineIsConfinedToTheThread() throws InterruptedException {
+        final CsvInterpreter<GaiaSourceSpec> interpreter = new SafeCsvInterpreter<>(GaiaSourceSpec.class);
+        interpreter.accept(lines.get(3));
+        final Thread other = new Thread(() -> interpreter.accept(lines.get(4)));
+        other.start();
+        other.join();
+        assertEquals(3L, interpreter.longValue(GaiaSourceSpec.SourceId).getAsLong());
+    }
+}
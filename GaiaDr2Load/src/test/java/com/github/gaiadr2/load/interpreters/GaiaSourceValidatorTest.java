@@ -0,0 +1,117 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.validate.ColumnViolations;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link GaiaSourceValidator}
+ */
+final class GaiaSourceValidatorTest {
+
+    private static final String[] CORRUPTIONS = {"", "abc", "-1", "0", "99", "2.5", "NaN", "true", "CONSTANT"};
+
+    private final List<String> lines = TestUtil.streamResource("/GaiaSource_valid.csv");
+    private final GaiaSourceValidator validator = new GaiaSourceValidator();
+    private final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+
+    @Test
+    void validLinesPass() {
+        final ColumnViolations<GaiaSourceSpec> violations = new ColumnViolations<>(GaiaSourceSpec.class);
+
+        for (final String line : lines) {
+            assertTrue(validator.validate(line, violations), line);
+        }
+
+        assertEquals(lines.size(), violations.getLines());
+        assertTrue(violations.isValid());
+        assertTrue(violations.getCounts().isEmpty());
+    }
+
+    @Test
+    void validatorAgreesWithInterpreter() {
+        for (final String line : lines) {
+            for (final GaiaSourceSpec column : GaiaSourceSpec.values()) {
+                for (final String corruption : CORRUPTIONS) {
+                    final String corrupted = replace(line, column, corruption);
+                    final ColumnViolations<GaiaSourceSpec> violations =
+                            new ColumnViolations<>(GaiaSourceSpec.class);
+
+                    final boolean valid = validator.validate(corrupted, violations);
+
+                    assertEquals(accepted(corrupted), valid, column + " = " + corruption + " in " + line);
+                    assertEquals(valid, violations.getCounts().isEmpty(), violations.getCounts().toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyFailedColumnIsReported() {
+        final ColumnViolations<GaiaSourceSpec> violations = new ColumnViolations<>(GaiaSourceSpec.class);
+        String line = lines.get(0);
+        line = replace(line, GaiaSourceSpec.SourceId, "");
+        line = replace(line, GaiaSourceSpec.AstroParamSolved, "7");
+        line = replace(line, GaiaSourceSpec.PhotProcMode, "3");
+        line = replace(line, GaiaSourceSpec.FrameRotatorObjType, "x");
+        line = replace(line, GaiaSourceSpec.PhotVariableFlag, "MAYBE");
+
+        assertFalse(validator.validate(line, violations));
+        assertFalse(validator.validate("1,2,3", violations));
+        assertTrue(validator.validate(lines.get(1), violations));
+
+        assertEquals(3, violations.getLines());
+        assertEquals(2, violations.getInvalidLines());
+        assertEquals(1, violations.getMalformedLines());
+        assertNotNull(violations.getMalformedExample());
+        assertEquals(5, violations.getCounts().size());
+        assertEquals("Required column 2 [SourceId] is empty", violations.example(GaiaSourceSpec.SourceId));
+        assertEquals("Unknown value for AstroParamSolved: 7", violations.example(GaiaSourceSpec.AstroParamSolved));
+        assertEquals("Unknown value for PhotMode: 3", violations.example(GaiaSourceSpec.PhotProcMode));
+        assertTrue(violations.example(GaiaSourceSpec.FrameRotatorObjType).contains("should have been int"));
+        assertEquals("Unknown variability flag MAYBE", violations.example(GaiaSourceSpec.PhotVariableFlag));
+        assertEquals(0, violations.count(GaiaSourceSpec.Ra));
+        assertNull(violations.example(GaiaSourceSpec.Ra));
+    }
+
+    @Test
+    void decimalsAreRecognizedWithoutParsing() {
+        final String[] decimals = {"0", "-1", "+2.5", "1.", ".5", "-0.000123", "6.02E23", "1e-400", "3.4e37",
+                "9.9e306", "000000000000000000000000000000000000000000001"};
+        final String[] others = {"", "-", ".", "e5", "1e", "1e+", "1.5.2", "NaN", "Infinity", "0x1p3", "1d", "1 2",
+                "1e308", "1e12345"};
+        for (final String decimal : decimals) {
+            assertTrue(GaiaSourceValidator.isDecimal(decimal, 308), decimal);
+            assertTrue(Double.isFinite(Double.parseDouble(decimal)), decimal);
+        }
+        for (final String other : others) {
+            assertFalse(GaiaSourceValidator.isDecimal(other, 308), other);
+        }
+        assertTrue(GaiaSourceValidator.isDecimal("9.9e37", 38));
+        assertTrue(Float.isFinite(Float.parseFloat("9.9e37")));
+        assertFalse(GaiaSourceValidator.isDecimal("3.5e38", 38));
+    }
+
+    private boolean accepted(final String line) {
+        try {
+            interpreter.apply(line);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String replace(final String line, final GaiaSourceSpec column, final String value) {
+        final String[] tokens = line.split(",", -1);
+        tokens[column.ordinal()] = value;
+        return String.join(",", tokens);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.RotationModulation;
+import com.github.gaiadr2.avro.vari.SegmentInfo;
+import com.github.gaiadr2.load.csv.specs.RotationModulationSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link RotationModulationInterpreter}
+ */
+final class RotationModulationInterpreterTest {
+
+    private final Function<String, RotationModulation> interpreter = new RotationModulationInterpreter();
+
+    @Test
+    void segmentsAreTransposed() {
+        final Map<RotationModulationSpec, String> values = twoSegments();
+        final RotationModulation result = interpreter.apply(line(values));
+
+        assertEquals(2, result.getNumSegments().intValue());
+        assertEquals(2, result.getSegments().size());
+        final SegmentInfo first = result.getSegments().get(0);
+        final SegmentInfo second = result.getSegments().get(1);
+        assertEquals(1700.0, first.getSegStart(), 1E-30);
+        assertEquals(1800.0, second.getSegStart(), 1E-30);
+        assertEquals(4.5, second.getRotPeriod().getValue(), 1E-30);
+        assertEquals(0.2, second.getRotPeriod().getUncertainty(), 1E-30);
+        assertNotNull(first.getUnspottedBp());
+        assertNull(second.getUnspottedBp());
+        assertNull(first.getUnspottedRp());
+        assertTrue(Double.isNaN(first.getCosTerm().getUncertainty()));
+
+        assertEquals(Arrays.asList(1750.5), result.getOutliersTime());
+        assertEquals(4.2, result.getBestRotPeriod().getValue(), 1E-30);
+        assertNull(result.getUnspottedRp());
+    }
+
+    @Test
+    void mismatchingSegmentCountIsRejected() {
+        final Map<RotationModulationSpec, String> values = twoSegments();
+        values.put(RotationModulationSpec.SegmentsEndTime, "(1750.0)");
+        assertThrows(IllegalArgumentException.class, () -> interpreter.apply(line(values)));
+    }
+
+    private static Map<RotationModulationSpec, String> twoSegments() {
+        final Map<RotationModulationSpec, String> values = new EnumMap<>(RotationModulationSpec.class);
+        for (final RotationModulationSpec column : RotationModulationSpec.values()) {
+            values.put(column, column.name().startsWith("Segments") ? "(1.0,2.0)" : "");
+        }
+        values.put(RotationModulationSpec.SolutionId, "369295549951641967");
+        values.put(RotationModulationSpec.SourceId, "1000225938242805248");
+        values.put(RotationModulationSpec.NumSegments, "2");
+        values.put(RotationModulationSpec.SegmentsStartTime, "(1700.0,1800.0)");
+        values.put(RotationModulationSpec.SegmentsRotationPeriod, "(4.1,4.5)");
+        values.put(RotationModulationSpec.SegmentsRotationPeriodError, "(0.1,0.2)");
+        values.put(RotationModulationSpec.SegmentsCosTermError, "");
+        values.put(RotationModulationSpec.SegmentsUnspottedBpMag, "(12.5,NaN)");
+        values.put(RotationModulationSpec.SegmentsUnspottedRpMag, "");
+        values.put(RotationModulationSpec.NumOutliers, "1");
+        values.put(RotationModulationSpec.OutliersTime, "(1750.5)");
+        values.put(RotationModulationSpec.BestRotationPeriod, "4.2");
+        values.put(RotationModulationSpec.BestRotationPeriodError, "0.1");
+        values.put(RotationModulationSpec.GUnspotted, "12.1");
+        values.put(RotationModulationSpec.GUnspottedError, "0.01");
+        return values;
+    }
+
+    private static String line(final Map<RotationModulationSpec, String> values) {
+        return values.values().stream()
+                .map(value -> value.indexOf(',') < 0 ? value : '"' + value + '"')
+                .collect(Collectors.joining(","));
+    }
+}
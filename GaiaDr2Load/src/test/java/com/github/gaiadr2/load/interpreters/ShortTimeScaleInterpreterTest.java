@@ -0,0 +1,44 @@
+package com.github.gaiadr2.load.interpreters;
+
+import com.github.gaiadr2.avro.vari.ShortTimeScale;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit test for {@link ShortTimeScaleInterpreter}
+ */
+final class ShortTimeScaleInterpreterTest {
+
+    private final Function<String, ShortTimeScale> interpreter = new ShortTimeScaleInterpreter();
+
+    @Test
+    void variogramArraysAreParsed() {
+        final ShortTimeScale result = interpreter.apply(
+                "1635378410781933568,4295806720,0.35,40,0.8,3,\"(0.1,1.0,10.0)\",\"(0.01,0.02,0.03)\",0.5");
+
+        assertEquals(4295806720L, result.getSourceId().longValue());
+        assertEquals(0.35, result.getAmplitude(), 1E-30);
+        assertEquals(40, result.getNumFovTransit().intValue());
+        assertEquals(3, result.getVariogramNumPoints().intValue());
+        assertEquals(Arrays.asList(0.1, 1.0, 10.0), result.getVariogramTimescale());
+        assertEquals(Arrays.asList(0.01, 0.02, 0.03), result.getVariogramValues());
+        assertEquals(0.5, result.getFrequency(), 1E-30);
+    }
+
+    @Test
+    void reusedBuffersDoNotLeakIntoPreviousRecords() {
+        final ShortTimeScale first = interpreter.apply("1,1,0.1,10,0.5,2,\"(1,2)\",\"(3,4)\",");
+        final ShortTimeScale second = interpreter.apply("1,2,0.1,10,0.5,1,\"(5)\",\"(6)\",");
+
+        final List<Double> firstTimescales = first.getVariogramTimescale();
+        assertEquals(Arrays.asList(1.0, 2.0), firstTimescales);
+        assertEquals(Arrays.asList(5.0), second.getVariogramTimescale());
+        assertNull(first.getFrequency());
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.gaiadr2.load.join;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.vari.ClassName;
+import com.github.gaiadr2.avro.vari.ClassifierResult;
+import com.github.gaiadr2.avro.vari.LongPeriodVariable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link SortMergeJoin}
+ */
+class SortMergeJoinTest {
+
+    @Test
+    void innerJoinKeepsOnlyMatchingKeys() {
+        final List<LongPeriodVariable> left = lpvs(1, 3, 5, 7);
+        final List<ClassifierResult> right = classifications(2, 3, 4, 7, 9);
+
+        final List<Joined<LongPeriodVariable, ClassifierResult>> result = drain(SortMergeJoin.inner(
+                left.iterator(), SourceIdKeys.LONG_PERIOD_VARIABLE,
+                right.iterator(), SourceIdKeys.CLASSIFIER_RESULT));
+
+        assertEquals(2, result.size());
+        assertEquals(3L, result.get(0).getKey());
+        assertSame(left.get(1), result.get(0).getLeft());
+        assertSame(right.get(1), result.get(0).getRight());
+        assertEquals(7L, result.get(1).getKey());
+        assertSame(left.get(3), result.get(1).getLeft());
+        assertSame(right.get(3), result.get(1).getRight());
+    }
+
+    @Test
+    void leftOuterJoinKeepsUnmatchedLeftRecords() {
+        final List<LongPeriodVariable> left = lpvs(1, 3, 5);
+        final List<ClassifierResult> right = classifications(3);
+
+        final List<Joined<LongPeriodVariable, ClassifierResult>> result = drain(SortMergeJoin.leftOuter(
+                left.iterator(), SourceIdKeys.LONG_PERIOD_VARIABLE,
+                right.iterator(), SourceIdKeys.CLASSIFIER_RESULT));
+
+        assertEquals(3, result.size());
+        assertNull(result.get(0).getRight());
+        assertSame(right.get(0), result.get(1).getRight());
+        assertNull(result.get(2).getRight());
+    }
+
+    @Test
+    void duplicateKeysProduceCrossProduct() {
+        final List<LongPeriodVariable> left = lpvs(1, 2, 2, 4);
+        final List<ClassifierResult> right = classifications(2, 2, 2, 4);
+
+        final List<Joined<LongPeriodVariable, ClassifierResult>> result = drain(SortMergeJoin.inner(
+                left.iterator(), SourceIdKeys.LONG_PERIOD_VARIABLE,
+                right.iterator(), SourceIdKeys.CLASSIFIER_RESULT));
+
+        assertEquals(7, result.size());
+        assertEquals(4L, result.get(6).getKey());
+    }
+
+    @Test
+    void emptyRightStreamProducesNothing() {
+        final Iterator<Joined<LongPeriodVariable, ClassifierResult>> join = SortMergeJoin.inner(
+                lpvs(1, 2).iterator(), SourceIdKeys.LONG_PERIOD_VARIABLE,
+                classifications().iterator(), SourceIdKeys.CLASSIFIER_RESULT);
+        assertFalse(join.hasNext());
+    }
+
+    @Test
+    void unsortedLeftInputIsRejected() {
+        final Iterator<Joined<LongPeriodVariable, ClassifierResult>> join = SortMergeJoin.inner(
+                lpvs(5, 1).iterator(), SourceIdKeys.LONG_PERIOD_VARIABLE,
+                classifications(1, 5).iterator(), SourceIdKeys.CLASSIFIER_RESULT);
+        assertThrows(IllegalStateException.class, () -> drain(join));
+    }
+
+    @Test
+    void unsortedRightInputIsRejected() {
+        final Iterator<Joined<LongPeriodVariable, ClassifierResult>> join = SortMergeJoin.inner(
+                lpvs(1, 5, 9).iterator(), SourceIdKeys.LONG_PERIOD_VARIABLE,
+                classifications(1, 9, 5).iterator(), SourceIdKeys.CLASSIFIER_RESULT);
+        assertThrows(IllegalStateException.class, () -> drain(join));
+    }
+
+    static List<LongPeriodVariable> lpvs(final long... sourceIds) {
+        final List<LongPeriodVariable> records = new ArrayList<>();
+        for (final long sourceId : sourceIds) {
+            records.add(new LongPeriodVariable(
+                    1L, sourceId, new Dval(1.0, 0.1), false, new Dval(2.0, 0.2), new Dval(3.0, 0.3)));
+        }
+        return records;
+    }
+
+    static List<ClassifierResult> classifications(final long... sourceIds) {
+        final List<ClassifierResult> records = new ArrayList<>();
+        for (final long sourceId : sourceIds) {
+            records.add(new ClassifierResult(1L, sourceId, "nTransits:2+", ClassName.RRAB, 0.5));
+        }
+        return records;
+    }
+
+    private static <T> List<T> drain(final Iterator<T> iterator) {
+        final List<T> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+}
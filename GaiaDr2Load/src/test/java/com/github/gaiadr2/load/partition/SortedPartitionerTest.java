@@ -0,0 +1,165 @@
+package com.github.gaiadr2.load.partition;
+
+import com.github.gaiadr2.avro.index.BlockRange;
+import com.github.gaiadr2.avro.index.FileRange;
+import com.github.gaiadr2.avro.index.SparseIndex;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import com.github.gaiadr2.load.sort.CloseableIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link SortedPartitioner} and {@link SortedPartitions}
+ */
+final class SortedPartitionerTest {
+
+    private static final int SOURCES = 5_000;
+
+    private Path directory;
+    private Path output;
+    private List<String> lines;
+
+    @BeforeEach
+    void createDirectory() throws IOException, URISyntaxException {
+        directory = Files.createTempDirectory("partition");
+        output = Files.createDirectory(directory.resolve("output"));
+        final List<String> all = Files.readAllLines(
+                Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        lines = all.subList(1, all.size());
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void filesAreRangePartitionedAndIndexed() throws IOException {
+        final List<GaiaSource> sources = sources(new Random(3));
+        final long[] keys = sources.stream().mapToLong(GaiaSource::getSourceId).sorted().toArray();
+
+        final SparseIndex index = SortedPartitioner.gaiaSource(256 * 1024, directory, 400_000, 100)
+                .write(sources.iterator(), output, "GaiaSource");
+
+        assertEquals(index, IndexSidecar.read(IndexSidecar.pathFor(output)));
+        assertTrue(index.getFiles().size() > 1, index.toString());
+        long previous = Long.MIN_VALUE;
+        long records = 0;
+        for (final FileRange file : index.getFiles()) {
+            assertTrue(Files.exists(output.resolve(file.getFile().toString())));
+            assertTrue(file.getFirstKey() > previous, file.toString());
+            long fileRecords = 0;
+            for (final BlockRange block : file.getBlocks()) {
+                assertTrue(block.getFirstKey() > previous, block.toString());
+                assertTrue(block.getLastKey() >= block.getFirstKey(), block.toString());
+                previous = block.getLastKey();
+                fileRecords += block.getRecords();
+            }
+            assertEquals(file.getFirstKey(), file.getBlocks().get(0).getFirstKey());
+            assertEquals(file.getLastKey().longValue(), previous);
+            assertEquals(file.getRecords().longValue(), fileRecords);
+            records += fileRecords;
+        }
+        assertEquals(SOURCES, records);
+        assertEquals(keys[0], index.getFiles().get(0).getFirstKey().longValue());
+        assertEquals(keys[keys.length - 1], previous);
+
+        final SortedPartitions<GaiaSource> partitions = SortedPartitions.gaiaSource(output);
+        assertEquals(toList(keys), scanned(partitions.scan()));
+        final long from = keys[SOURCES / 3];
+        final long to = keys[2 * SOURCES / 3] - 1;
+        assertEquals(toList(Arrays.stream(keys).filter(key -> key >= from && key <= to).toArray()),
+                scanned(partitions.scan(from, to)));
+        assertEquals(Collections.emptyList(), scanned(partitions.scan(to, from)));
+        for (int i = 0; i < SOURCES; i += 37) {
+            final long key = keys[i];
+            final List<GaiaSource> found = partitions.find(key);
+            assertEquals(Arrays.stream(keys).filter(k -> k == key).count(), found.size());
+            for (final GaiaSource source : found) {
+                assertEquals(key, source.getSourceId().longValue());
+            }
+        }
+        assertEquals(0, partitions.find(keys[0] - 1).size());
+        assertEquals(0, partitions.find(keys[keys.length - 1] + 1).size());
+    }
+
+    @Test
+    void unsortedRecordsAreRejected() throws IOException {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final GaiaSource first = interpreter.apply(lines.get(0));
+        final GaiaSource second = interpreter.apply(lines.get(1));
+        first.setSourceId(2L);
+        second.setSourceId(1L);
+
+        assertThrows(IllegalStateException.class, () -> SortedPartitioner.gaiaSource(1 << 20, directory, 1 << 20, 10)
+                .writeSorted(Arrays.asList(first, second).iterator(), output, "GaiaSource"));
+    }
+
+    @Test
+    void emptyInputWritesAnEmptyIndex() throws IOException {
+        final SparseIndex index = SortedPartitioner.gaiaSource(1 << 20, directory, 1 << 20, 10)
+                .write(Collections.<GaiaSource>emptyList().iterator(), output, "GaiaSource");
+
+        assertTrue(index.getFiles().isEmpty());
+        assertEquals(0, SortedPartitions.gaiaSource(output).find(1L).size());
+        assertEquals(Collections.emptyList(), scanned(SortedPartitions.gaiaSource(output).scan()));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SortedPartitioner.gaiaSource(1, directory, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> SortedPartitioner.gaiaSource(1, directory, 1, 0));
+    }
+
+    /**
+     * @return Sources in random order, some of them sharing their identifier
+     */
+    private List<GaiaSource> sources(final Random random) {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<GaiaSource> sources = new ArrayList<>();
+        for (int i = 0; i < SOURCES; i++) {
+            final GaiaSource source = interpreter.apply(lines.get(i % lines.size()));
+            source.setSourceId(i % 10 == 0 && i > 0
+                    ? sources.get(random.nextInt(i)).getSourceId()
+                    : (long) random.nextInt(12 << 24) << 35 | i);
+            sources.add(source);
+        }
+        return sources;
+    }
+
+    private static List<Long> scanned(final CloseableIterator<GaiaSource> records) throws IOException {
+        final List<Long> keys = new ArrayList<>();
+        try (CloseableIterator<GaiaSource> iterator = records) {
+            iterator.forEachRemaining(source -> keys.add(source.getSourceId()));
+        }
+        return keys;
+    }
+
+    private static List<Long> toList(final long[] keys) {
+        return Arrays.stream(keys).boxed().collect(Collectors.toList());
+    }
+}
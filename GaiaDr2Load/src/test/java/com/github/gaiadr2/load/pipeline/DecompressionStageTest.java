@@ -0,0 +1,195 @@
+package com.github.gaiadr2.load.pipeline;
+
+import com.github.gaiadr2.load.sort.CloseableIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link DecompressionStage}
+ */
+final class DecompressionStageTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("inflate");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void linesOfEveryFileAreReadInOrder() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            files.add(write("part-" + i + ".csv.gz", i * 1_000, (i + 1) * 1_000));
+        }
+        files.add(write("empty.csv.gz", 0, 0));
+
+        final List<Long> read = new ArrayList<>();
+        try (DecompressionStage stage = new DecompressionStage(files, 3, 2, 1_000);
+             CloseableIterator<String> lines = stage.lines(true)) {
+            assertTimeoutPreemptively(TIMEOUT, () -> lines.forEachRemaining(line -> read.add(Long.parseLong(line))));
+            assertEquals(3, stage.stats().getThreads());
+            assertTrue(stage.stats().getItems() > 10, stage.stats().toString());
+            assertTrue(stage.getStarvedNanos() >= 0);
+        }
+
+        assertEquals(range(0, 10_000), read);
+    }
+
+    @Test
+    void abandonedFilesReleaseTheirBuffers() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            files.add(write("part-" + i + ".csv.gz", i * 10_000, (i + 1) * 10_000));
+        }
+
+        try (DecompressionStage stage = new DecompressionStage(files, 1, 1, 100)) {
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                for (int i = 0; i < 5; i++) {
+                    try (InputStream stream = stage.next()) {
+                        assertEquals('n', stream.read());
+                    }
+                }
+                assertNull(stage.next());
+            });
+        }
+    }
+
+    @Test
+    void filesAreReadConcurrently() throws Exception {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(write("part-" + i + ".csv.gz", i * 5_000, (i + 1) * 5_000));
+        }
+        final ConcurrentLinkedQueue<Long> read = new ConcurrentLinkedQueue<>();
+
+        try (DecompressionStage stage = new DecompressionStage(files, 2, 2, 4096)) {
+            final List<Thread> readers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                readers.add(new Thread(() -> {
+                    InputStream stream;
+                    while ((stream = stage.next()) != null) {
+                        try (InputStream in = stream) {
+                            final String content = new String(readAll(in), StandardCharsets.UTF_8);
+                            for (final String line : content.split("\n")) {
+                                if (!line.startsWith("number")) {
+                                    read.add(Long.parseLong(line));
+                                }
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }));
+            }
+            readers.forEach(Thread::start);
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                for (final Thread reader : readers) {
+                    reader.join();
+                }
+            });
+        }
+
+        final List<Long> sorted = new ArrayList<>(read);
+        Collections.sort(sorted);
+        assertEquals(range(0, 40_000), sorted);
+    }
+
+    @Test
+    void corruptFileFailsItsReader() throws IOException {
+        final Path corrupt = Files.write(directory.resolve("corrupt.csv.gz"), new byte[]{1, 2, 3, 4, 5});
+
+        try (DecompressionStage stage = new DecompressionStage(Collections.singletonList(corrupt), 1, 1, 100);
+             CloseableIterator<String> lines = stage.lines(false)) {
+            final UncheckedIOException failure = assertTimeoutPreemptively(TIMEOUT,
+                    () -> assertThrows(UncheckedIOException.class, lines::hasNext));
+            assertTrue(failure.getCause().getMessage().contains("corrupt.csv.gz"), failure.getMessage());
+        }
+    }
+
+    @Test
+    void closingStopsInflaters() throws IOException {
+        final Path file = write("big.csv.gz", 0, 100_000);
+        final DecompressionStage stage = new DecompressionStage(Collections.singletonList(file), 1, 1, 100);
+        final InputStream stream = stage.next();
+        assertEquals('n', stream.read());
+
+        assertTimeoutPreemptively(TIMEOUT, stage::close);
+
+        assertThrows(IOException.class, () -> readAll(stream));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        final List<Path> none = Collections.emptyList();
+        assertThrows(IllegalArgumentException.class, () -> new DecompressionStage(none, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new DecompressionStage(none, 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new DecompressionStage(none, 1, 1, 0));
+    }
+
+    private Path write(final String name, final long from, final long to) throws IOException {
+        final Path file = directory.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write("number\n");
+            for (long i = from; i < to; i++) {
+                writer.write(Long.toString(i));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[777];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Long> range(final long from, final long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+}
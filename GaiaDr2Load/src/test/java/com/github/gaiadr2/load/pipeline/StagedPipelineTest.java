@@ -0,0 +1,219 @@
+package com.github.gaiadr2.load.pipeline;
+
+import com.github.gaiadr2.load.exception.PipelineFailure;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link StagedPipeline}
+ */
+final class StagedPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final ConcurrentLinkedQueue<Long> written = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger closedSinks = new AtomicInteger();
+
+    @Test
+    void everyRecordIsWrittenOnce() {
+        final int count = 10_000;
+        final StagedPipeline<Long> pipeline = new StagedPipeline<>(
+                lines(count), () -> Long::parseLong, CollectingSink::new, 3, 2, 7, 2);
+
+        final List<StageStats> stats = assertTimeoutPreemptively(TIMEOUT, pipeline::run);
+
+        final List<Long> sorted = new ArrayList<>(written);
+        Collections.sort(sorted);
+        assertEquals(LongStream.range(0, count).boxed().collect(Collectors.toList()), sorted);
+        assertEquals(2, closedSinks.get());
+        assertEquals(3, stats.size());
+        for (final StageStats stage : stats) {
+            assertEquals(count, stage.getItems(), stage.getName());
+            assertTrue(stage.getUtilization() >= 0.0 && stage.getUtilization() <= 1.0, stage.toString());
+        }
+        assertThrows(IllegalStateException.class, pipeline::run);
+    }
+
+    @Test
+    void emptyInputCompletes() {
+        final StagedPipeline<Long> pipeline = new StagedPipeline<>(
+                lines(0), () -> Long::parseLong, CollectingSink::new, 2, 2, 10, 1);
+        assertTimeoutPreemptively(TIMEOUT, pipeline::run);
+        assertTrue(written.isEmpty());
+        assertEquals(2, closedSinks.get());
+    }
+
+    @Test
+    void parserFailureStopsThePipeline() {
+        final IllegalArgumentException error = new IllegalArgumentException("bad line");
+        final Function<String, Long> parser = line -> {
+            if (line.equals("5000")) {
+                throw error;
+            }
+            return Long.parseLong(line);
+        };
+        final StagedPipeline<Long> pipeline = new StagedPipeline<>(
+                lines(Long.MAX_VALUE), () -> parser, CollectingSink::new, 4, 2, 16, 4);
+
+        final PipelineFailure failure = assertThrows(
+                PipelineFailure.class,
+                () -> assertTimeoutPreemptively(TIMEOUT, pipeline::run));
+        assertSame(error, failure.getCause());
+        assertEquals(2, closedSinks.get());
+    }
+
+    @Test
+    void writerFailureStopsTheReader() {
+        final StagedPipeline<Long> pipeline = new StagedPipeline<>(
+                lines(Long.MAX_VALUE),
+                () -> Long::parseLong,
+                () -> new CollectingSink() {
+                    @Override
+                    public void write(final Long record) throws IOException {
+                        if (record == 1234) {
+                            throw new IOException("disk full");
+                        }
+                        super.write(record);
+                    }
+                },
+                2, 1, 32, 2);
+
+        final PipelineFailure failure = assertThrows(
+                PipelineFailure.class,
+                () -> assertTimeoutPreemptively(TIMEOUT, pipeline::run));
+        assertTrue(failure.getCause() instanceof IOException);
+        assertEquals(1, closedSinks.get());
+    }
+
+    @Test
+    void slowWriterHoldsBackTheReader() {
+        final int batchSize = 10;
+        final int ringCapacity = 3;
+        final AtomicLong read = new AtomicLong();
+        final Iterator<String> source = lines(5_000);
+        final Iterator<String> counting = new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public String next() {
+                read.incrementAndGet();
+                return source.next();
+            }
+        };
+        final AtomicLong maxInFlight = new AtomicLong();
+        final StagedPipeline<Long> pipeline = new StagedPipeline<>(
+                counting,
+                () -> Long::parseLong,
+                () -> new CollectingSink() {
+                    @Override
+                    public void write(final Long record) throws IOException {
+                        super.write(record);
+                        maxInFlight.accumulateAndGet(read.get() - written.size(), Math::max);
+                        if (record % 100 == 0) {
+                            try {
+                                Thread.sleep(1);
+                            } catch (final InterruptedException e) {
+                                throw new IOException(e);
+                            }
+                        }
+                    }
+                },
+                2, 1, batchSize, ringCapacity);
+
+        final List<StageStats> stats = assertTimeoutPreemptively(TIMEOUT, pipeline::run);
+
+        assertEquals(5_000, written.size());
+        // Line batches and record batches in flight, plus the batch being written
+        assertTrue(maxInFlight.get() <= (2 * ringCapacity + 1) * batchSize, String.valueOf(maxInFlight.get()));
+        assertTrue(stats.get(0).getOutputWaitFraction() > 0.0, stats.get(0).toString());
+    }
+
+    @Test
+    void interruptedRunReturnsOnceEverySinkIsClosed() throws InterruptedException {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final StagedPipeline<Long> pipeline = new StagedPipeline<>(
+                lines(Long.MAX_VALUE),
+                () -> Long::parseLong,
+                () -> new CollectingSink() {
+                    @Override
+                    public void write(final Long record) throws IOException {
+                        writing.countDown();
+                        // A write that does not notice the interrupt, e.g. to a file channel
+                        final long end = System.nanoTime() + 20_000_000L;
+                        while (System.nanoTime() < end) {
+                            Thread.yield();
+                        }
+                        super.write(record);
+                    }
+                },
+                1, 2, 4, 1);
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final AtomicInteger closedOnReturn = new AtomicInteger(-1);
+        final Thread runner = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (final Throwable e) {
+                closedOnReturn.set(closedSinks.get());
+                thrown.set(e);
+            }
+        });
+        runner.start();
+
+        writing.await();
+        runner.interrupt();
+        runner.join(TIMEOUT.toMillis());
+
+        assertTrue(thrown.get() instanceof PipelineFailure, String.valueOf(thrown.get()));
+        assertEquals(2, closedOnReturn.get());
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new StagedPipeline<>(lines(1), () -> Long::parseLong, CollectingSink::new, 0, 1, 1, 1));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new StagedPipeline<>(lines(1), () -> Long::parseLong, CollectingSink::new, 1, 1, 1, 0));
+    }
+
+    private static Iterator<String> lines(final long count) {
+        return LongStream.range(0, count).mapToObj(Long::toString).iterator();
+    }
+
+    private class CollectingSink implements RecordSink<Long> {
+
+        @Override
+        public void write(final Long record) throws IOException {
+            written.add(record);
+        }
+
+        @Override
+        public void close() {
+            closedSinks.incrementAndGet();
+        }
+    }
+}
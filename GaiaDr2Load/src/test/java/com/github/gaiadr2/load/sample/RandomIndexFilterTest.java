@@ -0,0 +1,88 @@
+package com.github.gaiadr2.load.sample;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.exception.EmptyColumnFailure;
+import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import com.github.gaiadr2.load.stream.GaiaSources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link RandomIndexFilter}
+ */
+final class RandomIndexFilterTest {
+
+    private Path file;
+    private List<String> lines;
+
+    @BeforeEach
+    void readLines() throws Exception {
+        file = Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI());
+        lines = Files.readAllLines(file).subList(1, 7);
+    }
+
+    @Test
+    void keysAreReadFromTheFirstColumns() {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        for (final String line : lines) {
+            final GaiaSource source = interpreter.apply(line);
+            assertEquals(source.getRandomIndex().longValue(), RandomIndexFilter.randomIndex(line));
+            assertEquals(source.getSourceId().longValue(), RandomIndexFilter.sourceId(line));
+        }
+    }
+
+    @Test
+    void linesBelowTheLimitAreSelected() throws Exception {
+        final long limit = 1_000_000_000L;
+        final RandomIndexFilter filter = new RandomIndexFilter(limit);
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<Long> expected = lines.stream()
+                .map(interpreter)
+                .filter(source -> source.getRandomIndex() < limit)
+                .map(GaiaSource::getSourceId)
+                .collect(Collectors.toList());
+        assertTrue(expected.size() > 0 && expected.size() < lines.size());
+
+        try (Stream<GaiaSource> sample = GaiaSources.sample(file, filter)) {
+            assertEquals(expected, sample.map(GaiaSource::getSourceId).collect(Collectors.toList()));
+        }
+        for (final String line : lines) {
+            assertTrue(filter.test(line) || !new RandomIndexFilter(limit / 2).test(line));
+        }
+    }
+
+    @Test
+    void fractionsOfTheTable() {
+        assertEquals(0L, RandomIndexFilter.fraction(0.0).getLimit());
+        assertEquals(RandomIndexFilter.GAIA_DR2_SOURCES, RandomIndexFilter.fraction(1.0).getLimit());
+        assertEquals(16_929_191L, RandomIndexFilter.fraction(0.01).getLimit());
+        for (final String line : lines) {
+            assertFalse(RandomIndexFilter.fraction(0.0).test(line));
+            assertTrue(RandomIndexFilter.fraction(1.0).test(line));
+        }
+        assertThrows(IllegalArgumentException.class, () -> RandomIndexFilter.fraction(1.5));
+        assertThrows(IllegalArgumentException.class, () -> RandomIndexFilter.fraction(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new RandomIndexFilter(-1L));
+    }
+
+    @Test
+    void invalidIndicesAreRejected() {
+        final RandomIndexFilter filter = RandomIndexFilter.fraction(0.5);
+        assertThrows(NonCompliantColumnFailure.class, () -> filter.test("1,Gaia DR2 2,2,abc,2015.5"));
+        assertThrows(EmptyColumnFailure.class, () -> filter.test("1,Gaia DR2 2,2,,2015.5"));
+        assertThrows(IllegalArgumentException.class, () -> filter.test("1,Gaia DR2 2,2"));
+    }
+}
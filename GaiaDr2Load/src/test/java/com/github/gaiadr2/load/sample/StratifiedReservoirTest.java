@@ -0,0 +1,111 @@
+package com.github.gaiadr2.load.sample;
+
+import com.github.gaiadr2.load.stats.HealpixMaps;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link StratifiedReservoir}
+ */
+final class StratifiedReservoirTest {
+
+    private static final int LEVEL = 2;
+    private static final int CAPACITY = 10;
+    private static final int SOURCES = 50_000;
+
+    @Test
+    void lowestRandomIndicesAreKeptInEveryPixel() {
+        final long[] sourceIds = sourceIds();
+        final StratifiedReservoir<Integer> reservoir = new StratifiedReservoir<>(LEVEL, CAPACITY);
+        for (int i = 0; i < SOURCES; i++) {
+            reservoir.add(sourceIds[i], i, i);
+        }
+
+        assertEquals(expected(sourceIds), reservoir.sample());
+        assertEquals(HealpixMaps.pixels(LEVEL), reservoir.getPixels());
+        assertEquals(HealpixMaps.pixels(LEVEL) * CAPACITY, reservoir.size());
+    }
+
+    @Test
+    void mergedReservoirsEqualTheReservoirOfTheWholeInput() {
+        final long[] sourceIds = sourceIds();
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < SOURCES; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(3));
+
+        final StratifiedReservoir<Integer> merged = order.parallelStream().collect(
+                () -> new StratifiedReservoir<>(LEVEL, CAPACITY),
+                (reservoir, i) -> reservoir.add(sourceIds[i], i, i),
+                StratifiedReservoir::merge);
+        final StratifiedReservoir<Integer> first = new StratifiedReservoir<>(LEVEL, CAPACITY);
+        final StratifiedReservoir<Integer> second = new StratifiedReservoir<>(LEVEL, CAPACITY);
+        for (int k = 0; k < SOURCES; k++) {
+            final int i = order.get(k);
+            (k % 3 == 0 ? first : second).add(sourceIds[i], i, i);
+        }
+
+        assertEquals(expected(sourceIds), merged.sample());
+        assertEquals(expected(sourceIds), first.merge(second).sample());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new StratifiedReservoir<>(LEVEL, 5)));
+    }
+
+    @Test
+    void csvLinesAreSampledWithoutInterpretation() throws Exception {
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()))
+                .subList(1, 7);
+
+        final StratifiedReservoir<String> reservoir = lines.parallelStream().collect(StratifiedReservoir.lines(0, 1));
+
+        for (final String line : reservoir.sample()) {
+            final int pixel = HealpixMaps.pixel(RandomIndexFilter.sourceId(line), 0);
+            final long lowest = lines.stream()
+                    .filter(other -> HealpixMaps.pixel(RandomIndexFilter.sourceId(other), 0) == pixel)
+                    .mapToLong(RandomIndexFilter::randomIndex)
+                    .min()
+                    .getAsLong();
+            assertEquals(lowest, RandomIndexFilter.randomIndex(line));
+        }
+        assertEquals(reservoir.getPixels(), reservoir.size());
+        assertThrows(IllegalArgumentException.class, () -> new StratifiedReservoir<String>(13, 1));
+        assertThrows(IllegalArgumentException.class, () -> new StratifiedReservoir<String>(0, 0));
+    }
+
+    /**
+     * @return Identifiers spread over the pixels, the random index of a source being its position
+     */
+    private static long[] sourceIds() {
+        final Random random = new Random(7);
+        final long[] sourceIds = new long[SOURCES];
+        for (int i = 0; i < SOURCES; i++) {
+            sourceIds[i] = (long) random.nextInt(HealpixMaps.pixels(HealpixMaps.MAX_LEVEL)) << 35 | i;
+        }
+        return sourceIds;
+    }
+
+    /**
+     * @return Per pixel in ascending order, the first sources of the pixel
+     */
+    private static List<Integer> expected(final long[] sourceIds) {
+        final List<Integer> expected = new ArrayList<>();
+        for (int pixel = 0; pixel < HealpixMaps.pixels(LEVEL); pixel++) {
+            final int current = pixel;
+            IntStream.range(0, SOURCES)
+                    .filter(i -> HealpixMaps.pixel(sourceIds[i], LEVEL) == current)
+                    .limit(CAPACITY)
+                    .forEach(expected::add);
+        }
+        return expected;
+    }
+}
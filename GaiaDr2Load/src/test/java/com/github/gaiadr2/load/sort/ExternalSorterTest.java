@@ -0,0 +1,136 @@
+package com.github.gaiadr2.load.sort;
+
+import com.github.gaiadr2.avro.vari.ClassName;
+import com.github.gaiadr2.avro.vari.ClassifierResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link ExternalSorter}
+ */
+class ExternalSorterTest {
+
+    private Path spill;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        spill = Files.createTempDirectory("sorter");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(spill)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {4_096L, 65_536L, 100_000_000L})
+    void recordsAreSortedWhateverTheBudget(final long budget) throws IOException {
+        final Random rng = new Random(1234L);
+        final List<ClassifierResult> input = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            input.add(record(rng.nextInt(1_000), i));
+        }
+
+        final ExternalSorter<ClassifierResult> sorter = new ExternalSorter<>(
+                ClassifierResult.getClassSchema(),
+                ClassifierResult::getSourceId,
+                budget,
+                spill);
+
+        final List<ClassifierResult> output = new ArrayList<>();
+        try (CloseableIterator<ClassifierResult> sorted = sorter.sort(input.iterator())) {
+            sorted.forEachRemaining(output::add);
+        }
+
+        assertSorted(input, output);
+    }
+
+    @Test
+    void runsBeyondTheFanInAreMergedInSeveralPasses() throws IOException {
+        final Random rng = new Random(5678L);
+        final List<ClassifierResult> input = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            input.add(record(rng.nextInt(1_000), i));
+        }
+
+        final ExternalSorter<ClassifierResult> sorter = new ExternalSorter<>(
+                ClassifierResult.getClassSchema(),
+                ClassifierResult::getSourceId,
+                2_048L,
+                spill,
+                3);
+
+        final List<ClassifierResult> output = new ArrayList<>();
+        try (CloseableIterator<ClassifierResult> sorted = sorter.sort(input.iterator())) {
+            // Over a hundred runs were spilled, merged down to the fan-in, itself 2 within this budget
+            try (Stream<Path> files = Files.list(spill)) {
+                final long runs = files.count();
+                assertTrue(runs > 0 && runs <= 3, String.valueOf(runs));
+            }
+            sorted.forEachRemaining(output::add);
+        }
+
+        assertSorted(input, output);
+    }
+
+    @Test
+    void nonPositiveBudgetIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSorter<>(
+                ClassifierResult.getClassSchema(),
+                ClassifierResult::getSourceId,
+                0L,
+                spill));
+    }
+
+    private void assertSorted(final List<ClassifierResult> input, final List<ClassifierResult> output)
+            throws IOException {
+        assertEquals(input.size(), output.size());
+        for (int i = 1; i < output.size(); i++) {
+            final ClassifierResult previous = output.get(i - 1);
+            final ClassifierResult current = output.get(i);
+            assertTrue(previous.getSourceId() <= current.getSourceId());
+            if (previous.getSourceId().equals(current.getSourceId())) {
+                // Stable: equal keys keep their input order
+                assertTrue(previous.getBestClassScore() < current.getBestClassScore());
+            }
+        }
+        try (Stream<Path> files = Files.list(spill)) {
+            assertEquals(0L, files.count());
+        }
+    }
+
+    @Test
+    void fanInBelowTwoIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSorter<>(
+                ClassifierResult.getClassSchema(),
+                ClassifierResult::getSourceId,
+                1L << 30,
+                spill,
+                1));
+    }
+
+    private static ClassifierResult record(final long sourceId, final int sequence) {
+        return new ClassifierResult(1L, sourceId, "classifier", ClassName.MIRA_SR, (double) sequence);
+    }
+}
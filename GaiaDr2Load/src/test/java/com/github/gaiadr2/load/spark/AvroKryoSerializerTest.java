@@ -0,0 +1,118 @@
+package com.github.gaiadr2.load.spark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.PhotMode;
+import com.github.gaiadr2.avro.stats.ColumnStats;
+import com.github.gaiadr2.avro.stats.Histogram;
+import com.github.gaiadr2.avro.stats.TableStats;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.apache.avro.specific.SpecificRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link AvroKryoSerializer} and {@link GaiaKryoRegistrator}
+ */
+final class AvroKryoSerializerTest {
+
+    private final Kryo kryo = new Kryo();
+
+    @BeforeEach
+    void register() {
+        kryo.setRegistrationRequired(true);
+        new GaiaKryoRegistrator().registerClasses(kryo);
+    }
+
+    @Test
+    void everyRecordClassHasAnAvroSerializer() {
+        for (final Class<? extends SpecificRecord> type : GaiaKryoRegistrator.RECORDS) {
+            assertTrue(kryo.getSerializer(type) instanceof AvroKryoSerializer, type.getName());
+        }
+    }
+
+    @Test
+    void sourcesAreReadBackInSequence() throws IOException, URISyntaxException {
+        final List<GaiaSource> sources = sources();
+        final Output output = new Output(1024, -1);
+        for (final GaiaSource source : sources) {
+            kryo.writeClassAndObject(output, source);
+        }
+        kryo.writeClassAndObject(output, PhotMode.Silver);
+
+        final Input input = new Input(output.toBytes());
+        final List<Object> read = new ArrayList<>();
+        for (int i = 0; i <= sources.size(); i++) {
+            read.add(kryo.readClassAndObject(input));
+        }
+
+        assertEquals(new ArrayList<Object>(sources), read.subList(0, sources.size()));
+        assertEquals(PhotMode.Silver, read.get(sources.size()));
+        assertTrue(input.eof());
+    }
+
+    @Test
+    void sourcesAreSmallerThanJavaSerialized() throws IOException, URISyntaxException {
+        final GaiaSource source = sources().get(0);
+        final Output output = new Output(1024, -1);
+        kryo.writeClassAndObject(output, source);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(source);
+        }
+
+        assertTrue(output.position() < bytes.size(), output.position() + " vs " + bytes.size());
+    }
+
+    @Test
+    void nestedRecordsAndArraysAreReadBack() {
+        final ColumnStats column = new ColumnStats("phot_g_mean_mag", 10L, 1L, 0L, 0L, 0L, 3.0, 21.0, 15.0, 4.0,
+                new Histogram(2.0, 22.0, Arrays.asList(1L, 2L, 3L), 0L, 0L));
+        final ColumnStats text = new ColumnStats("designation", 10L, 0L, 10L, 0L, 0L, null, null, null, null, null);
+        final TableStats stats = new TableStats(10L, Arrays.asList(column, text));
+        final Output output = new Output(256, -1);
+
+        kryo.writeObject(output, stats);
+        final TableStats read = kryo.readObject(new Input(output.toBytes()), TableStats.class);
+
+        assertEquals(stats, read);
+        assertEquals("designation", read.getColumns().get(1).getColumn().toString());
+    }
+
+    @Test
+    void copiesAreDeep() throws IOException, URISyntaxException {
+        final GaiaSource source = sources().get(0);
+
+        final GaiaSource copy = kryo.copy(source);
+
+        assertEquals(source, copy);
+        assertNotSame(source.getBasicAstrometry(), copy.getBasicAstrometry());
+    }
+
+    private List<GaiaSource> sources() throws IOException, URISyntaxException {
+        final List<String> lines = Files.readAllLines(
+                Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<GaiaSource> sources = new ArrayList<>();
+        for (final String line : lines.subList(1, lines.size())) {
+            sources.add(interpreter.apply(line));
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.gaiadr2.load.spark;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.stats.Histogram;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.apache.avro.Schema;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.encoders.ExpressionEncoder;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link AvroRowConverter}
+ */
+final class AvroRowConverterTest {
+
+    private final AvroRowConverter converter = AvroRowConverter.gaiaSource();
+
+    @Test
+    void schemaMapsNestedAndOptionalRecords() {
+        final StructType schema = converter.getStructType();
+
+        assertEquals(GaiaSource.getClassSchema().getFields().size(), schema.fields().length);
+        final StructField sourceId = schema.apply("sourceId");
+        assertEquals(DataTypes.LongType, sourceId.dataType());
+        assertFalse(sourceId.nullable());
+        final StructType core = (StructType) schema.apply("basicAstrometry").dataType();
+        assertFalse(schema.apply("basicAstrometry").nullable());
+        final StructType ra = (StructType) core.apply("ra").dataType();
+        assertEquals(DataTypes.DoubleType, ra.apply("value").dataType());
+        assertEquals(DataTypes.DoubleType, ra.apply("uncertainty").dataType());
+        assertEquals(DataTypes.FloatType, core.apply("correlationRaDec").dataType());
+        assertTrue(schema.apply("fullAstrometry").nullable());
+        assertTrue(schema.apply("radialVelocity").nullable());
+        final StructType colour = (StructType) schema.apply("colourInfo").dataType();
+        assertTrue(colour.apply("bp_rp").nullable());
+        assertEquals(DataTypes.FloatType, colour.apply("bp_rp").dataType());
+        assertEquals(DataTypes.StringType, schema.apply("photMode").dataType());
+        final StructType meta = (StructType) schema.apply("astroMeta").dataType();
+        assertEquals(DataTypes.IntegerType, meta.apply("numObsAl").dataType());
+        assertEquals(DataTypes.BooleanType, meta.apply("isPrimary").dataType());
+    }
+
+    @Test
+    void sourcesAreConvertedToRows() throws IOException, URISyntaxException {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final ExpressionEncoder<Row> encoder = GaiaSourceDatasets.encoder();
+        for (final String line : lines()) {
+            final GaiaSource source = interpreter.apply(line);
+
+            final Row row = converter.toRow(source);
+            final InternalRow internal = converter.toInternalRow(source);
+            final InternalRow encoded = encoder.toRow(row);
+
+            assertEquals(source.getSourceId(), row.getAs("sourceId"));
+            final Row core = row.getAs("basicAstrometry");
+            assertEquals(source.getBasicAstrometry().getRa().getValue(), core.<Row>getAs("ra").getDouble(0), 1E-30);
+            assertEquals(source.getPhotMode().name(), row.getAs("photMode"));
+            assertEquals(source.getFullAstrometry() == null, row.isNullAt(row.fieldIndex("fullAstrometry")));
+            assertEquals(source.getRadialVelocity() == null, row.isNullAt(row.fieldIndex("radialVelocity")));
+            assertEquals(source.getColourInfo().getBpRp(), row.<Row>getAs("colourInfo").getAs("bp_rp"));
+
+            for (final InternalRow catalyst : Arrays.asList(internal, encoded)) {
+                final int coreIndex = row.fieldIndex("basicAstrometry");
+                assertEquals(source.getSourceId().longValue(), catalyst.getLong(row.fieldIndex("sourceId")));
+                assertEquals(source.getBasicAstrometry().getDec().getUncertainty(),
+                        catalyst.getStruct(coreIndex, 8).getStruct(2, 2).getDouble(1), 1E-30);
+                assertEquals(source.getPhotMode().name(),
+                        catalyst.getUTF8String(row.fieldIndex("photMode")).toString());
+                assertEquals(source.getAstrophysicalParameters() == null,
+                        catalyst.isNullAt(row.fieldIndex("astrophysicalParameters")));
+            }
+        }
+    }
+
+    @Test
+    void arraysAreConverted() {
+        final AvroRowConverter histograms = new AvroRowConverter(Histogram.getClassSchema());
+        final Histogram histogram = new Histogram(0.0, 1.0, Arrays.asList(3L, 4L), 1L, 2L);
+
+        assertEquals(new ArrayType(DataTypes.LongType, false), histograms.getStructType().apply("counts").dataType());
+        assertEquals(Arrays.asList(3L, 4L), histograms.toRow(histogram).getList(2));
+        assertEquals(4L, histograms.toInternalRow(histogram).getArray(2).getLong(1));
+    }
+
+    @Test
+    void unsupportedSchemasAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AvroRowConverter(Schema.create(Schema.Type.LONG)));
+        final Schema union = Schema.createUnion(Arrays.asList(
+                Schema.create(Schema.Type.LONG), Schema.create(Schema.Type.STRING)));
+        final Schema record = Schema.createRecord("Choice", null, "test", false);
+        record.setFields(Arrays.asList(new Schema.Field("value", union, null, (Object) null)));
+        assertThrows(IllegalArgumentException.class, () -> new AvroRowConverter(record));
+    }
+
+    @Test
+    void nullableFieldsAreConverted() {
+        final GaiaSource source = new GaiaSourceInterpreter().apply(firstLine());
+        source.setFullAstrometry(null);
+
+        final Row row = converter.toRow(source);
+
+        assertNull(row.get(row.fieldIndex("fullAstrometry")));
+        assertTrue(converter.toInternalRow(source).isNullAt(row.fieldIndex("fullAstrometry")));
+    }
+
+    private List<String> lines() throws IOException, URISyntaxException {
+        final List<String> lines = Files.readAllLines(
+                Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        return lines.subList(1, lines.size());
+    }
+
+    private String firstLine() {
+        try {
+            return lines().get(0);
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.stats.ColumnStats;
+import com.github.gaiadr2.avro.stats.TableStats;
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.exception.NonCompliantColumnFailure;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link ColumnStatistics}
+ */
+final class ColumnStatisticsTest {
+
+    private List<String> lines;
+
+    @BeforeEach
+    void readLines() throws Exception {
+        final List<String> all = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        lines = all.subList(1, all.size());
+    }
+
+    @Test
+    void statisticsMatchTheInterpretedValues() {
+        final ColumnStatistics<GaiaSourceSpec> statistics = ColumnStatistics.gaiaSource();
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter(statistics);
+        final List<GaiaSource> sources = new ArrayList<>();
+        for (final String line : lines) {
+            sources.add(interpreter.apply(line));
+        }
+
+        final TableStats stats = statistics.summarize();
+
+        assertEquals(lines.size(), stats.getRows().longValue());
+        assertEquals(GaiaSourceSpec.values().length, stats.getColumns().size());
+        final ColumnStats ra = column(stats, GaiaSourceSpec.Ra);
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (final GaiaSource source : sources) {
+            final double value = source.getBasicAstrometry().getRa().getValue();
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        final double mean = sum / sources.size();
+        double squares = 0;
+        for (final GaiaSource source : sources) {
+            final double delta = source.getBasicAstrometry().getRa().getValue() - mean;
+            squares += delta * delta;
+        }
+        assertEquals(sources.size(), ra.getCount().longValue());
+        assertEquals(0, ra.getNullCount().longValue());
+        assertEquals(min, ra.getMin(), 1E-30);
+        assertEquals(max, ra.getMax(), 1E-30);
+        assertEquals(mean, ra.getMean(), 1E-9);
+        assertEquals(squares / (sources.size() - 1), ra.getVariance(), 1E-9);
+        assertNull(ra.getHistogram());
+
+        final ColumnStats designation = column(stats, GaiaSourceSpec.Designation);
+        assertEquals(lines.size(), designation.getTextCount().longValue());
+        assertNull(designation.getMean());
+
+        final ColumnStats gMag = column(stats, GaiaSourceSpec.PhotGMeanMag);
+        long binned = gMag.getHistogram().getUnderflow() + gMag.getHistogram().getOverflow();
+        for (final long count : gMag.getHistogram().getCounts()) {
+            binned += count;
+        }
+        assertEquals(gMag.getCount() - gMag.getNullCount(), binned);
+        assertEquals(200, gMag.getHistogram().getCounts().size());
+    }
+
+    @Test
+    void nonFiniteValuesCountAsNull() {
+        final ColumnStatistics<GaiaSourceSpec> statistics = ColumnStatistics.gaiaSource();
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter(statistics);
+        for (final String line : lines) {
+            interpreter.apply(withColumn(line, GaiaSourceSpec.Parallax, "Infinity"));
+        }
+
+        final ColumnStats parallax = column(statistics.summarize(), GaiaSourceSpec.Parallax);
+        assertEquals(lines.size(), parallax.getNullCount().longValue());
+        assertNull(parallax.getMean());
+        assertEquals(0, parallax.getHistogram().getOverflow().longValue());
+    }
+
+    @Test
+    void booleansAreNotNumbers() {
+        final ColumnStatistics<GaiaSourceSpec> statistics = ColumnStatistics.gaiaSource();
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter(statistics);
+        long duplicated = 0;
+        for (final String line : lines) {
+            if (interpreter.apply(line).getDuplicated()) {
+                duplicated++;
+            }
+        }
+
+        final ColumnStats column = column(statistics.summarize(), GaiaSourceSpec.DuplicatedSource);
+        assertEquals(lines.size(), column.getBooleanCount().longValue());
+        assertEquals(duplicated, column.getTrueCount().longValue());
+        assertNull(column.getMin());
+        assertNull(column.getMean());
+    }
+
+    @Test
+    void failedLinesAreNotAccountedFor() {
+        final ColumnStatistics<GaiaSourceSpec> statistics = ColumnStatistics.gaiaSource();
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter(statistics);
+        interpreter.apply(lines.get(0));
+        assertThrows(NonCompliantColumnFailure.class,
+                () -> interpreter.apply(withColumn(lines.get(1), GaiaSourceSpec.Ra, "north")));
+        interpreter.apply(lines.get(2));
+
+        final TableStats stats = statistics.summarize();
+        assertEquals(2, stats.getRows().longValue());
+        final ColumnStats ra = column(stats, GaiaSourceSpec.Ra);
+        assertEquals(2, ra.getCount().longValue());
+        assertEquals(0, ra.getTextCount().longValue());
+    }
+
+    @Test
+    void threadsAccumulateSeparatelyAndMerge() throws InterruptedException {
+        final ColumnStatistics<GaiaSourceSpec> concurrent = ColumnStatistics.gaiaSource();
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter(concurrent);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    interpreter.apply(lines.get(i % lines.size()));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final ColumnStatistics<GaiaSourceSpec> sequential = ColumnStatistics.gaiaSource();
+        final GaiaSourceInterpreter single = new GaiaSourceInterpreter(sequential);
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 500; i++) {
+                single.apply(lines.get(i % lines.size()));
+            }
+        }
+
+        assertSameStats(sequential.summarize(), concurrent.summarize());
+    }
+
+    @Test
+    void summariesOfFilesMergeIntoTheSummaryOfTheRun() throws Exception {
+        final ColumnStatistics<GaiaSourceSpec> first = ColumnStatistics.gaiaSource();
+        final ColumnStatistics<GaiaSourceSpec> second = ColumnStatistics.gaiaSource();
+        final ColumnStatistics<GaiaSourceSpec> all = ColumnStatistics.gaiaSource();
+        for (int i = 0; i < lines.size(); i++) {
+            final ColumnStatistics<GaiaSourceSpec> part = i < 2 ? first : second;
+            new GaiaSourceInterpreter(part).apply(lines.get(i));
+            new GaiaSourceInterpreter(all).apply(lines.get(i));
+        }
+        final Path data = Files.createTempFile("part", ".parquet");
+        final Path sidecar = StatisticsSidecar.pathFor(data);
+        try {
+            StatisticsSidecar.write(first.summarize(), sidecar);
+            final TableStats read = StatisticsSidecar.read(sidecar);
+            assertEquals(first.summarize(), read);
+
+            assertSameStats(all.summarize(), ColumnStatistics.merge(read, second.summarize()));
+        } finally {
+            Files.deleteIfExists(sidecar);
+            Files.delete(data);
+        }
+    }
+
+    @Test
+    void statisticsOfDifferentColumnsCannotBeMerged() {
+        final TableStats source = ColumnStatistics.gaiaSource().summarize();
+        final TableStats other = new TableStats(0L, new ArrayList<>());
+        assertThrows(IllegalArgumentException.class, () -> ColumnStatistics.merge(source, other));
+    }
+
+    @Test
+    void valuesAreBinnedBetweenBounds() {
+        final Binning binning = new Binning(0.0, 10.0, 5);
+        assertEquals(-1, binning.bin(-0.1));
+        assertEquals(0, binning.bin(0.0));
+        assertEquals(0, binning.bin(1.99));
+        assertEquals(4, binning.bin(9.99));
+        assertEquals(5, binning.bin(10.0));
+        assertThrows(IllegalArgumentException.class, () -> new Binning(1.0, 1.0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new Binning(0.0, 1.0, 0));
+    }
+
+    private static String withColumn(final String line, final GaiaSourceSpec column, final String value) {
+        final String[] values = line.split(",", -1);
+        values[column.ordinal()] = value;
+        return String.join(",", values);
+    }
+
+    private static ColumnStats column(final TableStats stats, final GaiaSourceSpec column) {
+        return stats.getColumns().get(column.ordinal());
+    }
+
+    private static void assertSameStats(final TableStats expected, final TableStats actual) {
+        assertEquals(expected.getRows(), actual.getRows());
+        for (int i = 0; i < expected.getColumns().size(); i++) {
+            final ColumnStats left = expected.getColumns().get(i);
+            final ColumnStats right = actual.getColumns().get(i);
+            final String name = left.getColumn().toString();
+            assertEquals(left.getCount(), right.getCount(), name);
+            assertEquals(left.getNullCount(), right.getNullCount(), name);
+            assertEquals(left.getTextCount(), right.getTextCount(), name);
+            assertEquals(left.getBooleanCount(), right.getBooleanCount(), name);
+            assertEquals(left.getTrueCount(), right.getTrueCount(), name);
+            assertEquals(left.getMin(), right.getMin(), name);
+            assertEquals(left.getMax(), right.getMax(), name);
+            assertEquals(left.getHistogram(), right.getHistogram(), name);
+            if (left.getMean() != null) {
+                assertEquals(left.getMean(), right.getMean(), 1E-9 * (1 + Math.abs(left.getMean())), name);
+                assertEquals(left.getVariance(), right.getVariance(),
+                        1E-9 * (1 + Math.abs(left.getVariance())), name);
+            }
+        }
+    }
+}
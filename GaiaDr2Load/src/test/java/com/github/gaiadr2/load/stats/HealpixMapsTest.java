@@ -0,0 +1,210 @@
+package com.github.gaiadr2.load.stats;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import com.github.gaiadr2.load.pipeline.RecordSink;
+import com.github.gaiadr2.load.pipeline.StagedPipeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link HealpixMaps}, {@link SkyMap} and {@link SkyMapSink}
+ */
+final class HealpixMapsTest {
+
+    private final List<GaiaSource> sources = new ArrayList<>();
+    private List<String> lines;
+
+    @BeforeEach
+    void readSources() throws Exception {
+        final List<String> all = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        lines = all.subList(1, all.size());
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        for (final String line : lines) {
+            sources.add(interpreter.apply(line));
+        }
+    }
+
+    @Test
+    void pixelIsReadFromTheSourceIdentifier() {
+        final long pixel = 123_456_789L;
+        final long sourceId = (pixel << 35) | 0x7_FFFF_FFFFL;
+
+        assertEquals(pixel, HealpixMaps.pixel(sourceId, 12));
+        assertEquals(pixel >> 2, HealpixMaps.pixel(sourceId, 11));
+        assertEquals(pixel >> 24, HealpixMaps.pixel(sourceId, 0));
+        assertEquals(12, HealpixMaps.pixels(0));
+        assertEquals(12 * 4 * 4 * 4, HealpixMaps.pixels(3));
+        assertThrows(IllegalArgumentException.class, () -> new HealpixMaps(13));
+        assertThrows(IllegalArgumentException.class, () -> new HealpixMaps(HealpixMaps.MAX_MAP_LEVEL + 1));
+        assertThrows(IllegalArgumentException.class, () -> new HealpixMaps(-1));
+    }
+
+    @Test
+    void pixelsHoldTheCountsAndMeansOfTheirSources() {
+        final HealpixMaps maps = new HealpixMaps(5);
+        sources.forEach(maps);
+
+        final SkyMap map = maps.snapshot();
+
+        assertEquals(sources.size(), map.getTotal());
+        for (final GaiaSource source : sources) {
+            final int pixel = HealpixMaps.pixel(source.getSourceId(), 5);
+            double sum = 0;
+            int count = 0;
+            for (final GaiaSource other : sources) {
+                if (HealpixMaps.pixel(other.getSourceId(), 5) == pixel) {
+                    sum += other.getGPhot().getMag();
+                    count++;
+                }
+            }
+            assertEquals(count, map.getCount(pixel));
+            assertEquals(sum / count, map.getMeanG(pixel), 1E-5);
+        }
+    }
+
+    @Test
+    void threadMapsMergeIntoTheMapsOfAllSources() throws InterruptedException {
+        final HealpixMaps concurrent = new HealpixMaps(2);
+        final List<GaiaSource> random = randomSources(20_000);
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = offset; i < random.size(); i += 4) {
+                    concurrent.accept(random.get(i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final HealpixMaps sequential = new HealpixMaps(2);
+        random.forEach(sequential);
+
+        assertSameMaps(sequential.snapshot(), concurrent.snapshot());
+    }
+
+    @Test
+    void mapsAreWrittenAndMergedAcrossFiles() throws IOException {
+        final List<GaiaSource> random = randomSources(10_000);
+        final HealpixMaps first = new HealpixMaps(3);
+        final HealpixMaps second = new HealpixMaps(3);
+        final HealpixMaps all = new HealpixMaps(3);
+        for (int i = 0; i < random.size(); i++) {
+            (i < 3_000 ? first : second).accept(random.get(i));
+            all.accept(random.get(i));
+        }
+        final Path data = Files.createTempFile("part", ".parquet");
+        final Path file = SkyMap.pathFor(data);
+        try {
+            first.snapshot().write(file);
+            final SkyMap read = SkyMap.read(file);
+
+            assertEquals(3, read.getLevel());
+            assertSameMaps(first.snapshot(), read);
+            assertSameMaps(all.snapshot(), read.merge(second.snapshot()));
+            assertThrows(IllegalArgumentException.class, () -> read.merge(new HealpixMaps(4).snapshot()));
+            assertThrows(IOException.class, () -> SkyMap.read(data));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(data);
+        }
+    }
+
+    @Test
+    void pipelineWritesTheMapsOfEachFileWithoutASecondPass() throws IOException {
+        final Path directory = Files.createTempDirectory("maps");
+        final ColumnStatistics<GaiaSourceSpec> statistics = ColumnStatistics.gaiaSource();
+        final AtomicInteger files = new AtomicInteger();
+        final List<Path> written = new CopyOnWriteArrayList<>();
+        try {
+            new StagedPipeline<GaiaSource>(
+                    lines.iterator(),
+                    () -> new GaiaSourceInterpreter(statistics),
+                    () -> {
+                        final Path file = directory.resolve("part-" + files.getAndIncrement() + ".avro");
+                        written.add(file);
+                        return new SkyMapSink(new DiscardingSink(), file, 4);
+                    },
+                    1, 2, 3, 2).run();
+
+            long total = 0;
+            for (final Path file : written) {
+                final SkyMap map = SkyMap.read(SkyMap.pathFor(file));
+                assertEquals(4, map.getLevel());
+                total += map.getTotal();
+            }
+            assertEquals(2, written.size());
+            assertEquals(lines.size(), total);
+            assertEquals(lines.size(), statistics.summarize().getRows().longValue());
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private List<GaiaSource> randomSources(final int count) {
+        final Random random = new Random(7);
+        final List<GaiaSource> generated = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final GaiaSource source = GaiaSource.newBuilder(sources.get(i % sources.size())).build();
+            source.sourceId = ((long) random.nextInt(HealpixMaps.pixels(12)) << 35) | i;
+            source.gPhot.mag = (float) (12 + 8 * random.nextDouble());
+            source.colourInfo.bp_rp = random.nextInt(4) == 0 ? null : (float) (3 * random.nextDouble());
+            generated.add(source);
+        }
+        return generated;
+    }
+
+    private static void assertSameMaps(final SkyMap expected, final SkyMap actual) {
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getTotal(), actual.getTotal());
+        for (int pixel = 0; pixel < expected.getPixels(); pixel++) {
+            assertEquals(expected.getCount(pixel), actual.getCount(pixel));
+            assertClose(expected.getMeanG(pixel), actual.getMeanG(pixel));
+            assertClose(expected.getVarianceG(pixel), actual.getVarianceG(pixel));
+            assertClose(expected.getMeanBpRp(pixel), actual.getMeanBpRp(pixel));
+            assertClose(expected.getVarianceBpRp(pixel), actual.getVarianceBpRp(pixel));
+        }
+    }
+
+    private static void assertClose(final double expected, final double actual) {
+        if (Double.isNaN(expected)) {
+            assertTrue(Double.isNaN(actual), "Expected NaN but was " + actual);
+        } else {
+            assertEquals(expected, actual, 1E-9 * (1 + Math.abs(expected)));
+        }
+    }
+
+    private static final class DiscardingSink implements RecordSink<GaiaSource> {
+
+        @Override
+        public void write(final GaiaSource record) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
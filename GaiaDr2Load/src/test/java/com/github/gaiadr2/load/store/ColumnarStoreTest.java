@@ -0,0 +1,120 @@
+package com.github.gaiadr2.load.store;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.source.VarFlag;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link ColumnarStore}
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+final class ColumnarStoreTest {
+
+    private final List<GaiaSource> sources = new ArrayList<>();
+    private final ColumnarStore<GaiaSource> store = new ColumnarStore<>(GaiaSource.getClassSchema(), 2);
+
+    @BeforeAll
+    void loadCsvFile() throws IOException, URISyntaxException {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        for (final String line : lines.subList(1, lines.size())) {
+            final GaiaSource source = interpreter.apply(line);
+            sources.add(source);
+            assertEquals(sources.size() - 1, store.append(source));
+        }
+        assertFalse(sources.isEmpty());
+    }
+
+    @Test
+    void recordsAreRestored() {
+        GaiaSource reuse = null;
+        for (int row = 0; row < sources.size(); row++) {
+            final GaiaSource restored = store.get(row, reuse);
+            assertEquals(sources.get(row), restored);
+            if (reuse != null) {
+                assertSame(reuse, restored);
+            }
+            reuse = restored;
+        }
+    }
+
+    @Test
+    void cursorReadsColumns() {
+        final Column sourceId = store.column("sourceId", ColumnType.LONG);
+        final Column ra = store.column("basicAstrometry.ra.value", ColumnType.DOUBLE);
+        final Column parallax = store.column("fullAstrometry.parallax.value", ColumnType.DOUBLE);
+        final Column bpRp = store.column("colourInfo.bp_rp", ColumnType.FLOAT);
+        final Column varFlag = store.column("varFlag", ColumnType.ENUM);
+        final NullBitmap full = store.nullBitmap("fullAstrometry");
+        final NullBitmap colour = store.nullBitmap("colourInfo.bp_rp");
+
+        final Cursor<GaiaSource> cursor = store.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            final GaiaSource expected = sources.get(cursor.row());
+            assertEquals(expected.getSourceId().longValue(), cursor.getLong(sourceId));
+            assertEquals(expected.getBasicAstrometry().getRa().getValue(), cursor.getDouble(ra), 1E-30);
+            assertEquals(expected.getFullAstrometry() != null, cursor.isPresent(full));
+            if (expected.getFullAstrometry() != null) {
+                assertEquals(expected.getFullAstrometry().getParallax().getValue(), cursor.getDouble(parallax), 1E-30);
+            } else {
+                assertEquals(0.0, cursor.getDouble(parallax), 1E-30);
+            }
+            assertEquals(expected.getColourInfo().getBpRp() != null, cursor.isPresent(colour));
+            if (expected.getColourInfo().getBpRp() != null) {
+                assertEquals(expected.getColourInfo().getBpRp(), cursor.getFloat(bpRp), 1E-30f);
+            }
+            assertSame(expected.getVarFlag(), VarFlag.values()[cursor.getOrdinal(varFlag)]);
+            count++;
+        }
+        assertEquals(sources.size(), count);
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void columnsCoverEveryLeaf() {
+        assertEquals(89, store.getColumns().size());
+        assertTrue(store.getNullBitmaps().stream().anyMatch(b -> b.getName().equals("astrophysicalParameters")));
+        assertTrue(store.allocatedBytes() < 512 * 8);
+    }
+
+    @Test
+    void rejectedRecordsLeaveNoTrace() {
+        final GaiaSource full = sources.stream().filter(s -> s.getFullAstrometry() != null).findFirst().get();
+        final GaiaSource partial = sources.stream().filter(s -> s.getFullAstrometry() == null).findFirst().get();
+        final GaiaSource invalid = GaiaSource.newBuilder(full).build();
+        invalid.setVarFlag(null);
+        final ColumnarStore<GaiaSource> rejecting = new ColumnarStore<>(GaiaSource.getClassSchema(), 1);
+
+        assertThrows(IllegalArgumentException.class, () -> rejecting.append(invalid));
+        assertEquals(0, rejecting.size());
+        assertEquals(0, rejecting.append(partial));
+        assertFalse(rejecting.nullBitmap("fullAstrometry").isPresent(0));
+        assertEquals(0.0, rejecting.column("fullAstrometry.parallax.value").getDouble(0), 1E-30);
+        assertEquals(partial, rejecting.get(0, null));
+    }
+
+    @Test
+    void invalidLookupsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> store.column("basicAstrometry.ra"));
+        assertThrows(IllegalArgumentException.class, () -> store.column("sourceId", ColumnType.INT));
+        assertThrows(IllegalArgumentException.class, () -> store.nullBitmap("gPhot"));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(sources.size(), null));
+    }
+}
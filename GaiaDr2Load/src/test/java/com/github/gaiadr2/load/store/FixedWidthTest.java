@@ -0,0 +1,127 @@
+package com.github.gaiadr2.load.store;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link FixedWidthWriter} and {@link FixedWidthReader}
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+final class FixedWidthTest {
+
+    private static final int COPIES = 50;
+
+    private final List<GaiaSource> sources = new ArrayList<>();
+    private Path file;
+
+    @BeforeAll
+    void writeFile() throws IOException, URISyntaxException {
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        file = Files.createTempFile("gaia-source", ".rows");
+        try (FixedWidthWriter<GaiaSource> writer = new FixedWidthWriter<>(GaiaSource.getClassSchema(), file)) {
+            for (int i = 0; i < COPIES; i++) {
+                for (final String line : lines.subList(1, lines.size())) {
+                    final GaiaSource source = interpreter.apply(line);
+                    sources.add(source);
+                    assertEquals(sources.size() - 1, writer.append(source));
+                }
+            }
+        }
+        assertFalse(sources.isEmpty());
+    }
+
+    @AfterAll
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void rowsAreReadInAnyOrder() throws IOException {
+        final FixedWidthReader<GaiaSource> reader = new FixedWidthReader<>(file);
+        assertEquals(sources.size(), reader.size());
+        GaiaSource reuse = null;
+        for (int row = sources.size() - 1; row >= 0; row -= 7) {
+            final GaiaSource restored = reader.get(row, reuse);
+            assertEquals(sources.get(row), restored);
+            if (reuse != null) {
+                assertSame(reuse, restored);
+            }
+            reuse = restored;
+        }
+    }
+
+    @Test
+    void segmentedMappingIsTransparent() throws IOException {
+        final FixedWidthReader<GaiaSource> reader = new FixedWidthReader<>(file, 4096);
+        for (int row = 0; row < sources.size(); row++) {
+            assertEquals(sources.get(row), reader.get(row, null));
+        }
+    }
+
+    @Test
+    void viewsReadValuesInPlace() throws IOException {
+        final FixedWidthReader<GaiaSource> reader = new FixedWidthReader<>(file);
+        final RowLayout layout = reader.getLayout();
+        final Slot sourceId = layout.slot("sourceId", ColumnType.LONG);
+        final Slot dec = layout.slot("basicAstrometry.dec.value", ColumnType.DOUBLE);
+        final Slot teff = layout.slot("astrophysicalParameters.effectiveTemperature.value", ColumnType.FLOAT);
+        final NullFlag params = layout.nullFlag("astrophysicalParameters");
+
+        RowView view = null;
+        for (int row = 0; row < sources.size(); row++) {
+            final GaiaSource expected = sources.get(row);
+            view = reader.view(row, view);
+            assertEquals(expected.getSourceId().longValue(), view.getLong(sourceId));
+            assertEquals(expected.getBasicAstrometry().getDec().getValue(), view.getDouble(dec), 1E-30);
+            assertEquals(expected.getAstrophysicalParameters() != null, view.isPresent(params));
+            if (expected.getAstrophysicalParameters() != null) {
+                assertEquals(
+                        expected.getAstrophysicalParameters().getEffectiveTemperature().getValue(),
+                        view.getFloat(teff),
+                        1E-30f);
+            }
+        }
+    }
+
+    @Test
+    void slotsAreAligned() {
+        final RowLayout layout = RowLayout.of(GaiaSource.getClassSchema());
+        assertEquals(0, layout.getRowWidth() % 8);
+        for (final Slot slot : layout.getSlots()) {
+            assertEquals(0, slot.getOffset() % slot.getType().width(), slot.getName());
+        }
+    }
+
+    @Test
+    void invalidInputIsRejected() throws IOException {
+        final FixedWidthReader<GaiaSource> reader = new FixedWidthReader<>(file);
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.get(sources.size(), null));
+        assertThrows(IllegalArgumentException.class, () -> reader.getLayout().slot("sourceId", ColumnType.DOUBLE));
+
+        final Path other = Files.createTempFile("not-rows", ".csv");
+        try {
+            Files.write(other, "source_id,ra,dec\n".getBytes());
+            assertThrows(IOException.class, () -> new FixedWidthReader<GaiaSource>(other));
+        } finally {
+            Files.delete(other);
+        }
+    }
+}
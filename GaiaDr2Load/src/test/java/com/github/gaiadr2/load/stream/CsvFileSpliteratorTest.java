@@ -0,0 +1,191 @@
+package com.github.gaiadr2.load.stream;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link CsvFileSpliterator} and {@link GaiaSources}
+ */
+final class CsvFileSpliteratorTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("spliterator");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void byteRangesNeitherLoseNorRepeatLines() throws IOException {
+        final Path file = write("numbers.csv", 0, 20_000, false);
+        final CsvFileSpliterator<Long> spliterator = new CsvFileSpliterator<>(
+                Collections.singletonList(file), () -> Long::parseLong, true, 64);
+
+        final List<Long> parallel = StreamSupport.stream(spliterator, true).collect(Collectors.toList());
+
+        assertEquals(range(0, 20_000), parallel);
+    }
+
+    @Test
+    void everySplitIsReadInOrder() throws IOException {
+        final Path file = write("numbers.csv", 0, 5_000, false);
+        final List<Spliterator<Long>> splits = new ArrayList<>();
+        splits.add(new CsvFileSpliterator<>(Collections.singletonList(file), () -> Long::parseLong, true, 16));
+        for (int round = 0; round < 6; round++) {
+            final List<Spliterator<Long>> next = new ArrayList<>();
+            for (final Spliterator<Long> split : splits) {
+                final Spliterator<Long> prefix = split.trySplit();
+                if (prefix != null) {
+                    next.add(prefix);
+                }
+                next.add(split);
+            }
+            splits.clear();
+            splits.addAll(next);
+        }
+        assertEquals(64, splits.size());
+
+        final List<Long> read = new ArrayList<>();
+        for (final Spliterator<Long> split : splits) {
+            split.forEachRemaining(read::add);
+        }
+        assertEquals(range(0, 5_000), read);
+    }
+
+    @Test
+    void filesAreSplitOnBoundariesAndCompressedFilesAreRead() throws IOException {
+        write("a.csv", 0, 1_000, false);
+        write("b.csv.gz", 1_000, 2_500, true);
+        write("c.csv", 2_500, 3_000, false);
+        Files.write(directory.resolve("ignored.txt"), Collections.singletonList("not a csv"));
+        final AtomicInteger interpreters = new AtomicInteger();
+
+        final List<Long> read;
+        try (Stream<Long> stream = GaiaSources.stream(directory, () -> {
+            interpreters.incrementAndGet();
+            return (Function<String, Long>) Long::parseLong;
+        })) {
+            read = stream.parallel().collect(Collectors.toList());
+        }
+
+        assertEquals(range(0, 3_000), read);
+        assertTrue(interpreters.get() >= 1);
+    }
+
+    @Test
+    void compressedFileIsNotSplit() throws IOException {
+        final Path file = write("numbers.csv.gz", 0, 10_000, true);
+        final CsvFileSpliterator<Long> spliterator = new CsvFileSpliterator<>(
+                Collections.singletonList(file), () -> Long::parseLong, true, 1);
+
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    void sizeIsEstimatedFromSampledLines() throws IOException {
+        final List<Path> files = Arrays.asList(
+                write("a.csv", 1_000_000, 1_050_000, false), write("b.csv.gz", 1_050_000, 1_100_000, true));
+        final CsvFileSpliterator<Long> spliterator = new CsvFileSpliterator<>(files, () -> Long::parseLong, true);
+
+        final long estimate = spliterator.estimateSize();
+        assertTrue(Math.abs(estimate - 100_000) < 10_000, "Estimate " + estimate);
+
+        final Spliterator<Long> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertTrue(Math.abs(prefix.estimateSize() - 50_000) < 5_000, "Estimate " + prefix.estimateSize());
+        assertTrue(Math.abs(spliterator.estimateSize() - 50_000) < 5_000, "Estimate " + spliterator.estimateSize());
+    }
+
+    @Test
+    void sourcesAreStreamedInParallel() throws Exception {
+        final List<String> lines = Files.readAllLines(
+                Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final List<String> body = lines.subList(1, lines.size());
+        final List<String> big = new ArrayList<>();
+        big.add(lines.get(0));
+        for (int i = 0; i < 200; i++) {
+            big.addAll(body);
+        }
+        final Path file = Files.write(directory.resolve("GaiaSource_1.csv"), big);
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            for (final String line : body) {
+                expected.add(interpreter.apply(line).getSourceId());
+            }
+        }
+        final CsvFileSpliterator<GaiaSource> spliterator = new CsvFileSpliterator<>(
+                Collections.singletonList(file), GaiaSourceInterpreter::new, true, 4096);
+        final ConcurrentHashMap<String, Boolean> threads = new ConcurrentHashMap<>();
+
+        final List<Long> read = StreamSupport.stream(spliterator, true)
+                .peek(source -> threads.put(Thread.currentThread().getName(), true))
+                .map(GaiaSource::getSourceId)
+                .collect(Collectors.toList());
+
+        assertEquals(expected, read);
+        try (Stream<GaiaSource> stream = GaiaSources.stream(directory)) {
+            assertEquals(expected.size(), stream.parallel().filter(source -> source.getSourceId() > 0).count());
+        }
+    }
+
+    private Path write(final String name, final long from, final long to, final boolean compressed)
+            throws IOException {
+        final Path file = directory.resolve(name);
+        try (OutputStream out = compressed
+                ? new GZIPOutputStream(Files.newOutputStream(file))
+                : Files.newOutputStream(file);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write("number\r\n");
+            for (long i = from; i < to; i++) {
+                writer.write(Long.toString(i));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    private static List<Long> range(final long from, final long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+}
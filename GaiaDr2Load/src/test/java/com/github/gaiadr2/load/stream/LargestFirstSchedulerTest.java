@@ -0,0 +1,217 @@
+package com.github.gaiadr2.load.stream;
+
+import com.github.gaiadr2.load.exception.PipelineFailure;
+import com.github.gaiadr2.load.sort.CloseableIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link LargestFirstScheduler}
+ */
+final class LargestFirstSchedulerTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("scheduler");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void planStartsWithLargestTasksAndSplitsOversizedFiles() throws IOException {
+        final Path small = write("a.csv", 0, 100, false);
+        final Path big = write("b.csv", 100, 10_100, false);
+        final Path compressed = write("c.csv.gz", 10_100, 60_100, true);
+        final long maxTaskBytes = Files.size(big) / 3;
+
+        final List<FileTask> plan = new LargestFirstScheduler(4, maxTaskBytes, true)
+                .plan(Arrays.asList(small, big, compressed));
+
+        assertEquals(6, plan.size());
+        for (int i = 1; i < plan.size(); i++) {
+            assertTrue(plan.get(i - 1).getBytes() >= plan.get(i).getBytes(), plan.toString());
+        }
+        final List<FileTask> parts = plan.stream()
+                .filter(task -> task.getPath().equals(big))
+                .sorted(Comparator.comparingInt(FileTask::getPart))
+                .collect(Collectors.toList());
+        assertEquals(4, parts.size());
+        final List<Long> lines = new ArrayList<>();
+        for (final FileTask part : parts) {
+            assertTrue(part.getBytes() <= maxTaskBytes, part.toString());
+            assertEquals(4, part.getParts());
+            lines.addAll(read(part));
+        }
+        assertEquals(range(100, 10_100), lines);
+        assertTrue(plan.stream().anyMatch(task -> task.getPath().equals(compressed) && task.getParts() == 1));
+    }
+
+    @Test
+    void everyTaskIsConvertedOnce() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(write("GaiaSource_" + i + ".csv", i * 1_000, i * 1_000 + 50 * (i + 1), false));
+        }
+        final ConcurrentLinkedQueue<Long> converted = new ConcurrentLinkedQueue<>();
+
+        final ScheduleReport report = new LargestFirstScheduler(3, 2_000, true)
+                .run(files, task -> converted.addAll(read(task)));
+
+        final List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.addAll(range(i * 1_000, i * 1_000 + 50 * (i + 1)));
+        }
+        final List<Long> sorted = new ArrayList<>(converted);
+        Collections.sort(sorted);
+        assertEquals(expected, sorted);
+        assertEquals(3, report.getThreads());
+        assertTrue(report.getTimings().size() > files.size());
+        assertTrue(report.getUtilization() >= 0.0 && report.getUtilization() <= 1.0, report.toString());
+        final long firstIdle = report.getElapsedNanos() - report.getTailNanos();
+        for (final TaskTiming timing : report.getTimings()) {
+            assertTrue(timing.getStartNanos() <= timing.getEndNanos(), timing.toString());
+            assertTrue(timing.getStartNanos() <= firstIdle, timing.toString());
+        }
+        for (final TaskTiming straggler : report.getStragglers()) {
+            assertTrue(straggler.getEndNanos() > firstIdle, straggler.toString());
+        }
+        assertTrue(report.getDurationQuantileNanos(0.5) <= report.getDurationQuantileNanos(1.0));
+    }
+
+    @Test
+    void failureStopsTheRun() throws IOException {
+        final List<Path> files = Arrays.asList(write("a.csv", 0, 10, false), write("b.csv", 0, 1_000, false));
+        final IllegalStateException cause = new IllegalStateException("disk full");
+
+        final PipelineFailure failure = assertThrows(PipelineFailure.class,
+                () -> new LargestFirstScheduler(1, LargestFirstScheduler.NO_SPLIT, true).run(files, task -> {
+                    throw cause;
+                }));
+
+        assertSame(cause, failure.getCause());
+        assertTrue(failure.getMessage().contains("b.csv"), failure.getMessage());
+    }
+
+    @Test
+    void interruptedRunReturnsOnceNoTaskIsRunning() throws IOException, InterruptedException {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(write("GaiaSource_" + i + ".csv", i * 10, i * 10 + 10, false));
+        }
+        final CountDownLatch converting = new CountDownLatch(2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final AtomicInteger runningOnReturn = new AtomicInteger(-1);
+        final Thread runner = new Thread(() -> {
+            try {
+                new LargestFirstScheduler(2, LargestFirstScheduler.NO_SPLIT, true).run(files, task -> {
+                    running.incrementAndGet();
+                    started.incrementAndGet();
+                    converting.countDown();
+                    // A conversion that does not notice the interrupt, and clears it
+                    final long end = System.nanoTime() + 20_000_000L;
+                    while (System.nanoTime() < end) {
+                        Thread.yield();
+                    }
+                    Thread.interrupted();
+                    running.decrementAndGet();
+                });
+            } catch (final Throwable e) {
+                runningOnReturn.set(running.get());
+                thrown.set(e);
+            }
+        });
+        runner.start();
+
+        converting.await();
+        runner.interrupt();
+        runner.join(10_000);
+
+        assertTrue(thrown.get() instanceof PipelineFailure, String.valueOf(thrown.get()));
+        assertEquals(0, runningOnReturn.get());
+        assertTrue(started.get() < files.size(), String.valueOf(started.get()));
+    }
+
+    @Test
+    void emptyRunReportsNothing() {
+        final ScheduleReport report = new LargestFirstScheduler(2, LargestFirstScheduler.NO_SPLIT, true)
+                .runPlan(Collections.emptyList(), task -> {
+                });
+
+        assertTrue(report.getTimings().isEmpty());
+        assertTrue(report.getStragglers().isEmpty());
+        assertFalse(report.toString().isEmpty());
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LargestFirstScheduler(0, 1, true));
+        assertThrows(IllegalArgumentException.class, () -> new LargestFirstScheduler(1, 0, true));
+    }
+
+    private static List<Long> read(final FileTask task) throws IOException {
+        final List<Long> lines = new ArrayList<>();
+        try (CloseableIterator<String> iterator = task.lines()) {
+            iterator.forEachRemaining(line -> lines.add(Long.parseLong(line)));
+        }
+        return lines;
+    }
+
+    private Path write(final String name, final long from, final long to, final boolean compressed)
+            throws IOException {
+        final Path file = directory.resolve(name);
+        try (OutputStream out = compressed
+                ? new GZIPOutputStream(Files.newOutputStream(file))
+                : Files.newOutputStream(file);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write("number\n");
+            for (long i = from; i < to; i++) {
+                writer.write(Long.toString(i));
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    private static List<Long> range(final long from, final long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+}
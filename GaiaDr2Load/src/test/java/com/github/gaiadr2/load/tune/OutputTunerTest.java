@@ -0,0 +1,168 @@
+package com.github.gaiadr2.load.tune;
+
+import com.github.gaiadr2.avro.io.GaiaSourceDatumReader;
+import com.github.gaiadr2.avro.io.GaiaSourceDatumWriter;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.avro.vari.ShortTimeScale;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import com.github.gaiadr2.load.interpreters.ShortTimeScaleInterpreter;
+import org.apache.avro.file.DataFileConstants;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link OutputTuner}
+ */
+final class OutputTunerTest {
+
+    private static final List<OutputSettings> CANDIDATES = Arrays.asList(
+            OutputSettings.avro("null", 64_000),
+            OutputSettings.avro("deflate-9", 64_000),
+            OutputSettings.avro("snappy", 1 << 20),
+            OutputSettings.parquet(CompressionCodecName.UNCOMPRESSED, 1 << 20),
+            OutputSettings.parquet(CompressionCodecName.GZIP, 1 << 20));
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("tuning");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void everyCandidateIsMeasuredAndItsFilesDeleted() throws Exception {
+        final List<GaiaSource> sample = sources(600);
+
+        final TuningReport report = OutputTuner.gaiaSource(directory, 2).run(sample, CANDIDATES, Objective.SMALLEST);
+
+        assertEquals(CANDIDATES.size(), report.getMeasurements().size());
+        for (int i = 0; i < CANDIDATES.size(); i++) {
+            final OutputMeasurement measurement = report.getMeasurements().get(i);
+            assertEquals(CANDIDATES.get(i), measurement.getSettings());
+            assertEquals(600, measurement.getRecords());
+            assertTrue(measurement.getBytes() > 0 && measurement.getWriteNanos() > 0 && measurement.getReadNanos() > 0,
+                    measurement.toString());
+        }
+        final OutputMeasurement uncompressed = report.getMeasurements().get(0);
+        final OutputMeasurement deflated = report.getMeasurements().get(1);
+        assertTrue(deflated.getBytes() < uncompressed.getBytes(), report.toString());
+        assertTrue(report.getBest().getBytes() <= deflated.getBytes(), report.toString());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void recommendedSettingsOpenTheWriters() throws Exception {
+        final List<GaiaSource> sample = sources(60);
+        final TuningReport report = OutputTuner.gaiaSource(directory, 1)
+                .run(sample, CANDIDATES.subList(0, 3), Objective.SMALLEST);
+        final Path file = directory.resolve("part-0.avro");
+        assertEquals(CANDIDATES.get(1), report.getRecommended());
+
+        final GaiaSourceDatumWriter datumWriter = new GaiaSourceDatumWriter();
+        datumWriter.setSchema(GaiaSource.getClassSchema());
+        try (DataFileWriter<GaiaSource> writer =
+                     report.getRecommended().openAvro(datumWriter, GaiaSource.getClassSchema(), file)) {
+            for (final GaiaSource source : sample) {
+                writer.append(source);
+            }
+        }
+
+        try (DataFileReader<GaiaSource> reader = new DataFileReader<>(file.toFile(), new GaiaSourceDatumReader())) {
+            assertEquals(DataFileConstants.DEFLATE_CODEC, reader.getMetaString(DataFileConstants.CODEC));
+            final List<GaiaSource> read = new ArrayList<>();
+            reader.forEach(read::add);
+            assertEquals(sample, read);
+        }
+    }
+
+    @Test
+    void variabilityRecordsWithArraysAreMeasured() throws Exception {
+        final ShortTimeScaleInterpreter interpreter = new ShortTimeScaleInterpreter();
+        final List<ShortTimeScale> sample = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sample.add(interpreter.apply("1635378410781933568," + i + ",0.35,40,0.8,3,"
+                    + "\"(0.1,1.0,10.0)\",\"(0.01,0.02,0.03)\",0.5"));
+        }
+
+        final TuningReport report = OutputTuner.of(ShortTimeScale.class, directory, 1)
+                .run(sample, CANDIDATES, Objective.FASTEST_READ);
+
+        assertEquals(CANDIDATES.size(), report.getMeasurements().size());
+        for (final OutputMeasurement measurement : report.getMeasurements()) {
+            assertTrue(report.getBest().getReadNanos() <= measurement.getReadNanos(), report.toString());
+        }
+    }
+
+    @Test
+    void objectivesPickTheirBestMeasurement() {
+        final OutputMeasurement small = measurement("deflate-9", 100, 900, 300);
+        final OutputMeasurement fastWrite = measurement("null", 400, 100, 110);
+        final OutputMeasurement fastRead = measurement("snappy", 200, 200, 100);
+        final List<OutputMeasurement> measurements = Arrays.asList(small, fastWrite, fastRead);
+
+        assertEquals(small, Objective.SMALLEST.choose(measurements));
+        assertEquals(fastWrite, Objective.FASTEST_WRITE.choose(measurements));
+        assertEquals(fastRead, Objective.FASTEST_READ.choose(measurements));
+        // 2 + 2 + 1 for snappy, against 1 + 9 + 3 and 4 + 1 + 1.1
+        assertEquals(fastRead, Objective.BALANCED.choose(measurements));
+        assertThrows(IllegalArgumentException.class, () -> Objective.BALANCED.choose(new ArrayList<>()));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OutputSettings.avro("deflate-10", 64_000));
+        assertThrows(IllegalArgumentException.class, () -> OutputSettings.avro("snappy", 16));
+        assertThrows(IllegalArgumentException.class, () -> OutputSettings.parquet(CompressionCodecName.SNAPPY, 0));
+        assertThrows(IllegalStateException.class, () -> OutputSettings.avro("snappy", 64_000)
+                .openParquet(GaiaSource.getClassSchema(), directory.resolve("part.parquet")));
+        assertEquals(18, OutputSettings.defaultMatrix().size());
+    }
+
+    private static OutputMeasurement measurement(final String codec,
+                                                 final long bytes,
+                                                 final long writeNanos,
+                                                 final long readNanos) {
+        return new OutputMeasurement(OutputSettings.avro(codec, 64_000), 10, bytes, writeNanos, readNanos);
+    }
+
+    private List<GaiaSource> sources(final int count) throws Exception {
+        final List<String> lines = Files.readAllLines(
+                Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        final List<GaiaSource> sources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sources.add(interpreter.apply(lines.get(1 + i % (lines.size() - 1))));
+        }
+        return sources;
+    }
+}
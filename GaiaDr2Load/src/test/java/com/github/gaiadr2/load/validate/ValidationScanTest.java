@@ -0,0 +1,134 @@
+package com.github.gaiadr2.load.validate;
+
+import com.github.gaiadr2.load.csv.specs.GaiaSourceSpec;
+import com.github.gaiadr2.load.stream.LargestFirstScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link ValidationScan}
+ */
+final class ValidationScanTest {
+
+    private Path directory;
+    private String header;
+    private List<String> lines;
+
+    @BeforeEach
+    void createDirectory() throws IOException, URISyntaxException {
+        directory = Files.createTempDirectory("validation");
+        final List<String> all = Files.readAllLines(
+                Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        header = all.get(0);
+        lines = all.subList(1, all.size());
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void violationsAreReportedByFileAndColumn() throws IOException {
+        final List<String> corrupted = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            corrupted.addAll(lines);
+            corrupted.add(replace(lines.get(i % lines.size()), GaiaSourceSpec.Ra, "north"));
+        }
+        corrupted.add(replace(lines.get(0), GaiaSourceSpec.PhotProcMode, "9"));
+        corrupted.add("1,2,3");
+        final Path valid = write("GaiaSource_1.csv.gz", repeat(50), true);
+        final Path invalid = write("GaiaSource_2.csv", corrupted, false);
+
+        final ValidationReport<GaiaSourceSpec> report = new ValidationScan(2, Files.size(invalid) / 4)
+                .run(Arrays.asList(invalid, valid));
+
+        assertFalse(report.isValid());
+        assertEquals(Arrays.asList(valid, invalid), new ArrayList<>(report.getFiles().keySet()));
+        final ColumnViolations<GaiaSourceSpec> good = report.getFiles().get(valid);
+        assertTrue(good.isValid());
+        assertEquals(50L * lines.size(), good.getLines());
+        final ColumnViolations<GaiaSourceSpec> bad = report.getFiles().get(invalid);
+        assertEquals(corrupted.size(), bad.getLines());
+        assertEquals(102, bad.getInvalidLines());
+        assertEquals(1, bad.getMalformedLines());
+        assertEquals(100, bad.count(GaiaSourceSpec.Ra));
+        assertEquals(1, bad.count(GaiaSourceSpec.PhotProcMode));
+        assertEquals(2, bad.getCounts().size());
+        assertEquals(good.getLines() + bad.getLines(), report.getTotal().getLines());
+        assertEquals(100, report.getTotal().count(GaiaSourceSpec.Ra));
+        assertEquals(Files.size(valid) + Files.size(invalid), report.getBytes());
+        final String summary = report.toString();
+        assertTrue(summary.contains("Ra: 100, e.g. Column 5 [Ra] should have been double, but was: north"),
+                summary);
+        assertFalse(summary.contains(valid.toString()), summary);
+    }
+
+    @Test
+    void validDropPasses() throws IOException {
+        final Path file = write("GaiaSource_1.csv", repeat(10), false);
+
+        final ValidationReport<GaiaSourceSpec> report = new ValidationScan(1, LargestFirstScheduler.NO_SPLIT)
+                .run(Arrays.asList(file));
+
+        assertTrue(report.isValid());
+        assertEquals(10L * lines.size(), report.getTotal().getLines());
+        assertEquals(1, report.toString().split("\n").length);
+    }
+
+    private List<String> repeat(final int times) {
+        final List<String> repeated = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            repeated.addAll(lines);
+        }
+        return repeated;
+    }
+
+    private static String replace(final String line, final GaiaSourceSpec column, final String value) {
+        final String[] tokens = line.split(",", -1);
+        tokens[column.ordinal()] = value;
+        return String.join(",", tokens);
+    }
+
+    private Path write(final String name, final List<String> content, final boolean compressed) throws IOException {
+        final Path file = directory.resolve(name);
+        try (OutputStream out = compressed
+                ? new GZIPOutputStream(Files.newOutputStream(file))
+                : Files.newOutputStream(file);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(header);
+            writer.write('\n');
+            for (final String line : content) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+}
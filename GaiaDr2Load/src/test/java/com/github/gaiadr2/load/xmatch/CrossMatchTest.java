@@ -0,0 +1,194 @@
+package com.github.gaiadr2.load.xmatch;
+
+import com.github.gaiadr2.avro.common.Dval;
+import com.github.gaiadr2.avro.source.CoreAstro;
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link CrossMatch}, against a brute force match
+ */
+final class CrossMatchTest {
+
+    private static final double RADIUS = 5.0;
+
+    private final List<GaiaSource> sources = new ArrayList<>();
+    private final List<Target> targets = new ArrayList<>();
+    private final List<Path> files = new ArrayList<>();
+    private Path directory;
+
+    @BeforeEach
+    void writeSources() throws Exception {
+        directory = Files.createTempDirectory("xmatch");
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final GaiaSource template = new GaiaSourceInterpreter().apply(lines.get(1));
+        final Random random = new Random(17);
+        // Dense fields on the equator, across right ascension zero, and around the north pole
+        final double[][] fields = {{10.0, 0.0}, {0.0, 30.0}, {0.0, 89.99}};
+        for (int i = 0; i < 3_000; i++) {
+            final double[] field = fields[i % fields.length];
+            final double[] position = near(random, field[0], field[1], 0.02);
+            final long sourceId = (long) Healpix.pixel(12, position[0], position[1]) << 35 | i;
+            sources.add(GaiaSource.newBuilder(template)
+                    .setSourceId(sourceId)
+                    .setBasicAstrometry(CoreAstro.newBuilder(template.getBasicAstrometry())
+                            .setRa(new Dval(position[0], 0.1))
+                            .setDec(new Dval(position[1], 0.1))
+                            .build())
+                    .build());
+        }
+        sources.sort(Comparator.comparingLong(GaiaSource::getSourceId));
+        for (int i = 0; i < 1_500; i++) {
+            final double[] field = fields[i % fields.length];
+            final double[] position = near(random, field[0], field[1], 0.02);
+            targets.add(new Target(1_000_000L + i, position[0], position[1]));
+        }
+        write(directory.resolve("first.avro"), sources.subList(0, sources.size() / 2));
+        write(directory.resolve("second.avro"), sources.subList(sources.size() / 2, sources.size()));
+    }
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            final List<Path> all = new ArrayList<>();
+            paths.forEach(all::add);
+            for (int i = all.size() - 1; i >= 0; i--) {
+                Files.delete(all.get(i));
+            }
+        }
+    }
+
+    @Test
+    void allMatchesAreFound() throws IOException {
+        final Map<String, Double> expected = bruteForce();
+        final List<Match> matches = new ArrayList<>();
+
+        final long count = CrossMatch.all(RADIUS, 1L << 26).run(targets.iterator(), files, matches::add);
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected.size(), matches.size());
+        assertTrue(count > 300);
+        for (final Match match : matches) {
+            final Double separation = expected.get(match.getTargetId() + " " + match.getSourceId());
+            assertTrue(separation != null, "Unexpected match " + match);
+            assertEquals(separation, match.getSeparation(), 1E-9);
+            assertTrue(match.getSeparation() <= RADIUS);
+        }
+    }
+
+    @Test
+    void bestMatchesAreFoundWithinTheMemoryBudget() throws IOException {
+        final Map<String, Double> all = bruteForce();
+        final Map<Long, Match> expected = new HashMap<>();
+        for (final Map.Entry<String, Double> entry : all.entrySet()) {
+            final long[] ids = Arrays.stream(entry.getKey().split(" ")).mapToLong(Long::parseLong).toArray();
+            final Match current = expected.get(ids[0]);
+            if (current == null || current.getSeparation() > entry.getValue()) {
+                expected.put(ids[0], new Match(ids[0], ids[1], entry.getValue()));
+            }
+        }
+        // Chunks of 500 targets
+        final long budget = (long) CrossMatch.BATCH_SIZE * GaiaPositions.BYTES_PER_SOURCE
+                + 500L * TargetBuckets.BYTES_PER_TARGET;
+        final CrossMatch crossMatch = CrossMatch.best(RADIUS, budget);
+        final List<Match> matches = new ArrayList<>();
+
+        crossMatch.run(targets.iterator(), files, matches::add);
+
+        assertEquals(500, crossMatch.getChunkSize());
+        assertEquals(expected.size(), matches.size());
+        long previous = Long.MIN_VALUE;
+        for (final Match match : matches) {
+            assertTrue(match.getTargetId() > previous, "Matches follow the input order");
+            previous = match.getTargetId();
+            assertEquals(expected.get(match.getTargetId()).getSourceId(), match.getSourceId());
+            assertEquals(expected.get(match.getTargetId()).getSeparation(), match.getSeparation(), 1E-9);
+        }
+    }
+
+    @Test
+    void levelFollowsTheRadius() {
+        assertEquals(12, CrossMatch.level(1.0));
+        assertEquals(12, CrossMatch.level(RADIUS));
+        assertEquals(6, CrossMatch.level(600.0));
+        assertEquals(0, CrossMatch.level(36_000.0));
+        assertThrows(IllegalArgumentException.class, () -> CrossMatch.all(0.0, 1L << 26));
+        assertThrows(IllegalArgumentException.class, () -> CrossMatch.all(360_000.0, 1L << 26));
+        assertThrows(IllegalArgumentException.class, () -> CrossMatch.best(1.0, 1_000L));
+        assertThrows(IllegalArgumentException.class, () -> CrossMatch.best(1.0, 1L << 26)
+                .run(Arrays.asList(new Target(1L, 0.0, 91.0)).iterator(), files, match -> { }));
+    }
+
+    /**
+     * @return Separation [arcsec] by target and source identifiers
+     */
+    private Map<String, Double> bruteForce() {
+        final Map<String, Double> matches = new HashMap<>();
+        for (final Target target : targets) {
+            for (final GaiaSource source : sources) {
+                final double separation = separation(target.getRa(), target.getDec(),
+                        source.getBasicAstrometry().getRa().getValue(), source.getBasicAstrometry().getDec().getValue());
+                if (separation <= RADIUS) {
+                    matches.put(target.getId() + " " + source.getSourceId(), separation);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return Haversine separation [arcsec]
+     */
+    private static double separation(final double ra1, final double dec1, final double ra2, final double dec2) {
+        final double sinDec = Math.sin(Math.toRadians(dec2 - dec1) / 2.0);
+        final double sinRa = Math.sin(Math.toRadians(ra2 - ra1) / 2.0);
+        final double h = sinDec * sinDec
+                + Math.cos(Math.toRadians(dec1)) * Math.cos(Math.toRadians(dec2)) * sinRa * sinRa;
+        return Math.toDegrees(2.0 * Math.asin(Math.sqrt(h))) * 3600.0;
+    }
+
+    /**
+     * @return Random position within a box around a direction, wrapped in right ascension and declination
+     */
+    private static double[] near(final Random random, final double ra, final double dec, final double size) {
+        double newDec = dec + size * (2.0 * random.nextDouble() - 1.0);
+        double newRa = ra + size * (2.0 * random.nextDouble() - 1.0) / Math.cos(Math.toRadians(dec));
+        if (newDec > 90.0) {
+            newDec = 180.0 - newDec;
+            newRa += 180.0;
+        }
+        return new double[]{(newRa % 360.0 + 360.0) % 360.0, newDec};
+    }
+
+    private void write(final Path file, final List<GaiaSource> records) throws IOException {
+        try (DataFileWriter<GaiaSource> writer = new DataFileWriter<>(new SpecificDatumWriter<>(GaiaSource.class))) {
+            writer.create(GaiaSource.getClassSchema(), file.toFile());
+            for (final GaiaSource record : records) {
+                writer.append(record);
+            }
+        }
+        files.add(file);
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.gaiadr2.load.xmatch;
+
+import com.github.gaiadr2.avro.source.GaiaSource;
+import com.github.gaiadr2.load.interpreters.GaiaSourceInterpreter;
+import com.github.gaiadr2.load.stats.HealpixMaps;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link Healpix}
+ */
+final class HealpixTest {
+
+    @Test
+    void pixelsMatchTheSourceIdentifiers() throws Exception {
+        final List<String> lines = Files.readAllLines(Paths.get(getClass().getResource("/GaiaSource_valid.csv").toURI()));
+        final GaiaSourceInterpreter interpreter = new GaiaSourceInterpreter();
+        for (final String line : lines.subList(1, lines.size())) {
+            final GaiaSource source = interpreter.apply(line);
+            final double ra = source.getBasicAstrometry().getRa().getValue();
+            final double dec = source.getBasicAstrometry().getDec().getValue();
+            for (int level = 0; level <= HealpixMaps.MAX_LEVEL; level++) {
+                assertEquals(HealpixMaps.pixel(source.getSourceId(), level), Healpix.pixel(level, ra, dec));
+            }
+        }
+    }
+
+    @Test
+    void facesOfTheBasePixels() {
+        assertEquals(0, Healpix.pixel(0, 45.0, 60.0));
+        assertEquals(4, Healpix.pixel(0, 0.0, 0.0));
+        assertEquals(5, Healpix.pixel(0, 90.0, 0.0));
+        assertEquals(8, Healpix.pixel(0, 45.0, -60.0));
+        assertEquals(11, Healpix.pixel(0, 315.0, -60.0));
+        assertThrows(IllegalArgumentException.class, () -> Healpix.pixel(13, 0.0, 0.0));
+    }
+
+    @Test
+    void neighboursAreSymmetric() {
+        final int[] neighbours = new int[8];
+        final int[] back = new int[8];
+        for (int level = 1; level <= 4; level++) {
+            for (int pixel = 0; pixel < HealpixMaps.pixels(level); pixel++) {
+                final int count = Healpix.neighbours(level, pixel, neighbours);
+                assertTrue(count == 7 || count == 8, "Pixel " + pixel + " has " + count + " neighbours");
+                for (int n = 0; n < count; n++) {
+                    final int backCount = Healpix.neighbours(level, neighbours[n], back);
+                    boolean found = false;
+                    for (int b = 0; b < backCount; b++) {
+                        found |= back[b] == pixel;
+                    }
+                    assertTrue(found, "Pixel " + pixel + " is not a neighbour of " + neighbours[n]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void directionsWithinTheRadiusOfTheLevelAreInNeighbouringPixels() {
+        final Random random = new Random(5);
+        final int[] neighbours = new int[8];
+        for (int level = 1; level <= HealpixMaps.MAX_LEVEL; level++) {
+            final double radius = 0.999 * maximumRadius(level);
+            assertEquals(level, CrossMatch.level(radius));
+            for (int i = 0; i < 20_000; i++) {
+                final double ra = 360.0 * random.nextDouble();
+                final double dec = i % 4 == 0
+                        ? Math.copySign(90.0 - 0.01 * random.nextDouble(), random.nextGaussian())
+                        : Math.toDegrees(Math.asin(2.0 * random.nextDouble() - 1.0));
+                final double[] offset = offset(ra, dec, radius / 3600.0, 2.0 * Math.PI * random.nextDouble());
+                final int pixel = Healpix.pixel(level, ra, dec);
+                final int other = Healpix.pixel(level, offset[0], offset[1], offset[2]);
+                final int count = Healpix.neighbours(level, pixel, neighbours);
+                boolean found = other == pixel;
+                for (int n = 0; n < count; n++) {
+                    found |= neighbours[n] == other;
+                }
+                assertTrue(found, "Level " + level + ": " + ra + ", " + dec);
+            }
+        }
+    }
+
+    /**
+     * @return Largest radius of the level [arcsec]
+     */
+    private static double maximumRadius(final int level) {
+        double low = 1E-3;
+        double high = 1E6;
+        while (high - low > 1E-9 * high) {
+            final double middle = (low + high) / 2.0;
+            if (CrossMatch.level(middle) >= level) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return Unit vector at a distance and position angle from a direction
+     */
+    private static double[] offset(final double ra, final double dec, final double distance, final double angle) {
+        final double alpha = Math.toRadians(ra);
+        final double delta = Math.toRadians(dec);
+        final double rho = Math.toRadians(distance);
+        final double[] r = {Math.cos(delta) * Math.cos(alpha), Math.cos(delta) * Math.sin(alpha), Math.sin(delta)};
+        final double[] p = {-Math.sin(alpha), Math.cos(alpha), 0.0};
+        final double[] q = {-Math.sin(delta) * Math.cos(alpha), -Math.sin(delta) * Math.sin(alpha), Math.cos(delta)};
+        final double[] result = new double[3];
+        for (int k = 0; k < 3; k++) {
+            result[k] = r[k] * Math.cos(rho) + (p[k] * Math.sin(angle) + q[k] * Math.cos(angle)) * Math.sin(rho);
+        }
+        return result;
+    }
+}